@@ -17,6 +17,7 @@ package org.wso2.siddhi.core;
 import org.wso2.siddhi.core.config.ExecutionPlanContext;
 import org.wso2.siddhi.core.exception.DefinitionNotExistException;
 import org.wso2.siddhi.core.exception.QueryNotExistException;
+import org.wso2.siddhi.core.executor.condition.OperandOrder;
 import org.wso2.siddhi.core.util.extension.holder.EternalReferencedHolder;
 import org.wso2.siddhi.core.partition.PartitionRuntime;
 import org.wso2.siddhi.core.query.QueryRuntime;
@@ -31,13 +32,17 @@ import org.wso2.siddhi.core.stream.input.InputHandler;
 import org.wso2.siddhi.core.stream.input.InputManager;
 import org.wso2.siddhi.core.stream.output.StreamCallback;
 import org.wso2.siddhi.core.table.EventTable;
+import org.wso2.siddhi.core.util.SiddhiConstants;
 import org.wso2.siddhi.core.util.parser.FunctionParser;
 import org.wso2.siddhi.core.util.parser.helper.DefinitionParserHelper;
+import org.wso2.siddhi.query.api.annotation.Element;
 import org.wso2.siddhi.query.api.definition.AbstractDefinition;
 import org.wso2.siddhi.query.api.definition.FunctionDefinition;
 import org.wso2.siddhi.query.api.definition.StreamDefinition;
 import org.wso2.siddhi.query.api.definition.TableDefinition;
+import org.wso2.siddhi.query.api.util.AnnotationHelper;
 
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
@@ -83,11 +88,14 @@ public class ExecutionPlanRuntime {
     public String addQuery(QueryRuntime queryRuntime) {
         queryProcessorMap.put(queryRuntime.getQueryId(), queryRuntime);
         StreamRuntime streamRuntime = queryRuntime.getStreamRuntime();
+        Element receiverGroup = AnnotationHelper.getAnnotationElement(SiddhiConstants.ANNOTATION_CONFIG,
+                SiddhiConstants.ANNOTATION_ELEMENT_RECEIVER_GROUP, queryRuntime.getQuery().getAnnotations());
 
         for (SingleStreamRuntime singleStreamRuntime : streamRuntime.getSingleStreamRuntimes()) {
             ProcessStreamReceiver processStreamReceiver = singleStreamRuntime.getProcessStreamReceiver();
             if (!processStreamReceiver.toTable()) {
-                streamJunctionMap.get(processStreamReceiver.getStreamId()).subscribe(processStreamReceiver);
+                streamJunctionMap.get(processStreamReceiver.getStreamId()).subscribe(processStreamReceiver,
+                        receiverGroup == null ? null : receiverGroup.getValue());
             }
         }
 
@@ -104,7 +112,7 @@ public class ExecutionPlanRuntime {
             if (outputStreamJunction == null) {
                 outputStreamJunction = new StreamJunction(streamDefinition,
                         executionPlanContext.getExecutorService(),
-                        executionPlanContext.getSiddhiContext().getEventBufferSize(), executionPlanContext);
+                        executionPlanContext.getDisruptorConfig().getBufferSize(), executionPlanContext);
                 streamJunctionMap.putIfAbsent(streamDefinition.getId(), outputStreamJunction);
             }
             insertIntoStreamCallback.init(streamJunctionMap.get(insertIntoStreamCallback.getOutputStreamDefinition().getId()));
@@ -121,7 +129,7 @@ public class ExecutionPlanRuntime {
         }
         streamCallback.setStreamDefinition(streamDefinitionMap.get(streamId));
         streamCallback.setContext(executionPlanContext);
-        streamJunction.subscribe(streamCallback);
+        streamJunction.subscribe(streamCallback, streamCallback.getReceiverGroup());
     }
 
     public void addCallback(String queryName, QueryCallback callback) {
@@ -134,6 +142,39 @@ public class ExecutionPlanRuntime {
         queryRuntime.addCallback(callback);
     }
 
+    /**
+     * @param queryName name of the query
+     * @return the orders the and/or conditions of the query currently evaluate their operands in
+     */
+    public List<OperandOrder> getOperandOrders(String queryName) {
+        return getQueryRuntime(queryName).getOperandOrders();
+    }
+
+    /**
+     * @param queryName name of the query
+     * @return number of filter conditions, having conditions and projections of the query that are evaluated
+     * through compiled classes
+     */
+    public int getCompiledExpressionCount(String queryName) {
+        return getQueryRuntime(queryName).getCompiledExpressionCount();
+    }
+
+    /**
+     * @param queryName name of the query
+     * @return number of aggregators of the query expiring the values of its time window by themselves
+     */
+    public int getSlidingAggregatorCount(String queryName) {
+        return getQueryRuntime(queryName).getSlidingAggregatorCount();
+    }
+
+    private QueryRuntime getQueryRuntime(String queryName) {
+        QueryRuntime queryRuntime = queryProcessorMap.get(queryName);
+        if (queryRuntime == null) {
+            throw new QueryNotExistException("No query found with name: " + queryName);
+        }
+        return queryRuntime;
+    }
+
     public InputHandler getInputHandler(String streamId) {
         return inputManager.getInputHandler(streamId);
     }
@@ -163,10 +204,16 @@ public class ExecutionPlanRuntime {
             eternalReferencedHolder.stop();
         }
         inputManager.stopProcessing();
-        executionPlanContext.getScheduledExecutorService().shutdownNow();
+        // The junction rings are drained by the consumer threads, hence the executors are released only after
         for (StreamJunction streamJunction : streamJunctionMap.values()) {
             streamJunction.stopProcessing();
         }
+        if (executionPlanContext.getTimerWheel() != null) {
+            executionPlanContext.getTimerWheel().shutdown();
+        }
+        executionPlanContext.getSiddhiContext().getExecutorServiceProvider().release(executionPlanContext.getName(),
+                executionPlanContext.getExecutorService(), executionPlanContext.getScheduledExecutorService());
+        executionPlanContext.releaseExpressionCompiler();
     }
 
     public String getName() {
@@ -184,7 +231,7 @@ public class ExecutionPlanRuntime {
     }
 
     public void enableStatistics(){
-        ExecutionPlanContext.statEnable = true;
+        executionPlanContext.setStatsEnabled(true);
     }
 
     public String persist() {
@@ -80,4 +80,12 @@ public class SiddhiManager {
 
     }
 
+    /**
+     * Release the threads shared among the execution plans, to be called after shutting down the execution plans
+     */
+    public void shutdown() {
+        executionPlanRuntimeMap.clear();
+        siddhiContext.getExecutorServiceProvider().shutdown();
+    }
+
 }
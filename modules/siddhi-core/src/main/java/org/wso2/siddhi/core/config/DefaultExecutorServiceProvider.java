@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.config;
+
+import org.wso2.siddhi.core.util.SiddhiThreadFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Provides executors according to a {@link ThreadingConfig}. Threads are named
+ * {@code <thread group>-<execution plan>-consumer-<n>} and {@code <thread group>-<execution plan>-scheduler-<n>},
+ * or without the execution plan name when the executors are shared.
+ */
+public class DefaultExecutorServiceProvider implements ExecutorServiceProvider {
+
+    private final ThreadingConfig threadingConfig;
+    private final ThreadGroup threadGroup;
+    private ExecutorService sharedExecutorService;
+    private ScheduledExecutorService sharedScheduledExecutorService;
+
+    public DefaultExecutorServiceProvider(ThreadingConfig threadingConfig) {
+        this.threadingConfig = threadingConfig;
+        this.threadGroup = new ThreadGroup(threadingConfig.getThreadGroupName());
+    }
+
+    @Override
+    public synchronized ExecutorService getExecutorService(String executionPlanName) {
+        if (threadingConfig.isSharedExecutors()) {
+            if (sharedExecutorService == null) {
+                sharedExecutorService = createExecutorService(threadingConfig.getThreadGroupName() + "-consumer");
+            }
+            return sharedExecutorService;
+        }
+        return createExecutorService(threadingConfig.getThreadGroupName() + "-" + executionPlanName + "-consumer");
+    }
+
+    @Override
+    public synchronized ScheduledExecutorService getScheduledExecutorService(String executionPlanName) {
+        if (threadingConfig.isSharedExecutors()) {
+            if (sharedScheduledExecutorService == null) {
+                sharedScheduledExecutorService = createScheduledExecutorService(
+                        threadingConfig.getThreadGroupName() + "-scheduler");
+            }
+            return sharedScheduledExecutorService;
+        }
+        return createScheduledExecutorService(threadingConfig.getThreadGroupName() + "-" + executionPlanName +
+                "-scheduler");
+    }
+
+    @Override
+    public synchronized void release(String executionPlanName, ExecutorService executorService,
+                                     ScheduledExecutorService scheduledExecutorService) {
+        if (executorService != null && executorService != sharedExecutorService) {
+            executorService.shutdown();
+        }
+        if (scheduledExecutorService != null && scheduledExecutorService != sharedScheduledExecutorService) {
+            scheduledExecutorService.shutdownNow();
+        }
+    }
+
+    @Override
+    public synchronized void shutdown() {
+        if (sharedExecutorService != null) {
+            sharedExecutorService.shutdownNow();
+            sharedExecutorService = null;
+        }
+        if (sharedScheduledExecutorService != null) {
+            sharedScheduledExecutorService.shutdownNow();
+            sharedScheduledExecutorService = null;
+        }
+    }
+
+    private ExecutorService createExecutorService(final String namePrefix) {
+        SiddhiThreadFactory threadFactory = new SiddhiThreadFactory(threadGroup, namePrefix,
+                threadingConfig.getThreadAffinity(), threadingConfig.getAffinityCpuIds());
+        final int maxConsumerThreads = threadingConfig.getMaxConsumerThreads();
+        if (maxConsumerThreads == 0) {
+            return new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60L, TimeUnit.SECONDS,
+                    new SynchronousQueue<Runnable>(), threadFactory);
+        }
+        // a queued consumer would never run as the running ones hold their threads, hence fail fast
+        return new ThreadPoolExecutor(0, maxConsumerThreads, 60L, TimeUnit.SECONDS,
+                new SynchronousQueue<Runnable>(), threadFactory, new RejectedExecutionHandler() {
+            @Override
+            public void rejectedExecution(Runnable runnable, ThreadPoolExecutor executor) {
+                throw new RejectedExecutionException("All the " + maxConsumerThreads + " consumer threads of '" +
+                        namePrefix + "' are in use");
+            }
+        });
+    }
+
+    private ScheduledExecutorService createScheduledExecutorService(String namePrefix) {
+        return new ScheduledThreadPoolExecutor(threadingConfig.getSchedulerThreads(),
+                new SiddhiThreadFactory(threadGroup, namePrefix));
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.config;
+
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.BusySpinWaitStrategy;
+import com.lmax.disruptor.EventFactory;
+import com.lmax.disruptor.SleepingWaitStrategy;
+import com.lmax.disruptor.TimeoutBlockingWaitStrategy;
+import com.lmax.disruptor.WaitStrategy;
+import com.lmax.disruptor.YieldingWaitStrategy;
+import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.ProducerType;
+import org.apache.log4j.Logger;
+import org.wso2.siddhi.core.util.SiddhiConstants;
+
+import java.lang.reflect.Constructor;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tuning of a disruptor ring used by stream junctions, entry valves and async callbacks.
+ * The {@link OverloadPolicy#SPILL} policy is only supported by stream junctions, other rings block instead.
+ */
+public class DisruptorConfig {
+
+    private static final Logger log = Logger.getLogger(DisruptorConfig.class);
+
+    public enum WaitStrategyType {
+        BUSY_SPIN, YIELDING, SLEEPING, BLOCKING, TIMEOUT_BLOCKING
+    }
+
+    public enum OverloadPolicy {
+        BLOCK, BLOCK_TIMEOUT, DROP_NEWEST, DROP_OLDEST, SPILL
+    }
+
+    private int bufferSize;
+    private WaitStrategyType waitStrategyType;
+    private long waitTimeout;
+    private ProducerType producerType;
+    private OverloadPolicy overloadPolicy;
+    private long overloadTimeout;
+    private String spillDirectory;
+
+    public DisruptorConfig(int bufferSize) {
+        this.bufferSize = bufferSize;
+        this.waitStrategyType = WaitStrategyType.SLEEPING;
+        this.waitTimeout = SiddhiConstants.DEFAULT_WAIT_TIMEOUT;
+        this.overloadPolicy = OverloadPolicy.BLOCK;
+        this.overloadTimeout = SiddhiConstants.DEFAULT_OVERLOAD_TIMEOUT;
+    }
+
+    public DisruptorConfig(DisruptorConfig disruptorConfig) {
+        this.bufferSize = disruptorConfig.bufferSize;
+        this.waitStrategyType = disruptorConfig.waitStrategyType;
+        this.waitTimeout = disruptorConfig.waitTimeout;
+        this.producerType = disruptorConfig.producerType;
+        this.overloadPolicy = disruptorConfig.overloadPolicy;
+        this.overloadTimeout = disruptorConfig.overloadTimeout;
+        this.spillDirectory = disruptorConfig.spillDirectory;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    public WaitStrategyType getWaitStrategyType() {
+        return waitStrategyType;
+    }
+
+    public void setWaitStrategyType(WaitStrategyType waitStrategyType) {
+        this.waitStrategyType = waitStrategyType;
+    }
+
+    public long getWaitTimeout() {
+        return waitTimeout;
+    }
+
+    public void setWaitTimeout(long waitTimeout) {
+        this.waitTimeout = waitTimeout;
+    }
+
+    /**
+     * @return the configured producer type, or null when it should be derived from the number of publishers
+     */
+    public ProducerType getProducerType() {
+        return producerType;
+    }
+
+    public void setProducerType(ProducerType producerType) {
+        this.producerType = producerType;
+    }
+
+    public OverloadPolicy getOverloadPolicy() {
+        return overloadPolicy;
+    }
+
+    public void setOverloadPolicy(OverloadPolicy overloadPolicy) {
+        this.overloadPolicy = overloadPolicy;
+    }
+
+    /**
+     * @return time in milliseconds a producer waits for a free slot under {@link OverloadPolicy#BLOCK_TIMEOUT}
+     */
+    public long getOverloadTimeout() {
+        return overloadTimeout;
+    }
+
+    public void setOverloadTimeout(long overloadTimeout) {
+        this.overloadTimeout = overloadTimeout;
+    }
+
+    /**
+     * @return directory of the spill files, or null to use the default temporary-file directory
+     */
+    public String getSpillDirectory() {
+        return spillDirectory;
+    }
+
+    public void setSpillDirectory(String spillDirectory) {
+        this.spillDirectory = spillDirectory;
+    }
+
+    public WaitStrategy createWaitStrategy() {
+        switch (waitStrategyType) {
+            case BUSY_SPIN:
+                return new BusySpinWaitStrategy();
+            case YIELDING:
+                return new YieldingWaitStrategy();
+            case BLOCKING:
+                return new BlockingWaitStrategy();
+            case TIMEOUT_BLOCKING:
+                return new TimeoutBlockingWaitStrategy(waitTimeout, TimeUnit.MILLISECONDS);
+            default:
+                return new SleepingWaitStrategy();
+        }
+    }
+
+    /**
+     * Create a disruptor according to this configuration
+     *
+     * @param eventFactory        factory pre-allocating the ring slots
+     * @param executor            executor running the event handlers
+     * @param defaultProducerType producer type to use when it is not explicitly configured, {@link ProducerType#MULTI}
+     *                            when more than one thread may publish to the ring, in which case a configured
+     *                            {@link ProducerType#SINGLE} is ignored as it would corrupt the ring sequences
+     * @param <T>                 type of the ring slots
+     * @return the disruptor, not yet started
+     */
+    public <T> Disruptor<T> createDisruptor(EventFactory<T> eventFactory, Executor executor,
+                                            ProducerType defaultProducerType) {
+        for (Constructor constructor : Disruptor.class.getConstructors()) {
+            if (constructor.getParameterTypes().length == 5) {      //if new disruptor classes available
+                ProducerType type = producerType != null ? producerType : defaultProducerType;
+                if (type == ProducerType.SINGLE && defaultProducerType == ProducerType.MULTI) {
+                    log.warn("Ignoring " + SiddhiConstants.ANNOTATION_ELEMENT_PRODUCER_TYPE + " '" +
+                            SiddhiConstants.PRODUCER_TYPE_SINGLE + "' as more than one thread publishes to the ring");
+                    type = ProducerType.MULTI;
+                }
+                return new Disruptor<T>(eventFactory, bufferSize, executor, type, createWaitStrategy());
+            }
+        }
+        return new Disruptor<T>(eventFactory, bufferSize, executor);
+    }
+
+    @Override
+    public String toString() {
+        return "DisruptorConfig{" +
+                "bufferSize=" + bufferSize +
+                ", waitStrategyType=" + waitStrategyType +
+                ", waitTimeout=" + waitTimeout +
+                ", producerType=" + producerType +
+                ", overloadPolicy=" + overloadPolicy +
+                ", overloadTimeout=" + overloadTimeout +
+                ", spillDirectory='" + spillDirectory + '\'' +
+                '}';
+    }
+}
@@ -15,16 +15,18 @@
 
 package org.wso2.siddhi.core.config;
 
+import org.wso2.siddhi.core.executor.compiler.ExpressionCompiler;
 import org.wso2.siddhi.core.util.extension.holder.EternalReferencedHolder;
 import org.wso2.siddhi.core.util.ElementIdGenerator;
+import org.wso2.siddhi.core.util.TimerWheel;
 import org.wso2.siddhi.core.util.persistence.PersistenceService;
 import org.wso2.siddhi.core.util.snapshot.SnapshotService;
 import org.wso2.siddhi.core.util.timestamp.TimestampGenerator;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.locks.Lock;
 
 public class ExecutionPlanContext {
@@ -34,18 +36,22 @@ public class ExecutionPlanContext {
     private boolean playback;
     private boolean enforceOrder;
     private boolean parallel;
+    private boolean compileExpressions;
 
-    private ThreadPoolExecutor executorService;
+    private ExecutorService executorService;
     private ScheduledExecutorService scheduledExecutorService;
     private List<EternalReferencedHolder> eternalReferencedHolders;
     private SnapshotService snapshotService;
 
-    public static boolean statEnable = true;
+    private volatile boolean statsEnabled = true;
 
     private Lock sharedLock = null;
     private TimestampGenerator timestampGenerator=null;
     private PersistenceService persistenceService;
     private ElementIdGenerator elementIdGenerator;
+    private volatile DisruptorConfig disruptorConfig;
+    private volatile TimerWheel timerWheel;
+    private ExpressionCompiler expressionCompiler;
 
     public ExecutionPlanContext() {
         this.eternalReferencedHolders = new ArrayList<EternalReferencedHolder>();
@@ -55,8 +61,14 @@ public class ExecutionPlanContext {
         return siddhiContext;
     }
 
+    /**
+     * Set the siddhi context, the disruptor configuration defaults to its event buffer size until it is set
+     */
     public void setSiddhiContext(SiddhiContext siddhiContext) {
         this.siddhiContext = siddhiContext;
+        if (disruptorConfig == null) {
+            disruptorConfig = new DisruptorConfig(siddhiContext.getEventBufferSize());
+        }
     }
 
     public String getName() {
@@ -75,6 +87,40 @@ public class ExecutionPlanContext {
         this.parallel = parallel;
     }
 
+    public boolean isCompileExpressions() {
+        return compileExpressions;
+    }
+
+    public void setCompileExpressions(boolean compileExpressions) {
+        this.compileExpressions = compileExpressions;
+    }
+
+    /**
+     * @return compiler of the conditions and projections of the execution plan, its generated classes are
+     * released when the execution plan is shutdown
+     */
+    public synchronized ExpressionCompiler getExpressionCompiler() {
+        if (expressionCompiler == null) {
+            expressionCompiler = new ExpressionCompiler();
+        }
+        return expressionCompiler;
+    }
+
+    public synchronized void releaseExpressionCompiler() {
+        if (expressionCompiler != null) {
+            expressionCompiler.clear();
+            expressionCompiler = null;
+        }
+    }
+
+    public boolean isStatsEnabled() {
+        return statsEnabled;
+    }
+
+    public void setStatsEnabled(boolean statsEnabled) {
+        this.statsEnabled = statsEnabled;
+    }
+
     public boolean isPlayback() {
         return playback;
     }
@@ -115,11 +161,11 @@ public class ExecutionPlanContext {
         this.sharedLock = sharedLock;
     }
 
-    public void setExecutorService(ThreadPoolExecutor executorService) {
+    public void setExecutorService(ExecutorService executorService) {
         this.executorService = executorService;
     }
 
-    public ThreadPoolExecutor getExecutorService() {
+    public ExecutorService getExecutorService() {
         return executorService;
     }
 
@@ -154,4 +200,27 @@ public class ExecutionPlanContext {
     public ElementIdGenerator getElementIdGenerator() {
         return elementIdGenerator;
     }
+
+    /**
+     * @return execution plan level disruptor configuration, used as the default for streams and callbacks
+     */
+    public DisruptorConfig getDisruptorConfig() {
+        return disruptorConfig;
+    }
+
+    public void setDisruptorConfig(DisruptorConfig disruptorConfig) {
+        this.disruptorConfig = disruptorConfig;
+    }
+
+    /**
+     * @return timer wheel sending the TIMER events of the windows and output rate limiters of the execution plan,
+     * created by the execution plan parser
+     */
+    public TimerWheel getTimerWheel() {
+        return timerWheel;
+    }
+
+    public void setTimerWheel(TimerWheel timerWheel) {
+        this.timerWheel = timerWheel;
+    }
 }
@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Supplies the threads of the execution plans. The executor service runs the disruptor consumers of the
+ * stream junctions, entry valves, async callbacks and pipeline stages, each of which holds its thread
+ * for the life time of the execution plan, while the scheduled executor service runs the timers.
+ */
+public interface ExecutorServiceProvider {
+
+    public ExecutorService getExecutorService(String executionPlanName);
+
+    public ScheduledExecutorService getScheduledExecutorService(String executionPlanName);
+
+    /**
+     * Called when an execution plan is shutdown with the executors it obtained from this provider
+     *
+     * @param executionPlanName        name of the execution plan
+     * @param executorService          executor service of the execution plan
+     * @param scheduledExecutorService scheduled executor service of the execution plan
+     */
+    public void release(String executionPlanName, ExecutorService executorService,
+                        ScheduledExecutorService scheduledExecutorService);
+
+    /**
+     * Release all the threads, called when the SiddhiManager is shutdown
+     */
+    public void shutdown();
+
+}
@@ -32,12 +32,15 @@ public class SiddhiContext {
     private PersistenceStore persistenceStore = null;
     private Map<String, EvalScript> scriptFunctionMap;
     private ConcurrentHashMap<String, DataSource> siddhiDataSources;
+    private ThreadingConfig threadingConfig;
+    private ExecutorServiceProvider executorServiceProvider;
 
     public SiddhiContext() {
         setSiddhiExtensions(SiddhiExtensionLoader.loadSiddhiExtensions());
         eventBufferSize = SiddhiConstants.DEFAULT_EVENT_BUFFER_SIZE;
         this.scriptFunctionMap = new HashMap<String, EvalScript>();
         this.siddhiDataSources = new ConcurrentHashMap<String, DataSource>();
+        this.threadingConfig = new ThreadingConfig();
     }
 
     public int getEventBufferSize() {
@@ -83,4 +86,28 @@ public class SiddhiContext {
     public void addSiddhiDataSource(String dataSourceName, DataSource dataSource) {
         this.siddhiDataSources.put(dataSourceName,dataSource);
     }
+
+    /**
+     * @return threading model of the default executor service provider, to be configured before
+     * creating the execution plans
+     */
+    public ThreadingConfig getThreadingConfig() {
+        return threadingConfig;
+    }
+
+    public synchronized void setThreadingConfig(ThreadingConfig threadingConfig) {
+        this.threadingConfig = threadingConfig;
+        this.executorServiceProvider = null;
+    }
+
+    public synchronized ExecutorServiceProvider getExecutorServiceProvider() {
+        if (executorServiceProvider == null) {
+            executorServiceProvider = new DefaultExecutorServiceProvider(threadingConfig);
+        }
+        return executorServiceProvider;
+    }
+
+    public synchronized void setExecutorServiceProvider(ExecutorServiceProvider executorServiceProvider) {
+        this.executorServiceProvider = executorServiceProvider;
+    }
 }
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.config;
+
+import org.wso2.siddhi.core.util.SiddhiConstants;
+
+import java.util.Arrays;
+
+/**
+ * Threading model used by the {@link DefaultExecutorServiceProvider}.
+ * <p/>
+ * By default every execution plan gets its own executors. When the executors are shared, all the execution
+ * plans of the SiddhiContext run on the same executors, which are only released when the SiddhiManager
+ * is shutdown. The number of consumer threads can be bounded, in that case starting an execution plan
+ * fails when it needs more consumers than the threads left, since a consumer holds its thread till the
+ * execution plan is shutdown.
+ */
+public class ThreadingConfig {
+
+    private String threadGroupName;
+    private boolean sharedExecutors;
+    private int maxConsumerThreads;
+    private int schedulerThreads;
+    private ThreadAffinity threadAffinity;
+    private int[] affinityCpuIds;
+
+    public ThreadingConfig() {
+        this.threadGroupName = SiddhiConstants.DEFAULT_THREAD_GROUP;
+        this.schedulerThreads = SiddhiConstants.DEFAULT_SCHEDULER_THREADS;
+    }
+
+    /**
+     * @return name of the thread group, also used as the prefix of the thread names
+     */
+    public String getThreadGroupName() {
+        return threadGroupName;
+    }
+
+    public void setThreadGroupName(String threadGroupName) {
+        this.threadGroupName = threadGroupName;
+    }
+
+    public boolean isSharedExecutors() {
+        return sharedExecutors;
+    }
+
+    public void setSharedExecutors(boolean sharedExecutors) {
+        this.sharedExecutors = sharedExecutors;
+    }
+
+    /**
+     * @return maximum number of consumer threads of an executor service, 0 when unbounded
+     */
+    public int getMaxConsumerThreads() {
+        return maxConsumerThreads;
+    }
+
+    public void setMaxConsumerThreads(int maxConsumerThreads) {
+        if (maxConsumerThreads < 0) {
+            throw new IllegalArgumentException("maxConsumerThreads should not be negative, but found " +
+                    maxConsumerThreads);
+        }
+        this.maxConsumerThreads = maxConsumerThreads;
+    }
+
+    public int getSchedulerThreads() {
+        return schedulerThreads;
+    }
+
+    public void setSchedulerThreads(int schedulerThreads) {
+        if (schedulerThreads < 1) {
+            throw new IllegalArgumentException("schedulerThreads should be positive, but found " + schedulerThreads);
+        }
+        this.schedulerThreads = schedulerThreads;
+    }
+
+    /**
+     * @return affinity used to pin the consumer threads, or null when they are not pinned
+     */
+    public ThreadAffinity getThreadAffinity() {
+        return threadAffinity;
+    }
+
+    public void setThreadAffinity(ThreadAffinity threadAffinity) {
+        this.threadAffinity = threadAffinity;
+    }
+
+    /**
+     * @return CPUs the consumer threads are pinned to in round robin, or null to use all the available CPUs
+     */
+    public int[] getAffinityCpuIds() {
+        return affinityCpuIds;
+    }
+
+    public void setAffinityCpuIds(int[] affinityCpuIds) {
+        this.affinityCpuIds = affinityCpuIds;
+    }
+
+    @Override
+    public String toString() {
+        return "ThreadingConfig{" +
+                "threadGroupName='" + threadGroupName + '\'' +
+                ", sharedExecutors=" + sharedExecutors +
+                ", maxConsumerThreads=" + maxConsumerThreads +
+                ", schedulerThreads=" + schedulerThreads +
+                ", threadAffinity=" + threadAffinity +
+                ", affinityCpuIds=" + Arrays.toString(affinityCpuIds) +
+                '}';
+    }
+}
@@ -0,0 +1,288 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.event;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * ComplexEventChunk that also keeps the references of its events in a reusable array, giving O(1)
+ * append, indexed access and iteration without walking the event chain.
+ * <p/>
+ * The events stay linked to each other as in ComplexEventChunk, so the chunk can be handed to any
+ * processor. Removing the current event while iterating is O(1) and the removed slots are compacted on
+ * {@link #reset()}, {@link #get(int)} and {@link #size()}, whereas the insert and detach operations relink
+ * the chain and rebuild the array in O(n). Hence the chunk suits processors that only iterate the events
+ * sequentially, such as filters, selectors and callbacks.
+ *
+ * @param <E> sub types of ComplexEvent such as StreamEvent and StateEvent
+ */
+public class ArrayComplexEventChunk<E extends ComplexEvent> extends ComplexEventChunk<E> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private ComplexEvent[] events;
+    private int size = 0;
+    private int removedCount = 0;
+    private int cursor = 0;
+    private int lastReturnedIndex = -1;
+
+    public ArrayComplexEventChunk() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ArrayComplexEventChunk(int initialCapacity) {
+        events = new ComplexEvent[Math.max(initialCapacity, 1)];
+    }
+
+    @Override
+    public void add(E complexEvents) {
+        if (first == null) {
+            first = complexEvents;
+        } else {
+            last.setNext(complexEvents);
+        }
+        E event = complexEvents;
+        while (true) {
+            append(event);
+            ComplexEvent next = event.getNext();
+            if (next == null) {
+                break;
+            }
+            event = (E) next;
+        }
+        last = event;
+    }
+
+    /**
+     * Append the given events to the chunk, the events should not be linked to any other event.
+     *
+     * @param complexEvents events to be appended
+     * @param offset        index of the first event to be appended
+     * @param length        number of events to be appended
+     */
+    public void addAll(E[] complexEvents, int offset, int length) {
+        if (length <= 0) {
+            return;
+        }
+        ensureCapacity(size + length);
+        E previous = last;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            E event = complexEvents[i];
+            if (previous == null) {
+                first = event;
+            } else {
+                previous.setNext(event);
+            }
+            events[size++] = event;
+            previous = event;
+        }
+        previous.setNext(null);
+        last = previous;
+    }
+
+    private void append(ComplexEvent event) {
+        if (size == events.length) {
+            ensureCapacity(size + 1);
+        }
+        events[size++] = event;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > events.length) {
+            events = Arrays.copyOf(events, Math.max(capacity, events.length << 1));
+        }
+    }
+
+    /**
+     * @param index index of the event
+     * @return the event at the given position of the chunk
+     */
+    public E get(int index) {
+        compact();
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return (E) events[index];
+    }
+
+    /**
+     * @return number of events in the chunk
+     */
+    public int size() {
+        compact();
+        return size;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (cursor < size && events[cursor] == null) {
+            cursor++;
+        }
+        return cursor < size;
+    }
+
+    @Override
+    public E next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        if (lastReturned != null) {
+            previousToLastReturned = lastReturned;
+        }
+        lastReturnedIndex = cursor;
+        lastReturned = (E) events[cursor++];
+        return lastReturned;
+    }
+
+    @Override
+    public void remove() {
+        if (lastReturned == null) {
+            throw new IllegalStateException();
+        }
+        ComplexEvent next = lastReturned.getNext();
+        if (previousToLastReturned != null) {
+            previousToLastReturned.setNext(next);
+        } else {
+            first = (E) next;
+        }
+        if (lastReturned == last) {
+            last = previousToLastReturned;
+        }
+        lastReturned.setNext(null);
+        lastReturned = null;
+        events[lastReturnedIndex] = null;
+        lastReturnedIndex = -1;
+        removedCount++;
+    }
+
+    @Override
+    public void insertBeforeCurrent(E events) {
+        super.insertBeforeCurrent(events);
+        rebuild();
+    }
+
+    @Override
+    public void insertAfterCurrent(E streamEvents) {
+        super.insertAfterCurrent(streamEvents);
+        rebuild();
+    }
+
+    @Override
+    public void detach() {
+        super.detach();
+        rebuild();
+    }
+
+    @Override
+    public E detachAllBeforeCurrent() {
+        E firstEvent = super.detachAllBeforeCurrent();
+        rebuild();
+        return firstEvent;
+    }
+
+    @Override
+    public E poll() {
+        if (first == null) {
+            return null;
+        }
+        E firstEvent = first;
+        first = (E) first.getNext();
+        firstEvent.setNext(null);
+        if (lastReturned == firstEvent) {
+            lastReturned = null;
+        }
+        if (previousToLastReturned == firstEvent) {
+            previousToLastReturned = null;
+        }
+        rebuild();
+        return firstEvent;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        Arrays.fill(events, 0, size, null);
+        size = 0;
+        removedCount = 0;
+        cursor = 0;
+        lastReturnedIndex = -1;
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        compact();
+        cursor = 0;
+        lastReturnedIndex = -1;
+    }
+
+    /**
+     * Move the remaining events over the removed slots, keeping the iteration position
+     */
+    private void compact() {
+        if (removedCount == 0) {
+            return;
+        }
+        int newSize = 0;
+        int newCursor = 0;
+        int newLastReturnedIndex = -1;
+        for (int i = 0; i < size; i++) {
+            if (i == cursor) {
+                newCursor = newSize;
+            }
+            if (events[i] != null) {
+                if (i == lastReturnedIndex) {
+                    newLastReturnedIndex = newSize;
+                }
+                events[newSize++] = events[i];
+            }
+        }
+        if (cursor >= size) {
+            newCursor = newSize;
+        }
+        Arrays.fill(events, newSize, size, null);
+        size = newSize;
+        cursor = newCursor;
+        lastReturnedIndex = newLastReturnedIndex;
+        removedCount = 0;
+    }
+
+    /**
+     * Rebuild the array from the event chain after the chain was relinked, the iteration continues
+     * after the last returned event
+     */
+    private void rebuild() {
+        Arrays.fill(events, 0, size, null);
+        size = 0;
+        removedCount = 0;
+        cursor = 0;
+        lastReturnedIndex = -1;
+        E event = first;
+        E lastEvent = null;
+        while (event != null) {
+            if (event == lastReturned) {
+                lastReturnedIndex = size;
+                cursor = size + 1;
+            } else if (event == previousToLastReturned && lastReturned == null) {
+                cursor = size + 1;
+            }
+            append(event);
+            lastEvent = event;
+            event = (E) event.getNext();
+        }
+        last = lastEvent;
+    }
+}
@@ -0,0 +1,347 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.event;
+
+import com.lmax.disruptor.EventFactory;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread safe pool of ComplexEvents for reuse.
+ * <p/>
+ * Events are borrowed and returned through a magazine, a small array of events. By default the pool has a single
+ * magazine guarded by a lock. Pools used by a few threads at a high rate can instead give each thread its own
+ * magazine, used without synchronization, as each of them keeps up to a magazine of events for as long as the
+ * pool lives. Full magazines are exchanged through a shared depot, hence events can be returned by a different
+ * thread than the one that borrowed them, e.g. across asynchronous stream junctions.
+ * <p/>
+ * The number of events kept by the pool adapts to the observed borrow and return rates: it grows while events
+ * are dropped on return and new events are created on borrow in the same interval, and shrinks while the
+ * retained events are left unused.
+ *
+ * @param <E> sub types of ComplexEvent such as StreamEvent and StateEvent
+ */
+public class ComplexEventPool<E extends ComplexEvent> {
+
+    private static final int MAX_MAGAZINE_SIZE = 64;
+    protected static final int DEFAULT_MAX_SIZE = 4096;
+    private static final int STATISTICS_FLUSH_INTERVAL = 1024;
+    private static final int ADAPTATION_INTERVAL = 4096;
+
+    private final EventFactory<E> eventFactory;
+    private final int magazineSize;
+    private final int minSize;
+    private final int maxSize;
+    private volatile int size;
+
+    private final ConcurrentLinkedQueue<Object[]> depot = new ConcurrentLinkedQueue<Object[]>();
+    private final AtomicInteger depotMagazineCount = new AtomicInteger();
+    private final Magazine sharedMagazine;
+    private final ThreadLocal<Magazine> threadMagazines;
+    private final ConcurrentLinkedQueue<Magazine> magazines = new ConcurrentLinkedQueue<Magazine>();
+
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong returnCount = new AtomicLong();
+    private final AtomicLong dropCount = new AtomicLong();
+    private final AtomicLong nextAdaptation = new AtomicLong(ADAPTATION_INTERVAL);
+    private long lastMissCount = 0;
+    private long lastDropCount = 0;
+
+    /**
+     * @param eventFactory factory creating the events when the pool is empty
+     * @param size         initial number of events the pool keeps
+     */
+    public ComplexEventPool(EventFactory<E> eventFactory, int size) {
+        this(eventFactory, size, Math.max(size, DEFAULT_MAX_SIZE));
+    }
+
+    /**
+     * @param eventFactory factory creating the events when the pool is empty
+     * @param size         initial number of events the pool keeps
+     * @param maxSize      number of events the pool can grow up to
+     */
+    public ComplexEventPool(EventFactory<E> eventFactory, int size, int maxSize) {
+        this(eventFactory, size, maxSize, false);
+    }
+
+    /**
+     * @param eventFactory   factory creating the events when the pool is empty
+     * @param size           initial number of events the pool keeps, besides the magazines of the threads
+     * @param maxSize        number of events the pool can grow up to, besides the magazines of the threads
+     * @param threadMagazine whether each thread is given its own magazine, only for pools used by a few threads
+     */
+    public ComplexEventPool(EventFactory<E> eventFactory, int size, int maxSize, boolean threadMagazine) {
+        this.eventFactory = eventFactory;
+        this.magazineSize = Math.max(1, Math.min(size, MAX_MAGAZINE_SIZE));
+        this.minSize = Math.max(size, magazineSize);
+        this.maxSize = Math.max(maxSize, minSize);
+        this.size = minSize;
+        if (threadMagazine) {
+            sharedMagazine = null;
+            threadMagazines = new ThreadLocal<Magazine>() {
+                @Override
+                protected Magazine initialValue() {
+                    return newMagazine();
+                }
+            };
+        } else {
+            sharedMagazine = newMagazine();
+            threadMagazines = null;
+        }
+    }
+
+    private Magazine newMagazine() {
+        Magazine magazine = new Magazine(magazineSize);
+        magazines.add(magazine);
+        return magazine;
+    }
+
+    /**
+     * Borrowing an event
+     *
+     * @return if an event exist in the pool an existing event if not a new event will be returned
+     */
+    public E borrowEvent() {
+        if (sharedMagazine != null) {
+            synchronized (sharedMagazine) {
+                return borrowEvent(sharedMagazine);
+            }
+        }
+        return borrowEvent(threadMagazines.get());
+    }
+
+    @SuppressWarnings("unchecked")
+    private E borrowEvent(Magazine magazine) {
+        magazine.borrowCount++;
+        E event;
+        if (magazine.count == 0 && !refill(magazine)) {
+            magazine.missCount++;
+            event = eventFactory.newInstance();
+        } else {
+            event = (E) magazine.events[--magazine.count];
+            magazine.events[magazine.count] = null;
+        }
+        if (magazine.borrowCount + magazine.returnCount >= STATISTICS_FLUSH_INTERVAL) {
+            flush(magazine);
+        }
+        return event;
+    }
+
+    /**
+     * Collects the used events, the events chained to the given event are also collected.
+     * If the pool has space the returned events will be added to the pool else they will be dropped
+     *
+     * @param event used event
+     */
+    public void returnEvents(E event) {
+        if (event == null) {
+            return;
+        }
+        if (sharedMagazine != null) {
+            synchronized (sharedMagazine) {
+                returnEvents(sharedMagazine, event);
+            }
+        } else {
+            returnEvents(threadMagazines.get(), event);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void returnEvents(Magazine magazine, E event) {
+        while (event != null) {
+            E next = (E) event.getNext();
+            event.setNext(null);
+            magazine.returnCount++;
+            if (magazine.count == magazineSize && !spill(magazine)) {
+                magazine.dropCount++;
+            } else {
+                magazine.events[magazine.count++] = event;
+            }
+            event = next;
+        }
+        if (magazine.borrowCount + magazine.returnCount >= STATISTICS_FLUSH_INTERVAL) {
+            flush(magazine);
+        }
+    }
+
+    /**
+     * Replace the empty magazine with a full one from the depot
+     */
+    private boolean refill(Magazine magazine) {
+        Object[] events = depot.poll();
+        if (events == null) {
+            return false;
+        }
+        depotMagazineCount.decrementAndGet();
+        magazine.events = events;
+        magazine.count = events.length;
+        return true;
+    }
+
+    /**
+     * Move the full magazine to the depot if the depot has space
+     */
+    private boolean spill(Magazine magazine) {
+        int depotLimit = size / magazineSize - 1;
+        int count;
+        do {
+            count = depotMagazineCount.get();
+            if (count >= depotLimit) {
+                return false;
+            }
+        } while (!depotMagazineCount.compareAndSet(count, count + 1));
+        depot.offer(magazine.events);
+        magazine.events = new Object[magazineSize];
+        magazine.count = 0;
+        return true;
+    }
+
+    private void flush(Magazine magazine) {
+        long borrows = borrowCount.addAndGet(magazine.borrowCount);
+        missCount.addAndGet(magazine.missCount);
+        returnCount.addAndGet(magazine.returnCount);
+        dropCount.addAndGet(magazine.dropCount);
+        magazine.borrowCount = 0;
+        magazine.missCount = 0;
+        magazine.returnCount = 0;
+        magazine.dropCount = 0;
+        long adaptation = nextAdaptation.get();
+        if (borrows >= adaptation && nextAdaptation.compareAndSet(adaptation, borrows + ADAPTATION_INTERVAL)) {
+            adapt();
+        }
+    }
+
+    /**
+     * Grow the pool when events are dropped on return while new events are created on borrow,
+     * and shrink it when more than half of it was left unused during the last interval
+     */
+    private synchronized void adapt() {
+        long misses = missCount.get();
+        long drops = dropCount.get();
+        long intervalMisses = misses - lastMissCount;
+        long intervalDrops = drops - lastDropCount;
+        lastMissCount = misses;
+        lastDropCount = drops;
+        if (intervalMisses > 0 && intervalDrops > 0) {
+            size = Math.min(size * 2, maxSize);
+        } else if (intervalMisses == 0 && intervalDrops == 0 && size > minSize &&
+                depotMagazineCount.get() * magazineSize * 2 > size) {
+            size = Math.max(size / 2, minSize);
+            int depotLimit = size / magazineSize - 1;
+            while (depotMagazineCount.get() > depotLimit && depot.poll() != null) {
+                depotMagazineCount.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * The magazines used by other threads are read without synchronization, hence the sizes and the counts
+     * are approximate while the pool is in use.
+     *
+     * @return number of events buffered in the depot and in the magazines
+     */
+    public int getBufferedEventsSize() {
+        int bufferedEvents = depotMagazineCount.get() * magazineSize;
+        for (Magazine magazine : magazines) {
+            bufferedEvents += magazine.count;
+        }
+        return bufferedEvents;
+    }
+
+    /**
+     * @return current number of events the pool keeps, besides the magazines of the threads
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return whether each thread is given its own magazine
+     */
+    public boolean isThreadMagazine() {
+        return threadMagazines != null;
+    }
+
+    /**
+     * @return number of events borrowed
+     */
+    public long getBorrowCount() {
+        long count = borrowCount.get();
+        for (Magazine magazine : magazines) {
+            count += magazine.borrowCount;
+        }
+        return count;
+    }
+
+    /**
+     * @return number of events created as the pool was empty when borrowing
+     */
+    public long getMissCount() {
+        long count = missCount.get();
+        for (Magazine magazine : magazines) {
+            count += magazine.missCount;
+        }
+        return count;
+    }
+
+    /**
+     * @return number of events returned
+     */
+    public long getReturnCount() {
+        long count = returnCount.get();
+        for (Magazine magazine : magazines) {
+            count += magazine.returnCount;
+        }
+        return count;
+    }
+
+    /**
+     * @return number of events dropped as the pool was full when returning
+     */
+    public long getDropCount() {
+        long count = dropCount.get();
+        for (Magazine magazine : magazines) {
+            count += magazine.dropCount;
+        }
+        return count;
+    }
+
+    /**
+     * @return ratio of borrowed events served from the pool
+     */
+    public double getHitRate() {
+        long borrows = getBorrowCount();
+        if (borrows == 0) {
+            return 0;
+        }
+        return (double) (borrows - getMissCount()) / borrows;
+    }
+
+    private static class Magazine {
+        private Object[] events;
+        private int count = 0;
+        private long borrowCount = 0;
+        private long missCount = 0;
+        private long returnCount = 0;
+        private long dropCount = 0;
+
+        private Magazine(int magazineSize) {
+            events = new Object[magazineSize];
+        }
+    }
+}
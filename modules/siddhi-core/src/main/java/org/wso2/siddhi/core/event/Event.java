@@ -68,7 +68,7 @@ public class Event {
     public String toString() {
         return "StreamEvent{" +
                 "timestamp=" + timestamp +
-                ", data=" + Arrays.toString(data) +
+                ", data=" + Arrays.toString(getData()) +
                 ", isExpired=" + isExpired +
                 '}';
     }
@@ -79,7 +79,7 @@ public class Event {
 
     public Event copyFrom(Event event) {
         timestamp = event.timestamp;
-        System.arraycopy(event.data, 0, data, 0, data.length);
+        System.arraycopy(event.getData(), 0, data, 0, data.length);
         isExpired = event.isExpired;
         return this;
     }
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.event;
+
+import org.wso2.siddhi.query.api.definition.Attribute;
+
+/**
+ * Event data that keeps numeric attributes unboxed, so that they can be copied into the primitive lanes of
+ * a StreamEvent without boxing
+ */
+public interface UnboxedData {
+
+    /**
+     * @param index index of the attribute
+     * @return INT, LONG, FLOAT or DOUBLE if the attribute is held unboxed, otherwise null
+     */
+    public Attribute.Type getUnboxedType(int index);
+
+    /**
+     * @param index index of an unboxed INT or LONG attribute
+     * @return the value of the attribute
+     */
+    public long getLong(int index);
+
+    /**
+     * @param index index of an unboxed FLOAT or DOUBLE attribute
+     * @return the value of the attribute
+     */
+    public double getDouble(int index);
+}
@@ -97,16 +97,7 @@ public class StateEvent implements ComplexEvent {
                     break;
             }
 
-            switch (position[STREAM_ATTRIBUTE_TYPE_INDEX]) {
-                case BEFORE_WINDOW_DATA_INDEX:
-                    return streamEvent.getBeforeWindowData()[position[STREAM_ATTRIBUTE_INDEX]];
-                case OUTPUT_DATA_INDEX:
-                    return streamEvent.getOutputData()[position[STREAM_ATTRIBUTE_INDEX]];
-                case ON_AFTER_WINDOW_DATA_INDEX:
-                    return streamEvent.getOnAfterWindowData()[position[STREAM_ATTRIBUTE_INDEX]];
-                default:
-                    throw new IllegalStateException("STREAM_ATTRIBUTE_TYPE_INDEX cannot be " + position[STREAM_ATTRIBUTE_TYPE_INDEX]);
-            }
+            return streamEvent.getAttribute(position);
         }
     }
 
@@ -14,80 +14,39 @@
  */
 package org.wso2.siddhi.core.event.state;
 
+import org.wso2.siddhi.core.event.ComplexEventPool;
+
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
- * Event pool containing StreamEvent for reuse
- * This is not a thread safe implementation
+ * Event pool containing StateEvent for reuse, borrowed events are given a new id
  */
-public class StateEventPool {
+public class StateEventPool extends ComplexEventPool<StateEvent> {
 
-    private StateEventFactory eventFactory;
-    private int size;
-    private int index = 0;
-    private StateEvent stateEventList;
-    private long id = 0;
+    private AtomicLong id = new AtomicLong();
 
     public StateEventPool(MetaStateEvent metaStateEvent, int size) {
-        eventFactory = new StateEventFactory(metaStateEvent.getStreamEventCount(),
-                metaStateEvent.getOutputDataAttributes().size());
-        this.size = size;
+        this(metaStateEvent, size, false);
     }
 
-//    public StateEventPool(int beforeWindowDataSize, int onAfterWindowDataSize, int outputDataSize, int poolSize) {
-//        eventFactory = new StreamEventFactory(beforeWindowDataSize, onAfterWindowDataSize, outputDataSize);
-//        this.size = poolSize;
-//    }
-
     /**
-     * Borrowing an StateEvent
-     *
-     * @return if StateEvent exist in the pool an existing event if not a new StateEvent will be returned
+     * @param threadMagazine whether each thread using the pool is given its own magazine of events
      */
-    public StateEvent borrowEvent() {
-        if (index > 0) {
-            StateEvent event = stateEventList;
-            stateEventList = stateEventList.getNext();
-            event.setNext(null);
-            index--;
-            event.setId(++id);
-            return event;
-        } else {
-            StateEvent event = eventFactory.newInstance();
-            event.setId(++id);
-            return event;
-        }
+    public StateEventPool(MetaStateEvent metaStateEvent, int size, boolean threadMagazine) {
+        super(new StateEventFactory(metaStateEvent.getStreamEventCount(),
+                metaStateEvent.getOutputDataAttributes().size()), size, Math.max(size, DEFAULT_MAX_SIZE),
+                threadMagazine);
     }
 
     /**
-     * Collects the used InnerStreamEvents
-     * If the pool has space the returned event will be added to the pool else it will be dropped
+     * Borrowing an StateEvent
      *
-     * @param stateEvent used event
-     */
-    public void returnEvents(StateEvent stateEvent) {
-        if (stateEvent != null) {
-            if (index < size) {
-                StateEvent first = stateEvent;
-                StateEvent last = stateEvent;
-                while (stateEvent != null) {
-                    last = stateEvent;
-                    index++;
-                    stateEvent = stateEvent.getNext();
-                }
-                last.setNext(stateEventList);
-                stateEventList = first;
-            }
-        }
-
-    }
-
-    /**
-     * @return Occupied buffer size
+     * @return if StateEvent exist in the pool an existing event if not a new StateEvent will be returned
      */
-    public int getBufferedEventsSize() {
-        return index;
-    }
-
-    public int getSize() {
-        return size;
+    @Override
+    public StateEvent borrowEvent() {
+        StateEvent event = super.borrowEvent();
+        event.setId(id.incrementAndGet());
+        return event;
     }
 }
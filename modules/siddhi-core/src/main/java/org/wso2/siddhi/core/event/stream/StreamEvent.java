@@ -15,7 +15,11 @@
 package org.wso2.siddhi.core.event.stream;
 
 import org.wso2.siddhi.core.event.ComplexEvent;
+import org.wso2.siddhi.core.event.UnboxedData;
+import org.wso2.siddhi.query.api.definition.Attribute;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.util.Arrays;
 
 import static org.wso2.siddhi.core.util.SiddhiConstants.*;
@@ -28,6 +32,8 @@ public class StreamEvent implements ComplexEvent {
 
     protected long timestamp = -1;
     private Object[] beforeWindowData;          //Attributes before window execution
+    private long[] beforeWindowLongData;        //Unboxed INT and LONG values of the beforeWindowData, when enabled
+    private double[] beforeWindowDoubleData;    //Unboxed FLOAT and DOUBLE values of the beforeWindowData, when enabled
     private Object[] onAfterWindowData;         //Attributes on and after window execution
     protected Object[] outputData;              //Attributes to sent as output
     //    protected boolean isExpired = false;
@@ -35,8 +41,21 @@ public class StreamEvent implements ComplexEvent {
     private StreamEvent next;
 
     public StreamEvent(int beforeWindowDataSize, int onAfterWindowDataSize, int outputDataSize) {
+        this(beforeWindowDataSize, onAfterWindowDataSize, outputDataSize, false);
+    }
+
+    /**
+     * @param primitiveBeforeWindowData whether numeric beforeWindowData values can be kept unboxed, they are then
+     *                                  boxed only when the beforeWindowData array or the attribute object is read
+     */
+    public StreamEvent(int beforeWindowDataSize, int onAfterWindowDataSize, int outputDataSize,
+                       boolean primitiveBeforeWindowData) {
         if (beforeWindowDataSize > 0) {
             beforeWindowData = new Object[beforeWindowDataSize];
+            if (primitiveBeforeWindowData) {
+                beforeWindowLongData = new long[beforeWindowDataSize];
+                beforeWindowDoubleData = new double[beforeWindowDataSize];
+            }
         }
         if (onAfterWindowDataSize > 0) {
             onAfterWindowData = new Object[onAfterWindowDataSize];
@@ -50,12 +69,142 @@ public class StreamEvent implements ComplexEvent {
 //        //Do nothing
 //    }
 
+    /**
+     * @return the beforeWindowData, with the unboxed values boxed into it
+     */
     public Object[] getBeforeWindowData() {
+        if (beforeWindowLongData != null && beforeWindowData != null) {
+            for (int i = 0; i < beforeWindowData.length; i++) {
+                if (beforeWindowData[i] instanceof Unboxed) {
+                    beforeWindowData[i] = box(i);
+                }
+            }
+        }
         return beforeWindowData;
     }
 
+    /**
+     * @param index index of the attribute in the beforeWindowData
+     * @return the attribute, only this attribute is boxed if it is held unboxed
+     */
+    public Object getBeforeWindowData(int index) {
+        Object value = beforeWindowData[index];
+        if (value instanceof Unboxed) {
+            value = box(index);
+            beforeWindowData[index] = value;
+        }
+        return value;
+    }
+
     public void setBeforeWindowData(Object[] beforeWindowData) {
         this.beforeWindowData = beforeWindowData;
+        if (beforeWindowLongData != null &&
+                (beforeWindowData == null || beforeWindowData.length != beforeWindowLongData.length)) {
+            beforeWindowLongData = null;
+            beforeWindowDoubleData = null;
+        }
+    }
+
+    /**
+     * @param index index of the attribute in the beforeWindowData
+     * @return true if the attribute is null, without boxing it
+     */
+    public boolean isBeforeWindowDataNull(int index) {
+        return beforeWindowData[index] == null;
+    }
+
+    /**
+     * @param index index of a numeric attribute of the beforeWindowData
+     * @return the value of the attribute, which should not be null
+     */
+    public long getBeforeWindowLong(int index) {
+        Object value = beforeWindowData[index];
+        if (value == Unboxed.INT || value == Unboxed.LONG) {
+            return beforeWindowLongData[index];
+        } else if (value instanceof Unboxed) {
+            return (long) beforeWindowDoubleData[index];
+        }
+        return ((Number) value).longValue();
+    }
+
+    /**
+     * @param index index of a numeric attribute of the beforeWindowData
+     * @return the value of the attribute, which should not be null
+     */
+    public double getBeforeWindowDouble(int index) {
+        Object value = beforeWindowData[index];
+        if (value == Unboxed.FLOAT || value == Unboxed.DOUBLE) {
+            return beforeWindowDoubleData[index];
+        } else if (value instanceof Unboxed) {
+            return beforeWindowLongData[index];
+        }
+        return ((Number) value).doubleValue();
+    }
+
+    /**
+     * Copy an attribute of the data to the beforeWindowData, keeping it unboxed when both the data and this
+     * event hold numeric values unboxed
+     *
+     * @param data      data to copy the attribute from
+     * @param dataIndex index of the attribute in the data
+     * @param index     index of the attribute in the beforeWindowData
+     * @return false if the attribute is not copied as it is not held unboxed
+     */
+    public boolean setBeforeWindowData(UnboxedData data, int dataIndex, int index) {
+        if (beforeWindowLongData == null) {
+            return false;
+        }
+        Attribute.Type type = data.getUnboxedType(dataIndex);
+        if (type == null) {
+            return false;
+        }
+        switch (type) {
+            case INT:
+                beforeWindowLongData[index] = data.getLong(dataIndex);
+                beforeWindowData[index] = Unboxed.INT;
+                return true;
+            case LONG:
+                beforeWindowLongData[index] = data.getLong(dataIndex);
+                beforeWindowData[index] = Unboxed.LONG;
+                return true;
+            case FLOAT:
+                beforeWindowDoubleData[index] = data.getDouble(dataIndex);
+                beforeWindowData[index] = Unboxed.FLOAT;
+                return true;
+            case DOUBLE:
+                beforeWindowDoubleData[index] = data.getDouble(dataIndex);
+                beforeWindowData[index] = Unboxed.DOUBLE;
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Copy the beforeWindowData to the given event without boxing the unboxed values, when the event can hold
+     * them unboxed
+     */
+    void copyBeforeWindowDataTo(StreamEvent streamEvent, int size) {
+        if (beforeWindowLongData != null && streamEvent.beforeWindowLongData != null) {
+            System.arraycopy(beforeWindowData, 0, streamEvent.beforeWindowData, 0, size);
+            System.arraycopy(beforeWindowLongData, 0, streamEvent.beforeWindowLongData, 0, size);
+            System.arraycopy(beforeWindowDoubleData, 0, streamEvent.beforeWindowDoubleData, 0, size);
+        } else {
+            System.arraycopy(getBeforeWindowData(), 0, streamEvent.beforeWindowData, 0, size);
+        }
+    }
+
+    private Object box(int index) {
+        switch ((Unboxed) beforeWindowData[index]) {
+            case INT:
+                return (int) beforeWindowLongData[index];
+            case LONG:
+                return beforeWindowLongData[index];
+            case FLOAT:
+                return (float) beforeWindowDoubleData[index];
+            default:
+                return beforeWindowDoubleData[index];
+        }
     }
 
     public Object[] getOnAfterWindowData() {
@@ -116,7 +265,7 @@ public class StreamEvent implements ComplexEvent {
     public Object getAttribute(int[] position) {
         switch (position[STREAM_ATTRIBUTE_TYPE_INDEX]) {
             case BEFORE_WINDOW_DATA_INDEX:
-                return beforeWindowData[position[STREAM_ATTRIBUTE_INDEX]];
+                return getBeforeWindowData(position[STREAM_ATTRIBUTE_INDEX]);
             case OUTPUT_DATA_INDEX:
                 return outputData[position[STREAM_ATTRIBUTE_INDEX]];
             case ON_AFTER_WINDOW_DATA_INDEX:
@@ -150,7 +299,7 @@ public class StreamEvent implements ComplexEvent {
         if (type != event.type) return false;
         if (timestamp != event.timestamp) return false;
         // Probably incorrect - comparing Object[] arrays with Arrays.equals
-        if (!Arrays.equals(beforeWindowData, event.beforeWindowData)) return false;
+        if (!Arrays.equals(getBeforeWindowData(), event.getBeforeWindowData())) return false;
         // Probably incorrect - comparing Object[] arrays with Arrays.equals
         if (!Arrays.equals(onAfterWindowData, event.onAfterWindowData)) return false;
         // Probably incorrect - comparing Object[] arrays with Arrays.equals
@@ -162,7 +311,7 @@ public class StreamEvent implements ComplexEvent {
     @Override
     public int hashCode() {
         int result = (int) (timestamp ^ (timestamp >>> 32));
-        result = 31 * result + (beforeWindowData != null ? Arrays.hashCode(beforeWindowData) : 0);
+        result = 31 * result + (beforeWindowData != null ? Arrays.hashCode(getBeforeWindowData()) : 0);
         result = 31 * result + (onAfterWindowData != null ? Arrays.hashCode(onAfterWindowData) : 0);
         result = 31 * result + (outputData != null ? Arrays.hashCode(outputData) : 0);
         result = 31 * result + type.hashCode();
@@ -173,7 +322,7 @@ public class StreamEvent implements ComplexEvent {
     public String toString() {
         final StringBuilder sb = new StringBuilder("StreamEvent{");
         sb.append("timestamp=").append(timestamp);
-        sb.append(", beforeWindowData=").append(beforeWindowData == null ? "null" : Arrays.asList(beforeWindowData).toString());
+        sb.append(", beforeWindowData=").append(beforeWindowData == null ? "null" : Arrays.asList(getBeforeWindowData()).toString());
         sb.append(", onAfterWindowData=").append(onAfterWindowData == null ? "null" : Arrays.asList(onAfterWindowData).toString());
         sb.append(", outputData=").append(outputData == null ? "null" : Arrays.asList(outputData).toString());
         sb.append(", type=").append(type);
@@ -181,4 +330,20 @@ public class StreamEvent implements ComplexEvent {
         sb.append('}');
         return sb.toString();
     }
+
+    /**
+     * Box the unboxed values before the event is serialized, so that snapshots hold the plain attribute values
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        getBeforeWindowData();
+        out.defaultWriteObject();
+    }
+
+    /**
+     * Marker of a beforeWindowData attribute held in the primitive lanes, an enum so that it keeps its identity
+     * when the event is serialized
+     */
+    private enum Unboxed {
+        INT, LONG, FLOAT, DOUBLE
+    }
 }
@@ -39,7 +39,7 @@ public class StreamEventCloner {
     public StreamEvent copyStreamEvent(StreamEvent streamEvent) {
         StreamEvent borrowedEvent = streamEventPool.borrowEvent();
         if (beforeWindowDataSize > 0) {
-            System.arraycopy(streamEvent.getBeforeWindowData(), 0, borrowedEvent.getBeforeWindowData(), 0, beforeWindowDataSize);
+            streamEvent.copyBeforeWindowDataTo(borrowedEvent, beforeWindowDataSize);
         }
         if (onAfterWindowDataSize > 0) {
             System.arraycopy(streamEvent.getOnAfterWindowData(), 0, borrowedEvent.getOnAfterWindowData(), 0, onAfterWindowDataSize);
@@ -51,4 +51,14 @@ public class StreamEventCloner {
         borrowedEvent.setTimestamp(streamEvent.getTimestamp());
         return borrowedEvent;
     }
+
+    /**
+     * Return the copies made by this cloner back to its pool once they are no longer referenced,
+     * the events chained to the given event are also returned
+     *
+     * @param streamEvent copied StreamEvent that is no longer used
+     */
+    public void returnEvents(StreamEvent streamEvent) {
+        streamEventPool.returnEvents(streamEvent);
+    }
 }
@@ -24,6 +24,7 @@ public class StreamEventFactory implements EventFactory<StreamEvent> {
     private int beforeWindowDataSize;
     private int onAfterWindowDataSize;
     private int outputDataSize;
+    private boolean primitiveBeforeWindowData;
 
     /**
      * Initialization of the factory with event data sizes
@@ -38,13 +39,27 @@ public class StreamEventFactory implements EventFactory<StreamEvent> {
         this.outputDataSize = outputDataSize;
     }
 
+    /**
+     * Initialization of the factory with event data sizes
+     *
+     * @param beforeWindowDataSize
+     * @param onAfterWindowDataSize
+     * @param outputDataSize
+     * @param primitiveBeforeWindowData whether the events can keep numeric beforeWindowData values unboxed
+     */
+    public StreamEventFactory(int beforeWindowDataSize, int onAfterWindowDataSize, int outputDataSize,
+                              boolean primitiveBeforeWindowData) {
+        this(beforeWindowDataSize, onAfterWindowDataSize, outputDataSize);
+        this.primitiveBeforeWindowData = primitiveBeforeWindowData;
+    }
+
     /**
      * Constructs new Events
      *
      * @return StreamEvent
      */
     public StreamEvent newInstance() {
-        return new StreamEvent(beforeWindowDataSize, onAfterWindowDataSize, outputDataSize);
+        return new StreamEvent(beforeWindowDataSize, onAfterWindowDataSize, outputDataSize, primitiveBeforeWindowData);
     }
 
 }
\ No newline at end of file
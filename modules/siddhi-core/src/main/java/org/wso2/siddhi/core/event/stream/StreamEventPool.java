@@ -14,77 +14,44 @@
  */
 package org.wso2.siddhi.core.event.stream;
 
+import org.wso2.siddhi.core.event.ComplexEventPool;
+import org.wso2.siddhi.query.api.definition.Attribute;
+
+import java.util.List;
+
 /**
  * Event pool containing StreamEvent for reuse
- * This is not a thread safe implementation
  */
-public class StreamEventPool {
-
-    private StreamEventFactory eventFactory;
-    private int size;
-    private int index = 0;
-    private StreamEvent streamEventList;
+public class StreamEventPool extends ComplexEventPool<StreamEvent> {
 
     public StreamEventPool(MetaStreamEvent metaStreamEvent, int size) {
-        eventFactory = new StreamEventFactory(metaStreamEvent.getBeforeWindowData().size(),
-                metaStreamEvent.getOnAfterWindowData().size(),
-                metaStreamEvent.getOutputData().size());
-        this.size = size;
-    }
-
-    public StreamEventPool(int beforeWindowDataSize, int onAfterWindowDataSize, int outputDataSize, int poolSize) {
-        eventFactory = new StreamEventFactory(beforeWindowDataSize, onAfterWindowDataSize, outputDataSize);
-        this.size = poolSize;
+        this(metaStreamEvent, size, false);
     }
 
     /**
-     * Borrowing an StreamEvent
-     *
-     * @return if StreamEvent exist in the pool an existing event if not a new StreamEvent will be returned
+     * @param threadMagazine whether each thread using the pool is given its own magazine of events
      */
-    public StreamEvent borrowEvent() {
-        if (index > 0) {
-            StreamEvent event = streamEventList;
-            streamEventList = streamEventList.getNext();
-            event.setNext(null);
-            index--;
-            return event;
-        } else {
-            return eventFactory.newInstance();
-        }
-    }
-
-    /**
-     * Collects the used InnerStreamEvents
-     * If the pool has space the returned event will be added to the pool else it will be dropped
-     *
-     * @param streamEvent used event
-     */
-    public void returnEvents(StreamEvent streamEvent) {
-        if (streamEvent != null) {
-            if (index < size) {
-                StreamEvent first = streamEvent;
-                StreamEvent last = streamEvent;
-                while (streamEvent != null) {
-                    last = streamEvent;
-                    index++;
-                    streamEvent = streamEvent.getNext();
-                }
-                last.setNext(streamEventList);
-                streamEventList = first;
-            }
-        }
-
+    public StreamEventPool(MetaStreamEvent metaStreamEvent, int size, boolean threadMagazine) {
+        super(new StreamEventFactory(metaStreamEvent.getBeforeWindowData().size(),
+                metaStreamEvent.getOnAfterWindowData().size(),
+                metaStreamEvent.getOutputData().size(), hasNumericAttribute(metaStreamEvent.getBeforeWindowData())),
+                size, Math.max(size, DEFAULT_MAX_SIZE), threadMagazine);
     }
 
-    /**
-     * @return Occupied buffer size
-     */
-    public int getBufferedEventsSize() {
-        return index;
+    public StreamEventPool(int beforeWindowDataSize, int onAfterWindowDataSize, int outputDataSize, int poolSize) {
+        super(new StreamEventFactory(beforeWindowDataSize, onAfterWindowDataSize, outputDataSize), poolSize);
     }
 
-    public int getSize() {
-        return size;
+    private static boolean hasNumericAttribute(List<Attribute> attributes) {
+        for (Attribute attribute : attributes) {
+            switch (attribute.getType()) {
+                case INT:
+                case LONG:
+                case FLOAT:
+                case DOUBLE:
+                    return true;
+            }
+        }
+        return false;
     }
 }
@@ -68,10 +68,14 @@ public class ConversionStreamEventChunk extends ComplexEventChunk<StreamEvent> {
 //    }
 
     public void convertAndAssign(Event[] events) {
+        convertAndAssign(events, events.length);
+    }
+
+    public void convertAndAssign(Event[] events, int length) {
         StreamEvent firstEvent = streamEventPool.borrowEvent();
         streamEventConverter.convertEvent(events[0], firstEvent);
         StreamEvent currentEvent = firstEvent;
-        for (int i = 1, eventsLength = events.length; i < eventsLength; i++) {
+        for (int i = 1; i < length; i++) {
             StreamEvent nextEvent = streamEventPool.borrowEvent();
             streamEventConverter.convertEvent(events[i], nextEvent);
             currentEvent.setNext(nextEvent);
@@ -16,6 +16,7 @@ package org.wso2.siddhi.core.event.stream.converter;
 
 import org.wso2.siddhi.core.event.ComplexEvent;
 import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.event.UnboxedData;
 import org.wso2.siddhi.core.event.stream.StreamEvent;
 
 import java.util.List;
@@ -54,9 +55,34 @@ public class SelectiveStreamEventConverter implements StreamEventConverter {
     }
 
 
+    /**
+     * Read only the mapped attributes of the event, hence events that hold their attributes unboxed box only
+     * the attributes used by the query. Unboxed numeric attributes used before the window are copied unboxed.
+     */
     public void convertEvent(Event event, StreamEvent borrowedEvent) {
-        convertToInnerStreamEvent(event.getData(), event.isExpired() ? StreamEvent.Type.EXPIRED : StreamEvent.Type.CURRENT,
-                event.getTimestamp(), borrowedEvent);
+        UnboxedData unboxedData = event instanceof UnboxedData ? (UnboxedData) event : null;
+        for (ConversionMapping conversionMapping : conversionMappings) {
+            int[] position = conversionMapping.getToPosition();
+            switch (position[0]) {
+                case 0:
+                    if (unboxedData == null || !borrowedEvent.setBeforeWindowData(unboxedData,
+                            conversionMapping.getFromPosition(), position[1])) {
+                        borrowedEvent.setBeforeWindowData(event.getData(conversionMapping.getFromPosition()),
+                                position[1]);
+                    }
+                    break;
+                case 1:
+                    borrowedEvent.setOnAfterWindowData(event.getData(conversionMapping.getFromPosition()), position[1]);
+                    break;
+                case 2:
+                    borrowedEvent.setOutputData(event.getData(conversionMapping.getFromPosition()), position[1]);
+                    break;
+                default:
+                    //can not happen
+            }
+        }
+        borrowedEvent.setType(event.isExpired() ? StreamEvent.Type.EXPIRED : StreamEvent.Type.CURRENT);
+        borrowedEvent.setTimestamp(event.getTimestamp());
     }
 
     public void convertStreamEvent(ComplexEvent complexEvent, StreamEvent borrowedEvent) {
@@ -38,9 +38,16 @@ public class SimpleStreamEventConverter implements StreamEventConverter {
         borrowedEvent.setTimestamp(timestamp);
     }
 
+    /**
+     * Read only the mapped attributes of the event, hence events that hold their attributes unboxed box only
+     * the attributes used by the query
+     */
     public void convertEvent(Event event, StreamEvent borrowedEvent) {
-        convertToInnerStreamEvent(event.getData(), event.isExpired() ? StreamEvent.Type.EXPIRED : StreamEvent.Type.CURRENT,
-                event.getTimestamp(), borrowedEvent);
+        for (ConversionMapping element : conversionMappings) {
+            borrowedEvent.setOutputData(event.getData(element.getFromPosition()), element.getToPosition()[1]);
+        }
+        borrowedEvent.setType(event.isExpired() ? StreamEvent.Type.EXPIRED : StreamEvent.Type.CURRENT);
+        borrowedEvent.setTimestamp(event.getTimestamp());
     }
 
     public void convertStreamEvent(ComplexEvent complexEvent, StreamEvent borrowedEvent) {
@@ -18,13 +18,21 @@ package org.wso2.siddhi.core.executor;
 import org.wso2.siddhi.core.event.ComplexEvent;
 import org.wso2.siddhi.query.api.definition.Attribute;
 
-public class ConstantExpressionExecutor implements ExpressionExecutor {
+import java.util.Arrays;
+
+public class ConstantExpressionExecutor implements PrimitiveExpressionExecutor {
     private Object value;
     private Attribute.Type type;
+    private long longValue;
+    private double doubleValue;
 
     public ConstantExpressionExecutor(Object value, Attribute.Type type) {
         this.value = value;
         this.type = type;
+        if (value instanceof Number) {
+            this.longValue = ((Number) value).longValue();
+            this.doubleValue = ((Number) value).doubleValue();
+        }
     }
 
     @Override
@@ -32,6 +40,38 @@ public class ConstantExpressionExecutor implements ExpressionExecutor {
         return value;
     }
 
+    @Override
+    public boolean isPrimitive() {
+        return true;
+    }
+
+    @Override
+    public boolean isNull(ComplexEvent event) {
+        return value == null;
+    }
+
+    @Override
+    public long executeLong(ComplexEvent event) {
+        return longValue;
+    }
+
+    @Override
+    public double executeDouble(ComplexEvent event) {
+        return doubleValue;
+    }
+
+    @Override
+    public void executeLong(EventBatch batch, boolean[] selection, long[] values, boolean[] nulls) {
+        Arrays.fill(values, 0, batch.size(), longValue);
+        Arrays.fill(nulls, 0, batch.size(), value == null);
+    }
+
+    @Override
+    public void executeDouble(EventBatch batch, boolean[] selection, double[] values, boolean[] nulls) {
+        Arrays.fill(values, 0, batch.size(), doubleValue);
+        Arrays.fill(nulls, 0, batch.size(), value == null);
+    }
+
     public Attribute.Type getReturnType() {
         return type;
     }
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.executor;
+
+import org.wso2.siddhi.core.event.ComplexEvent;
+import org.wso2.siddhi.core.event.ComplexEventChunk;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Events of a chunk laid out in an array so that the executors can evaluate all of them in one call, see
+ * {@link org.wso2.siddhi.core.executor.condition.ConditionExpressionExecutor#execute(EventBatch, boolean[])}
+ * and {@link PrimitiveExpressionExecutor#executeLong(EventBatch, boolean[], long[], boolean[])}.
+ * <p/>
+ * The batch also hands out the scratch arrays the executors keep their intermediate values in. An executor
+ * takes them while evaluating and gives them back in the reverse order before returning, hence the same
+ * batch is reused for every chunk without allocating. A batch should only be used by one thread at a time.
+ */
+public class EventBatch {
+
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private ComplexEvent[] events;
+    private int size = 0;
+    private int generation = 0;
+    private long[][] longArrays = new long[4][];
+    private int longArrayCount = 0;
+    private double[][] doubleArrays = new double[4][];
+    private int doubleArrayCount = 0;
+    private boolean[][] booleanArrays = new boolean[4][];
+    private int booleanArrayCount = 0;
+    private Map<Object, Object> attachments = new WeakHashMap<Object, Object>();
+
+    public EventBatch() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public EventBatch(int initialCapacity) {
+        events = new ComplexEvent[Math.max(initialCapacity, 1)];
+    }
+
+    /**
+     * Replace the events of the batch with the events of the given chunk
+     *
+     * @param complexEventChunk events to be evaluated
+     */
+    public void load(ComplexEventChunk<? extends ComplexEvent> complexEventChunk) {
+        clear();
+        ComplexEvent event = complexEventChunk.getFirst();
+        while (event != null) {
+            if (size == events.length) {
+                events = Arrays.copyOf(events, events.length << 1);
+            }
+            events[size++] = event;
+            event = event.getNext();
+        }
+        generation++;
+    }
+
+    /**
+     * Release the references to the events and the scratch arrays of the batch
+     */
+    public void clear() {
+        Arrays.fill(events, 0, size, null);
+        size = 0;
+        longArrayCount = 0;
+        doubleArrayCount = 0;
+        booleanArrayCount = 0;
+    }
+
+    public ComplexEvent[] getEvents() {
+        return events;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return number of the events loaded so far, changes every time the batch is loaded
+     */
+    public int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * @return a scratch array that can hold a long for each event of the batch
+     */
+    public long[] takeLongs() {
+        if (longArrayCount == longArrays.length) {
+            longArrays = Arrays.copyOf(longArrays, longArrayCount << 1);
+        }
+        long[] longs = longArrays[longArrayCount];
+        if (longs == null || longs.length < size) {
+            longs = new long[events.length];
+            longArrays[longArrayCount] = longs;
+        }
+        longArrayCount++;
+        return longs;
+    }
+
+    /**
+     * @return a scratch array that can hold a double for each event of the batch
+     */
+    public double[] takeDoubles() {
+        if (doubleArrayCount == doubleArrays.length) {
+            doubleArrays = Arrays.copyOf(doubleArrays, doubleArrayCount << 1);
+        }
+        double[] doubles = doubleArrays[doubleArrayCount];
+        if (doubles == null || doubles.length < size) {
+            doubles = new double[events.length];
+            doubleArrays[doubleArrayCount] = doubles;
+        }
+        doubleArrayCount++;
+        return doubles;
+    }
+
+    /**
+     * @return a scratch array that can hold a boolean for each event of the batch
+     */
+    public boolean[] takeBooleans() {
+        if (booleanArrayCount == booleanArrays.length) {
+            booleanArrays = Arrays.copyOf(booleanArrays, booleanArrayCount << 1);
+        }
+        boolean[] booleans = booleanArrays[booleanArrayCount];
+        if (booleans == null || booleans.length < size) {
+            booleans = new boolean[events.length];
+            booleanArrays[booleanArrayCount] = booleans;
+        }
+        booleanArrayCount++;
+        return booleans;
+    }
+
+    public void giveBack(long[] longs) {
+        longArrayCount--;
+    }
+
+    public void giveBack(double[] doubles) {
+        doubleArrayCount--;
+    }
+
+    public void giveBack(boolean[] booleans) {
+        booleanArrayCount--;
+    }
+
+    /**
+     * @param owner executor the attachment belongs to
+     * @return the object the executor attached to the batch, null if there is none
+     */
+    public Object getAttachment(Object owner) {
+        return attachments.get(owner);
+    }
+
+    /**
+     * Keep an object with the batch on behalf of an executor, e.g. values an executor evaluates once per batch.
+     * The attachment is dropped once the executor is no longer used.
+     *
+     * @param owner      executor the attachment belongs to
+     * @param attachment object to be kept
+     */
+    public void setAttachment(Object owner, Object attachment) {
+        attachments.put(owner, attachment);
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.executor;
+
+import org.wso2.siddhi.core.executor.condition.AndConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.BoolConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.InConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.NotConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.OrConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.compare.CompareConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.function.FunctionExecutor;
+import org.wso2.siddhi.core.executor.math.ArithmeticExpressionExecutor;
+
+public class ExpressionExecutorHelper {
+
+    /**
+     * @param executor executor to be checked
+     * @return true if evaluating the executor neither depends on nor changes any state, i.e. it consists of
+     * conditions, arithmetic, attributes, constants, table lookups and deterministic functions
+     */
+    public static boolean isStateless(ExpressionExecutor executor) {
+        return isStateless(executor, null);
+    }
+
+    /**
+     * @param executor        executor to be checked
+     * @param statefulHandler handler of the executors that are not known to be stateless, can be null
+     * @return true if evaluating the executor neither depends on nor changes any state other than the state of
+     * the executors accepted by the handler
+     */
+    public static boolean isStateless(ExpressionExecutor executor, StatefulExecutorHandler statefulHandler) {
+        if (executor instanceof ConstantExpressionExecutor || executor instanceof VariableExpressionExecutor ||
+                executor instanceof InConditionExpressionExecutor) {
+            return true;
+        } else if (executor instanceof SharedExpressionExecutor) {
+            return isStateless(((SharedExpressionExecutor) executor).getExpressionExecutor(), statefulHandler);
+        } else if (executor instanceof AndConditionExpressionExecutor) {
+            return isStateless(((AndConditionExpressionExecutor) executor).getLeftConditionExecutor(),
+                    statefulHandler) &&
+                    isStateless(((AndConditionExpressionExecutor) executor).getRightConditionExecutor(),
+                            statefulHandler);
+        } else if (executor instanceof OrConditionExpressionExecutor) {
+            return isStateless(((OrConditionExpressionExecutor) executor).getLeftConditionExecutor(),
+                    statefulHandler) &&
+                    isStateless(((OrConditionExpressionExecutor) executor).getRightConditionExecutor(),
+                            statefulHandler);
+        } else if (executor instanceof NotConditionExpressionExecutor) {
+            return isStateless(((NotConditionExpressionExecutor) executor).getConditionExecutor(), statefulHandler);
+        } else if (executor instanceof BoolConditionExpressionExecutor) {
+            return isStateless(((BoolConditionExpressionExecutor) executor).getConditionExecutor(), statefulHandler);
+        } else if (executor instanceof CompareConditionExpressionExecutor) {
+            return isStateless(((CompareConditionExpressionExecutor) executor).getLeftExpressionExecutor(),
+                    statefulHandler) &&
+                    isStateless(((CompareConditionExpressionExecutor) executor).getRightExpressionExecutor(),
+                            statefulHandler);
+        } else if (executor instanceof ArithmeticExpressionExecutor) {
+            return isStateless(((ArithmeticExpressionExecutor) executor).getLeftExpressionExecutor(),
+                    statefulHandler) &&
+                    isStateless(((ArithmeticExpressionExecutor) executor).getRightExpressionExecutor(),
+                            statefulHandler);
+        } else if (executor instanceof FunctionExecutor) {
+            if (!((FunctionExecutor) executor).isDeterministic()) {
+                return false;
+            }
+            for (ExpressionExecutor attributeExecutor : ((FunctionExecutor) executor).getAttributeExpressionExecutors()) {
+                if (!isStateless(attributeExecutor, statefulHandler)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return statefulHandler != null && statefulHandler.accept(executor);
+    }
+
+    /**
+     * Decides on the executors keeping state that can be treated as stateless by the caller
+     */
+    public interface StatefulExecutorHandler {
+
+        /**
+         * @param executor executor not known to be stateless
+         * @return true if the executor is to be treated as stateless
+         */
+        boolean accept(ExpressionExecutor executor);
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.executor;
+
+import org.wso2.siddhi.core.event.ComplexEvent;
+
+/**
+ * Expression executor that can evaluate numeric values without boxing them. Executors of type INT or LONG
+ * are evaluated through {@link #executeLong(ComplexEvent)} and executors of type FLOAT or DOUBLE through
+ * {@link #executeDouble(ComplexEvent)}, after checking the value is not null.
+ */
+public interface PrimitiveExpressionExecutor extends ExpressionExecutor {
+
+    /**
+     * @return false if the executor can only evaluate the value through {@link #execute(ComplexEvent)},
+     * e.g. when an operand cannot be evaluated without boxing
+     */
+    public boolean isPrimitive();
+
+    public boolean isNull(ComplexEvent event);
+
+    public long executeLong(ComplexEvent event);
+
+    public double executeDouble(ComplexEvent event);
+
+    /**
+     * Evaluate an INT or LONG value for the selected events of the batch
+     *
+     * @param batch     events to be evaluated
+     * @param selection events to be evaluated, the values of the other events are left undefined
+     * @param values    the values of the events
+     * @param nulls     true for the events whose value is null
+     */
+    public void executeLong(EventBatch batch, boolean[] selection, long[] values, boolean[] nulls);
+
+    /**
+     * Evaluate a FLOAT or DOUBLE value for the selected events of the batch
+     *
+     * @param batch     events to be evaluated
+     * @param selection events to be evaluated, the values of the other events are left undefined
+     * @param values    the values of the events
+     * @param nulls     true for the events whose value is null
+     */
+    public void executeDouble(EventBatch batch, boolean[] selection, double[] values, boolean[] nulls);
+
+}
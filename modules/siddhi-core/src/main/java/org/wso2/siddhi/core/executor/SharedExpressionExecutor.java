@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.executor;
+
+import org.wso2.siddhi.core.event.ComplexEvent;
+import org.wso2.siddhi.core.executor.math.MathExpressionExecutor;
+import org.wso2.siddhi.query.api.definition.Attribute;
+
+import java.util.Arrays;
+
+/**
+ * Executor of a sub expression used more than once in the same condition or selector. The value is evaluated
+ * once per event and handed to all the executors using it; the owner of the executors calls {@link #reset()}
+ * once it is done with an event, as the same event object can be reused for a different event afterwards.
+ * Values evaluated for an {@link EventBatch} are kept with the batch instead.
+ */
+public class SharedExpressionExecutor implements PrimitiveExpressionExecutor {
+
+    private final ExpressionExecutor expressionExecutor;
+    private final boolean primitive;
+    private final PrimitiveExpressionExecutor primitiveExecutor;
+    private final CachedValue cachedValue = new CachedValue();
+    private String cloneKey;
+    private SharedExpressionExecutor clonedExecutor;
+
+    public SharedExpressionExecutor(ExpressionExecutor expressionExecutor) {
+        this.expressionExecutor = expressionExecutor;
+        switch (expressionExecutor.getReturnType()) {
+            case INT:
+            case LONG:
+            case FLOAT:
+            case DOUBLE:
+                primitive = true;
+                break;
+            default:
+                primitive = false;
+        }
+        primitiveExecutor = MathExpressionExecutor.asPrimitive(expressionExecutor);
+    }
+
+    @Override
+    public Object execute(ComplexEvent event) {
+        if (cachedValue.event == event && event != null) {
+            return cachedValue.value;
+        }
+        Object value = evaluate(event);
+        cachedValue.event = event;
+        cachedValue.value = value;
+        return value;
+    }
+
+    /**
+     * Evaluate a primitive executor through its primitive methods, which give null for null operands
+     * where the boxed evaluation would fail
+     */
+    private Object evaluate(ComplexEvent event) {
+        if (primitiveExecutor == null) {
+            return expressionExecutor.execute(event);
+        }
+        if (primitiveExecutor.isNull(event)) {
+            return null;
+        }
+        switch (primitiveExecutor.getReturnType()) {
+            case INT:
+                return (int) primitiveExecutor.executeLong(event);
+            case LONG:
+                return primitiveExecutor.executeLong(event);
+            case FLOAT:
+                return (float) primitiveExecutor.executeDouble(event);
+            default:
+                return primitiveExecutor.executeDouble(event);
+        }
+    }
+
+    /**
+     * Forget the value of the last evaluated event
+     */
+    public void reset() {
+        cachedValue.event = null;
+        cachedValue.value = null;
+    }
+
+    @Override
+    public boolean isPrimitive() {
+        return primitive;
+    }
+
+    @Override
+    public boolean isNull(ComplexEvent event) {
+        return execute(event) == null;
+    }
+
+    @Override
+    public long executeLong(ComplexEvent event) {
+        return ((Number) execute(event)).longValue();
+    }
+
+    @Override
+    public double executeDouble(ComplexEvent event) {
+        return ((Number) execute(event)).doubleValue();
+    }
+
+    @Override
+    public void executeLong(EventBatch batch, boolean[] selection, long[] values, boolean[] nulls) {
+        BatchValues batchValues = evaluate(batch, selection);
+        System.arraycopy(batchValues.longValues, 0, values, 0, batch.size());
+        System.arraycopy(batchValues.nulls, 0, nulls, 0, batch.size());
+    }
+
+    @Override
+    public void executeDouble(EventBatch batch, boolean[] selection, double[] values, boolean[] nulls) {
+        BatchValues batchValues = evaluate(batch, selection);
+        System.arraycopy(batchValues.doubleValues, 0, values, 0, batch.size());
+        System.arraycopy(batchValues.nulls, 0, nulls, 0, batch.size());
+    }
+
+    /**
+     * Evaluate the selected events of the batch that are not evaluated yet, the values are kept
+     * with the batch till the next chunk is loaded into it.
+     */
+    private BatchValues evaluate(EventBatch batch, boolean[] selection) {
+        int size = batch.size();
+        BatchValues batchValues = (BatchValues) batch.getAttachment(this);
+        if (batchValues == null || batchValues.nulls.length < size) {
+            batchValues = new BatchValues(batch.getEvents().length);
+            batch.setAttachment(this, batchValues);
+        } else if (batchValues.generation != batch.getGeneration()) {
+            Arrays.fill(batchValues.evaluated, 0, size, false);
+        }
+        batchValues.generation = batch.getGeneration();
+
+        boolean[] pending = batch.takeBooleans();
+        boolean evaluate = false;
+        for (int i = 0; i < size; i++) {
+            pending[i] = selection[i] && !batchValues.evaluated[i];
+            evaluate |= pending[i];
+        }
+        if (evaluate) {
+            boolean integral = MathExpressionExecutor.isIntegral(getReturnType());
+            if (primitiveExecutor != null) {
+                boolean[] nulls = batch.takeBooleans();
+                if (integral) {
+                    long[] values = batch.takeLongs();
+                    primitiveExecutor.executeLong(batch, pending, values, nulls);
+                    for (int i = 0; i < size; i++) {
+                        if (pending[i]) {
+                            batchValues.longValues[i] = values[i];
+                        }
+                    }
+                    batch.giveBack(values);
+                } else {
+                    double[] values = batch.takeDoubles();
+                    primitiveExecutor.executeDouble(batch, pending, values, nulls);
+                    for (int i = 0; i < size; i++) {
+                        if (pending[i]) {
+                            batchValues.doubleValues[i] = values[i];
+                        }
+                    }
+                    batch.giveBack(values);
+                }
+                for (int i = 0; i < size; i++) {
+                    if (pending[i]) {
+                        batchValues.nulls[i] = nulls[i];
+                        batchValues.evaluated[i] = true;
+                    }
+                }
+                batch.giveBack(nulls);
+            } else {
+                ComplexEvent[] events = batch.getEvents();
+                for (int i = 0; i < size; i++) {
+                    if (pending[i]) {
+                        Object value = execute(events[i]);
+                        batchValues.nulls[i] = value == null;
+                        if (value != null) {
+                            if (integral) {
+                                batchValues.longValues[i] = ((Number) value).longValue();
+                            } else {
+                                batchValues.doubleValues[i] = ((Number) value).doubleValue();
+                            }
+                        }
+                        batchValues.evaluated[i] = true;
+                    }
+                }
+            }
+        }
+        batch.giveBack(pending);
+        return batchValues;
+    }
+
+    @Override
+    public Attribute.Type getReturnType() {
+        return expressionExecutor.getReturnType();
+    }
+
+    /**
+     * All the executors using this executor are cloned with the same key, hence the clone is kept
+     * so they keep on sharing the same executor.
+     */
+    @Override
+    public synchronized ExpressionExecutor cloneExecutor(String key) {
+        if (clonedExecutor == null || !key.equals(cloneKey)) {
+            clonedExecutor = new SharedExpressionExecutor(expressionExecutor.cloneExecutor(key));
+            cloneKey = key;
+        }
+        return clonedExecutor;
+    }
+
+    public ExpressionExecutor getExpressionExecutor() {
+        return expressionExecutor;
+    }
+
+    private static class BatchValues {
+
+        private final long[] longValues;
+        private final double[] doubleValues;
+        private final boolean[] nulls;
+        private final boolean[] evaluated;
+        private int generation;
+
+        private BatchValues(int capacity) {
+            longValues = new long[capacity];
+            doubleValues = new double[capacity];
+            nulls = new boolean[capacity];
+            evaluated = new boolean[capacity];
+        }
+    }
+
+    /**
+     * Holder of the last evaluated event and its value, updated in place for each evaluation
+     */
+    private static class CachedValue {
+
+        private ComplexEvent event;
+        private Object value;
+    }
+}
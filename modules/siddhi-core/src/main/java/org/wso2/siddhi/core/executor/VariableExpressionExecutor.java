@@ -16,11 +16,12 @@
 package org.wso2.siddhi.core.executor;
 
 import org.wso2.siddhi.core.event.ComplexEvent;
+import org.wso2.siddhi.core.event.stream.StreamEvent;
 import org.wso2.siddhi.query.api.definition.Attribute;
 
 import static org.wso2.siddhi.core.util.SiddhiConstants.*;
 
-public class VariableExpressionExecutor implements ExpressionExecutor {
+public class VariableExpressionExecutor implements PrimitiveExpressionExecutor {
     private Attribute attribute;
     private int[] position = new int[]{UNKNOWN_STATE, UNKNOWN_STATE, UNKNOWN_STATE, UNKNOWN_STATE};
     //Position[stream event chain index, stream event index, stream attribute type index, stream attribute index]
@@ -37,6 +38,96 @@ public class VariableExpressionExecutor implements ExpressionExecutor {
         return event.getAttribute(position);
     }
 
+    @Override
+    public boolean isPrimitive() {
+        return true;
+    }
+
+    @Override
+    public boolean isNull(ComplexEvent event) {
+        if (position[STREAM_ATTRIBUTE_TYPE_INDEX] == BEFORE_WINDOW_DATA_INDEX && event instanceof StreamEvent) {
+            return ((StreamEvent) event).isBeforeWindowDataNull(position[STREAM_ATTRIBUTE_INDEX]);
+        }
+        return event.getAttribute(position) == null;
+    }
+
+    @Override
+    public long executeLong(ComplexEvent event) {
+        if (position[STREAM_ATTRIBUTE_TYPE_INDEX] == BEFORE_WINDOW_DATA_INDEX && event instanceof StreamEvent) {
+            return ((StreamEvent) event).getBeforeWindowLong(position[STREAM_ATTRIBUTE_INDEX]);
+        }
+        return ((Number) event.getAttribute(position)).longValue();
+    }
+
+    @Override
+    public double executeDouble(ComplexEvent event) {
+        if (position[STREAM_ATTRIBUTE_TYPE_INDEX] == BEFORE_WINDOW_DATA_INDEX && event instanceof StreamEvent) {
+            return ((StreamEvent) event).getBeforeWindowDouble(position[STREAM_ATTRIBUTE_INDEX]);
+        }
+        return ((Number) event.getAttribute(position)).doubleValue();
+    }
+
+    @Override
+    public void executeLong(EventBatch batch, boolean[] selection, long[] values, boolean[] nulls) {
+        ComplexEvent[] events = batch.getEvents();
+        for (int i = 0, size = batch.size(); i < size; i++) {
+            if (selection[i]) {
+                if (position[STREAM_ATTRIBUTE_TYPE_INDEX] == BEFORE_WINDOW_DATA_INDEX &&
+                        events[i] instanceof StreamEvent) {
+                    StreamEvent streamEvent = (StreamEvent) events[i];
+                    nulls[i] = streamEvent.isBeforeWindowDataNull(position[STREAM_ATTRIBUTE_INDEX]);
+                    if (!nulls[i]) {
+                        values[i] = streamEvent.getBeforeWindowLong(position[STREAM_ATTRIBUTE_INDEX]);
+                    }
+                    continue;
+                }
+                Object value = getAttribute(events[i]);
+                nulls[i] = value == null;
+                if (value != null) {
+                    values[i] = ((Number) value).longValue();
+                }
+            }
+        }
+    }
+
+    @Override
+    public void executeDouble(EventBatch batch, boolean[] selection, double[] values, boolean[] nulls) {
+        ComplexEvent[] events = batch.getEvents();
+        for (int i = 0, size = batch.size(); i < size; i++) {
+            if (selection[i]) {
+                if (position[STREAM_ATTRIBUTE_TYPE_INDEX] == BEFORE_WINDOW_DATA_INDEX &&
+                        events[i] instanceof StreamEvent) {
+                    StreamEvent streamEvent = (StreamEvent) events[i];
+                    nulls[i] = streamEvent.isBeforeWindowDataNull(position[STREAM_ATTRIBUTE_INDEX]);
+                    if (!nulls[i]) {
+                        values[i] = streamEvent.getBeforeWindowDouble(position[STREAM_ATTRIBUTE_INDEX]);
+                    }
+                    continue;
+                }
+                Object value = getAttribute(events[i]);
+                nulls[i] = value == null;
+                if (value != null) {
+                    values[i] = ((Number) value).doubleValue();
+                }
+            }
+        }
+    }
+
+    /**
+     * Read the attribute directly from the data arrays of stream events
+     */
+    private Object getAttribute(ComplexEvent event) {
+        if (event instanceof StreamEvent) {
+            StreamEvent streamEvent = (StreamEvent) event;
+            switch (position[STREAM_ATTRIBUTE_TYPE_INDEX]) {
+                case ON_AFTER_WINDOW_DATA_INDEX:
+                    return streamEvent.getOnAfterWindowData()[position[STREAM_ATTRIBUTE_INDEX]];
+                case BEFORE_WINDOW_DATA_INDEX:
+                    return streamEvent.getBeforeWindowData(position[STREAM_ATTRIBUTE_INDEX]);
+            }
+        }
+        return event.getAttribute(position);
+    }
 
     public Attribute.Type getReturnType() {
         return attribute.getType();
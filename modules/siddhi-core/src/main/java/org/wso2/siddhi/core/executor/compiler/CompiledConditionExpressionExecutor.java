@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.executor.compiler;
+
+import org.wso2.siddhi.core.event.ComplexEvent;
+import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.ConditionExpressionExecutor;
+
+/**
+ * Evaluates a condition through the class generated for it, while keeping the interpreted
+ * executor tree so the condition can be cloned and compiled again for partitions.
+ */
+public class CompiledConditionExpressionExecutor extends ConditionExpressionExecutor {
+
+    private final ExpressionExecutor conditionExecutor;
+    private final CompiledCondition compiledCondition;
+    private final ExpressionCompiler expressionCompiler;
+
+    public CompiledConditionExpressionExecutor(ExpressionExecutor conditionExecutor,
+                                               CompiledCondition compiledCondition,
+                                               ExpressionCompiler expressionCompiler) {
+        this.conditionExecutor = conditionExecutor;
+        this.compiledCondition = compiledCondition;
+        this.expressionCompiler = expressionCompiler;
+    }
+
+    @Override
+    public Boolean execute(ComplexEvent event) {
+        return compiledCondition.execute(event);
+    }
+
+    @Override
+    public ExpressionExecutor cloneExecutor(String key) {
+        return expressionCompiler.compileCondition(conditionExecutor.cloneExecutor(key));
+    }
+
+    public ExpressionExecutor getConditionExecutor() {
+        return conditionExecutor;
+    }
+}
@@ -0,0 +1,27 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.executor.compiler;
+
+import org.wso2.siddhi.core.event.ComplexEvent;
+
+/**
+ * Super class of the classes generated by the {@link ExpressionCompiler} for the attribute processors of a
+ * selector, sets all the output data of an event in one call
+ */
+public abstract class CompiledProjection {
+
+    public abstract void process(ComplexEvent event);
+
+}
@@ -0,0 +1,287 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.executor.compiler;
+
+import org.apache.log4j.Logger;
+import org.wso2.siddhi.core.event.ComplexEvent;
+import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.core.query.selector.attribute.processor.AttributeProcessor;
+import org.wso2.siddhi.query.api.definition.Attribute;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Constructor;
+import java.net.URI;
+import java.security.CodeSource;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compiles condition trees and selector projections into Java classes when the execution plan is created, so
+ * they are evaluated by a single call working on unboxed values instead of walking the executor tree. Trees
+ * are compiled with the system Java compiler; when it is not available, e.g. when running on a JRE, or a tree
+ * cannot be compiled, the interpreted executors are used as they are. Each execution plan has its own compiler,
+ * generated classes are cached by their source, hence cloning a query for a partition only creates a new
+ * instance of the already compiled class, and the cache is cleared when the execution plan is shutdown.
+ */
+public class ExpressionCompiler {
+
+    static final String GENERATED_PACKAGE = "org.wso2.siddhi.core.executor.compiler.generated";
+    private static final Logger log = Logger.getLogger(ExpressionCompiler.class);
+    private static final String CLASS_NAME_PLACEHOLDER = "$CLASS_NAME$";
+
+    private final Map<String, Class<?>> compiledClasses = new HashMap<String, Class<?>>();
+    private final Set<String> failedSources = new HashSet<String>();
+    private final JavaCompiler javaCompiler;
+    private final List<String> compilerOptions;
+    private int classCount = 0;
+
+    public ExpressionCompiler() {
+        javaCompiler = ToolProvider.getSystemJavaCompiler();
+        if (javaCompiler == null) {
+            log.warn("Java compiler is not available, conditions and projections will not be compiled");
+        }
+        compilerOptions = Arrays.asList("-classpath", buildClassPath(), "-g:none");
+    }
+
+    /**
+     * @return true if expressions can be compiled with this compiler
+     */
+    public boolean isEnabled() {
+        return javaCompiler != null;
+    }
+
+    /**
+     * Compile the condition tree of a filter or a having clause.
+     *
+     * @param conditionExecutor root of the condition tree, of type BOOL
+     * @return a {@link CompiledConditionExpressionExecutor} evaluating the tree, or the given executor when
+     * nothing in the tree can be compiled
+     */
+    public ExpressionExecutor compileCondition(ExpressionExecutor conditionExecutor) {
+        if (conditionExecutor instanceof CompiledConditionExpressionExecutor) {
+            conditionExecutor = ((CompiledConditionExpressionExecutor) conditionExecutor).getConditionExecutor();
+        }
+        if (javaCompiler == null || conditionExecutor.getReturnType() != Attribute.Type.BOOL) {
+            return conditionExecutor;
+        }
+        JavaSourceBuilder sourceBuilder = new JavaSourceBuilder();
+        sourceBuilder.appendStatement("return " + sourceBuilder.condition(conditionExecutor) + ";");
+        if (sourceBuilder.getInlinedCount() == 0) {
+            return conditionExecutor;
+        }
+        CompiledCondition compiledCondition = (CompiledCondition) newInstance(sourceBuilder.build(
+                CLASS_NAME_PLACEHOLDER, CompiledCondition.class,
+                "boolean execute(" + ComplexEvent.class.getName() + " event)"), sourceBuilder.getExecutors());
+        if (compiledCondition == null) {
+            return conditionExecutor;
+        }
+        return new CompiledConditionExpressionExecutor(conditionExecutor, compiledCondition, this);
+    }
+
+    /**
+     * Compile the attribute processors of a selector into a single projection.
+     *
+     * @param attributeProcessorList attribute processors of the selector
+     * @return the projection setting the output data of all the attributes, or null when nothing in the
+     * attribute expressions can be compiled
+     */
+    public CompiledProjection compileProjection(List<AttributeProcessor> attributeProcessorList) {
+        if (javaCompiler == null) {
+            return null;
+        }
+        JavaSourceBuilder sourceBuilder = new JavaSourceBuilder();
+        for (AttributeProcessor attributeProcessor : attributeProcessorList) {
+            sourceBuilder.appendStatement("event.setOutputData(" +
+                    sourceBuilder.value(attributeProcessor.getExpressionExecutor()) + ", " +
+                    attributeProcessor.getOutputPosition() + ");");
+        }
+        if (sourceBuilder.getInlinedCount() == 0) {
+            return null;
+        }
+        return (CompiledProjection) newInstance(sourceBuilder.build(CLASS_NAME_PLACEHOLDER, CompiledProjection.class,
+                "void process(" + ComplexEvent.class.getName() + " event)"), sourceBuilder.getExecutors());
+    }
+
+    /**
+     * Forget the generated classes, so that they can be unloaded once their instances are not referenced
+     */
+    public synchronized void clear() {
+        compiledClasses.clear();
+        failedSources.clear();
+    }
+
+    private Object newInstance(String source, ExpressionExecutor[] executors) {
+        Class<?> compiledClass = getCompiledClass(source);
+        if (compiledClass == null) {
+            return null;
+        }
+        try {
+            Constructor<?> constructor = compiledClass.getConstructor(ExpressionExecutor[].class);
+            return constructor.newInstance(new Object[]{executors});
+        } catch (Exception e) {
+            log.warn("Cannot instantiate compiled class " + compiledClass.getName() + ", " + e.getMessage(), e);
+            return null;
+        }
+    }
+
+    private synchronized Class<?> getCompiledClass(String source) {
+        Class<?> compiledClass = compiledClasses.get(source);
+        if (compiledClass != null || failedSources.contains(source)) {
+            return compiledClass;
+        }
+        String className = "Compiled" + classCount++;
+        String qualifiedName = GENERATED_PACKAGE + "." + className;
+        String classSource = source.replace(CLASS_NAME_PLACEHOLDER, className);
+        try {
+            compiledClass = compile(qualifiedName, classSource);
+        } catch (Exception e) {
+            log.warn("Cannot compile class " + qualifiedName + ", " + e.getMessage(), e);
+        }
+        if (compiledClass == null) {
+            failedSources.add(source);
+        } else {
+            compiledClasses.put(source, compiledClass);
+        }
+        return compiledClass;
+    }
+
+    private Class<?> compile(String qualifiedName, String classSource) throws ClassNotFoundException {
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
+        StandardJavaFileManager standardFileManager = javaCompiler.getStandardFileManager(diagnostics, null, null);
+        final Map<String, ByteArrayOutputStream> classBytes = new HashMap<String, ByteArrayOutputStream>();
+        ForwardingJavaFileManager<StandardJavaFileManager> fileManager =
+                new ForwardingJavaFileManager<StandardJavaFileManager>(standardFileManager) {
+                    @Override
+                    public JavaFileObject getJavaFileForOutput(Location location, final String className,
+                                                               JavaFileObject.Kind kind, FileObject sibling) {
+                        return new SimpleJavaFileObject(URI.create("bytes:///" + className.replace('.', '/') +
+                                kind.extension), kind) {
+                            @Override
+                            public OutputStream openOutputStream() {
+                                ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+                                classBytes.put(className, outputStream);
+                                return outputStream;
+                            }
+                        };
+                    }
+                };
+        JavaFileObject sourceFile = new SourceFile(qualifiedName, classSource);
+        Boolean success;
+        try {
+            success = javaCompiler.getTask(null, fileManager, diagnostics, compilerOptions, null,
+                    Collections.singletonList(sourceFile)).call();
+        } finally {
+            try {
+                fileManager.close();
+            } catch (IOException e) {
+                log.debug("Cannot close the file manager of " + qualifiedName + ", " + e.getMessage());
+            }
+        }
+        if (!Boolean.TRUE.equals(success)) {
+            StringBuilder message = new StringBuilder();
+            for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+                message.append(diagnostic.getMessage(null)).append('\n');
+            }
+            log.warn("Cannot compile class " + qualifiedName + ", " + message + classSource);
+            return null;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Compiled class " + qualifiedName + "\n" + classSource);
+        }
+        return new CompiledClassLoader(ExpressionCompiler.class.getClassLoader(), classBytes).loadClass(qualifiedName);
+    }
+
+    /**
+     * @return class path of the application, including the locations of siddhi core and query api
+     */
+    private static String buildClassPath() {
+        Set<String> classPath = new LinkedHashSet<String>();
+        for (Class<?> aClass : new Class<?>[]{ExpressionCompiler.class, Attribute.class}) {
+            try {
+                CodeSource codeSource = aClass.getProtectionDomain().getCodeSource();
+                if (codeSource != null && codeSource.getLocation() != null) {
+                    classPath.add(new File(codeSource.getLocation().toURI()).getPath());
+                }
+            } catch (Exception e) {
+                log.debug("Cannot resolve the location of " + aClass.getName() + ", " + e.getMessage());
+            }
+        }
+        String systemClassPath = System.getProperty("java.class.path");
+        if (systemClassPath != null) {
+            classPath.addAll(Arrays.asList(systemClassPath.split(File.pathSeparator)));
+        }
+        StringBuilder classPathBuilder = new StringBuilder();
+        for (String entry : classPath) {
+            if (classPathBuilder.length() > 0) {
+                classPathBuilder.append(File.pathSeparator);
+            }
+            classPathBuilder.append(entry);
+        }
+        return classPathBuilder.toString();
+    }
+
+    private static class SourceFile extends SimpleJavaFileObject {
+
+        private final String source;
+
+        SourceFile(String qualifiedName, String source) {
+            super(URI.create("string:///" + qualifiedName.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+            this.source = source;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return source;
+        }
+    }
+
+    private static class CompiledClassLoader extends ClassLoader {
+
+        private final Map<String, ByteArrayOutputStream> classBytes;
+
+        CompiledClassLoader(ClassLoader parent, Map<String, ByteArrayOutputStream> classBytes) {
+            super(parent);
+            this.classBytes = classBytes;
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            ByteArrayOutputStream bytes = classBytes.get(name);
+            if (bytes == null) {
+                return super.findClass(name);
+            }
+            byte[] byteArray = bytes.toByteArray();
+            return defineClass(name, byteArray, 0, byteArray.length);
+        }
+    }
+}
@@ -0,0 +1,346 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.executor.compiler;
+
+import org.wso2.siddhi.core.executor.ConstantExpressionExecutor;
+import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.core.executor.PrimitiveExpressionExecutor;
+import org.wso2.siddhi.core.executor.VariableExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.AndConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.BoolConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.NotConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.OrConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.compare.CompareConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.compare.equal.EqualCompareConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.compare.greater_than.GreaterThanCompareConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.compare.greater_than_equal.GreaterThanEqualCompareConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.compare.less_than.LessThanCompareConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.compare.less_than_equal.LessThanEqualCompareConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.compare.not_equal.NotEqualCompareConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.math.MathExpressionExecutor;
+import org.wso2.siddhi.core.executor.math.Subtract.SubtractExpressionExecutorDouble;
+import org.wso2.siddhi.core.executor.math.Subtract.SubtractExpressionExecutorFloat;
+import org.wso2.siddhi.core.executor.math.Subtract.SubtractExpressionExecutorInt;
+import org.wso2.siddhi.core.executor.math.Subtract.SubtractExpressionExecutorLong;
+import org.wso2.siddhi.core.executor.math.add.AddExpressionExecutorDouble;
+import org.wso2.siddhi.core.executor.math.add.AddExpressionExecutorFloat;
+import org.wso2.siddhi.core.executor.math.add.AddExpressionExecutorInt;
+import org.wso2.siddhi.core.executor.math.add.AddExpressionExecutorLong;
+import org.wso2.siddhi.core.executor.math.multiply.MultiplyExpressionExecutorDouble;
+import org.wso2.siddhi.core.executor.math.multiply.MultiplyExpressionExecutorFloat;
+import org.wso2.siddhi.core.executor.math.multiply.MultiplyExpressionExecutorInt;
+import org.wso2.siddhi.core.executor.math.multiply.MultiplyExpressionExecutorLong;
+import org.wso2.siddhi.query.api.definition.Attribute;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the Java source of a class evaluating executor trees. The logical operators, the primitive comparisons,
+ * the add, subtract and multiply executors and the constants are inlined and evaluated on unboxed values, the
+ * variables are read through their primitive accessors and all other executors, e.g. functions and extensions,
+ * are kept as fields of the generated class and called as they are.
+ */
+class JavaSourceBuilder {
+
+    private static final String EVENT = "event";
+    private static final Map<Class<? extends ExpressionExecutor>, String> MATH_OPERATORS =
+            new HashMap<Class<? extends ExpressionExecutor>, String>();
+
+    static {
+        MATH_OPERATORS.put(AddExpressionExecutorInt.class, "+");
+        MATH_OPERATORS.put(AddExpressionExecutorLong.class, "+");
+        MATH_OPERATORS.put(AddExpressionExecutorFloat.class, "+");
+        MATH_OPERATORS.put(AddExpressionExecutorDouble.class, "+");
+        MATH_OPERATORS.put(SubtractExpressionExecutorInt.class, "-");
+        MATH_OPERATORS.put(SubtractExpressionExecutorLong.class, "-");
+        MATH_OPERATORS.put(SubtractExpressionExecutorFloat.class, "-");
+        MATH_OPERATORS.put(SubtractExpressionExecutorDouble.class, "-");
+        MATH_OPERATORS.put(MultiplyExpressionExecutorInt.class, "*");
+        MATH_OPERATORS.put(MultiplyExpressionExecutorLong.class, "*");
+        MATH_OPERATORS.put(MultiplyExpressionExecutorFloat.class, "*");
+        MATH_OPERATORS.put(MultiplyExpressionExecutorDouble.class, "*");
+    }
+
+    private final List<ExpressionExecutor> executors = new ArrayList<ExpressionExecutor>();
+    private final List<String> fieldTypes = new ArrayList<String>();
+    private final Map<ExpressionExecutor, Integer> fieldIndexes = new IdentityHashMap<ExpressionExecutor, Integer>();
+    private final StringBuilder body = new StringBuilder();
+    private int inlinedCount = 0;
+
+    /**
+     * @return number of executors evaluated by the generated code instead of being called
+     */
+    int getInlinedCount() {
+        return inlinedCount;
+    }
+
+    ExpressionExecutor[] getExecutors() {
+        return executors.toArray(new ExpressionExecutor[executors.size()]);
+    }
+
+    void appendStatement(String statement) {
+        body.append("        ").append(statement).append('\n');
+    }
+
+    /**
+     * @param className  simple name of the generated class
+     * @param superClass super class of the generated class
+     * @param method     signature of the method holding the appended statements
+     * @return source of the class, in the package of the generated classes
+     */
+    String build(String className, Class superClass, String method) {
+        StringBuilder source = new StringBuilder();
+        source.append("package ").append(ExpressionCompiler.GENERATED_PACKAGE).append(";\n\n");
+        source.append("public final class ").append(className).append(" extends ")
+                .append(superClass.getName()).append(" {\n\n");
+        for (int i = 0; i < fieldTypes.size(); i++) {
+            source.append("    private final ").append(fieldTypes.get(i)).append(" e").append(i).append(";\n");
+        }
+        source.append("\n    public ").append(className).append("(")
+                .append(ExpressionExecutor.class.getName()).append("[] executors) {\n");
+        for (int i = 0; i < fieldTypes.size(); i++) {
+            source.append("        e").append(i).append(" = (").append(fieldTypes.get(i)).append(") executors[")
+                    .append(i).append("];\n");
+        }
+        source.append("    }\n\n    public ").append(method).append(" {\n").append(body).append("    }\n}\n");
+        return source.toString();
+    }
+
+    /**
+     * @return java expression of type boolean evaluating the BOOL executor
+     */
+    String condition(ExpressionExecutor executor) {
+        if (executor instanceof CompiledConditionExpressionExecutor) {
+            executor = ((CompiledConditionExpressionExecutor) executor).getConditionExecutor();
+        }
+        if (executor instanceof BoolConditionExpressionExecutor) {
+            return condition(((BoolConditionExpressionExecutor) executor).getConditionExecutor());
+        }
+        if (executor instanceof AndConditionExpressionExecutor) {
+            inlinedCount++;
+            AndConditionExpressionExecutor andExecutor = (AndConditionExpressionExecutor) executor;
+            return "(" + condition(andExecutor.getLeftConditionExecutor()) + " && " +
+                    condition(andExecutor.getRightConditionExecutor()) + ")";
+        } else if (executor instanceof OrConditionExpressionExecutor) {
+            inlinedCount++;
+            OrConditionExpressionExecutor orExecutor = (OrConditionExpressionExecutor) executor;
+            return "(" + condition(orExecutor.getLeftConditionExecutor()) + " || " +
+                    condition(orExecutor.getRightConditionExecutor()) + ")";
+        } else if (executor instanceof NotConditionExpressionExecutor) {
+            inlinedCount++;
+            return "(!" + condition(((NotConditionExpressionExecutor) executor).getConditionExecutor()) + ")";
+        } else if (executor instanceof CompareConditionExpressionExecutor) {
+            String compare = compare((CompareConditionExpressionExecutor) executor);
+            if (compare != null) {
+                inlinedCount++;
+                return compare;
+            }
+        } else if (executor instanceof ConstantExpressionExecutor &&
+                ((ConstantExpressionExecutor) executor).getValue() instanceof Boolean) {
+            return ((ConstantExpressionExecutor) executor).getValue().toString();
+        }
+        return "((java.lang.Boolean) " + field(executor, ExpressionExecutor.class) + ".execute(" + EVENT + "))";
+    }
+
+    /**
+     * @return java expression evaluating the executor to an object, boxed the same way the executor does
+     */
+    String value(ExpressionExecutor executor) {
+        Attribute.Type type = executor.getReturnType();
+        if (type == Attribute.Type.BOOL && isInlined(executor)) {
+            return "java.lang.Boolean.valueOf(" + condition(executor) + ")";
+        }
+        if (executor instanceof MathExpressionExecutor && isInlined(executor)) {
+            PrimitiveExpressionExecutor primitiveExecutor = (PrimitiveExpressionExecutor) executor;
+            String value;
+            switch (type) {
+                case INT:
+                    value = "java.lang.Integer.valueOf((int) " + longValue(primitiveExecutor) + ")";
+                    break;
+                case LONG:
+                    value = "java.lang.Long.valueOf(" + longValue(primitiveExecutor) + ")";
+                    break;
+                case FLOAT:
+                    value = "java.lang.Float.valueOf((float) " + doubleValue(primitiveExecutor) + ")";
+                    break;
+                default:
+                    value = "java.lang.Double.valueOf(" + doubleValue(primitiveExecutor) + ")";
+                    break;
+            }
+            return "(" + isNull(primitiveExecutor) + " ? null : " + value + ")";
+        }
+        return field(executor, ExpressionExecutor.class) + ".execute(" + EVENT + ")";
+    }
+
+    private boolean isInlined(ExpressionExecutor executor) {
+        if (executor instanceof CompiledConditionExpressionExecutor) {
+            return true;
+        } else if (executor instanceof AndConditionExpressionExecutor ||
+                executor instanceof OrConditionExpressionExecutor ||
+                executor instanceof NotConditionExpressionExecutor) {
+            return true;
+        } else if (executor instanceof CompareConditionExpressionExecutor) {
+            return operator((CompareConditionExpressionExecutor) executor) != null &&
+                    ((CompareConditionExpressionExecutor) executor).getPrimitiveCompareMode() !=
+                            CompareConditionExpressionExecutor.PrimitiveCompareMode.NONE;
+        }
+        return MATH_OPERATORS.containsKey(executor.getClass()) && ((MathExpressionExecutor) executor).isPrimitive();
+    }
+
+    private String compare(CompareConditionExpressionExecutor executor) {
+        String operator = operator(executor);
+        if (operator == null) {
+            return null;
+        }
+        PrimitiveExpressionExecutor left = MathExpressionExecutor.asPrimitive(executor.getLeftExpressionExecutor());
+        PrimitiveExpressionExecutor right = MathExpressionExecutor.asPrimitive(executor.getRightExpressionExecutor());
+        String leftValue;
+        String rightValue;
+        switch (executor.getPrimitiveCompareMode()) {
+            case LONG:
+                leftValue = longValue(left);
+                rightValue = longValue(right);
+                break;
+            case FLOAT:
+                leftValue = floatValue(left);
+                rightValue = floatValue(right);
+                break;
+            case DOUBLE:
+                leftValue = widenedDoubleValue(left);
+                rightValue = widenedDoubleValue(right);
+                break;
+            default:
+                return null;
+        }
+        return "(!(" + isNull(left) + " || " + isNull(right) + ") && " + leftValue + " " + operator + " " +
+                rightValue + ")";
+    }
+
+    private static String operator(CompareConditionExpressionExecutor executor) {
+        if (executor instanceof EqualCompareConditionExpressionExecutor) {
+            return "==";
+        } else if (executor instanceof NotEqualCompareConditionExpressionExecutor) {
+            return "!=";
+        } else if (executor instanceof GreaterThanCompareConditionExpressionExecutor) {
+            return ">";
+        } else if (executor instanceof GreaterThanEqualCompareConditionExpressionExecutor) {
+            return ">=";
+        } else if (executor instanceof LessThanCompareConditionExpressionExecutor) {
+            return "<";
+        } else if (executor instanceof LessThanEqualCompareConditionExpressionExecutor) {
+            return "<=";
+        }
+        return null;
+    }
+
+    private String isNull(PrimitiveExpressionExecutor executor) {
+        if (executor instanceof ConstantExpressionExecutor) {
+            return String.valueOf(((ConstantExpressionExecutor) executor).getValue() == null);
+        } else if (isInlinedMath(executor)) {
+            MathExpressionExecutor mathExecutor = (MathExpressionExecutor) executor;
+            return "(" + isNull(MathExpressionExecutor.asPrimitive(mathExecutor.getLeftExpressionExecutor())) +
+                    " || " + isNull(MathExpressionExecutor.asPrimitive(mathExecutor.getRightExpressionExecutor())) +
+                    ")";
+        }
+        return primitiveField(executor) + ".isNull(" + EVENT + ")";
+    }
+
+    /**
+     * @return java expression of type long evaluating an INT or LONG primitive executor
+     */
+    private String longValue(PrimitiveExpressionExecutor executor) {
+        if (executor instanceof ConstantExpressionExecutor) {
+            return "(" + executor.executeLong(null) + "L)";
+        } else if (isInlinedMath(executor)) {
+            inlinedCount++;
+            MathExpressionExecutor mathExecutor = (MathExpressionExecutor) executor;
+            String operator = MATH_OPERATORS.get(executor.getClass());
+            String left = longValue(MathExpressionExecutor.asPrimitive(mathExecutor.getLeftExpressionExecutor()));
+            String right = longValue(MathExpressionExecutor.asPrimitive(mathExecutor.getRightExpressionExecutor()));
+            if (executor.getReturnType() == Attribute.Type.INT) {
+                return "((long) ((int) " + left + " " + operator + " (int) " + right + "))";
+            }
+            return "(" + left + " " + operator + " " + right + ")";
+        }
+        return primitiveField(executor) + ".executeLong(" + EVENT + ")";
+    }
+
+    /**
+     * @return java expression of type double evaluating a FLOAT or DOUBLE primitive executor
+     */
+    private String doubleValue(PrimitiveExpressionExecutor executor) {
+        if (executor instanceof ConstantExpressionExecutor) {
+            return doubleLiteral(executor.executeDouble(null));
+        } else if (isInlinedMath(executor)) {
+            inlinedCount++;
+            MathExpressionExecutor mathExecutor = (MathExpressionExecutor) executor;
+            String operator = MATH_OPERATORS.get(executor.getClass());
+            PrimitiveExpressionExecutor left = MathExpressionExecutor.asPrimitive(mathExecutor.getLeftExpressionExecutor());
+            PrimitiveExpressionExecutor right = MathExpressionExecutor.asPrimitive(mathExecutor.getRightExpressionExecutor());
+            if (executor.getReturnType() == Attribute.Type.FLOAT) {
+                return "((double) (" + floatValue(left) + " " + operator + " " + floatValue(right) + "))";
+            }
+            return "(" + widenedDoubleValue(left) + " " + operator + " " + widenedDoubleValue(right) + ")";
+        }
+        return primitiveField(executor) + ".executeDouble(" + EVENT + ")";
+    }
+
+    private String floatValue(PrimitiveExpressionExecutor executor) {
+        if (MathExpressionExecutor.isIntegral(executor.getReturnType())) {
+            return "((float) " + longValue(executor) + ")";
+        }
+        return "((float) " + doubleValue(executor) + ")";
+    }
+
+    private String widenedDoubleValue(PrimitiveExpressionExecutor executor) {
+        if (MathExpressionExecutor.isIntegral(executor.getReturnType())) {
+            return "((double) " + longValue(executor) + ")";
+        }
+        return doubleValue(executor);
+    }
+
+    private boolean isInlinedMath(PrimitiveExpressionExecutor executor) {
+        return MATH_OPERATORS.containsKey(executor.getClass()) && executor.isPrimitive();
+    }
+
+    private static String doubleLiteral(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return "java.lang.Double.longBitsToDouble(" + Double.doubleToRawLongBits(value) + "L)";
+        }
+        return "(" + Double.toString(value) + "d)";
+    }
+
+    private String primitiveField(PrimitiveExpressionExecutor executor) {
+        if (executor instanceof VariableExpressionExecutor) {
+            return field(executor, VariableExpressionExecutor.class);
+        }
+        return field(executor, PrimitiveExpressionExecutor.class);
+    }
+
+    private String field(ExpressionExecutor executor, Class<? extends ExpressionExecutor> type) {
+        Integer index = fieldIndexes.get(executor);
+        if (index == null) {
+            index = executors.size();
+            fieldIndexes.put(executor, index);
+            executors.add(executor);
+            fieldTypes.add(type.getName());
+        }
+        return "e" + index;
+    }
+}
@@ -17,6 +17,7 @@ package org.wso2.siddhi.core.executor.condition;
 
 import org.wso2.siddhi.core.event.ComplexEvent;
 import org.wso2.siddhi.core.exception.OperationNotSupportedException;
+import org.wso2.siddhi.core.executor.EventBatch;
 import org.wso2.siddhi.core.executor.ExpressionExecutor;
 import org.wso2.siddhi.query.api.definition.Attribute;
 
@@ -24,6 +25,7 @@ public class AndConditionExpressionExecutor extends ConditionExpressionExecutor
 
     protected ExpressionExecutor leftConditionExecutor;
     protected ExpressionExecutor rightConditionExecutor;
+    private OperandOrder operandOrder;
 
     public AndConditionExpressionExecutor(ExpressionExecutor leftConditionExecutor,
                                           ExpressionExecutor rightConditionExecutor) {
@@ -32,6 +34,7 @@ public class AndConditionExpressionExecutor extends ConditionExpressionExecutor
 
             this.leftConditionExecutor = leftConditionExecutor;
             this.rightConditionExecutor = rightConditionExecutor;
+            this.operandOrder = new OperandOrder(true, leftConditionExecutor, rightConditionExecutor);
         } else {
             if (!leftConditionExecutor.getReturnType().equals(Attribute.Type.BOOL)) {
                 throw new OperationNotSupportedException("Return type of condition executor " + leftConditionExecutor.toString() + " should be of type BOOL. " +
@@ -49,12 +52,36 @@ public class AndConditionExpressionExecutor extends ConditionExpressionExecutor
     }
 
     public Boolean execute(ComplexEvent event) {
-        return (Boolean) leftConditionExecutor.execute(event) && (Boolean) rightConditionExecutor.execute(event);
+        return operandOrder.execute(event);
+    }
+
+    @Override
+    public void execute(EventBatch batch, boolean[] selection) {
+        operandOrder.execute(batch, selection);
     }
 
     @Override
     public ExpressionExecutor cloneExecutor(String key) {
-        return new AndConditionExpressionExecutor(leftConditionExecutor.cloneExecutor(key), rightConditionExecutor.cloneExecutor(key));
+        AndConditionExpressionExecutor clonedExecutor = new AndConditionExpressionExecutor(
+                leftConditionExecutor.cloneExecutor(key), rightConditionExecutor.cloneExecutor(key));
+        clonedExecutor.operandOrder = new OperandOrder(true, clonedExecutor.leftConditionExecutor,
+                clonedExecutor.rightConditionExecutor, operandOrder);
+        return clonedExecutor;
+    }
+
+    public ExpressionExecutor getLeftConditionExecutor() {
+        return leftConditionExecutor;
+    }
+
+    public ExpressionExecutor getRightConditionExecutor() {
+        return rightConditionExecutor;
+    }
+
+    /**
+     * @return the order the operands are evaluated in
+     */
+    public OperandOrder getOperandOrder() {
+        return operandOrder;
     }
 
 }
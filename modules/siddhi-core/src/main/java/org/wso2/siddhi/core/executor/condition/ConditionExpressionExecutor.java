@@ -16,6 +16,7 @@
 package org.wso2.siddhi.core.executor.condition;
 
 import org.wso2.siddhi.core.event.ComplexEvent;
+import org.wso2.siddhi.core.executor.EventBatch;
 import org.wso2.siddhi.core.executor.ExpressionExecutor;
 import org.wso2.siddhi.query.api.definition.Attribute;
 
@@ -31,4 +32,20 @@ public abstract class ConditionExpressionExecutor implements ExpressionExecutor
 
     public abstract Boolean execute(ComplexEvent event);
 
+    /**
+     * Evaluate the condition for the selected events of the batch. Condition executors that do not
+     * override this evaluate the events one by one through {@link #execute(ComplexEvent)}.
+     *
+     * @param batch     events to be evaluated
+     * @param selection the events to be evaluated, on return only the events the condition holds for
+     */
+    public void execute(EventBatch batch, boolean[] selection) {
+        ComplexEvent[] events = batch.getEvents();
+        for (int i = 0, size = batch.size(); i < size; i++) {
+            if (selection[i]) {
+                selection[i] = execute(events[i]);
+            }
+        }
+    }
+
 }
@@ -17,16 +17,19 @@ package org.wso2.siddhi.core.executor.condition;
 
 import org.wso2.siddhi.core.event.ComplexEvent;
 import org.wso2.siddhi.core.exception.OperationNotSupportedException;
+import org.wso2.siddhi.core.executor.EventBatch;
 import org.wso2.siddhi.core.executor.ExpressionExecutor;
 import org.wso2.siddhi.query.api.definition.Attribute;
 
 public class NotConditionExpressionExecutor extends ConditionExpressionExecutor {
 
     protected ExpressionExecutor conditionExecutor;
+    private ConditionExpressionExecutor condition;
 
     public NotConditionExpressionExecutor(ExpressionExecutor conditionExecutor) {
         if (conditionExecutor.getReturnType().equals(Attribute.Type.BOOL)) {
             this.conditionExecutor = conditionExecutor;
+            this.condition = BoolConditionExpressionExecutor.asCondition(conditionExecutor);
         } else {
             throw new OperationNotSupportedException("Return type of condition executor " + conditionExecutor.toString() + " should be of type BOOL. " +
                     "Actual Type: " + conditionExecutor.getReturnType().toString());
@@ -37,10 +40,25 @@ public class NotConditionExpressionExecutor extends ConditionExpressionExecutor
         return !(Boolean) conditionExecutor.execute(event);
     }
 
+    @Override
+    public void execute(EventBatch batch, boolean[] selection) {
+        int size = batch.size();
+        boolean[] matched = batch.takeBooleans();
+        System.arraycopy(selection, 0, matched, 0, size);
+        condition.execute(batch, matched);
+        for (int i = 0; i < size; i++) {
+            selection[i] &= !matched[i];
+        }
+        batch.giveBack(matched);
+    }
+
     @Override
     public ExpressionExecutor cloneExecutor(String key) {
         return new NotConditionExpressionExecutor(conditionExecutor.cloneExecutor(key));
     }
 
+    public ExpressionExecutor getConditionExecutor() {
+        return conditionExecutor;
+    }
 
 }
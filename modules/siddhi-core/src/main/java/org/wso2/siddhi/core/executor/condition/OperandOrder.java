@@ -0,0 +1,368 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.executor.condition;
+
+import org.wso2.siddhi.core.event.ComplexEvent;
+import org.wso2.siddhi.core.executor.EventBatch;
+import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.core.executor.ExpressionExecutorHelper;
+
+import java.util.List;
+
+/**
+ * Order in which an and/or condition evaluates its two operands. The cost and the outcome of the operands are
+ * sampled while the condition is evaluated, and the operands are swapped when starting with the other operand
+ * is expected to be cheaper: an and condition starts with the operand having the lowest
+ * cost / (1 - pass rate), and an or condition with the operand having the lowest cost / pass rate.
+ * <p/>
+ * Operands are only reordered when neither of them keeps state, i.e. they consist of conditions, arithmetic,
+ * attributes, constants, table lookups and deterministic functions, so the result of the condition does not
+ * depend on the order. When an operand evaluated out of the source order throws an exception, reordering is
+ * turned off and the event is evaluated again in the source order.
+ * <p/>
+ * The statistics are updated without synchronization, hence concurrent evaluations can lose some samples.
+ */
+public class OperandOrder {
+
+    private static final int SAMPLE_INTERVAL_MASK = 63;
+    private static final int SAMPLES_PER_DECISION = 256;
+    private static final int MIN_OPERAND_SAMPLES = 16;
+    private static final double SWAP_THRESHOLD = 0.8;
+    private static final double MIN_DECIDING_RATE = 0.001;
+
+    private final boolean and;
+    private final ExpressionExecutor leftExecutor;
+    private final ExpressionExecutor rightExecutor;
+    private final ConditionExpressionExecutor leftCondition;
+    private final ConditionExpressionExecutor rightCondition;
+    private final OperandStatistics leftStatistics = new OperandStatistics();
+    private final OperandStatistics rightStatistics = new OperandStatistics();
+    private volatile boolean adaptive;
+    private volatile boolean swapped = false;
+    private int evaluationCount = 0;
+    private int samplesSinceDecision = 0;
+    private volatile int reorderCount = 0;
+
+    /**
+     * @param and           true for an and condition, false for an or condition
+     * @param leftExecutor  left operand
+     * @param rightExecutor right operand
+     */
+    public OperandOrder(boolean and, ExpressionExecutor leftExecutor, ExpressionExecutor rightExecutor) {
+        this.and = and;
+        this.leftExecutor = leftExecutor;
+        this.rightExecutor = rightExecutor;
+        this.leftCondition = BoolConditionExpressionExecutor.asCondition(leftExecutor);
+        this.rightCondition = BoolConditionExpressionExecutor.asCondition(rightExecutor);
+        this.adaptive = ExpressionExecutorHelper.isStateless(leftExecutor) &&
+                ExpressionExecutorHelper.isStateless(rightExecutor);
+    }
+
+    /**
+     * @param and           true for an and condition, false for an or condition
+     * @param leftExecutor  left operand
+     * @param rightExecutor right operand
+     * @param learnedOrder  order of the condition this condition is cloned from, whose learned order is kept
+     */
+    public OperandOrder(boolean and, ExpressionExecutor leftExecutor, ExpressionExecutor rightExecutor,
+                        OperandOrder learnedOrder) {
+        this(and, leftExecutor, rightExecutor);
+        this.adaptive = adaptive && learnedOrder.adaptive;
+        this.swapped = adaptive && learnedOrder.swapped;
+    }
+
+    public boolean execute(ComplexEvent event) {
+        if (!swapped) {
+            if (adaptive && (++evaluationCount & SAMPLE_INTERVAL_MASK) == 0) {
+                return executeSampled(event, leftExecutor, leftStatistics, rightExecutor, rightStatistics);
+            }
+            return execute(event, leftExecutor, rightExecutor);
+        }
+        try {
+            if ((++evaluationCount & SAMPLE_INTERVAL_MASK) == 0) {
+                return executeSampled(event, rightExecutor, rightStatistics, leftExecutor, leftStatistics);
+            }
+            return execute(event, rightExecutor, leftExecutor);
+        } catch (RuntimeException e) {
+            disable();
+            return execute(event, leftExecutor, rightExecutor);
+        }
+    }
+
+    private boolean execute(ComplexEvent event, ExpressionExecutor first, ExpressionExecutor second) {
+        if (and) {
+            return (Boolean) first.execute(event) && (Boolean) second.execute(event);
+        } else {
+            return (Boolean) first.execute(event) || (Boolean) second.execute(event);
+        }
+    }
+
+    private boolean executeSampled(ComplexEvent event, ExpressionExecutor first, OperandStatistics firstStatistics,
+                                   ExpressionExecutor second, OperandStatistics secondStatistics) {
+        long start = System.nanoTime();
+        boolean result = (Boolean) first.execute(event);
+        long end = System.nanoTime();
+        firstStatistics.add(1, result ? 1 : 0, end - start);
+        if (result == and) {
+            result = (Boolean) second.execute(event);
+            secondStatistics.add(1, result ? 1 : 0, System.nanoTime() - end);
+            sampled(2);
+        } else {
+            sampled(1);
+        }
+        return result;
+    }
+
+    /**
+     * Evaluate the condition for the selected events of the batch, timing the evaluation of each operand
+     *
+     * @param batch     events to be evaluated
+     * @param selection the events to be evaluated, on return only the events the condition holds for
+     */
+    public void execute(EventBatch batch, boolean[] selection) {
+        if (!swapped) {
+            execute(batch, selection, leftCondition, leftStatistics, rightCondition, rightStatistics);
+            return;
+        }
+        int size = batch.size();
+        boolean[] initialSelection = batch.takeBooleans();
+        System.arraycopy(selection, 0, initialSelection, 0, size);
+        try {
+            execute(batch, selection, rightCondition, rightStatistics, leftCondition, leftStatistics);
+        } catch (RuntimeException e) {
+            disable();
+            System.arraycopy(initialSelection, 0, selection, 0, size);
+            execute(batch, selection, leftCondition, leftStatistics, rightCondition, rightStatistics);
+        }
+        batch.giveBack(initialSelection);
+    }
+
+    private void execute(EventBatch batch, boolean[] selection, ConditionExpressionExecutor first,
+                         OperandStatistics firstStatistics, ConditionExpressionExecutor second,
+                         OperandStatistics secondStatistics) {
+        int size = batch.size();
+        boolean adaptive = this.adaptive;
+        int selected = adaptive ? count(selection, size) : 0;
+        if (and) {
+            long start = System.nanoTime();
+            first.execute(batch, selection);
+            long end = System.nanoTime();
+            int passed = adaptive ? count(selection, size) : 0;
+            second.execute(batch, selection);
+            if (adaptive) {
+                firstStatistics.add(selected, passed, end - start);
+                secondStatistics.add(passed, count(selection, size), System.nanoTime() - end);
+                sampled(selected + passed);
+            }
+        } else {
+            boolean[] remaining = batch.takeBooleans();
+            System.arraycopy(selection, 0, remaining, 0, size);
+            long start = System.nanoTime();
+            first.execute(batch, selection);
+            long end = System.nanoTime();
+            for (int i = 0; i < size; i++) {
+                remaining[i] &= !selection[i];
+            }
+            int passed = adaptive ? selected - count(remaining, size) : 0;
+            second.execute(batch, remaining);
+            if (adaptive) {
+                firstStatistics.add(selected, passed, end - start);
+                secondStatistics.add(selected - passed, count(remaining, size), System.nanoTime() - end);
+                sampled(selected + selected - passed);
+            }
+            for (int i = 0; i < size; i++) {
+                selection[i] |= remaining[i];
+            }
+            batch.giveBack(remaining);
+        }
+    }
+
+    private static int count(boolean[] selection, int size) {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (selection[i]) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void sampled(int samples) {
+        samplesSinceDecision += samples;
+        if (samplesSinceDecision >= SAMPLES_PER_DECISION) {
+            decide();
+        }
+    }
+
+    /**
+     * Swap the operands if the other order is expected to be cheaper, and age the statistics
+     * so that the order follows changes of the events
+     */
+    private synchronized void decide() {
+        samplesSinceDecision = 0;
+        if (!adaptive) {
+            return;
+        }
+        if (leftStatistics.samples >= MIN_OPERAND_SAMPLES && rightStatistics.samples >= MIN_OPERAND_SAMPLES) {
+            double leftRank = leftStatistics.rank();
+            double rightRank = rightStatistics.rank();
+            if (swapped ? leftRank < rightRank * SWAP_THRESHOLD : rightRank < leftRank * SWAP_THRESHOLD) {
+                swapped = !swapped;
+                reorderCount++;
+            }
+        }
+        leftStatistics.age();
+        rightStatistics.age();
+    }
+
+    private void disable() {
+        adaptive = false;
+        swapped = false;
+    }
+
+    /**
+     * @return true if the operands can be reordered
+     */
+    public boolean isAdaptive() {
+        return adaptive;
+    }
+
+    /**
+     * @return true if the right operand is currently evaluated first
+     */
+    public boolean isSwapped() {
+        return swapped;
+    }
+
+    /**
+     * @return true for an and condition, false for an or condition
+     */
+    public boolean isAnd() {
+        return and;
+    }
+
+    /**
+     * @return the operand currently evaluated first
+     */
+    public ExpressionExecutor getFirstOperand() {
+        return swapped ? rightExecutor : leftExecutor;
+    }
+
+    /**
+     * @return the operand currently evaluated second
+     */
+    public ExpressionExecutor getSecondOperand() {
+        return swapped ? leftExecutor : rightExecutor;
+    }
+
+    public OperandStatistics getLeftStatistics() {
+        return leftStatistics;
+    }
+
+    public OperandStatistics getRightStatistics() {
+        return rightStatistics;
+    }
+
+    /**
+     * @return number of times the operands were swapped
+     */
+    public int getReorderCount() {
+        return reorderCount;
+    }
+
+    @Override
+    public String toString() {
+        return (and ? "and" : "or") + "{" + (swapped ? "right first" : "left first") +
+                (adaptive ? "" : ", fixed") + ", reorders=" + reorderCount +
+                ", left=" + leftStatistics + ", right=" + rightStatistics + "}";
+    }
+
+    /**
+     * Collect the operand orders of the and/or conditions in the given condition
+     *
+     * @param conditionExecutor condition executor
+     * @param operandOrders     list the operand orders are added to
+     */
+    public static void collect(ExpressionExecutor conditionExecutor, List<OperandOrder> operandOrders) {
+        if (conditionExecutor instanceof AndConditionExpressionExecutor) {
+            AndConditionExpressionExecutor andExecutor = (AndConditionExpressionExecutor) conditionExecutor;
+            operandOrders.add(andExecutor.getOperandOrder());
+            collect(andExecutor.getLeftConditionExecutor(), operandOrders);
+            collect(andExecutor.getRightConditionExecutor(), operandOrders);
+        } else if (conditionExecutor instanceof OrConditionExpressionExecutor) {
+            OrConditionExpressionExecutor orExecutor = (OrConditionExpressionExecutor) conditionExecutor;
+            operandOrders.add(orExecutor.getOperandOrder());
+            collect(orExecutor.getLeftConditionExecutor(), operandOrders);
+            collect(orExecutor.getRightConditionExecutor(), operandOrders);
+        } else if (conditionExecutor instanceof NotConditionExpressionExecutor) {
+            collect(((NotConditionExpressionExecutor) conditionExecutor).getConditionExecutor(), operandOrders);
+        } else if (conditionExecutor instanceof BoolConditionExpressionExecutor) {
+            collect(((BoolConditionExpressionExecutor) conditionExecutor).getConditionExecutor(), operandOrders);
+        }
+    }
+
+    /**
+     * Sampled evaluations of an operand
+     */
+    public class OperandStatistics {
+
+        private double samples = 0;
+        private double passed = 0;
+        private double nanos = 0;
+
+        private void add(int samples, int passed, long nanos) {
+            this.samples += samples;
+            this.passed += passed;
+            this.nanos += nanos;
+        }
+
+        private void age() {
+            samples /= 2;
+            passed /= 2;
+            nanos /= 2;
+        }
+
+        private double rank() {
+            double decidingRate = and ? 1 - getPassRate() : getPassRate();
+            return getAverageCost() / Math.max(decidingRate, MIN_DECIDING_RATE);
+        }
+
+        /**
+         * @return number of sampled evaluations, where older samples weigh less
+         */
+        public double getSampleCount() {
+            return samples;
+        }
+
+        /**
+         * @return fraction of the sampled evaluations the operand held for
+         */
+        public double getPassRate() {
+            return samples == 0 ? 0 : passed / samples;
+        }
+
+        /**
+         * @return average evaluation time in nanoseconds
+         */
+        public double getAverageCost() {
+            return samples == 0 ? 0 : nanos / samples;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("{samples=%.0f, passRate=%.3f, cost=%.1fns}", samples, getPassRate(), getAverageCost());
+        }
+    }
+}
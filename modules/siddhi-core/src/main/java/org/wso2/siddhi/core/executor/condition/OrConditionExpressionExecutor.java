@@ -17,6 +17,7 @@ package org.wso2.siddhi.core.executor.condition;
 
 import org.wso2.siddhi.core.event.ComplexEvent;
 import org.wso2.siddhi.core.exception.OperationNotSupportedException;
+import org.wso2.siddhi.core.executor.EventBatch;
 import org.wso2.siddhi.core.executor.ExpressionExecutor;
 import org.wso2.siddhi.query.api.definition.Attribute;
 
@@ -24,6 +25,7 @@ public class OrConditionExpressionExecutor extends ConditionExpressionExecutor {
 
     protected ExpressionExecutor leftConditionExecutor;
     protected ExpressionExecutor rightConditionExecutor;
+    private OperandOrder operandOrder;
 
     public OrConditionExpressionExecutor(ExpressionExecutor leftConditionExecutor,
                                          ExpressionExecutor rightConditionExecutor) {
@@ -32,6 +34,7 @@ public class OrConditionExpressionExecutor extends ConditionExpressionExecutor {
 
             this.leftConditionExecutor = leftConditionExecutor;
             this.rightConditionExecutor = rightConditionExecutor;
+            this.operandOrder = new OperandOrder(false, leftConditionExecutor, rightConditionExecutor);
         } else {
             if (!leftConditionExecutor.getReturnType().equals(Attribute.Type.BOOL)) {
                 throw new OperationNotSupportedException("Return type of condition executor " + leftConditionExecutor.toString() + " should be of type BOOL. " +
@@ -48,13 +51,36 @@ public class OrConditionExpressionExecutor extends ConditionExpressionExecutor {
     }
 
     public Boolean execute(ComplexEvent event) {
-        return (Boolean) leftConditionExecutor.execute(event) || (Boolean) rightConditionExecutor.execute(event);
+        return operandOrder.execute(event);
+    }
+
+    @Override
+    public void execute(EventBatch batch, boolean[] selection) {
+        operandOrder.execute(batch, selection);
     }
 
     @Override
     public ExpressionExecutor cloneExecutor(String key) {
-        return new OrConditionExpressionExecutor(leftConditionExecutor.cloneExecutor(key), rightConditionExecutor.cloneExecutor(key));
+        OrConditionExpressionExecutor clonedExecutor = new OrConditionExpressionExecutor(
+                leftConditionExecutor.cloneExecutor(key), rightConditionExecutor.cloneExecutor(key));
+        clonedExecutor.operandOrder = new OperandOrder(false, clonedExecutor.leftConditionExecutor,
+                clonedExecutor.rightConditionExecutor, operandOrder);
+        return clonedExecutor;
+    }
+
+    public ExpressionExecutor getLeftConditionExecutor() {
+        return leftConditionExecutor;
+    }
+
+    public ExpressionExecutor getRightConditionExecutor() {
+        return rightConditionExecutor;
     }
 
+    /**
+     * @return the order the operands are evaluated in
+     */
+    public OperandOrder getOperandOrder() {
+        return operandOrder;
+    }
 
 }
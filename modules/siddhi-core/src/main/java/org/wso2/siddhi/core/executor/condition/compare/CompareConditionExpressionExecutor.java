@@ -15,28 +15,189 @@
 package org.wso2.siddhi.core.executor.condition.compare;
 
 import org.wso2.siddhi.core.event.ComplexEvent;
+import org.wso2.siddhi.core.exception.OperationNotSupportedException;
+import org.wso2.siddhi.core.executor.EventBatch;
 import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.core.executor.PrimitiveExpressionExecutor;
 import org.wso2.siddhi.core.executor.condition.ConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.math.MathExpressionExecutor;
+import org.wso2.siddhi.query.api.definition.Attribute;
 
-
+/**
+ * Compares the values of two executors. When both operands can be evaluated without boxing the values are
+ * compared as primitives, promoted the same way Java promotes the operands of a numeric comparison;
+ * otherwise the boxed values are handed to {@link #execute(Object, Object)}.
+ */
 public abstract class CompareConditionExpressionExecutor extends ConditionExpressionExecutor {
 
+    public enum PrimitiveCompareMode {NONE, LONG, FLOAT, DOUBLE}
+
     protected ExpressionExecutor leftExpressionExecutor;
     protected ExpressionExecutor rightExpressionExecutor;
+    protected PrimitiveCompareMode primitiveCompareMode;
+    private PrimitiveExpressionExecutor leftPrimitiveExecutor;
+    private PrimitiveExpressionExecutor rightPrimitiveExecutor;
+    private boolean leftIntegral;
+    private boolean rightIntegral;
 
     public CompareConditionExpressionExecutor(ExpressionExecutor leftExpressionExecutor,
                                               ExpressionExecutor rightExpressionExecutor) {
         this.leftExpressionExecutor = leftExpressionExecutor;
         this.rightExpressionExecutor = rightExpressionExecutor;
+        this.leftPrimitiveExecutor = MathExpressionExecutor.asPrimitive(leftExpressionExecutor);
+        this.rightPrimitiveExecutor = MathExpressionExecutor.asPrimitive(rightExpressionExecutor);
+        Attribute.Type leftType = leftExpressionExecutor.getReturnType();
+        Attribute.Type rightType = rightExpressionExecutor.getReturnType();
+        this.leftIntegral = MathExpressionExecutor.isIntegral(leftType);
+        this.rightIntegral = MathExpressionExecutor.isIntegral(rightType);
+        if (leftPrimitiveExecutor == null || rightPrimitiveExecutor == null) {
+            primitiveCompareMode = PrimitiveCompareMode.NONE;
+        } else if (leftIntegral && rightIntegral) {
+            primitiveCompareMode = PrimitiveCompareMode.LONG;
+        } else if (leftType == Attribute.Type.DOUBLE || rightType == Attribute.Type.DOUBLE) {
+            primitiveCompareMode = PrimitiveCompareMode.DOUBLE;
+        } else {
+            primitiveCompareMode = PrimitiveCompareMode.FLOAT;
+        }
     }
 
 
     public Boolean execute(ComplexEvent event) {
-        Object left = leftExpressionExecutor.execute(event);
-        Object right = rightExpressionExecutor.execute(event);
-        return !(left == null || right == null) && execute(left, right);
+        switch (primitiveCompareMode) {
+            case LONG:
+                return !(leftPrimitiveExecutor.isNull(event) || rightPrimitiveExecutor.isNull(event)) &&
+                        compare(leftPrimitiveExecutor.executeLong(event), rightPrimitiveExecutor.executeLong(event));
+            case FLOAT:
+                return !(leftPrimitiveExecutor.isNull(event) || rightPrimitiveExecutor.isNull(event)) &&
+                        compare((double) executeLeftFloat(event), (double) executeRightFloat(event));
+            case DOUBLE:
+                return !(leftPrimitiveExecutor.isNull(event) || rightPrimitiveExecutor.isNull(event)) &&
+                        compare(executeLeftDouble(event), executeRightDouble(event));
+            default:
+                Object left = leftExpressionExecutor.execute(event);
+                Object right = rightExpressionExecutor.execute(event);
+                return !(left == null || right == null) && execute(left, right);
+        }
+    }
+
+    /**
+     * Compare the primitive operands of the whole batch, evaluating each operand in one call and
+     * comparing the values in a tight loop
+     */
+    @Override
+    public void execute(EventBatch batch, boolean[] selection) {
+        switch (primitiveCompareMode) {
+            case LONG: {
+                long[] left = batch.takeLongs();
+                long[] right = batch.takeLongs();
+                boolean[] leftNulls = batch.takeBooleans();
+                boolean[] rightNulls = batch.takeBooleans();
+                leftPrimitiveExecutor.executeLong(batch, selection, left, leftNulls);
+                rightPrimitiveExecutor.executeLong(batch, selection, right, rightNulls);
+                excludeNulls(selection, leftNulls, rightNulls, batch.size());
+                compare(left, right, selection, batch.size());
+                batch.giveBack(rightNulls);
+                batch.giveBack(leftNulls);
+                batch.giveBack(right);
+                batch.giveBack(left);
+                break;
+            }
+            case FLOAT:
+            case DOUBLE: {
+                boolean roundToFloat = primitiveCompareMode == PrimitiveCompareMode.FLOAT;
+                double[] left = batch.takeDoubles();
+                double[] right = batch.takeDoubles();
+                boolean[] leftNulls = batch.takeBooleans();
+                boolean[] rightNulls = batch.takeBooleans();
+                MathExpressionExecutor.executeDouble(leftPrimitiveExecutor, roundToFloat, batch, selection, left, leftNulls);
+                MathExpressionExecutor.executeDouble(rightPrimitiveExecutor, roundToFloat, batch, selection, right, rightNulls);
+                excludeNulls(selection, leftNulls, rightNulls, batch.size());
+                compare(left, right, selection, batch.size());
+                batch.giveBack(rightNulls);
+                batch.giveBack(leftNulls);
+                batch.giveBack(right);
+                batch.giveBack(left);
+                break;
+            }
+            default:
+                super.execute(batch, selection);
+        }
+    }
+
+    private static void excludeNulls(boolean[] selection, boolean[] leftNulls, boolean[] rightNulls, int size) {
+        for (int i = 0; i < size; i++) {
+            selection[i] &= !(leftNulls[i] | rightNulls[i]);
+        }
+    }
+
+    private float executeLeftFloat(ComplexEvent event) {
+        return leftIntegral ? (float) leftPrimitiveExecutor.executeLong(event) :
+                (float) leftPrimitiveExecutor.executeDouble(event);
+    }
+
+    private float executeRightFloat(ComplexEvent event) {
+        return rightIntegral ? (float) rightPrimitiveExecutor.executeLong(event) :
+                (float) rightPrimitiveExecutor.executeDouble(event);
+    }
+
+    private double executeLeftDouble(ComplexEvent event) {
+        return leftIntegral ? (double) leftPrimitiveExecutor.executeLong(event) :
+                leftPrimitiveExecutor.executeDouble(event);
+    }
+
+    private double executeRightDouble(ComplexEvent event) {
+        return rightIntegral ? (double) rightPrimitiveExecutor.executeLong(event) :
+                rightPrimitiveExecutor.executeDouble(event);
     }
 
     protected abstract Boolean execute(Object left, Object right);
 
+    /**
+     * Compare two integral operands, used when both operands are INT or LONG primitive executors
+     */
+    protected boolean compare(long left, long right) {
+        throw new OperationNotSupportedException(getClass().getSimpleName() + " cannot compare long values");
+    }
+
+    /**
+     * Compare two floating point operands, used when an operand is a FLOAT or DOUBLE primitive executor.
+     * Values of FLOAT comparisons are already rounded to float.
+     */
+    protected boolean compare(double left, double right) {
+        throw new OperationNotSupportedException(getClass().getSimpleName() + " cannot compare double values");
+    }
+
+    /**
+     * Compare the integral operands of a batch, keeping only the selected events the comparison holds for
+     */
+    protected void compare(long[] left, long[] right, boolean[] selection, int size) {
+        for (int i = 0; i < size; i++) {
+            selection[i] &= compare(left[i], right[i]);
+        }
+    }
+
+    /**
+     * Compare the floating point operands of a batch, keeping only the selected events the comparison holds for
+     */
+    protected void compare(double[] left, double[] right, boolean[] selection, int size) {
+        for (int i = 0; i < size; i++) {
+            selection[i] &= compare(left[i], right[i]);
+        }
+    }
+
+    public ExpressionExecutor getLeftExpressionExecutor() {
+        return leftExpressionExecutor;
+    }
+
+    public ExpressionExecutor getRightExpressionExecutor() {
+        return rightExpressionExecutor;
+    }
+
+    /**
+     * @return how the operands are compared, {@link PrimitiveCompareMode#NONE} when the boxed values are compared
+     */
+    public PrimitiveCompareMode getPrimitiveCompareMode() {
+        return primitiveCompareMode;
+    }
+
 }
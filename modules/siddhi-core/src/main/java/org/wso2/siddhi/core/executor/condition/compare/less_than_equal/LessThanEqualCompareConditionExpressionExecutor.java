@@ -23,4 +23,28 @@ public abstract class LessThanEqualCompareConditionExpressionExecutor extends Co
                                                            ExpressionExecutor rightExpressionExecutor) {
         super(leftExpressionExecutor, rightExpressionExecutor);
     }
+
+    @Override
+    protected boolean compare(long left, long right) {
+        return left <= right;
+    }
+
+    @Override
+    protected boolean compare(double left, double right) {
+        return left <= right;
+    }
+
+    @Override
+    protected void compare(long[] left, long[] right, boolean[] selection, int size) {
+        for (int i = 0; i < size; i++) {
+            selection[i] &= left[i] <= right[i];
+        }
+    }
+
+    @Override
+    protected void compare(double[] left, double[] right, boolean[] selection, int size) {
+        for (int i = 0; i < size; i++) {
+            selection[i] &= left[i] <= right[i];
+        }
+    }
 }
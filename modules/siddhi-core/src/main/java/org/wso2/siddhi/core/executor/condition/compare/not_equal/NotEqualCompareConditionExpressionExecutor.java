@@ -16,11 +16,42 @@ package org.wso2.siddhi.core.executor.condition.compare.not_equal;
 
 import org.wso2.siddhi.core.executor.ExpressionExecutor;
 import org.wso2.siddhi.core.executor.condition.compare.CompareConditionExpressionExecutor;
+import org.wso2.siddhi.query.api.definition.Attribute;
 
 public abstract class NotEqualCompareConditionExpressionExecutor extends CompareConditionExpressionExecutor {
 
     public NotEqualCompareConditionExpressionExecutor(ExpressionExecutor leftExpressionExecutor,
                                                       ExpressionExecutor rightExpressionExecutor) {
         super(leftExpressionExecutor, rightExpressionExecutor);
+        if (primitiveCompareMode == PrimitiveCompareMode.FLOAT &&
+                (leftExpressionExecutor.getReturnType() == Attribute.Type.LONG ||
+                        rightExpressionExecutor.getReturnType() == Attribute.Type.LONG)) {
+            // equality of float and long operands is checked on their double values
+            primitiveCompareMode = PrimitiveCompareMode.DOUBLE;
+        }
+    }
+
+    @Override
+    protected boolean compare(long left, long right) {
+        return left != right;
+    }
+
+    @Override
+    protected boolean compare(double left, double right) {
+        return left != right;
+    }
+
+    @Override
+    protected void compare(long[] left, long[] right, boolean[] selection, int size) {
+        for (int i = 0; i < size; i++) {
+            selection[i] &= left[i] != right[i];
+        }
+    }
+
+    @Override
+    protected void compare(double[] left, double[] right, boolean[] selection, int size) {
+        for (int i = 0; i < size; i++) {
+            selection[i] &= left[i] != right[i];
+        }
     }
 }
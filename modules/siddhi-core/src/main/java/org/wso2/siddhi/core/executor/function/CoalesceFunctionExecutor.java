@@ -57,6 +57,11 @@ public class CoalesceFunctionExecutor extends FunctionExecutor {
         return data;
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public void start() {
         //Nothing to start
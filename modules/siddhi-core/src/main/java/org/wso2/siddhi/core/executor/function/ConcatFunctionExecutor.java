@@ -45,6 +45,11 @@ public class ConcatFunctionExecutor extends FunctionExecutor {
         return data;
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public void start() {
         //Nothing to start
@@ -109,6 +109,18 @@ public abstract class FunctionExecutor implements ExpressionExecutor, EternalRef
      */
     protected abstract Object execute(Object data);
 
+    /**
+     * @return true if the function keeps no state and always returns the same value for the same parameters,
+     * such functions are evaluated once when the execution plan is created if all their parameters are constants
+     */
+    public boolean isDeterministic() {
+        return false;
+    }
+
+    public ExpressionExecutor[] getAttributeExpressionExecutors() {
+        return attributeExpressionExecutors;
+    }
+
     @Override
     public String getElementId() {
         return elementId;
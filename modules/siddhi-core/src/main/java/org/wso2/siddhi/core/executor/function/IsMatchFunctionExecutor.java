@@ -19,15 +19,18 @@ import org.wso2.siddhi.core.event.ComplexEvent;
 import org.wso2.siddhi.core.exception.ExecutionPlanCreationException;
 import org.wso2.siddhi.core.executor.ConstantExpressionExecutor;
 import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.core.util.regex.CompiledRegex;
+import org.wso2.siddhi.core.util.regex.PatternCache;
 import org.wso2.siddhi.query.api.definition.Attribute;
 
-import java.util.Arrays;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
+/**
+ * isMatch(regex, attribute)
+ * Tells whether the attribute matches the regex. A constant regex is compiled once, regexes given as attributes
+ * are compiled through the shared {@link PatternCache}.
+ */
 public class IsMatchFunctionExecutor extends FunctionExecutor {
 
-    private Pattern pattern;
+    private CompiledRegex compiledRegex;
     private ExpressionExecutor expressionExecutor;
 
     @Override
@@ -37,14 +40,14 @@ public class IsMatchFunctionExecutor extends FunctionExecutor {
                     "currently " + attributeExpressionExecutors.length + " expressions provided");
         }
         ExpressionExecutor regexExecutor = attributeExpressionExecutors[0];
-        if (regexExecutor.getReturnType() != Attribute.Type.STRING &&
-                regexExecutor instanceof ConstantExpressionExecutor) {
+        if (regexExecutor.getReturnType() != Attribute.Type.STRING) {
             throw new ExecutionPlanCreationException("IsMatch expects regex string input expression but found " +
                     regexExecutor.getReturnType());
         }
         expressionExecutor = attributeExpressionExecutors[1];
-        pattern = Pattern.compile((String) regexExecutor.execute(null));
-
+        if (regexExecutor instanceof ConstantExpressionExecutor) {
+            compiledRegex = CompiledRegex.compile((String) ((ConstantExpressionExecutor) regexExecutor).getValue());
+        }
     }
 
     @Override
@@ -60,20 +63,30 @@ public class IsMatchFunctionExecutor extends FunctionExecutor {
      */
     @Override
     protected Object execute(Object[] data) {
-        throw new IllegalStateException("isMatch cannot execute two data " + Arrays.deepToString(data));
+        if (data[0] == null || data[1] == null) {
+            return false;
+        }
+        return PatternCache.getSharedCache().get((String) data[0]).matches(data[1].toString());
     }
 
     @Override
     protected Object execute(Object data) {
-        Matcher matcher = pattern.matcher(data.toString());
-        return matcher.matches();
+        return compiledRegex.matches(data.toString());
     }
 
     @Override
     public Object execute(ComplexEvent event) {
+        if (compiledRegex == null) {
+            return super.execute(event);
+        }
         return execute(expressionExecutor.execute(event));
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public void start() {
         //Nothing to start
@@ -45,6 +45,11 @@ public class IsNullFunctionExecutor extends FunctionExecutor {
         return data == null;
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public void start() {
         //Nothing to start
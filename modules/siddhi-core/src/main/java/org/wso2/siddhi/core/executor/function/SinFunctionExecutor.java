@@ -53,6 +53,11 @@ public class SinFunctionExecutor extends FunctionExecutor {
         return Math.sin(Double.parseDouble(data.toString()));
     }
 
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
     @Override
     public void start() {
         //Nothing to start
@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.executor.math;
+
+import org.wso2.siddhi.core.event.ComplexEvent;
+import org.wso2.siddhi.core.exception.OperationNotSupportedException;
+import org.wso2.siddhi.core.executor.EventBatch;
+import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.core.executor.PrimitiveExpressionExecutor;
+import org.wso2.siddhi.query.api.definition.Attribute;
+
+/**
+ * Arithmetic executor evaluating its operands without boxing when both of them are primitive executors.
+ * Operands are widened the same way Java does, e.g. a FLOAT executor adds the float values of its operands.
+ */
+public abstract class MathExpressionExecutor implements PrimitiveExpressionExecutor, ArithmeticExpressionExecutor {
+
+    protected ExpressionExecutor leftExpressionExecutor;
+    protected ExpressionExecutor rightExpressionExecutor;
+    private PrimitiveExpressionExecutor leftPrimitiveExecutor;
+    private PrimitiveExpressionExecutor rightPrimitiveExecutor;
+    private boolean leftIntegral;
+    private boolean rightIntegral;
+
+    public MathExpressionExecutor(ExpressionExecutor leftExpressionExecutor,
+                                  ExpressionExecutor rightExpressionExecutor) {
+        this.leftExpressionExecutor = leftExpressionExecutor;
+        this.rightExpressionExecutor = rightExpressionExecutor;
+        this.leftPrimitiveExecutor = asPrimitive(leftExpressionExecutor);
+        this.rightPrimitiveExecutor = asPrimitive(rightExpressionExecutor);
+        this.leftIntegral = isIntegral(leftExpressionExecutor.getReturnType());
+        this.rightIntegral = isIntegral(rightExpressionExecutor.getReturnType());
+    }
+
+    /**
+     * @return the executor as a primitive executor if it evaluates a number without boxing, null otherwise
+     */
+    public static PrimitiveExpressionExecutor asPrimitive(ExpressionExecutor expressionExecutor) {
+        if (expressionExecutor instanceof PrimitiveExpressionExecutor &&
+                ((PrimitiveExpressionExecutor) expressionExecutor).isPrimitive()) {
+            switch (expressionExecutor.getReturnType()) {
+                case INT:
+                case LONG:
+                case FLOAT:
+                case DOUBLE:
+                    return (PrimitiveExpressionExecutor) expressionExecutor;
+            }
+        }
+        return null;
+    }
+
+    public static boolean isIntegral(Attribute.Type type) {
+        return type == Attribute.Type.INT || type == Attribute.Type.LONG;
+    }
+
+    @Override
+    public boolean isPrimitive() {
+        return leftPrimitiveExecutor != null && rightPrimitiveExecutor != null;
+    }
+
+    @Override
+    public boolean isNull(ComplexEvent event) {
+        return leftPrimitiveExecutor.isNull(event) || rightPrimitiveExecutor.isNull(event);
+    }
+
+    @Override
+    public long executeLong(ComplexEvent event) {
+        throw new OperationNotSupportedException(getClass().getSimpleName() + " of type " + getReturnType() +
+                " cannot be evaluated as a long");
+    }
+
+    @Override
+    public double executeDouble(ComplexEvent event) {
+        throw new OperationNotSupportedException(getClass().getSimpleName() + " of type " + getReturnType() +
+                " cannot be evaluated as a double");
+    }
+
+    /**
+     * Evaluate the selected events one by one, executors overriding this evaluate the batch in tight loops
+     */
+    @Override
+    public void executeLong(EventBatch batch, boolean[] selection, long[] values, boolean[] nulls) {
+        ComplexEvent[] events = batch.getEvents();
+        for (int i = 0, size = batch.size(); i < size; i++) {
+            if (selection[i]) {
+                nulls[i] = isNull(events[i]);
+                if (!nulls[i]) {
+                    values[i] = executeLong(events[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Evaluate the selected events one by one, executors overriding this evaluate the batch in tight loops
+     */
+    @Override
+    public void executeDouble(EventBatch batch, boolean[] selection, double[] values, boolean[] nulls) {
+        ComplexEvent[] events = batch.getEvents();
+        for (int i = 0, size = batch.size(); i < size; i++) {
+            if (selection[i]) {
+                nulls[i] = isNull(events[i]);
+                if (!nulls[i]) {
+                    values[i] = executeDouble(events[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Evaluate the value of a primitive executor for the batch as doubles
+     *
+     * @param roundToFloat round the values to float, as for the operands of a FLOAT operation
+     */
+    public static void executeDouble(PrimitiveExpressionExecutor executor, boolean roundToFloat, EventBatch batch,
+                                     boolean[] selection, double[] values, boolean[] nulls) {
+        int size = batch.size();
+        if (isIntegral(executor.getReturnType())) {
+            long[] longs = batch.takeLongs();
+            executor.executeLong(batch, selection, longs, nulls);
+            if (roundToFloat) {
+                for (int i = 0; i < size; i++) {
+                    values[i] = (float) longs[i];
+                }
+            } else {
+                for (int i = 0; i < size; i++) {
+                    values[i] = (double) longs[i];
+                }
+            }
+            batch.giveBack(longs);
+        } else {
+            executor.executeDouble(batch, selection, values, nulls);
+            if (roundToFloat) {
+                for (int i = 0; i < size; i++) {
+                    values[i] = (float) values[i];
+                }
+            }
+        }
+    }
+
+    protected void leftLongs(EventBatch batch, boolean[] selection, long[] values, boolean[] nulls) {
+        leftPrimitiveExecutor.executeLong(batch, selection, values, nulls);
+    }
+
+    protected void rightLongs(EventBatch batch, boolean[] selection, long[] values, boolean[] nulls) {
+        rightPrimitiveExecutor.executeLong(batch, selection, values, nulls);
+    }
+
+    protected void leftFloats(EventBatch batch, boolean[] selection, double[] values, boolean[] nulls) {
+        executeDouble(leftPrimitiveExecutor, true, batch, selection, values, nulls);
+    }
+
+    protected void rightFloats(EventBatch batch, boolean[] selection, double[] values, boolean[] nulls) {
+        executeDouble(rightPrimitiveExecutor, true, batch, selection, values, nulls);
+    }
+
+    protected void leftDoubles(EventBatch batch, boolean[] selection, double[] values, boolean[] nulls) {
+        executeDouble(leftPrimitiveExecutor, false, batch, selection, values, nulls);
+    }
+
+    protected void rightDoubles(EventBatch batch, boolean[] selection, double[] values, boolean[] nulls) {
+        executeDouble(rightPrimitiveExecutor, false, batch, selection, values, nulls);
+    }
+
+    protected long leftLong(ComplexEvent event) {
+        return leftPrimitiveExecutor.executeLong(event);
+    }
+
+    protected long rightLong(ComplexEvent event) {
+        return rightPrimitiveExecutor.executeLong(event);
+    }
+
+    protected float leftFloat(ComplexEvent event) {
+        return leftIntegral ? (float) leftPrimitiveExecutor.executeLong(event) :
+                (float) leftPrimitiveExecutor.executeDouble(event);
+    }
+
+    protected float rightFloat(ComplexEvent event) {
+        return rightIntegral ? (float) rightPrimitiveExecutor.executeLong(event) :
+                (float) rightPrimitiveExecutor.executeDouble(event);
+    }
+
+    protected double leftDouble(ComplexEvent event) {
+        return leftIntegral ? (double) leftPrimitiveExecutor.executeLong(event) :
+                leftPrimitiveExecutor.executeDouble(event);
+    }
+
+    protected double rightDouble(ComplexEvent event) {
+        return rightIntegral ? (double) rightPrimitiveExecutor.executeLong(event) :
+                rightPrimitiveExecutor.executeDouble(event);
+    }
+
+    public ExpressionExecutor getLeftExpressionExecutor() {
+        return leftExpressionExecutor;
+    }
+
+    public ExpressionExecutor getRightExpressionExecutor() {
+        return rightExpressionExecutor;
+    }
+}
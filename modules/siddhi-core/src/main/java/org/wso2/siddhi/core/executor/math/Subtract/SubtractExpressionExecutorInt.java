@@ -15,18 +15,16 @@
 package org.wso2.siddhi.core.executor.math.Subtract;
 
 import org.wso2.siddhi.core.event.ComplexEvent;
+import org.wso2.siddhi.core.executor.EventBatch;
 import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.core.executor.math.MathExpressionExecutor;
 import org.wso2.siddhi.query.api.definition.Attribute;
 
-public class SubtractExpressionExecutorInt implements ExpressionExecutor {
-    private ExpressionExecutor leftExpressionExecutor;
-    private ExpressionExecutor rightExpressionExecutor;
-
+public class SubtractExpressionExecutorInt extends MathExpressionExecutor {
 
     public SubtractExpressionExecutorInt(ExpressionExecutor leftExpressionExecutor,
                                          ExpressionExecutor rightExpressionExecutor) {
-        this.leftExpressionExecutor = leftExpressionExecutor;
-        this.rightExpressionExecutor = rightExpressionExecutor;
+        super(leftExpressionExecutor, rightExpressionExecutor);
     }
 
     @Override
@@ -35,6 +33,25 @@ public class SubtractExpressionExecutorInt implements ExpressionExecutor {
 
     }
 
+    @Override
+    public long executeLong(ComplexEvent event) {
+        return (int) leftLong(event) - (int) rightLong(event);
+    }
+
+    @Override
+    public void executeLong(EventBatch batch, boolean[] selection, long[] values, boolean[] nulls) {
+        long[] right = batch.takeLongs();
+        boolean[] rightNulls = batch.takeBooleans();
+        leftLongs(batch, selection, values, nulls);
+        rightLongs(batch, selection, right, rightNulls);
+        for (int i = 0, size = batch.size(); i < size; i++) {
+            values[i] = (int) values[i] - (int) right[i];
+            nulls[i] |= rightNulls[i];
+        }
+        batch.giveBack(rightNulls);
+        batch.giveBack(right);
+    }
+
     public Attribute.Type getReturnType() {
         return Attribute.Type.INT;
     }
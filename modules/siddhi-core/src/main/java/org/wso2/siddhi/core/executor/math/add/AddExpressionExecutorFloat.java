@@ -15,17 +15,16 @@
 package org.wso2.siddhi.core.executor.math.add;
 
 import org.wso2.siddhi.core.event.ComplexEvent;
+import org.wso2.siddhi.core.executor.EventBatch;
 import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.core.executor.math.MathExpressionExecutor;
 import org.wso2.siddhi.query.api.definition.Attribute;
 
-public class AddExpressionExecutorFloat implements ExpressionExecutor {
-    private ExpressionExecutor leftExpressionExecutor;
-    private ExpressionExecutor rightExpressionExecutor;
+public class AddExpressionExecutorFloat extends MathExpressionExecutor {
 
     public AddExpressionExecutorFloat(ExpressionExecutor leftExpressionExecutor,
                                       ExpressionExecutor rightExpressionExecutor) {
-        this.leftExpressionExecutor = leftExpressionExecutor;
-        this.rightExpressionExecutor = rightExpressionExecutor;
+        super(leftExpressionExecutor, rightExpressionExecutor);
     }
 
     @Override
@@ -34,6 +33,25 @@ public class AddExpressionExecutorFloat implements ExpressionExecutor {
                 ((Number) rightExpressionExecutor.execute(event)).floatValue();
     }
 
+    @Override
+    public double executeDouble(ComplexEvent event) {
+        return leftFloat(event) + rightFloat(event);
+    }
+
+    @Override
+    public void executeDouble(EventBatch batch, boolean[] selection, double[] values, boolean[] nulls) {
+        double[] right = batch.takeDoubles();
+        boolean[] rightNulls = batch.takeBooleans();
+        leftFloats(batch, selection, values, nulls);
+        rightFloats(batch, selection, right, rightNulls);
+        for (int i = 0, size = batch.size(); i < size; i++) {
+            values[i] = (float) values[i] + (float) right[i];
+            nulls[i] |= rightNulls[i];
+        }
+        batch.giveBack(rightNulls);
+        batch.giveBack(right);
+    }
+
     public Attribute.Type getReturnType() {
         return Attribute.Type.FLOAT;
     }
@@ -100,7 +100,7 @@ public class PartitionRuntime implements Snapshotable {
                 if (outputStreamJunction == null) {
                     outputStreamJunction = new StreamJunction(streamDefinition,
                             executionPlanContext.getExecutorService(),
-                            executionPlanContext.getSiddhiContext().getEventBufferSize(), executionPlanContext);
+                            executionPlanContext.getDisruptorConfig().getBufferSize(), executionPlanContext);
                     localStreamJunctionMap.putIfAbsent(id, outputStreamJunction);
                 }
                 insertIntoStreamCallback.init(localStreamJunctionMap.get(id));
@@ -112,7 +112,7 @@ public class PartitionRuntime implements Snapshotable {
                 if (outputStreamJunction == null) {
                     outputStreamJunction = new StreamJunction(streamDefinition,
                             executionPlanContext.getExecutorService(),
-                            executionPlanContext.getSiddhiContext().getEventBufferSize(), executionPlanContext);
+                            executionPlanContext.getDisruptorConfig().getBufferSize(), executionPlanContext);
                     streamJunctionMap.putIfAbsent(id, outputStreamJunction);
                 }
                 insertIntoStreamCallback.init(streamJunctionMap.get(id));
@@ -205,7 +205,7 @@ public class PartitionRuntime implements Snapshotable {
                         StreamJunction streamJunction = localStreamJunctionMap.get(streamId + key);
                         if (streamJunction == null) {
                             streamJunction = new StreamJunction(streamDefinition, executionPlanContext.getExecutorService(),
-                                    executionPlanContext.getSiddhiContext().getEventBufferSize(), executionPlanContext);
+                                    executionPlanContext.getDisruptorConfig().getBufferSize(), executionPlanContext);
                             localStreamJunctionMap.put(streamId + key, streamJunction);
                         }
                         streamJunction.subscribe(clonedQueryRuntime.getStreamRuntime().getSingleStreamRuntimes().get(i).getProcessStreamReceiver());
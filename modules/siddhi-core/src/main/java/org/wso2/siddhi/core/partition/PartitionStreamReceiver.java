@@ -33,7 +33,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
-public class PartitionStreamReceiver implements StreamJunction.Receiver {
+public class PartitionStreamReceiver implements StreamJunction.BatchReceiver {
 
     private final StreamEventConverter streamEventConverter;
     private final StreamEventPool eventPool;
@@ -159,12 +159,17 @@ public class PartitionStreamReceiver implements StreamJunction.Receiver {
 
     @Override
     public void receive(Event[] events) {
+        receive(events, events.length);
+    }
+
+    @Override
+    public void receive(Event[] events, int length) {
         if (partitionExecutors.size() == 0) {
             StreamEvent currentEvent;
             StreamEvent firstEvent = eventPool.borrowEvent();
             streamEventConverter.convertEvent(events[0], firstEvent);
             currentEvent = firstEvent;
-            for (int i = 1; i < events.length; i++) {
+            for (int i = 1; i < length; i++) {
                 StreamEvent nextEvent = eventPool.borrowEvent();
                 streamEventConverter.convertEvent(events[i], nextEvent);
                 currentEvent.setNext(nextEvent);
@@ -177,9 +182,9 @@ public class PartitionStreamReceiver implements StreamJunction.Receiver {
             String key = null;
             StreamEvent firstEvent = null;
             StreamEvent currentEvent = null;
-            for (Event event : events) {
+            for (int index = 0; index < length; index++) {
                 StreamEvent nextEvent = eventPool.borrowEvent();
-                streamEventConverter.convertEvent(event, nextEvent);
+                streamEventConverter.convertEvent(events[index], nextEvent);
                 for (PartitionExecutor partitionExecutor : partitionExecutors) {
                     String currentKey = partitionExecutor.execute(nextEvent);
                     if (currentKey != null) {
@@ -245,7 +250,7 @@ public class PartitionStreamReceiver implements StreamJunction.Receiver {
 
     private StreamJunction createStreamJunction() {
         return new StreamJunction(streamDefinition, executionPlanContext.getExecutorService(),
-                executionPlanContext.getSiddhiContext().getEventBufferSize(), executionPlanContext);
+                executionPlanContext.getDisruptorConfig().getBufferSize(), executionPlanContext);
     }
 
 }
@@ -16,11 +16,21 @@ package org.wso2.siddhi.core.query;
 
 import org.wso2.siddhi.core.config.ExecutionPlanContext;
 import org.wso2.siddhi.core.event.MetaComplexEvent;
+import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.core.executor.ExpressionExecutorHelper;
+import org.wso2.siddhi.core.executor.compiler.CompiledConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.OperandOrder;
 import org.wso2.siddhi.core.query.input.stream.StreamRuntime;
+import org.wso2.siddhi.core.query.input.stream.single.SingleStreamRuntime;
 import org.wso2.siddhi.core.query.output.callback.OutputCallback;
 import org.wso2.siddhi.core.query.output.callback.QueryCallback;
 import org.wso2.siddhi.core.query.output.ratelimit.OutputRateLimiter;
+import org.wso2.siddhi.core.query.processor.Processor;
+import org.wso2.siddhi.core.query.processor.filter.FilterProcessor;
 import org.wso2.siddhi.core.query.selector.QuerySelector;
+import org.wso2.siddhi.core.query.selector.attribute.aggergator.SlidingTimeWindowAttributeAggregator;
+import org.wso2.siddhi.core.query.selector.attribute.processor.AttributeProcessor;
+import org.wso2.siddhi.core.query.selector.attribute.processor.executor.AbstractAggregationAttributeExecutor;
 import org.wso2.siddhi.core.stream.StreamJunction;
 import org.wso2.siddhi.core.util.parser.OutputParser;
 import org.wso2.siddhi.core.util.parser.helper.QueryParserHelper;
@@ -33,7 +43,11 @@ import org.wso2.siddhi.query.api.execution.query.input.stream.SingleInputStream;
 import org.wso2.siddhi.query.api.execution.query.input.stream.StateInputStream;
 import org.wso2.siddhi.query.api.util.AnnotationHelper;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentMap;
 
@@ -184,4 +198,83 @@ public class QueryRuntime {
     public QuerySelector getSelector() {
         return selector;
     }
+
+    /**
+     * @return the orders the and/or conditions of the filters and the having clause of the query
+     * currently evaluate their operands in
+     */
+    public List<OperandOrder> getOperandOrders() {
+        List<OperandOrder> operandOrders = new ArrayList<OperandOrder>();
+        Set<Processor> visitedProcessors = Collections.newSetFromMap(new IdentityHashMap<Processor, Boolean>());
+        for (SingleStreamRuntime singleStreamRuntime : streamRuntime.getSingleStreamRuntimes()) {
+            Processor processor = singleStreamRuntime.getProcessorChain();
+            while (processor != null && visitedProcessors.add(processor)) {
+                if (processor instanceof FilterProcessor) {
+                    OperandOrder.collect(((FilterProcessor) processor).getConditionExecutor(), operandOrders);
+                }
+                processor = processor.getNextProcessor();
+            }
+        }
+        if (selector.getHavingConditionExecutor() != null) {
+            OperandOrder.collect(selector.getHavingConditionExecutor(), operandOrders);
+        }
+        return operandOrders;
+    }
+
+    /**
+     * @return number of filter conditions, having conditions and projections of the query that are evaluated
+     * through compiled classes
+     */
+    public int getCompiledExpressionCount() {
+        int count = 0;
+        Set<Processor> visitedProcessors = Collections.newSetFromMap(new IdentityHashMap<Processor, Boolean>());
+        for (SingleStreamRuntime singleStreamRuntime : streamRuntime.getSingleStreamRuntimes()) {
+            Processor processor = singleStreamRuntime.getProcessorChain();
+            while (processor != null && visitedProcessors.add(processor)) {
+                if (processor instanceof FilterProcessor && ((FilterProcessor) processor).getConditionExecutor()
+                        instanceof CompiledConditionExpressionExecutor) {
+                    count++;
+                }
+                processor = processor.getNextProcessor();
+            }
+        }
+        if (selector.getHavingConditionExecutor() instanceof CompiledConditionExpressionExecutor) {
+            count++;
+        }
+        if (selector.isProjectionCompiled()) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * @return number of aggregators of the query expiring the values of its time window by themselves
+     */
+    public int getSlidingAggregatorCount() {
+        final Set<AbstractAggregationAttributeExecutor> aggregationExecutors =
+                Collections.newSetFromMap(new IdentityHashMap<AbstractAggregationAttributeExecutor, Boolean>());
+        ExpressionExecutorHelper.StatefulExecutorHandler aggregationCollector =
+                new ExpressionExecutorHelper.StatefulExecutorHandler() {
+                    @Override
+                    public boolean accept(ExpressionExecutor executor) {
+                        if (executor instanceof AbstractAggregationAttributeExecutor) {
+                            aggregationExecutors.add((AbstractAggregationAttributeExecutor) executor);
+                        }
+                        return true;
+                    }
+                };
+        for (AttributeProcessor attributeProcessor : selector.getAttributeProcessorList()) {
+            ExpressionExecutorHelper.isStateless(attributeProcessor.getExpressionExecutor(), aggregationCollector);
+        }
+        if (selector.getHavingConditionExecutor() != null) {
+            ExpressionExecutorHelper.isStateless(selector.getHavingConditionExecutor(), aggregationCollector);
+        }
+        int count = 0;
+        for (AbstractAggregationAttributeExecutor aggregationExecutor : aggregationExecutors) {
+            if (aggregationExecutor.getAttributeAggregator() instanceof SlidingTimeWindowAttributeAggregator) {
+                count++;
+            }
+        }
+        return count;
+    }
 }
@@ -84,8 +84,9 @@ public class MultiProcessStreamReceiver extends ProcessStreamReceiver {
     }
 
     @Override
-    public void receive(Event[] events) {
-        for (Event event : events) {
+    public void receive(Event[] events, int length) {
+        for (int index = 0; index < length; index++) {
+            Event event = events[index];
             stabilizeStates();
 //            for (int i = 0, size = metaStreamEvents.length; size > i; i++) {
             for (int i = metaStreamEvents.length - 1; i > -1; i--) {
@@ -28,7 +28,7 @@ import org.wso2.siddhi.core.stream.StreamJunction;
 import java.util.ArrayList;
 import java.util.List;
 
-public class ProcessStreamReceiver implements StreamJunction.Receiver {
+public class ProcessStreamReceiver implements StreamJunction.BatchReceiver {
 
     protected String streamId;
     protected Processor next;
@@ -66,7 +66,12 @@ public class ProcessStreamReceiver implements StreamJunction.Receiver {
 
     @Override
     public void receive(Event[] events) {
-        streamEventChunk.convertAndAssign(events);
+        receive(events, events.length);
+    }
+
+    @Override
+    public void receive(Event[] events, int length) {
+        streamEventChunk.convertAndAssign(events, length);
         processAndClear(streamEventChunk);
     }
 
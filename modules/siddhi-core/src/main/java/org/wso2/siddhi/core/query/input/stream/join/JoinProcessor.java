@@ -23,8 +23,12 @@ import org.wso2.siddhi.core.event.stream.StreamEvent;
 import org.wso2.siddhi.core.util.collection.operator.Finder;
 import org.wso2.siddhi.core.query.processor.Processor;
 import org.wso2.siddhi.core.query.processor.stream.window.FindableProcessor;
+import org.wso2.siddhi.core.query.processor.stream.window.ReleasableFinder;
 import org.wso2.siddhi.core.query.selector.QuerySelector;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Created on 12/8/14.
  */
@@ -32,11 +36,15 @@ public class JoinProcessor implements Processor {
     private boolean trigger;
     private boolean leftJoinProcessor = false;
     private boolean preJoinProcessor = false;
+    private boolean releaseJoinedEvents = false;
     private ComplexEventChunk<StateEvent> returnEventChunk = new ComplexEventChunk<StateEvent>();
+    private List<StateEvent> joinedEvents = new ArrayList<StateEvent>();
+    private List<StreamEvent> foundEvents = new ArrayList<StreamEvent>();
 
     private StateEventPool stateEventPool;
     private Finder finder;
     private FindableProcessor findableProcessor;
+    private ReleasableFinder releasableFinder;
     private Processor nextProcessor;
     private QuerySelector selector;
 
@@ -63,6 +71,9 @@ public class JoinProcessor implements Processor {
                     continue;
                 }
                 StreamEvent foundStreamEvent = findableProcessor.find(streamEvent, finder);
+                if (releaseJoinedEvents && releasableFinder != null && foundStreamEvent != null) {
+                    foundEvents.add(foundStreamEvent);
+                }
                 while (foundStreamEvent != null) {
                     StateEvent returnEvent = stateEventPool.borrowEvent();
                     if (leftJoinProcessor) {
@@ -80,12 +91,18 @@ public class JoinProcessor implements Processor {
                     }
                     returnEvent.setTimestamp(streamEvent.getTimestamp());
                     returnEventChunk.add(returnEvent);
+                    if (releaseJoinedEvents) {
+                        joinedEvents.add(returnEvent);
+                    }
                     foundStreamEvent = foundStreamEvent.getNext();
                 }
             }
             if (returnEventChunk.getFirst() != null) {
                 selector.process(returnEventChunk);
             }
+            if (releaseJoinedEvents) {
+                release();
+            }
 
         }
         if (preJoinProcessor) {
@@ -93,6 +110,26 @@ public class JoinProcessor implements Processor {
         }
     }
 
+    /**
+     * Return the joined events and the copies found in the other window to their pools, this is only done
+     * when the output of the query does not hold on to the events handed to the selector. The found events are
+     * only collected when the other side is a {@link ReleasableFinder}.
+     */
+    private void release() {
+        for (int i = 0, size = foundEvents.size(); i < size; i++) {
+            releasableFinder.releaseFoundEvents(foundEvents.get(i));
+        }
+        foundEvents.clear();
+        for (int i = 0, size = joinedEvents.size(); i < size; i++) {
+            StateEvent stateEvent = joinedEvents.get(i);
+            stateEvent.setEvent(0, null);
+            stateEvent.setEvent(1, null);
+            stateEvent.setNext(null);
+            stateEventPool.returnEvents(stateEvent);
+        }
+        joinedEvents.clear();
+    }
+
     /**
      * Get next processor element in the processor chain. Processed event should be sent to next processor
      *
@@ -140,12 +177,18 @@ public class JoinProcessor implements Processor {
     public Processor cloneProcessor(String key) {
         JoinProcessor joinProcessor = new JoinProcessor(leftJoinProcessor, preJoinProcessor);
         joinProcessor.setTrigger(trigger);
+        joinProcessor.setReleaseJoinedEvents(releaseJoinedEvents);
         joinProcessor.setFinder(finder.cloneFinder());
         return joinProcessor;
     }
 
     public void setFindableProcessor(FindableProcessor findableProcessor) {
         this.findableProcessor = findableProcessor;
+        if (findableProcessor instanceof ReleasableFinder) {
+            releasableFinder = (ReleasableFinder) findableProcessor;
+        } else {
+            releasableFinder = null;
+        }
     }
 
     public void setFinder(Finder finder) {
@@ -164,4 +207,12 @@ public class JoinProcessor implements Processor {
         this.stateEventPool = stateEventPool;
     }
 
+    /**
+     * @param releaseJoinedEvents true when the joined events can be returned to their pools as soon as the
+     *                            selector has processed them
+     */
+    public void setReleaseJoinedEvents(boolean releaseJoinedEvents) {
+        this.releaseJoinedEvents = releaseJoinedEvents;
+    }
+
 }
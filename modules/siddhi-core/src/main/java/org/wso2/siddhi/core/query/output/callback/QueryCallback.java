@@ -17,18 +17,20 @@ package org.wso2.siddhi.core.query.output.callback;
 
 import com.lmax.disruptor.EventHandler;
 import com.lmax.disruptor.RingBuffer;
-import com.lmax.disruptor.SleepingWaitStrategy;
 import com.lmax.disruptor.dsl.Disruptor;
 import com.lmax.disruptor.dsl.ProducerType;
 import org.apache.log4j.Logger;
+import org.wso2.siddhi.core.config.DisruptorConfig;
 import org.wso2.siddhi.core.config.ExecutionPlanContext;
+import org.wso2.siddhi.core.event.ArrayComplexEventChunk;
 import org.wso2.siddhi.core.event.ComplexEvent;
 import org.wso2.siddhi.core.event.ComplexEventChunk;
 import org.wso2.siddhi.core.event.Event;
 import org.wso2.siddhi.core.event.stream.StreamEvent;
+import org.wso2.siddhi.core.util.disruptor.OverloadController;
+import org.wso2.siddhi.core.util.parser.DisruptorConfigParser;
 import org.wso2.siddhi.query.api.execution.query.Query;
 
-import java.lang.reflect.Constructor;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -44,6 +46,7 @@ public abstract class QueryCallback {
 
     private Disruptor<EventHolder> disruptor;
     private RingBuffer<EventHolder> ringBuffer;
+    private OverloadController overloadController;
     private AsyncEventHandler asyncEventHandler;
 
     public void setQuery(Query query) {
@@ -55,6 +58,10 @@ public abstract class QueryCallback {
     }
 
     public void receiveStreamEvent(ComplexEventChunk complexEventChunk) {
+        if (complexEventChunk instanceof ArrayComplexEventChunk) {
+            receiveStreamEvent((ArrayComplexEventChunk) complexEventChunk);
+            return;
+        }
 
         Event[] currentEvents = null;
         Event[] expiredEvents = null;
@@ -87,8 +94,45 @@ public abstract class QueryCallback {
         }
     }
 
+    /**
+     * Convert the events of an array backed chunk straight into arrays of the right size, reading them by
+     * index so that every callback of the query sees all the events of the chunk
+     */
+    private void receiveStreamEvent(ArrayComplexEventChunk<ComplexEvent> complexEventChunk) {
+        int size = complexEventChunk.size();
+        int expiredCount = 0;
+        for (int i = 0; i < size; i++) {
+            if (complexEventChunk.get(i).getType() == StreamEvent.Type.EXPIRED) {
+                expiredCount++;
+            }
+        }
+        Event[] currentEvents = size == expiredCount ? null : new Event[size - expiredCount];
+        Event[] expiredEvents = expiredCount == 0 ? null : new Event[expiredCount];
+        int currentIndex = 0;
+        int expiredIndex = 0;
+        for (int i = 0; i < size; i++) {
+            ComplexEvent complexEvent = complexEventChunk.get(i);
+            Event event = new Event(complexEvent.getOutputData().length).copyFrom(complexEvent);
+            if (complexEvent.getType() == StreamEvent.Type.EXPIRED) {
+                expiredEvents[expiredIndex++] = event;
+            } else {
+                currentEvents[currentIndex++] = event;
+            }
+        }
+        long timeStamp = size == 0 ? -1 : complexEventChunk.get(size - 1).getTimestamp();
+
+        if (disruptor == null) {
+            send(timeStamp, currentEvents, expiredEvents);
+        } else {
+            sendAsync(timeStamp, currentEvents, expiredEvents);
+        }
+    }
+
     private void sendAsync(long timeStamp, Event[] currentEvents, Event[] expiredEvents) {
-        long sequenceNo = ringBuffer.next();
+        long sequenceNo = overloadController.next();
+        if (sequenceNo == OverloadController.REJECTED) {
+            return;
+        }
         try {
             EventHolder holder = ringBuffer.get(sequenceNo);
             holder.timeStamp = timeStamp;
@@ -149,25 +193,24 @@ public abstract class QueryCallback {
 //        }
 
         if (asyncEnabled != null && asyncEnabled || asyncEnabled == null) {
-            for (Constructor constructor : Disruptor.class.getConstructors()) {
-                if (constructor.getParameterTypes().length == 5) {      //if new disruptor implementation available
-                    disruptor = new Disruptor<EventHolder>(new EventHolderFactory(),
-                            executionPlanContext.getSiddhiContext().getEventBufferSize(),
-                            executionPlanContext.getExecutorService(), ProducerType.SINGLE, new SleepingWaitStrategy());
-                    break;
-                }
-            }
-            if (disruptor == null) {
-                disruptor = new Disruptor<EventHolder>(new EventHolderFactory(),
-                        executionPlanContext.getSiddhiContext().getEventBufferSize(),
-                        executionPlanContext.getExecutorService());
-            }
-            asyncEventHandler = new AsyncEventHandler(this);
+            DisruptorConfig disruptorConfig = DisruptorConfigParser.parse(query.getAnnotations(),
+                    executionPlanContext.getDisruptorConfig());
+            disruptor = disruptorConfig.createDisruptor(new EventHolderFactory(),
+                    executionPlanContext.getExecutorService(), ProducerType.SINGLE);
+            overloadController = new OverloadController(disruptor.getRingBuffer(), disruptorConfig);
+            asyncEventHandler = new AsyncEventHandler(this, overloadController);
             disruptor.handleEventsWith(asyncEventHandler);
             ringBuffer = disruptor.start();
         }
     }
 
+    /**
+     * @return number of events dropped by the overload policy as the callback ring was full
+     */
+    public long getDroppedEventCount() {
+        return overloadController == null ? 0 : overloadController.getDroppedEvents();
+    }
+
     public synchronized void stopProcessing() {
         if (disruptor != null) {
             asyncEventHandler.queryCallback = null;
@@ -181,9 +224,11 @@ public abstract class QueryCallback {
     public class AsyncEventHandler implements EventHandler<EventHolder> {
 
         private QueryCallback queryCallback;
+        private final OverloadController overloadController;
 
-        public AsyncEventHandler(QueryCallback queryCallback) {
+        public AsyncEventHandler(QueryCallback queryCallback, OverloadController overloadController) {
             this.queryCallback = queryCallback;
+            this.overloadController = overloadController;
         }
 
         /**
@@ -196,7 +241,7 @@ public abstract class QueryCallback {
          */
         @Override
         public void onEvent(EventHolder eventHolder, long sequence, boolean endOfBatch) throws Exception {
-            if (queryCallback != null) {
+            if (queryCallback != null && !overloadController.isDiscarded(sequence)) {
                 queryCallback.send(eventHolder.timeStamp, eventHolder.currentEvents, eventHolder.expiredEvents);
             }
         }
@@ -16,17 +16,18 @@ package org.wso2.siddhi.core.query.output.ratelimit;
 
 
 import org.apache.log4j.Logger;
+import org.wso2.siddhi.core.event.ArrayComplexEventChunk;
 import org.wso2.siddhi.core.event.ComplexEvent;
 import org.wso2.siddhi.core.event.ComplexEventChunk;
 
 public class PassThroughOutputRateLimiter extends OutputRateLimiter {
     private static final Logger log = Logger.getLogger(PassThroughOutputRateLimiter.class);
     private String id;
-    private ComplexEventChunk<ComplexEvent> eventChunk;
+    private ArrayComplexEventChunk<ComplexEvent> eventChunk;
 
     public PassThroughOutputRateLimiter(String id) {
         this.id = id;
-        eventChunk = new ComplexEventChunk<ComplexEvent>();
+        eventChunk = new ArrayComplexEventChunk<ComplexEvent>();
     }
 
     public PassThroughOutputRateLimiter clone(String key) {
@@ -61,7 +62,11 @@ public class PassThroughOutputRateLimiter extends OutputRateLimiter {
 
     @Override
     public void restoreState(Object[] state) {
-        eventChunk = (ComplexEventChunk<ComplexEvent>) state[0];
+        eventChunk.clear();
+        ComplexEvent firstEvent = ((ComplexEventChunk<ComplexEvent>) state[0]).getFirst();
+        if (firstEvent != null) {
+            eventChunk.add(firstEvent);
+        }
     }
 
 }
@@ -22,19 +22,19 @@ package org.wso2.siddhi.core.query.output.ratelimit.snapshot;
 import org.wso2.siddhi.core.event.ComplexEvent;
 import org.wso2.siddhi.core.event.ComplexEventChunk;
 import org.wso2.siddhi.core.query.selector.QuerySelector;
+import org.wso2.siddhi.core.util.TimerWheel;
 
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ScheduledExecutorService;
 
 public class AggregationGroupByWindowedPerSnapshotOutputRateLimiter extends AggregationWindowedPerSnapshotOutputRateLimiter {
     private Map<String, Map<Integer, Object>> groupByAggregateAttributeValueMap;
     private String currentKey = null;
 
-    protected AggregationGroupByWindowedPerSnapshotOutputRateLimiter(String id, Long value, ScheduledExecutorService scheduledExecutorService, List<Integer> aggregateAttributePositionList, WrappedSnapshotOutputRateLimiter wrappedSnapshotOutputRateLimiter) {
-        super(id, value, scheduledExecutorService, aggregateAttributePositionList, wrappedSnapshotOutputRateLimiter);
+    protected AggregationGroupByWindowedPerSnapshotOutputRateLimiter(String id, Long value, TimerWheel timerWheel, List<Integer> aggregateAttributePositionList, WrappedSnapshotOutputRateLimiter wrappedSnapshotOutputRateLimiter) {
+        super(id, value, timerWheel, aggregateAttributePositionList, wrappedSnapshotOutputRateLimiter);
         groupByAggregateAttributeValueMap = new HashMap<String, Map<Integer, Object>>();
         eventChunk = new ComplexEventChunk<ComplexEvent>();
     }
@@ -119,7 +119,7 @@ public class AggregationGroupByWindowedPerSnapshotOutputRateLimiter extends Aggr
 
     @Override
     public SnapshotOutputRateLimiter clone(String key, WrappedSnapshotOutputRateLimiter wrappedSnapshotOutputRateLimiter) {
-        return new AggregationGroupByWindowedPerSnapshotOutputRateLimiter(id + key, value, scheduledExecutorService, aggregateAttributePositionList, wrappedSnapshotOutputRateLimiter);
+        return new AggregationGroupByWindowedPerSnapshotOutputRateLimiter(id + key, value, timerWheel, aggregateAttributePositionList, wrappedSnapshotOutputRateLimiter);
     }
 
     private class GroupedEvent {
@@ -25,9 +25,9 @@ import org.wso2.siddhi.core.event.state.StateEvent;
 import org.wso2.siddhi.core.event.stream.StreamEvent;
 import org.wso2.siddhi.core.event.stream.StreamEventPool;
 import org.wso2.siddhi.core.util.Scheduler;
+import org.wso2.siddhi.core.util.TimerWheel;
 
 import java.util.*;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -36,7 +36,7 @@ public class AggregationWindowedPerSnapshotOutputRateLimiter extends SnapshotOut
     protected final Long value;
     protected LinkedList<Object> eventList;
     protected Comparator<ComplexEvent> comparator;
-    protected final ScheduledExecutorService scheduledExecutorService;
+    protected final TimerWheel timerWheel;
     protected List<Integer> aggregateAttributePositionList;
     private Map<Integer, Object> aggregateAttributeValueMap;
     protected ComplexEventChunk<ComplexEvent> eventChunk;
@@ -44,11 +44,11 @@ public class AggregationWindowedPerSnapshotOutputRateLimiter extends SnapshotOut
     protected long scheduledTime;
     protected Lock lock;
 
-    protected AggregationWindowedPerSnapshotOutputRateLimiter(String id, Long value, ScheduledExecutorService scheduledExecutorService, final List<Integer> aggregateAttributePositionList, WrappedSnapshotOutputRateLimiter wrappedSnapshotOutputRateLimiter) {
+    protected AggregationWindowedPerSnapshotOutputRateLimiter(String id, Long value, TimerWheel timerWheel, final List<Integer> aggregateAttributePositionList, WrappedSnapshotOutputRateLimiter wrappedSnapshotOutputRateLimiter) {
         super(wrappedSnapshotOutputRateLimiter);
         this.id = id;
         this.value = value;
-        this.scheduledExecutorService = scheduledExecutorService;
+        this.timerWheel = timerWheel;
         this.eventList = new LinkedList<Object>();
         this.aggregateAttributePositionList = aggregateAttributePositionList;
         Collections.sort(aggregateAttributePositionList);
@@ -147,7 +147,7 @@ public class AggregationWindowedPerSnapshotOutputRateLimiter extends SnapshotOut
 
     @Override
     public void start() {
-        scheduler = new Scheduler(scheduledExecutorService, this);
+        scheduler = new Scheduler(timerWheel, this);
         scheduler.setStreamEventPool(new StreamEventPool(0, 0, 0, 5));
         long currentTime = System.currentTimeMillis();
         scheduler.notifyAt(currentTime);
@@ -213,7 +213,7 @@ public class AggregationWindowedPerSnapshotOutputRateLimiter extends SnapshotOut
 
     @Override
     public SnapshotOutputRateLimiter clone(String key, WrappedSnapshotOutputRateLimiter wrappedSnapshotOutputRateLimiter) {
-        return new AggregationWindowedPerSnapshotOutputRateLimiter(id + key, value, scheduledExecutorService, aggregateAttributePositionList, wrappedSnapshotOutputRateLimiter);
+        return new AggregationWindowedPerSnapshotOutputRateLimiter(id + key, value, timerWheel, aggregateAttributePositionList, wrappedSnapshotOutputRateLimiter);
     }
 
     protected ComplexEvent getEventFromList(Object eventObject) {
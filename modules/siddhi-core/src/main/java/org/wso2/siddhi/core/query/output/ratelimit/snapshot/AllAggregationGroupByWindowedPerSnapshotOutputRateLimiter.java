@@ -25,33 +25,33 @@ import org.wso2.siddhi.core.event.ComplexEventChunk;
 import org.wso2.siddhi.core.event.stream.StreamEventPool;
 import org.wso2.siddhi.core.query.selector.QuerySelector;
 import org.wso2.siddhi.core.util.Scheduler;
+import org.wso2.siddhi.core.util.TimerWheel;
 
 import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 public class AllAggregationGroupByWindowedPerSnapshotOutputRateLimiter extends SnapshotOutputRateLimiter {
     private String id;
     private final Long value;
-    private final ScheduledExecutorService scheduledExecutorService;
+    private final TimerWheel timerWheel;
     Map<String, LastEventHolder> groupByKeyEvents = new LinkedHashMap<String, LastEventHolder>();
     private Scheduler scheduler;
     private long scheduledTime;
     private Lock lock;
 
-    public AllAggregationGroupByWindowedPerSnapshotOutputRateLimiter(String id, Long value, ScheduledExecutorService scheduledExecutorService, WrappedSnapshotOutputRateLimiter wrappedSnapshotOutputRateLimiter) {
+    public AllAggregationGroupByWindowedPerSnapshotOutputRateLimiter(String id, Long value, TimerWheel timerWheel, WrappedSnapshotOutputRateLimiter wrappedSnapshotOutputRateLimiter) {
         super(wrappedSnapshotOutputRateLimiter);
         this.id = id;
         this.value = value;
-        this.scheduledExecutorService = scheduledExecutorService;
+        this.timerWheel = timerWheel;
         lock = new ReentrantLock();
     }
 
     @Override
     public SnapshotOutputRateLimiter clone(String key, WrappedSnapshotOutputRateLimiter wrappedSnapshotOutputRateLimiter) {
-        return new AllAggregationGroupByWindowedPerSnapshotOutputRateLimiter(id + key, value, scheduledExecutorService, wrappedSnapshotOutputRateLimiter);
+        return new AllAggregationGroupByWindowedPerSnapshotOutputRateLimiter(id + key, value, timerWheel, wrappedSnapshotOutputRateLimiter);
     }
 
     @Override
@@ -96,7 +96,7 @@ public class AllAggregationGroupByWindowedPerSnapshotOutputRateLimiter extends S
 
     @Override
     public void start() {
-        scheduler = new Scheduler(scheduledExecutorService, this);
+        scheduler = new Scheduler(timerWheel, this);
         scheduler.setStreamEventPool(new StreamEventPool(0,0,0, 5));
         long currentTime = System.currentTimeMillis();
         scheduler.notifyAt(currentTime);
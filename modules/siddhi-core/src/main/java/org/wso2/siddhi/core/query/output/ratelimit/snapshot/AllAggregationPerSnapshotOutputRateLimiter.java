@@ -23,8 +23,8 @@ import org.wso2.siddhi.core.event.ComplexEvent;
 import org.wso2.siddhi.core.event.ComplexEventChunk;
 import org.wso2.siddhi.core.event.stream.StreamEventPool;
 import org.wso2.siddhi.core.util.Scheduler;
+import org.wso2.siddhi.core.util.TimerWheel;
 
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -32,17 +32,17 @@ public class AllAggregationPerSnapshotOutputRateLimiter extends SnapshotOutputRa
     private String id;
     private final Long value;
     private ComplexEventChunk<ComplexEvent> eventChunk = new ComplexEventChunk<ComplexEvent>();
-    private final ScheduledExecutorService scheduledExecutorService;
+    private final TimerWheel timerWheel;
     private boolean endOfChunk = false;
     private Scheduler scheduler;
     private long scheduledTime;
     private Lock lock;
 
-    public AllAggregationPerSnapshotOutputRateLimiter(String id, Long value, ScheduledExecutorService scheduledExecutorService, WrappedSnapshotOutputRateLimiter wrappedSnapshotOutputRateLimiter) {
+    public AllAggregationPerSnapshotOutputRateLimiter(String id, Long value, TimerWheel timerWheel, WrappedSnapshotOutputRateLimiter wrappedSnapshotOutputRateLimiter) {
         super(wrappedSnapshotOutputRateLimiter);
         this.id = id;
         this.value = value;
-        this.scheduledExecutorService = scheduledExecutorService;
+        this.timerWheel = timerWheel;
         lock = new ReentrantLock();
     }
 
@@ -83,12 +83,12 @@ public class AllAggregationPerSnapshotOutputRateLimiter extends SnapshotOutputRa
 
     @Override
     public SnapshotOutputRateLimiter clone(String key, WrappedSnapshotOutputRateLimiter wrappedSnapshotOutputRateLimiter) {
-        return new AllAggregationPerSnapshotOutputRateLimiter(id + key, value, scheduledExecutorService, wrappedSnapshotOutputRateLimiter);
+        return new AllAggregationPerSnapshotOutputRateLimiter(id + key, value, timerWheel, wrappedSnapshotOutputRateLimiter);
     }
 
     @Override
     public void start() {
-        scheduler = new Scheduler(scheduledExecutorService, this);
+        scheduler = new Scheduler(timerWheel, this);
         scheduler.setStreamEventPool(new StreamEventPool(0,0,0, 5));
         long currentTime = System.currentTimeMillis();
         scheduler.notifyAt(currentTime);
@@ -24,30 +24,30 @@ import org.wso2.siddhi.core.event.ComplexEventChunk;
 import org.wso2.siddhi.core.event.stream.StreamEventPool;
 import org.wso2.siddhi.core.query.selector.QuerySelector;
 import org.wso2.siddhi.core.util.Scheduler;
+import org.wso2.siddhi.core.util.TimerWheel;
 
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 public class GroupByPerSnapshotOutputRateLimiter extends SnapshotOutputRateLimiter {
     private String id;
     private final Long value;
-    private ScheduledExecutorService scheduledExecutorService;
+    private TimerWheel timerWheel;
     private Map<String, List<ComplexEvent>> tempGroupByKeyEvents = new LinkedHashMap<String, List<ComplexEvent>>();
     private Map<String, List<ComplexEvent>> groupByKeyEvents = new LinkedHashMap<String, List<ComplexEvent>>();
     private Scheduler scheduler;
     private long scheduledTime;
     private Lock lock;
 
-    public GroupByPerSnapshotOutputRateLimiter(String id, Long value, ScheduledExecutorService scheduledExecutorService, WrappedSnapshotOutputRateLimiter wrappedSnapshotOutputRateLimiter) {
+    public GroupByPerSnapshotOutputRateLimiter(String id, Long value, TimerWheel timerWheel, WrappedSnapshotOutputRateLimiter wrappedSnapshotOutputRateLimiter) {
         super(wrappedSnapshotOutputRateLimiter);
         this.id = id;
         this.value = value;
-        this.scheduledExecutorService = scheduledExecutorService;
+        this.timerWheel = timerWheel;
         lock = new ReentrantLock();
     }
 
@@ -94,7 +94,7 @@ public class GroupByPerSnapshotOutputRateLimiter extends SnapshotOutputRateLimit
 
     @Override
     public void start() {
-        scheduler = new Scheduler(scheduledExecutorService, this);
+        scheduler = new Scheduler(timerWheel, this);
         scheduler.setStreamEventPool(new StreamEventPool(0,0,0, 5));
         long currentTime = System.currentTimeMillis();
         scheduler.notifyAt(currentTime);
@@ -141,7 +141,7 @@ public class GroupByPerSnapshotOutputRateLimiter extends SnapshotOutputRateLimit
 
     @Override
     public SnapshotOutputRateLimiter clone(String key, WrappedSnapshotOutputRateLimiter wrappedSnapshotOutputRateLimiter) {
-        return new GroupByPerSnapshotOutputRateLimiter(id + key, value, scheduledExecutorService, wrappedSnapshotOutputRateLimiter);
+        return new GroupByPerSnapshotOutputRateLimiter(id + key, value, timerWheel, wrappedSnapshotOutputRateLimiter);
     }
 
 }
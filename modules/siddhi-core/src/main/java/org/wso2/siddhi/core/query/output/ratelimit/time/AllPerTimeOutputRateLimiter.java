@@ -26,8 +26,8 @@ import org.wso2.siddhi.core.event.stream.StreamEventPool;
 import org.wso2.siddhi.core.query.output.ratelimit.OutputRateLimiter;
 import org.wso2.siddhi.core.util.Schedulable;
 import org.wso2.siddhi.core.util.Scheduler;
+import org.wso2.siddhi.core.util.TimerWheel;
 
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -35,7 +35,7 @@ public class AllPerTimeOutputRateLimiter extends OutputRateLimiter implements Sc
 
     private final Long value;
     private String id;
-    private ScheduledExecutorService scheduledExecutorService;
+    private TimerWheel timerWheel;
     private Scheduler scheduler;
     private ComplexEventChunk<ComplexEvent> allComplexEventChunk;
     private long scheduledTime;
@@ -43,17 +43,17 @@ public class AllPerTimeOutputRateLimiter extends OutputRateLimiter implements Sc
 
     static final Logger log = Logger.getLogger(AllPerTimeOutputRateLimiter.class);
 
-    public AllPerTimeOutputRateLimiter(String id, Long value, ScheduledExecutorService scheduledExecutorService) {
+    public AllPerTimeOutputRateLimiter(String id, Long value, TimerWheel timerWheel) {
         this.id = id;
         this.value = value;
-        this.scheduledExecutorService = scheduledExecutorService;
+        this.timerWheel = timerWheel;
         lock = new ReentrantLock();
         allComplexEventChunk = new ComplexEventChunk<ComplexEvent>();
     }
 
     @Override
     public OutputRateLimiter clone(String key) {
-        return new AllPerTimeOutputRateLimiter(id + key, value, scheduledExecutorService);
+        return new AllPerTimeOutputRateLimiter(id + key, value, timerWheel);
     }
 
     @Override
@@ -85,7 +85,7 @@ public class AllPerTimeOutputRateLimiter extends OutputRateLimiter implements Sc
 
     @Override
     public void start() {
-        scheduler = new Scheduler(scheduledExecutorService, this);
+        scheduler = new Scheduler(timerWheel, this);
         scheduler.setStreamEventPool(new StreamEventPool(0,0,0, 5));
         long currentTime = System.currentTimeMillis();
         scheduler.notifyAt(currentTime);
@@ -27,10 +27,10 @@ import org.wso2.siddhi.core.query.output.ratelimit.OutputRateLimiter;
 import org.wso2.siddhi.core.query.selector.QuerySelector;
 import org.wso2.siddhi.core.util.Schedulable;
 import org.wso2.siddhi.core.util.Scheduler;
+import org.wso2.siddhi.core.util.TimerWheel;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -41,21 +41,21 @@ public class FirstGroupByPerTimeOutputRateLimiter extends OutputRateLimiter impl
     private final Long value;
     private List<String> groupByKeys = new ArrayList<String>();
     private List<ComplexEvent> complexEventList = new ArrayList<ComplexEvent>();
-    private ScheduledExecutorService scheduledExecutorService;
+    private TimerWheel timerWheel;
     private Scheduler scheduler;
     private long scheduledTime;
     private Lock lock;
 
-    public FirstGroupByPerTimeOutputRateLimiter(String id, Long value, ScheduledExecutorService scheduledExecutorService) {
+    public FirstGroupByPerTimeOutputRateLimiter(String id, Long value, TimerWheel timerWheel) {
         this.id = id;
         this.value = value;
-        this.scheduledExecutorService = scheduledExecutorService;
+        this.timerWheel = timerWheel;
         lock = new ReentrantLock();
     }
 
     @Override
     public OutputRateLimiter clone(String key) {
-        return new FirstGroupByPerTimeOutputRateLimiter(id + key, value, scheduledExecutorService);
+        return new FirstGroupByPerTimeOutputRateLimiter(id + key, value, timerWheel);
     }
 
     @Override
@@ -98,7 +98,7 @@ public class FirstGroupByPerTimeOutputRateLimiter extends OutputRateLimiter impl
 
     @Override
     public void start() {
-        scheduler = new Scheduler(scheduledExecutorService, this);
+        scheduler = new Scheduler(timerWheel, this);
         scheduler.setStreamEventPool(new StreamEventPool(0,0,0, 5));
         long currentTime = System.currentTimeMillis();
         scheduler.notifyAt(currentTime);
@@ -26,8 +26,8 @@ import org.wso2.siddhi.core.event.stream.StreamEventPool;
 import org.wso2.siddhi.core.query.output.ratelimit.OutputRateLimiter;
 import org.wso2.siddhi.core.util.Schedulable;
 import org.wso2.siddhi.core.util.Scheduler;
+import org.wso2.siddhi.core.util.TimerWheel;
 
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -35,23 +35,23 @@ public class FirstPerTimeOutputRateLimiter extends OutputRateLimiter implements
     private String id;
     private final Long value;
     private ComplexEvent firstEvent = null;
-    private ScheduledExecutorService scheduledExecutorService;
+    private TimerWheel timerWheel;
     private Scheduler scheduler;
     private long scheduledTime;
     private Lock lock;
 
     static final Logger log = Logger.getLogger(FirstPerTimeOutputRateLimiter.class);
 
-    public FirstPerTimeOutputRateLimiter(String id,Long value, ScheduledExecutorService scheduledExecutorService) {
+    public FirstPerTimeOutputRateLimiter(String id,Long value, TimerWheel timerWheel) {
         this.id = id;
         this.value = value;
-        this.scheduledExecutorService = scheduledExecutorService;
+        this.timerWheel = timerWheel;
         lock = new ReentrantLock();
     }
 
     @Override
     public OutputRateLimiter clone(String key) {
-        return new FirstPerTimeOutputRateLimiter(id+key,value,scheduledExecutorService);
+        return new FirstPerTimeOutputRateLimiter(id+key,value,timerWheel);
     }
 
     @Override
@@ -88,7 +88,7 @@ public class FirstPerTimeOutputRateLimiter extends OutputRateLimiter implements
 
     @Override
     public void start() {
-        scheduler = new Scheduler(scheduledExecutorService, this);
+        scheduler = new Scheduler(timerWheel, this);
         scheduler.setStreamEventPool(new StreamEventPool(0,0,0, 5));
         long currentTime = System.currentTimeMillis();
         scheduler.notifyAt(currentTime);
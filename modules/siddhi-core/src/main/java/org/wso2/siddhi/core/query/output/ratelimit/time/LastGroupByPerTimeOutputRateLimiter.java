@@ -28,10 +28,10 @@ import org.wso2.siddhi.core.query.output.ratelimit.OutputRateLimiter;
 import org.wso2.siddhi.core.query.selector.QuerySelector;
 import org.wso2.siddhi.core.util.Schedulable;
 import org.wso2.siddhi.core.util.Scheduler;
+import org.wso2.siddhi.core.util.TimerWheel;
 
 import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -39,23 +39,23 @@ public class LastGroupByPerTimeOutputRateLimiter extends OutputRateLimiter imple
     private String id;
     private final Long value;
     private Map<String, ComplexEvent> allGroupByKeyEvents = new LinkedHashMap<String, ComplexEvent>();
-    private ScheduledExecutorService scheduledExecutorService;
+    private TimerWheel timerWheel;
     private Scheduler scheduler;
     private long scheduledTime;
     private Lock lock;
 
     static final Logger log = Logger.getLogger(LastGroupByPerTimeOutputRateLimiter.class);
 
-    public LastGroupByPerTimeOutputRateLimiter(String id, Long value, ScheduledExecutorService scheduledExecutorService) {
+    public LastGroupByPerTimeOutputRateLimiter(String id, Long value, TimerWheel timerWheel) {
         this.id = id;
         this.value = value;
-        this.scheduledExecutorService = scheduledExecutorService;
+        this.timerWheel = timerWheel;
         lock = new ReentrantLock();
     }
 
     @Override
     public OutputRateLimiter clone(String key) {
-        return new LastGroupByPerTimeOutputRateLimiter(id + key, value, scheduledExecutorService);
+        return new LastGroupByPerTimeOutputRateLimiter(id + key, value, timerWheel);
     }
 
     @Override
@@ -77,7 +77,7 @@ public class LastGroupByPerTimeOutputRateLimiter extends OutputRateLimiter imple
 
     @Override
     public void start() {
-        scheduler = new Scheduler(scheduledExecutorService, this);
+        scheduler = new Scheduler(timerWheel, this);
         scheduler.setStreamEventPool(new StreamEventPool(0,0,0, 5));
         long currentTime = System.currentTimeMillis();
         scheduler.notifyAt(currentTime);
@@ -26,8 +26,8 @@ import org.wso2.siddhi.core.event.stream.StreamEventPool;
 import org.wso2.siddhi.core.query.output.ratelimit.OutputRateLimiter;
 import org.wso2.siddhi.core.util.Schedulable;
 import org.wso2.siddhi.core.util.Scheduler;
+import org.wso2.siddhi.core.util.TimerWheel;
 
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -35,7 +35,7 @@ public class LastPerTimeOutputRateLimiter extends OutputRateLimiter implements S
     private String id;
     private final Long value;
     private ComplexEvent lastevent = null;
-    private ScheduledExecutorService scheduledExecutorService;
+    private TimerWheel timerWheel;
     private Scheduler scheduler;
     private long scheduledTime;
     private Lock lock;
@@ -43,16 +43,16 @@ public class LastPerTimeOutputRateLimiter extends OutputRateLimiter implements S
     static final Logger log = Logger.getLogger(LastPerTimeOutputRateLimiter.class);
 
 
-    public LastPerTimeOutputRateLimiter(String id, Long value, ScheduledExecutorService scheduledExecutorService) {
+    public LastPerTimeOutputRateLimiter(String id, Long value, TimerWheel timerWheel) {
         this.id = id;
         this.value = value;
-        this.scheduledExecutorService = scheduledExecutorService;
+        this.timerWheel = timerWheel;
         lock = new ReentrantLock();
     }
 
     @Override
     public OutputRateLimiter clone(String key) {
-        return new LastPerTimeOutputRateLimiter(id + key, value, scheduledExecutorService);
+        return new LastPerTimeOutputRateLimiter(id + key, value, timerWheel);
     }
 
     @Override
@@ -93,7 +93,7 @@ public class LastPerTimeOutputRateLimiter extends OutputRateLimiter implements S
 
     @Override
     public void start() {
-        scheduler = new Scheduler(scheduledExecutorService, this);
+        scheduler = new Scheduler(timerWheel, this);
         scheduler.setStreamEventPool(new StreamEventPool(0,0,0, 5));
         long currentTime = System.currentTimeMillis();
         scheduler.notifyAt(currentTime);
@@ -0,0 +1,282 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.query.processor;
+
+import com.lmax.disruptor.EventFactory;
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.LifecycleAware;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.ProducerType;
+import org.apache.log4j.Logger;
+import org.wso2.siddhi.core.config.DisruptorConfig;
+import org.wso2.siddhi.core.config.ExecutionPlanContext;
+import org.wso2.siddhi.core.event.ComplexEvent;
+import org.wso2.siddhi.core.event.ComplexEventChunk;
+import org.wso2.siddhi.core.util.disruptor.OverloadController;
+import org.wso2.siddhi.core.util.extension.holder.EternalReferencedHolder;
+import org.wso2.siddhi.core.util.snapshot.Drainable;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Boundary between two pipeline stages of a query. Event chunks handed to this processor are published
+ * to a ring and the rest of the processor chain runs on the stage's own thread, so the
+ * processors before and after the boundary work on different batches concurrently. Consecutive chunks
+ * waiting in the ring are merged and processed as one batch.
+ * <p/>
+ * The processors cloned for the partition keys of a partitioned query share the ring and the thread of the
+ * stage, each ring entry carries the downstream processor of the partition instance it belongs to.
+ * <p/>
+ * The ring is claimed as per the overload policy of the stage, chunks rejected by the policy are dropped.
+ * <p/>
+ * The stage is drained by the snapshot service before it takes the shared lock of the execution plan, as the
+ * downstream processors may need the lock to process the events in flight.
+ */
+public class PipelineStageProcessor implements Processor, EternalReferencedHolder, Drainable {
+
+    private static final Logger log = Logger.getLogger(PipelineStageProcessor.class);
+
+    private Processor next;
+    private final Stage stage;
+
+    /**
+     * @param executionPlanContext associated execution plan context
+     * @param disruptorConfig      tuning of the ring between the stages
+     * @param producerType         {@link ProducerType#SINGLE} when a single thread at a time hands events to
+     *                             the stage, {@link ProducerType#MULTI} when timer threads also feed it
+     */
+    public PipelineStageProcessor(ExecutionPlanContext executionPlanContext, DisruptorConfig disruptorConfig,
+                                  ProducerType producerType) {
+        this.stage = new Stage(executionPlanContext, disruptorConfig, producerType);
+        executionPlanContext.addEternalReferencedHolder(this);
+        executionPlanContext.getSnapshotService().addDrainable(this);
+    }
+
+    private PipelineStageProcessor(Stage stage) {
+        this.stage = stage;
+    }
+
+    /**
+     * Hand the events over to the next stage. Events are processed in the caller's thread
+     * while the stage is not running.
+     *
+     * @param complexEventChunk event chunk to be processed
+     */
+    @Override
+    public void process(ComplexEventChunk complexEventChunk) {
+        ComplexEvent first = complexEventChunk.getFirst();
+        if (first == null) {
+            return;
+        }
+        if (!stage.running) {
+            next.process(complexEventChunk);
+            return;
+        }
+        RingBuffer<ChunkHolder> ringBuffer = stage.ringBuffer;
+        long sequenceNo = stage.overloadController.next();
+        if (sequenceNo == OverloadController.REJECTED) {
+            return;
+        }
+        try {
+            ChunkHolder chunkHolder = ringBuffer.get(sequenceNo);
+            chunkHolder.first = first;
+            chunkHolder.next = next;
+        } finally {
+            ringBuffer.publish(sequenceNo);
+        }
+    }
+
+    @Override
+    public Processor getNextProcessor() {
+        return next;
+    }
+
+    @Override
+    public void setNextProcessor(Processor processor) {
+        next = processor;
+    }
+
+    @Override
+    public void setToLast(Processor processor) {
+        if (next == null) {
+            this.next = processor;
+        } else {
+            this.next.setToLast(processor);
+        }
+    }
+
+    /**
+     * The clone feeds the ring of this stage, hence partition keys do not add threads
+     */
+    @Override
+    public Processor cloneProcessor(String key) {
+        return new PipelineStageProcessor(stage);
+    }
+
+    @Override
+    public void start() {
+        stage.start();
+    }
+
+    @Override
+    public void stop() {
+        stage.stop();
+    }
+
+    /**
+     * The stage does not keep any state, it only makes sure the events in flight
+     * are applied to the downstream processors before they are snapshotted.
+     */
+    @Override
+    public void drain() {
+        stage.drain();
+    }
+
+    @Override
+    public boolean isDrained() {
+        return stage.isDrained();
+    }
+
+    /**
+     * @return number of event chunks dropped by the overload policy of the stage
+     */
+    public long getDroppedChunkCount() {
+        OverloadController overloadController = stage.overloadController;
+        return overloadController == null ? 0 : overloadController.getDroppedEvents();
+    }
+
+    private static class ChunkHolder {
+        private ComplexEvent first;
+        private Processor next;
+    }
+
+    /**
+     * Ring and thread of a stage, shared by the processors cloned for partition keys
+     */
+    private static class Stage {
+
+        private final ExecutionPlanContext executionPlanContext;
+        private final DisruptorConfig disruptorConfig;
+        private final ProducerType producerType;
+        private Disruptor<ChunkHolder> disruptor;
+        private volatile RingBuffer<ChunkHolder> ringBuffer;
+        private volatile OverloadController overloadController;
+        private StageHandler stageHandler;
+        private volatile boolean running = false;
+
+        private Stage(ExecutionPlanContext executionPlanContext, DisruptorConfig disruptorConfig,
+                      ProducerType producerType) {
+            this.executionPlanContext = executionPlanContext;
+            this.disruptorConfig = disruptorConfig;
+            this.producerType = producerType;
+        }
+
+        private synchronized void start() {
+            if (running) {
+                return;
+            }
+            disruptor = disruptorConfig.createDisruptor(new EventFactory<ChunkHolder>() {
+                @Override
+                public ChunkHolder newInstance() {
+                    return new ChunkHolder();
+                }
+            }, executionPlanContext.getExecutorService(), producerType);
+            overloadController = new OverloadController(disruptor.getRingBuffer(), disruptorConfig);
+            stageHandler = new StageHandler(executionPlanContext, overloadController);
+            disruptor.handleEventsWith(stageHandler);
+            ringBuffer = disruptor.start();
+            running = true;
+        }
+
+        private synchronized void stop() {
+            if (!running) {
+                return;
+            }
+            running = false;
+            disruptor.shutdown();
+        }
+
+        /**
+         * Wait till all the published chunks are processed by the stage
+         */
+        private void drain() {
+            if (!running || Thread.currentThread() == stageHandler.stageThread) {
+                return;
+            }
+            while (running && !isDrained()) {
+                LockSupport.parkNanos(1000);
+            }
+        }
+
+        private boolean isDrained() {
+            return !running || disruptor.getSequenceValueFor(stageHandler) >= ringBuffer.getCursor();
+        }
+    }
+
+    private static class StageHandler implements EventHandler<ChunkHolder>, LifecycleAware {
+
+        private final ExecutionPlanContext executionPlanContext;
+        private final OverloadController overloadController;
+        private final ComplexEventChunk<ComplexEvent> batch = new ComplexEventChunk<ComplexEvent>();
+        private Processor batchProcessor;
+        private volatile Thread stageThread;
+
+        private StageHandler(ExecutionPlanContext executionPlanContext, OverloadController overloadController) {
+            this.executionPlanContext = executionPlanContext;
+            this.overloadController = overloadController;
+        }
+
+        @Override
+        public void onEvent(ChunkHolder chunkHolder, long sequence, boolean endOfBatch) throws Exception {
+            if (!overloadController.isDiscarded(sequence)) {
+                if (chunkHolder.next != batchProcessor) {
+                    processBatch();
+                    batchProcessor = chunkHolder.next;
+                }
+                batch.add(chunkHolder.first);
+            }
+            chunkHolder.first = null;
+            chunkHolder.next = null;
+            if (endOfBatch) {
+                processBatch();
+            }
+        }
+
+        private void processBatch() {
+            if (batch.getFirst() == null) {
+                return;
+            }
+            try {
+                batchProcessor.process(batch);
+            } catch (RuntimeException e) {
+                log.error("Error when processing events in the pipeline stage of execution plan '" +
+                        executionPlanContext.getName() + "', " + e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+
+        @Override
+        public void onStart() {
+            stageThread = Thread.currentThread();
+        }
+
+        @Override
+        public void onShutdown() {
+            stageThread = null;
+        }
+    }
+}
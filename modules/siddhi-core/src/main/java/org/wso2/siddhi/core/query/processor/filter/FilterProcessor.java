@@ -17,36 +17,90 @@ package org.wso2.siddhi.core.query.processor.filter;
 import org.wso2.siddhi.core.event.ComplexEvent;
 import org.wso2.siddhi.core.event.ComplexEventChunk;
 import org.wso2.siddhi.core.exception.OperationNotSupportedException;
+import org.wso2.siddhi.core.executor.EventBatch;
 import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.core.executor.SharedExpressionExecutor;
+import org.wso2.siddhi.core.executor.compiler.ExpressionCompiler;
+import org.wso2.siddhi.core.executor.condition.BoolConditionExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.ConditionExpressionExecutor;
 import org.wso2.siddhi.core.query.processor.Processor;
 import org.wso2.siddhi.query.api.definition.Attribute;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 
 public class FilterProcessor implements Processor {
 
+    private static final ThreadLocal<EventBatch> eventBatchThreadLocal = new ThreadLocal<EventBatch>() {
+        @Override
+        protected EventBatch initialValue() {
+            return new EventBatch();
+        }
+    };
+
     protected Processor next;
     private ExpressionExecutor conditionExecutor;
+    private ConditionExpressionExecutor batchConditionExecutor;
+    private List<SharedExpressionExecutor> sharedExpressionExecutors;
 
     public FilterProcessor(ExpressionExecutor conditionExecutor) {
+        this(conditionExecutor, Collections.<SharedExpressionExecutor>emptyList());
+    }
+
+    /**
+     * @param conditionExecutor         executor of the filter condition
+     * @param sharedExpressionExecutors executors of the sub expressions used more than once in the condition,
+     *                                  reset after evaluating each event
+     */
+    public FilterProcessor(ExpressionExecutor conditionExecutor, List<SharedExpressionExecutor> sharedExpressionExecutors) {
+        this.sharedExpressionExecutors = sharedExpressionExecutors;
         if (Attribute.Type.BOOL.equals(conditionExecutor.getReturnType())) {
             this.conditionExecutor = conditionExecutor;
+            this.batchConditionExecutor = BoolConditionExpressionExecutor.asCondition(conditionExecutor);
         } else {
             throw new OperationNotSupportedException("Return type of " + conditionExecutor.toString() + " should be of type BOOL. " +
                     "Actual type: " + conditionExecutor.getReturnType().toString());
         }
     }
 
+    /**
+     * Evaluate the condition through a class compiled for the whole condition tree
+     *
+     * @param expressionCompiler compiler of the condition
+     */
+    public void compile(ExpressionCompiler expressionCompiler) {
+        conditionExecutor = expressionCompiler.compileCondition(conditionExecutor);
+        batchConditionExecutor = BoolConditionExpressionExecutor.asCondition(conditionExecutor);
+    }
+
     public FilterProcessor cloneProcessor(String key) {
-        return new FilterProcessor(conditionExecutor.cloneExecutor(key));
+        ExpressionExecutor clonedConditionExecutor = conditionExecutor.cloneExecutor(key);
+        List<SharedExpressionExecutor> clonedSharedExecutors = new ArrayList<SharedExpressionExecutor>(
+                sharedExpressionExecutors.size());
+        for (SharedExpressionExecutor sharedExpressionExecutor : sharedExpressionExecutors) {
+            clonedSharedExecutors.add((SharedExpressionExecutor) sharedExpressionExecutor.cloneExecutor(key));
+        }
+        return new FilterProcessor(clonedConditionExecutor, clonedSharedExecutors);
     }
 
     @Override
     public void process(ComplexEventChunk complexEventChunk) {
-        complexEventChunk.reset();
-        while (complexEventChunk.hasNext()) {
-            ComplexEvent complexEvent = complexEventChunk.next();
-            if (!(Boolean) conditionExecutor.execute(complexEvent)) {
-                complexEventChunk.remove();
+        ComplexEvent first = complexEventChunk.getFirst();
+        if (first != null && first.getNext() != null) {
+            processBatch(complexEventChunk);
+        } else {
+            complexEventChunk.reset();
+            while (complexEventChunk.hasNext()) {
+                ComplexEvent complexEvent = complexEventChunk.next();
+                if (!(Boolean) conditionExecutor.execute(complexEvent)) {
+                    complexEventChunk.remove();
+                }
+                for (SharedExpressionExecutor sharedExpressionExecutor : sharedExpressionExecutors) {
+                    sharedExpressionExecutor.reset();
+                }
             }
         }
         if (complexEventChunk.getFirst() != null) {
@@ -54,6 +108,37 @@ public class FilterProcessor implements Processor {
         }
     }
 
+    /**
+     * Evaluate the condition for all the events of the chunk at once and remove the events it does not hold for.
+     * The batch is released before the events are passed on, hence one batch per thread is used by all the filters.
+     */
+    private void processBatch(ComplexEventChunk complexEventChunk) {
+        EventBatch eventBatch = eventBatchThreadLocal.get();
+        eventBatch.load(complexEventChunk);
+        int size = eventBatch.size();
+        boolean[] selection = eventBatch.takeBooleans();
+        Arrays.fill(selection, 0, size, true);
+        try {
+            batchConditionExecutor.execute(eventBatch, selection);
+            complexEventChunk.reset();
+            for (int i = 0; i < size; i++) {
+                complexEventChunk.next();
+                if (!selection[i]) {
+                    complexEventChunk.remove();
+                }
+            }
+        } finally {
+            eventBatch.clear();
+            for (SharedExpressionExecutor sharedExpressionExecutor : sharedExpressionExecutors) {
+                sharedExpressionExecutor.reset();
+            }
+        }
+    }
+
+    public ExpressionExecutor getConditionExecutor() {
+        return conditionExecutor;
+    }
+
     @Override
     public Processor getNextProcessor() {
         return next;
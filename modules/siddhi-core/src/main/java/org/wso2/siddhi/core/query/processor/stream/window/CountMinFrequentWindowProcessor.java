@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.query.processor.stream.window;
+
+import org.apache.log4j.Logger;
+import org.wso2.siddhi.core.config.ExecutionPlanContext;
+import org.wso2.siddhi.core.event.ComplexEvent;
+import org.wso2.siddhi.core.event.ComplexEventChunk;
+import org.wso2.siddhi.core.event.MetaComplexEvent;
+import org.wso2.siddhi.core.event.stream.StreamEvent;
+import org.wso2.siddhi.core.event.stream.StreamEventCloner;
+import org.wso2.siddhi.core.executor.ConstantExpressionExecutor;
+import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.core.executor.VariableExpressionExecutor;
+import org.wso2.siddhi.core.query.processor.Processor;
+import org.wso2.siddhi.core.table.EventTable;
+import org.wso2.siddhi.core.util.collection.CountMinSketch;
+import org.wso2.siddhi.core.util.collection.EventKeyTable;
+import org.wso2.siddhi.core.util.collection.operator.Finder;
+import org.wso2.siddhi.core.util.parser.CollectionOperatorParser;
+import org.wso2.siddhi.query.api.expression.Expression;
+import org.wso2.siddhi.query.api.exception.ExecutionPlanValidationException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/*
+* Sample Query:
+* from inputStream#window.countMinFrequent(0.1, 0.01, attribute1, attribute2)
+* select attribute1, attribute2
+* insert all events into outputStream;
+*
+* Description:
+* Keeps the latest event of the keys estimated to occur in at least (0.1 - 0.01) of the events, counting the keys
+* in a Count-Min sketch of fixed size with an error of 0.01 of the number of events (with 99% confidence), in the
+* same way as the lossyFrequent window. The error is optional and defaults to a tenth of the support. The
+* attributes following the support and error form the key, and all the attributes are used when none are given.
+* An arriving event is emitted as a current event when its key is frequent, and the kept events of the keys that
+* stopped being frequent are emitted as expired events every 1/0.01 events. When the estimates exceed their error
+* bound and more keys look frequent than the window can keep, the events of the keys that do not fit are dropped,
+* counted and logged.
+* */
+public class CountMinFrequentWindowProcessor extends WindowProcessor implements FindableProcessor {
+
+    private static final Logger log = Logger.getLogger(CountMinFrequentWindowProcessor.class);
+    private static final double CONFIDENCE = 0.99;
+
+    private double support;
+    private double error;
+    private long windowWidth;
+    private long totalCount;
+    private VariableExpressionExecutor[] variableExpressionExecutors;
+    private CountMinSketch sketch;
+    private EventKeyTable frequentEvents;
+    private long droppedEventCount;
+
+    @Override
+    protected void init(ExpressionExecutor[] attributeExpressionExecutors, ExecutionPlanContext executionPlanContext) {
+        if (attributeExpressionExecutors.length == 0) {
+            throw new ExecutionPlanValidationException("The countMinFrequent window should have a support parameter");
+        }
+        support = getFraction(attributeExpressionExecutors[0], "support");
+        int keyStart = 1;
+        if (attributeExpressionExecutors.length > 1 && attributeExpressionExecutors[1] instanceof ConstantExpressionExecutor) {
+            error = getFraction(attributeExpressionExecutors[1], "error");
+            keyStart = 2;
+        } else {
+            error = support / 10;
+        }
+        if (error >= support) {
+            throw new ExecutionPlanValidationException("Error of the countMinFrequent window should be less than its support, but found support " + support + " and error " + error);
+        }
+        variableExpressionExecutors = new VariableExpressionExecutor[attributeExpressionExecutors.length - keyStart];
+        for (int i = keyStart; i < attributeExpressionExecutors.length; i++) {
+            if (!(attributeExpressionExecutors[i] instanceof VariableExpressionExecutor)) {
+                throw new ExecutionPlanValidationException("Key parameters of the countMinFrequent window should be attributes");
+            }
+            variableExpressionExecutors[i - keyStart] = (VariableExpressionExecutor) attributeExpressionExecutors[i];
+        }
+        windowWidth = (long) Math.ceil(1 / error);
+        sketch = new CountMinSketch(error, CONFIDENCE);
+    }
+
+    private double getFraction(ExpressionExecutor attributeExpressionExecutor, String name) {
+        if (!(attributeExpressionExecutor instanceof ConstantExpressionExecutor) ||
+                !(((ConstantExpressionExecutor) attributeExpressionExecutor).getValue() instanceof Number)) {
+            throw new ExecutionPlanValidationException("The " + name + " of the countMinFrequent window should be a constant number");
+        }
+        double value = ((Number) ((ConstantExpressionExecutor) attributeExpressionExecutor).getValue()).doubleValue();
+        if (value <= 0 || value >= 1) {
+            throw new ExecutionPlanValidationException("The " + name + " of the countMinFrequent window should be between 0 and 1, but found " + value);
+        }
+        return value;
+    }
+
+    /**
+     * The events of the frequent keys are kept once the positions of the key attributes in the events are known.
+     * An estimate overestimates by at most error * n, so every key estimated to be frequent really occurs at least
+     * (support - 2 * error) * n times, which bounds the number of frequent keys.
+     */
+    private EventKeyTable createFrequentEvents() {
+        double minFrequency = Math.max(support - 2 * error, error);
+        return new EventKeyTable((int) Math.ceil(1 / minFrequency),
+                SpaceSavingWindowProcessor.getKeyPositions(variableExpressionExecutors));
+    }
+
+    @Override
+    protected synchronized void process(ComplexEventChunk<StreamEvent> streamEventChunk, Processor nextProcessor, StreamEventCloner streamEventCloner) {
+        ComplexEventChunk<StreamEvent> complexEventChunk = new ComplexEventChunk<StreamEvent>();
+        if (frequentEvents == null) {
+            frequentEvents = createFrequentEvents();
+        }
+
+        StreamEvent streamEvent = streamEventChunk.getFirst();
+        while (streamEvent != null) {
+            StreamEvent next = streamEvent.getNext();
+            streamEvent.setNext(null);
+
+            totalCount++;
+            long hash = frequentEvents.hash(streamEvent);
+            long estimate = sketch.add(hash);
+            int entry = frequentEvents.find(streamEvent, hash);
+            if (entry != -1 || estimate >= (support - error) * totalCount) {
+                StreamEvent clonedEvent = streamEventCloner.copyStreamEvent(streamEvent);
+                clonedEvent.setType(StreamEvent.Type.EXPIRED);
+                if (entry != -1) {
+                    frequentEvents.set(entry, clonedEvent);
+                } else {
+                    if (frequentEvents.isFull()) {
+                        prune(complexEventChunk, streamEvent.getTimestamp());
+                    }
+                    if (!frequentEvents.isFull()) {
+                        entry = frequentEvents.put(clonedEvent, hash);
+                    } else {
+                        dropEvent();
+                    }
+                }
+                if (entry != -1 && estimate >= (support - error) * totalCount) {
+                    complexEventChunk.add(streamEvent);
+                }
+            }
+            if (totalCount % windowWidth == 0) {
+                prune(complexEventChunk, streamEvent.getTimestamp());
+            }
+
+            streamEvent = next;
+        }
+        nextProcessor.process(complexEventChunk);
+    }
+
+    /**
+     * Expires the kept events of the keys whose estimates fell below the frequency threshold
+     */
+    private void prune(ComplexEventChunk<StreamEvent> complexEventChunk, long timestamp) {
+        double threshold = (support - error) * totalCount;
+        for (int entry = 0; entry < frequentEvents.capacity(); entry++) {
+            if (frequentEvents.get(entry) != null && sketch.estimate(frequentEvents.getHash(entry)) < threshold) {
+                StreamEvent expiredEvent = frequentEvents.remove(entry);
+                expiredEvent.setTimestamp(timestamp);
+                complexEventChunk.add(expiredEvent);
+            }
+        }
+    }
+
+    /**
+     * Counts the events of the frequent keys that do not fit in the window, logged when the count reaches a
+     * power of two
+     */
+    private void dropEvent() {
+        droppedEventCount++;
+        if ((droppedEventCount & (droppedEventCount - 1)) == 0) {
+            log.warn("countMinFrequent window of " + inputDefinition.getId() + " cannot keep more than " +
+                    frequentEvents.capacity() + " frequent keys, dropped " + droppedEventCount +
+                    " events of keys estimated to be frequent so far");
+        }
+    }
+
+    /**
+     * @return number of events of keys estimated to be frequent that were dropped as the window was full
+     */
+    public synchronized long getDroppedEventCount() {
+        return droppedEventCount;
+    }
+
+    @Override
+    public void start() {
+        //Do nothing
+    }
+
+    @Override
+    public void stop() {
+        //Do nothing
+    }
+
+    @Override
+    public synchronized Object[] currentState() {
+        return new Object[]{totalCount, sketch.snapshot(),
+                frequentEvents == null ? null : new ArrayList<StreamEvent>(frequentEvents)};
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public synchronized void restoreState(Object[] state) {
+        totalCount = (Long) state[0];
+        sketch.restore((long[]) state[1]);
+        if (state[2] == null) {
+            frequentEvents = null;
+            return;
+        }
+        if (frequentEvents == null) {
+            frequentEvents = createFrequentEvents();
+        }
+        frequentEvents.clear();
+        for (StreamEvent streamEvent : (List<StreamEvent>) state[2]) {
+            frequentEvents.put(streamEvent, frequentEvents.hash(streamEvent));
+        }
+    }
+
+    @Override
+    public synchronized StreamEvent find(ComplexEvent matchingEvent, Finder finder) {
+        if (frequentEvents == null) {
+            return null;
+        }
+        return finder.find(matchingEvent, frequentEvents, streamEventCloner);
+    }
+
+    @Override
+    public Finder constructFinder(Expression expression, MetaComplexEvent metaComplexEvent, ExecutionPlanContext executionPlanContext, List<VariableExpressionExecutor> variableExpressionExecutors, Map<String, EventTable> eventTableMap, int matchingStreamIndex, long withinTime) {
+        return CollectionOperatorParser.parse(expression, metaComplexEvent, executionPlanContext, variableExpressionExecutors, eventTableMap, matchingStreamIndex, inputDefinition, withinTime);
+    }
+}
@@ -54,10 +54,17 @@ public class ExternalTimeWindowProcessor extends WindowProcessor implements Find
             timeToKeep = Long.parseLong(String.valueOf(((ConstantExpressionExecutor) attributeExpressionExecutors[1]).getValue()));
         }
         timeStampVariableExpressionExecutor = ((VariableExpressionExecutor) attributeExpressionExecutors[0]);
+        if (attributeExpressionExecutors.length == 3) {
+            initEventStore(attributeExpressionExecutors[2]);
+        }
     }
 
     @Override
     protected synchronized void process(ComplexEventChunk<StreamEvent> streamEventChunk, Processor nextProcessor, StreamEventCloner streamEventCloner) {
+        if (offHeapEventQueue != null) {
+            processOffHeap(streamEventChunk, nextProcessor);
+            return;
+        }
         while (streamEventChunk.hasNext()) {
 
             StreamEvent streamEvent = streamEventChunk.next();
@@ -90,6 +97,27 @@ public class ExternalTimeWindowProcessor extends WindowProcessor implements Find
         nextProcessor.process(streamEventChunk);
     }
 
+    /**
+     * Same as {@link #process(ComplexEventChunk, Processor, StreamEventCloner)}, but the events of the window are
+     * serialized to the off heap queue instead of being cloned
+     */
+    private void processOffHeap(ComplexEventChunk<StreamEvent> streamEventChunk, Processor nextProcessor) {
+        while (streamEventChunk.hasNext()) {
+
+            StreamEvent streamEvent = streamEventChunk.next();
+            long currentTime = (Long) streamEvent.getAttribute(timeStampVariableExpressionExecutor.getPosition());
+
+            while (!offHeapEventQueue.isEmpty() && offHeapEventQueue.peekTimestamp() - currentTime <= 0) {
+                streamEventChunk.insertBeforeCurrent(offHeapEventQueue.poll());
+            }
+
+            if (streamEvent.getType() == StreamEvent.Type.CURRENT) {
+                offHeapEventQueue.add(streamEvent, StreamEvent.Type.EXPIRED, currentTime + timeToKeep);
+            }
+        }
+        nextProcessor.process(streamEventChunk);
+    }
+
     @Override
     public void start() {
         //Do nothing
@@ -97,21 +125,31 @@ public class ExternalTimeWindowProcessor extends WindowProcessor implements Find
 
     @Override
     public void stop() {
-        //Do nothing
+        releaseEventStore();
     }
 
     @Override
     public Object[] currentState() {
+        if (offHeapEventQueue != null) {
+            return new Object[]{offHeapEventQueue.snapshot()};
+        }
         return new Object[]{expiredEventChunk};
     }
 
     @Override
     public void restoreState(Object[] state) {
-        expiredEventChunk = (ComplexEventChunk<StreamEvent>) state[0];
+        if (offHeapEventQueue != null) {
+            offHeapEventQueue.restore((byte[]) state[0]);
+        } else {
+            expiredEventChunk = (ComplexEventChunk<StreamEvent>) state[0];
+        }
     }
 
     @Override
     public synchronized StreamEvent find(ComplexEvent matchingEvent, Finder finder) {
+        if (offHeapEventQueue != null) {
+            return findOffHeap(matchingEvent, finder);
+        }
         return finder.find(matchingEvent, expiredEventChunk,streamEventCloner);
     }
 
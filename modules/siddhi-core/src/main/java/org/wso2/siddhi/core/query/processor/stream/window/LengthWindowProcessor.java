@@ -52,11 +52,18 @@ public class LengthWindowProcessor extends WindowProcessor implements FindablePr
 
         if (attributeExpressionExecutors != null) {
             length = (Integer) ((ConstantExpressionExecutor) attributeExpressionExecutors[0]).getValue();
+            if (attributeExpressionExecutors.length == 2) {
+                initEventStore(attributeExpressionExecutors[1]);
+            }
         }
     }
 
     @Override
     protected synchronized void process(ComplexEventChunk<StreamEvent> streamEventChunk, Processor nextProcessor, StreamEventCloner streamEventCloner) {
+        if (offHeapEventQueue != null) {
+            processOffHeap(streamEventChunk, nextProcessor, streamEventCloner);
+            return;
+        }
         while (streamEventChunk.hasNext()) {
             StreamEvent streamEvent = streamEventChunk.next();
             StreamEvent clonedEvent = streamEventCloner.copyStreamEvent(streamEvent);
@@ -77,8 +84,34 @@ public class LengthWindowProcessor extends WindowProcessor implements FindablePr
         nextProcessor.process(streamEventChunk);
     }
 
+    /**
+     * Same as {@link #process(ComplexEventChunk, Processor, StreamEventCloner)}, but the events of the window are
+     * serialized to the off heap queue instead of being cloned
+     */
+    private void processOffHeap(ComplexEventChunk<StreamEvent> streamEventChunk, Processor nextProcessor,
+                                StreamEventCloner streamEventCloner) {
+        while (streamEventChunk.hasNext()) {
+            StreamEvent streamEvent = streamEventChunk.next();
+            if (count < length) {
+                count++;
+                offHeapEventQueue.add(streamEvent, StreamEvent.Type.EXPIRED, streamEvent.getTimestamp());
+            } else if (!offHeapEventQueue.isEmpty()) {
+                streamEventChunk.insertBeforeCurrent(offHeapEventQueue.poll());
+                offHeapEventQueue.add(streamEvent, StreamEvent.Type.EXPIRED, streamEvent.getTimestamp());
+            } else {
+                StreamEvent clonedEvent = streamEventCloner.copyStreamEvent(streamEvent);
+                clonedEvent.setType(StreamEvent.Type.EXPIRED);
+                streamEventChunk.insertBeforeCurrent(clonedEvent);
+            }
+        }
+        nextProcessor.process(streamEventChunk);
+    }
+
     @Override
     public synchronized StreamEvent find(ComplexEvent matchingEvent, Finder finder) {
+        if (offHeapEventQueue != null) {
+            return findOffHeap(matchingEvent, finder);
+        }
         return finder.find(matchingEvent, expiredEventChunk, streamEventCloner);
     }
 
@@ -94,17 +127,24 @@ public class LengthWindowProcessor extends WindowProcessor implements FindablePr
 
     @Override
     public void stop() {
-        //Do nothing
+        releaseEventStore();
     }
 
     @Override
     public Object[] currentState() {
+        if (offHeapEventQueue != null) {
+            return new Object[]{offHeapEventQueue.snapshot(), count};
+        }
         return new Object[]{expiredEventChunk, count};
     }
 
     @Override
     public void restoreState(Object[] state) {
-        expiredEventChunk = (ComplexEventChunk<StreamEvent>) state[0];
+        if (offHeapEventQueue != null) {
+            offHeapEventQueue.restore((byte[]) state[0]);
+        } else {
+            expiredEventChunk = (ComplexEventChunk<StreamEvent>) state[0];
+        }
         count = (Integer) state[1];
     }
 }
@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package org.wso2.siddhi.core.query.processor.stream.window;
+
+import org.wso2.siddhi.core.event.ComplexEvent;
+import org.wso2.siddhi.core.event.stream.StreamEvent;
+import org.wso2.siddhi.core.util.collection.operator.Finder;
+
+/**
+ * Optionally implemented by a {@link FindableProcessor} that copies the events it finds from a pool, so that the
+ * joins can hand the copies back. Finders that do not implement it leave the found events to the garbage collector.
+ */
+public interface ReleasableFinder {
+
+    /**
+     * Hand back the events returned by {@link FindableProcessor#find(ComplexEvent, Finder)} once the caller no
+     * longer references them, so that their copies can be reused
+     *
+     * @param foundEvents events returned by find, the events chained to it are also released
+     */
+    public void releaseFoundEvents(StreamEvent foundEvents);
+
+}
@@ -30,6 +30,7 @@ import org.wso2.siddhi.core.executor.ExpressionExecutor;
 import org.wso2.siddhi.core.executor.VariableExpressionExecutor;
 import org.wso2.siddhi.core.query.processor.Processor;
 import org.wso2.siddhi.core.table.EventTable;
+import org.wso2.siddhi.core.util.collection.SortedStreamEventCollection;
 import org.wso2.siddhi.core.util.collection.operator.Finder;
 import org.wso2.siddhi.core.util.parser.CollectionOperatorParser;
 import org.wso2.siddhi.query.api.definition.Attribute;
@@ -50,30 +51,12 @@ import java.util.*;
 * */
 public class SortWindowProcessor extends WindowProcessor implements FindableProcessor {
     private int lengthToKeep;
-    private ArrayList<StreamEvent> sortedWindow = new ArrayList<StreamEvent>();
+    private SortedStreamEventCollection sortedWindow;
     private ArrayList<Object[]> parameterInfo;
-    private EventComparator eventComparator;
 
     private static final String ASC = "asc";
     private static final String DESC = "desc";
 
-    private class EventComparator implements Comparator<StreamEvent> {
-        @Override
-        public int compare(StreamEvent e1, StreamEvent e2) {
-            int comparisonResult;
-            for (Object[] listItem : parameterInfo) {
-                int[] variablePosition = ((VariableExpressionExecutor) listItem[0]).getPosition();
-                Comparable comparableVariable1 = (Comparable) e1.getAttribute(variablePosition);
-                Comparable comparableVariable2 = (Comparable) e2.getAttribute(variablePosition);
-                comparisonResult = comparableVariable1.compareTo(comparableVariable2);
-                if (comparisonResult != 0) {
-                    return ((Integer) listItem[1]) * comparisonResult;
-                }
-            }
-            return 0;
-        }
-    }
-
     @Override
     protected void init(ExpressionExecutor[] attributeExpressionExecutors, ExecutionPlanContext executionPlanContext) {
         if (attributeExpressionExecutors[0].getReturnType() == Attribute.Type.INT) {
@@ -82,7 +65,6 @@ public class SortWindowProcessor extends WindowProcessor implements FindableProc
             throw new UnsupportedOperationException("The first parameter should be an integer");
         }
         parameterInfo = new ArrayList<Object[]>();
-        eventComparator = new EventComparator();
         for (int i = 1, parametersLength = attributeExpressionExecutors.length; i < parametersLength; i++) {
             if (!(attributeExpressionExecutors[i] instanceof VariableExpressionExecutor)) {
                 throw new UnsupportedOperationException("Required a variable, but found a string parameter");
@@ -110,9 +92,28 @@ public class SortWindowProcessor extends WindowProcessor implements FindableProc
 
     }
 
+    /**
+     * The window is sorted once the positions of the sort attributes in the events are known
+     */
+    private SortedStreamEventCollection createSortedWindow() {
+        int[][] positions = new int[parameterInfo.size()][];
+        Attribute.Type[] types = new Attribute.Type[parameterInfo.size()];
+        boolean[] descending = new boolean[parameterInfo.size()];
+        for (int i = 0; i < parameterInfo.size(); i++) {
+            VariableExpressionExecutor variableExpressionExecutor = (VariableExpressionExecutor) parameterInfo.get(i)[0];
+            positions[i] = variableExpressionExecutor.getPosition();
+            types[i] = variableExpressionExecutor.getReturnType();
+            descending[i] = (Integer) parameterInfo.get(i)[1] == -1;
+        }
+        return new SortedStreamEventCollection(positions, types, descending);
+    }
+
     @Override
     protected synchronized void process(ComplexEventChunk<StreamEvent> streamEventChunk, Processor nextProcessor, StreamEventCloner streamEventCloner) {
         ComplexEventChunk<StreamEvent> complexEventChunk = new ComplexEventChunk<StreamEvent>();
+        if (sortedWindow == null) {
+            sortedWindow = createSortedWindow();
+        }
 
         StreamEvent streamEvent = streamEventChunk.getFirst();
         while (streamEvent != null) {
@@ -125,8 +126,7 @@ public class SortWindowProcessor extends WindowProcessor implements FindableProc
 
             sortedWindow.add(clonedEvent);
             if (sortedWindow.size() > lengthToKeep) {
-                Collections.sort(sortedWindow, eventComparator);
-                complexEventChunk.add(sortedWindow.remove(sortedWindow.size() - 1));
+                complexEventChunk.add(sortedWindow.pollLast());
             }
 
             streamEvent = next;
@@ -147,23 +147,35 @@ public class SortWindowProcessor extends WindowProcessor implements FindableProc
     }
 
     @Override
-    public Object[] currentState() {
-        return new Object[]{sortedWindow};
+    public synchronized Object[] currentState() {
+        return new Object[]{sortedWindow == null ? new ArrayList<StreamEvent>() :
+                new ArrayList<StreamEvent>(sortedWindow)};
     }
 
     @Override
-    public void restoreState(Object[] state) {
-        sortedWindow = (ArrayList<StreamEvent>) state[0];
+    public synchronized void restoreState(Object[] state) {
+        if (sortedWindow == null) {
+            sortedWindow = createSortedWindow();
+        }
+        sortedWindow.clear();
+        sortedWindow.addAll((List<StreamEvent>) state[0]);
     }
 
     @Override
     public synchronized StreamEvent find(ComplexEvent matchingEvent, Finder finder) {
+        if (sortedWindow == null) {
+            return null;
+        }
         return finder.find(matchingEvent, sortedWindow, streamEventCloner);
     }
 
     @Override
     public Finder constructFinder(Expression expression, MetaComplexEvent metaComplexEvent, ExecutionPlanContext executionPlanContext, List<VariableExpressionExecutor> variableExpressionExecutors, Map<String, EventTable> eventTableMap, int matchingStreamIndex, long withinTime) {
-        return CollectionOperatorParser.parse(expression, metaComplexEvent, executionPlanContext, variableExpressionExecutors, eventTableMap, matchingStreamIndex, inputDefinition, withinTime);
+        if (parameterInfo.isEmpty()) {
+            return CollectionOperatorParser.parse(expression, metaComplexEvent, executionPlanContext, variableExpressionExecutors, eventTableMap, matchingStreamIndex, inputDefinition, withinTime);
+        }
+        return CollectionOperatorParser.parseSorted(expression, metaComplexEvent, executionPlanContext, variableExpressionExecutors, eventTableMap, matchingStreamIndex, inputDefinition, withinTime,
+                ((VariableExpressionExecutor) parameterInfo.get(0)[0]).getAttribute().getName());
 
     }
 }
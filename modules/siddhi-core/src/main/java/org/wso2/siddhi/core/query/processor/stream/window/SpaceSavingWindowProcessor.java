@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.query.processor.stream.window;
+
+import org.wso2.siddhi.core.config.ExecutionPlanContext;
+import org.wso2.siddhi.core.event.ComplexEvent;
+import org.wso2.siddhi.core.event.ComplexEventChunk;
+import org.wso2.siddhi.core.event.MetaComplexEvent;
+import org.wso2.siddhi.core.event.stream.StreamEvent;
+import org.wso2.siddhi.core.event.stream.StreamEventCloner;
+import org.wso2.siddhi.core.executor.ConstantExpressionExecutor;
+import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.core.executor.VariableExpressionExecutor;
+import org.wso2.siddhi.core.query.processor.Processor;
+import org.wso2.siddhi.core.table.EventTable;
+import org.wso2.siddhi.core.util.collection.SpaceSavingSummary;
+import org.wso2.siddhi.core.util.collection.operator.Finder;
+import org.wso2.siddhi.core.util.parser.CollectionOperatorParser;
+import org.wso2.siddhi.query.api.definition.Attribute;
+import org.wso2.siddhi.query.api.exception.ExecutionPlanValidationException;
+import org.wso2.siddhi.query.api.expression.Expression;
+
+import java.util.List;
+import java.util.Map;
+
+/*
+* Sample Query:
+* from inputStream#window.spaceSaving(100, attribute1, attribute2)
+* select attribute1, attribute2, count() as count
+* insert all events into outputStream;
+*
+* Description:
+* Keeps the latest event of at most 100 of the most frequent keys, counted with the SpaceSaving algorithm.
+* Every key occurring in more than 1/100 of the events is kept. The attributes following the capacity form
+* the key, and all the attributes are used when none are given. Each arriving event is emitted as a current
+* event, and the event of the least frequent key is emitted as an expired event when a new key takes its place.
+* */
+public class SpaceSavingWindowProcessor extends WindowProcessor implements FindableProcessor {
+
+    private int capacity;
+    private VariableExpressionExecutor[] variableExpressionExecutors;
+    private SpaceSavingSummary summary;
+
+    @Override
+    protected void init(ExpressionExecutor[] attributeExpressionExecutors, ExecutionPlanContext executionPlanContext) {
+        if (attributeExpressionExecutors.length == 0 || attributeExpressionExecutors[0].getReturnType() != Attribute.Type.INT ||
+                !(attributeExpressionExecutors[0] instanceof ConstantExpressionExecutor)) {
+            throw new ExecutionPlanValidationException("The first parameter of the spaceSaving window should be an integer capacity");
+        }
+        capacity = (Integer) ((ConstantExpressionExecutor) attributeExpressionExecutors[0]).getValue();
+        if (capacity < 1) {
+            throw new ExecutionPlanValidationException("Capacity of the spaceSaving window should be positive, but found " + capacity);
+        }
+        variableExpressionExecutors = new VariableExpressionExecutor[attributeExpressionExecutors.length - 1];
+        for (int i = 1; i < attributeExpressionExecutors.length; i++) {
+            if (!(attributeExpressionExecutors[i] instanceof VariableExpressionExecutor)) {
+                throw new ExecutionPlanValidationException("Key parameters of the spaceSaving window should be attributes");
+            }
+            variableExpressionExecutors[i - 1] = (VariableExpressionExecutor) attributeExpressionExecutors[i];
+        }
+    }
+
+    /**
+     * The summary is created once the positions of the key attributes in the events are known
+     */
+    private SpaceSavingSummary createSummary() {
+        return new SpaceSavingSummary(capacity, getKeyPositions(variableExpressionExecutors));
+    }
+
+    static int[][] getKeyPositions(VariableExpressionExecutor[] variableExpressionExecutors) {
+        if (variableExpressionExecutors.length == 0) {
+            return null;
+        }
+        int[][] keyPositions = new int[variableExpressionExecutors.length][];
+        for (int i = 0; i < variableExpressionExecutors.length; i++) {
+            keyPositions[i] = variableExpressionExecutors[i].getPosition();
+        }
+        return keyPositions;
+    }
+
+    @Override
+    protected synchronized void process(ComplexEventChunk<StreamEvent> streamEventChunk, Processor nextProcessor, StreamEventCloner streamEventCloner) {
+        ComplexEventChunk<StreamEvent> complexEventChunk = new ComplexEventChunk<StreamEvent>();
+        if (summary == null) {
+            summary = createSummary();
+        }
+
+        StreamEvent streamEvent = streamEventChunk.getFirst();
+        while (streamEvent != null) {
+            StreamEvent next = streamEvent.getNext();
+            streamEvent.setNext(null);
+
+            StreamEvent clonedEvent = streamEventCloner.copyStreamEvent(streamEvent);
+            clonedEvent.setType(StreamEvent.Type.EXPIRED);
+
+            StreamEvent evictedEvent = summary.offer(clonedEvent);
+            if (evictedEvent != null) {
+                evictedEvent.setTimestamp(streamEvent.getTimestamp());
+                complexEventChunk.add(evictedEvent);
+            }
+            complexEventChunk.add(streamEvent);
+
+            streamEvent = next;
+        }
+        nextProcessor.process(complexEventChunk);
+    }
+
+    @Override
+    public void start() {
+        //Do nothing
+    }
+
+    @Override
+    public void stop() {
+        //Do nothing
+    }
+
+    @Override
+    public synchronized Object[] currentState() {
+        return new Object[]{summary == null ? null : summary.snapshot()};
+    }
+
+    @Override
+    public synchronized void restoreState(Object[] state) {
+        if (state[0] == null) {
+            summary = null;
+            return;
+        }
+        if (summary == null) {
+            summary = createSummary();
+        }
+        summary.restore((Object[]) state[0]);
+    }
+
+    @Override
+    public synchronized StreamEvent find(ComplexEvent matchingEvent, Finder finder) {
+        if (summary == null) {
+            return null;
+        }
+        return finder.find(matchingEvent, summary.getEvents(), streamEventCloner);
+    }
+
+    @Override
+    public Finder constructFinder(Expression expression, MetaComplexEvent metaComplexEvent, ExecutionPlanContext executionPlanContext, List<VariableExpressionExecutor> variableExpressionExecutors, Map<String, EventTable> eventTableMap, int matchingStreamIndex, long withinTime) {
+        return CollectionOperatorParser.parse(expression, metaComplexEvent, executionPlanContext, variableExpressionExecutors, eventTableMap, matchingStreamIndex, inputDefinition, withinTime);
+    }
+}
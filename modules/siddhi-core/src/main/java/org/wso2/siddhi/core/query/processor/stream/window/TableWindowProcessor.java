@@ -55,6 +55,13 @@ public class TableWindowProcessor extends WindowProcessor implements FindablePro
         return eventTable.find(matchingEvent, finder);
     }
 
+    @Override
+    public void releaseFoundEvents(StreamEvent foundEvents) {
+        if (eventTable instanceof ReleasableFinder) {
+            ((ReleasableFinder) eventTable).releaseFoundEvents(foundEvents);
+        }
+    }
+
     @Override
     public Finder constructFinder(Expression expression, MetaComplexEvent metaComplexEvent, ExecutionPlanContext executionPlanContext, List<VariableExpressionExecutor> variableExpressionExecutors, Map<String, EventTable> eventTableMap, int matchingStreamIndex, long withinTime) {
         return eventTable.constructFinder(expression, metaComplexEvent, executionPlanContext, variableExpressionExecutors, eventTableMap, matchingStreamIndex, withinTime);
@@ -42,11 +42,31 @@ public class TimeWindowProcessor extends WindowProcessor implements SchedulingPr
     private ComplexEventChunk<StreamEvent> expiredEventChunk;
     private Scheduler scheduler;
     private ExecutionPlanContext executionPlanContext;
+    private boolean expiryDelegated = false;
 
     public void setTimeInMilliSeconds(long timeInMilliSeconds) {
         this.timeInMilliSeconds = timeInMilliSeconds;
     }
 
+    public long getTimeInMilliSeconds() {
+        return timeInMilliSeconds;
+    }
+
+    /**
+     * Let the window only forward the current events, without keeping, scheduling and emitting their expired
+     * events. Used when the aggregators of the query expire the values of the window by themselves and the
+     * query does not output expired events.
+     *
+     * @param expiryDelegated true when the window should not expire its events
+     */
+    public void setExpiryDelegated(boolean expiryDelegated) {
+        this.expiryDelegated = expiryDelegated;
+    }
+
+    public boolean isExpiryDelegated() {
+        return expiryDelegated;
+    }
+
     @Override
     public void setScheduler(Scheduler scheduler) {
         this.scheduler = scheduler;
@@ -61,7 +81,7 @@ public class TimeWindowProcessor extends WindowProcessor implements SchedulingPr
     protected void init(ExpressionExecutor[] attributeExpressionExecutors, ExecutionPlanContext executionPlanContext) {
         this.executionPlanContext = executionPlanContext;
         this.expiredEventChunk = new ComplexEventChunk<StreamEvent>();
-        if (attributeExpressionExecutors.length == 1) {
+        if (attributeExpressionExecutors.length == 1 || attributeExpressionExecutors.length == 2) {
             if (attributeExpressionExecutors[0] instanceof ConstantExpressionExecutor) {
                 if (attributeExpressionExecutors[0].getReturnType() == Attribute.Type.INT) {
                     timeInMilliSeconds = (Integer) ((ConstantExpressionExecutor) attributeExpressionExecutors[0]).getValue();
@@ -75,12 +95,23 @@ public class TimeWindowProcessor extends WindowProcessor implements SchedulingPr
                 throw new ExecutionPlanValidationException("Time window should have constant parameter attribute but found a dynamic attribute " + attributeExpressionExecutors[0].getClass().getCanonicalName());
             }
         } else {
-            throw new ExecutionPlanValidationException("Time window should only have one parameter (timeInterval int), but found " + attributeExpressionExecutors.length + " input attributes");
+            throw new ExecutionPlanValidationException("Time window should only have one parameter (timeInterval int) and an optional event store parameter, but found " + attributeExpressionExecutors.length + " input attributes");
+        }
+        if (attributeExpressionExecutors.length == 2) {
+            initEventStore(attributeExpressionExecutors[1]);
         }
     }
 
     @Override
     protected synchronized void process(ComplexEventChunk<StreamEvent> streamEventChunk, Processor nextProcessor, StreamEventCloner streamEventCloner) {
+        if (expiryDelegated) {
+            nextProcessor.process(streamEventChunk);
+            return;
+        }
+        if (offHeapEventQueue != null) {
+            processOffHeap(streamEventChunk, nextProcessor);
+            return;
+        }
         while (streamEventChunk.hasNext()) {
 
             StreamEvent streamEvent = streamEventChunk.next();
@@ -119,8 +150,50 @@ public class TimeWindowProcessor extends WindowProcessor implements SchedulingPr
         nextProcessor.process(streamEventChunk);
     }
 
+    /**
+     * Same as {@link #process(ComplexEventChunk, Processor, StreamEventCloner)}, but the events of the window are
+     * serialized to the off heap queue instead of being cloned
+     */
+    private void processOffHeap(ComplexEventChunk<StreamEvent> streamEventChunk, Processor nextProcessor) {
+        while (streamEventChunk.hasNext()) {
+
+            StreamEvent streamEvent = streamEventChunk.next();
+            long currentTime = executionPlanContext.getTimestampGenerator().currentTime();
+
+            boolean eventScheduled = false;
+            while (!offHeapEventQueue.isEmpty()) {
+                long expiryTime = offHeapEventQueue.peekTimestamp();
+                if (expiryTime - currentTime <= 0) {
+                    streamEventChunk.insertBeforeCurrent(offHeapEventQueue.poll());
+                } else {
+                    scheduler.notifyAt(expiryTime);
+                    eventScheduled = true;
+                    break;
+                }
+            }
+
+            if (streamEvent.getType() == StreamEvent.Type.CURRENT) {
+                offHeapEventQueue.add(streamEvent, StreamEvent.Type.EXPIRED, currentTime + timeInMilliSeconds);
+                if (!eventScheduled) {
+                    scheduler.notifyAt(currentTime + timeInMilliSeconds);
+                }
+            }
+        }
+        nextProcessor.process(streamEventChunk);
+    }
+
+    @Override
+    public Processor cloneProcessor(String key) {
+        TimeWindowProcessor timeWindowProcessor = (TimeWindowProcessor) super.cloneProcessor(key);
+        timeWindowProcessor.expiryDelegated = expiryDelegated;
+        return timeWindowProcessor;
+    }
+
     @Override
     public synchronized StreamEvent find(ComplexEvent matchingEvent, Finder finder) {
+        if (offHeapEventQueue != null) {
+            return findOffHeap(matchingEvent, finder);
+        }
         return finder.find(matchingEvent, expiredEventChunk,streamEventCloner);
     }
 
@@ -136,16 +209,23 @@ public class TimeWindowProcessor extends WindowProcessor implements SchedulingPr
 
     @Override
     public void stop() {
-        //Do nothing
+        releaseEventStore();
     }
 
     @Override
     public Object[] currentState() {
+        if (offHeapEventQueue != null) {
+            return new Object[]{offHeapEventQueue.snapshot()};
+        }
         return new Object[]{expiredEventChunk};
     }
 
     @Override
     public void restoreState(Object[] state) {
-        expiredEventChunk = (ComplexEventChunk<StreamEvent>) state[0];
+        if (offHeapEventQueue != null) {
+            offHeapEventQueue.restore((byte[]) state[0]);
+        } else {
+            expiredEventChunk = (ComplexEventChunk<StreamEvent>) state[0];
+        }
     }
 }
@@ -15,20 +15,31 @@
 package org.wso2.siddhi.core.query.processor.stream.window;
 
 import org.wso2.siddhi.core.config.ExecutionPlanContext;
+import org.wso2.siddhi.core.event.ComplexEvent;
 import org.wso2.siddhi.core.event.ComplexEventChunk;
+import org.wso2.siddhi.core.event.stream.MetaStreamEvent;
 import org.wso2.siddhi.core.event.stream.StreamEvent;
 import org.wso2.siddhi.core.event.stream.StreamEventCloner;
 import org.wso2.siddhi.core.event.stream.populater.ComplexEventPopulater;
+import org.wso2.siddhi.core.executor.ConstantExpressionExecutor;
 import org.wso2.siddhi.core.executor.ExpressionExecutor;
 import org.wso2.siddhi.core.query.processor.Processor;
 import org.wso2.siddhi.core.query.processor.stream.AbstractStreamProcessor;
+import org.wso2.siddhi.core.util.SiddhiConstants;
+import org.wso2.siddhi.core.util.collection.OffHeapStreamEventQueue;
+import org.wso2.siddhi.core.util.collection.operator.Finder;
 import org.wso2.siddhi.query.api.definition.AbstractDefinition;
 import org.wso2.siddhi.query.api.definition.Attribute;
+import org.wso2.siddhi.query.api.exception.ExecutionPlanValidationException;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.locks.Lock;
 
-public abstract class WindowProcessor extends AbstractStreamProcessor {
+public abstract class WindowProcessor extends AbstractStreamProcessor implements ReleasableFinder {
+
+    private boolean offHeapStore = false;
+    protected OffHeapStreamEventQueue offHeapEventQueue;
 
     protected List<Attribute> init(AbstractDefinition inputDefinition, ExpressionExecutor[] attributeExpressionExecutors, ExecutionPlanContext executionPlanContext) {
         init(attributeExpressionExecutors, executionPlanContext);
@@ -59,4 +70,78 @@ public abstract class WindowProcessor extends AbstractStreamProcessor {
     protected abstract void process(ComplexEventChunk<StreamEvent> streamEventChunk, Processor nextProcessor,
                                     StreamEventCloner streamEventCloner);
 
+    /**
+     * Let the window keep its events off heap when the given window parameter is 'off.heap', e.g.
+     * <pre>
+     * from cseEventStream#window.time(30 min, 'off.heap')
+     * </pre>
+     * The {@link #offHeapEventQueue} is created once the layout of the events is known.
+     *
+     * @param storeExecutor executor of the window parameter selecting the event store
+     */
+    protected void initEventStore(ExpressionExecutor storeExecutor) {
+        if (!(storeExecutor instanceof ConstantExpressionExecutor) ||
+                storeExecutor.getReturnType() != Attribute.Type.STRING ||
+                !SiddhiConstants.WINDOW_STORE_OFF_HEAP.equalsIgnoreCase(
+                        (String) ((ConstantExpressionExecutor) storeExecutor).getValue())) {
+            throw new ExecutionPlanValidationException(this.getClass().getSimpleName() + " only supports '" +
+                    SiddhiConstants.WINDOW_STORE_OFF_HEAP + "' as the event store parameter");
+        }
+        offHeapStore = true;
+    }
+
+    /**
+     * Called with the layout of the events reaching the window, before any event is processed
+     *
+     * @param metaStreamEvent layout of the events kept by the window
+     */
+    public void setMetaStreamEvent(MetaStreamEvent metaStreamEvent) {
+        if (offHeapStore) {
+            offHeapEventQueue = new OffHeapStreamEventQueue(metaStreamEvent);
+        }
+    }
+
+    /**
+     * Free the direct memory of the {@link #offHeapEventQueue}, holding the shared lock of the execution plan
+     * so that no event is processed by the window while its memory is freed
+     */
+    protected void releaseEventStore() {
+        if (offHeapEventQueue == null) {
+            return;
+        }
+        Lock sharedLock = executionPlanContext.getSharedLock();
+        if (sharedLock == null) {
+            offHeapEventQueue.release();
+            return;
+        }
+        try {
+            sharedLock.lock();
+            offHeapEventQueue.release();
+        } finally {
+            sharedLock.unlock();
+        }
+    }
+
+    /**
+     * Search the events kept in the {@link #offHeapEventQueue}, the events are decoded one at a time while
+     * searching and only the matching events are copied
+     *
+     * @param matchingEvent event to be matched
+     * @param finder        finder of the join or the table operation
+     * @return copies of the matching events
+     */
+    protected StreamEvent findOffHeap(ComplexEvent matchingEvent, Finder finder) {
+        return finder.find(matchingEvent, offHeapEventQueue.events(), streamEventCloner);
+    }
+
+    /**
+     * Return the events found by a {@link FindableProcessor} window to the pool they were copied from
+     *
+     * @param foundEvents events returned by find, the events chained to it are also returned
+     */
+    @Override
+    public void releaseFoundEvents(StreamEvent foundEvents) {
+        streamEventCloner.returnEvents(foundEvents);
+    }
+
 }
@@ -21,6 +21,9 @@ import org.wso2.siddhi.core.event.ComplexEventChunk;
 import org.wso2.siddhi.core.event.state.populater.StateEventPopulator;
 import org.wso2.siddhi.core.event.stream.StreamEvent;
 import org.wso2.siddhi.core.exception.ExecutionPlanCreationException;
+import org.wso2.siddhi.core.executor.SharedExpressionExecutor;
+import org.wso2.siddhi.core.executor.compiler.CompiledProjection;
+import org.wso2.siddhi.core.executor.compiler.ExpressionCompiler;
 import org.wso2.siddhi.core.executor.condition.ConditionExpressionExecutor;
 import org.wso2.siddhi.core.query.output.ratelimit.OutputRateLimiter;
 import org.wso2.siddhi.core.query.processor.Processor;
@@ -46,6 +49,9 @@ public class QuerySelector implements Processor {
     private GroupByKeyGenerator groupByKeyGenerator;
     private String id;
     private StateEventPopulator eventPopulator;
+    private ExpressionCompiler expressionCompiler;
+    private CompiledProjection compiledProjection;
+    private List<SharedExpressionExecutor> sharedExpressionExecutors = new ArrayList<SharedExpressionExecutor>();
 
     public QuerySelector(String id, Selector selector, boolean currentOn, boolean expiredOn, ExecutionPlanContext executionPlanContext) {
         this.id = id;
@@ -55,6 +61,10 @@ public class QuerySelector implements Processor {
         this.executionPlanContext = executionPlanContext;
     }
 
+    public boolean isExpiredOn() {
+        return expiredOn;
+    }
+
     public static String getThreadLocalGroupByKey() {
         return keyThreadLocal.get();
     }
@@ -80,8 +90,12 @@ public class QuerySelector implements Processor {
                 }
 
                 //TODO: have to change for windows
-                for (AttributeProcessor attributeProcessor : attributeProcessorList) {
-                    attributeProcessor.process(event);
+                if (compiledProjection != null) {
+                    compiledProjection.process(event);
+                } else {
+                    for (AttributeProcessor attributeProcessor : attributeProcessorList) {
+                        attributeProcessor.process(event);
+                    }
                 }
                 complexEventChunk.remove();
 
@@ -95,6 +109,9 @@ public class QuerySelector implements Processor {
                 if (isGroupBy) {
                     keyThreadLocal.remove();
                 }
+                for (SharedExpressionExecutor sharedExpressionExecutor : sharedExpressionExecutors) {
+                    sharedExpressionExecutor.reset();
+                }
             }
         }
 
@@ -164,6 +181,39 @@ public class QuerySelector implements Processor {
         this.havingConditionExecutor = havingConditionExecutor;
     }
 
+    /**
+     * @return true if the attribute processors are evaluated through a compiled projection
+     */
+    public boolean isProjectionCompiled() {
+        return compiledProjection != null;
+    }
+
+    public ConditionExpressionExecutor getHavingConditionExecutor() {
+        return havingConditionExecutor;
+    }
+
+    /**
+     * Evaluate the attribute processors and the having condition through classes compiled for them
+     *
+     * @param expressionCompiler compiler of the projection and the having condition
+     */
+    public void compile(ExpressionCompiler expressionCompiler) {
+        this.expressionCompiler = expressionCompiler;
+        compiledProjection = expressionCompiler.compileProjection(attributeProcessorList);
+        if (havingConditionExecutor != null) {
+            havingConditionExecutor = (ConditionExpressionExecutor) expressionCompiler.compileCondition(
+                    havingConditionExecutor);
+        }
+    }
+
+    /**
+     * @param sharedExpressionExecutors executors shared among the attribute processors or within the having
+     *                                  condition, reset after processing each event
+     */
+    public void setSharedExpressionExecutors(List<SharedExpressionExecutor> sharedExpressionExecutors) {
+        this.sharedExpressionExecutors = sharedExpressionExecutors;
+    }
+
     public QuerySelector clone(String key) {
         QuerySelector clonedQuerySelector = new QuerySelector(id + key, selector, currentOn, expiredOn, executionPlanContext);
         List<AttributeProcessor> clonedAttributeProcessorList = new ArrayList<AttributeProcessor>();
@@ -173,8 +223,19 @@ public class QuerySelector implements Processor {
         clonedQuerySelector.attributeProcessorList = clonedAttributeProcessorList;
         clonedQuerySelector.isGroupBy = isGroupBy;
         clonedQuerySelector.groupByKeyGenerator = groupByKeyGenerator;
-        clonedQuerySelector.havingConditionExecutor = havingConditionExecutor;
+        if (havingConditionExecutor != null) {
+            clonedQuerySelector.havingConditionExecutor = (ConditionExpressionExecutor)
+                    havingConditionExecutor.cloneExecutor(key);
+        }
         clonedQuerySelector.eventPopulator = eventPopulator;
+        for (SharedExpressionExecutor sharedExpressionExecutor : sharedExpressionExecutors) {
+            clonedQuerySelector.sharedExpressionExecutors.add(
+                    (SharedExpressionExecutor) sharedExpressionExecutor.cloneExecutor(key));
+        }
+        if (expressionCompiler != null) {
+            clonedQuerySelector.expressionCompiler = expressionCompiler;
+            clonedQuerySelector.compiledProjection = expressionCompiler.compileProjection(clonedAttributeProcessorList);
+        }
         return clonedQuerySelector;
     }
 
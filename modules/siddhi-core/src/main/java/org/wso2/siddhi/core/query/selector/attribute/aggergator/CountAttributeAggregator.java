@@ -15,6 +15,7 @@
 package org.wso2.siddhi.core.query.selector.attribute.aggergator;
 
 import org.wso2.siddhi.core.config.ExecutionPlanContext;
+import org.wso2.siddhi.core.exception.OperationNotSupportedException;
 import org.wso2.siddhi.core.executor.ExpressionExecutor;
 import org.wso2.siddhi.query.api.definition.Attribute;
 
@@ -31,7 +32,10 @@ public class CountAttributeAggregator extends AttributeAggregator {
      */
     @Override
     protected void init(ExpressionExecutor[] attributeExpressionExecutors, ExecutionPlanContext executionPlanContext) {
-
+        if (attributeExpressionExecutors.length > 1) {
+            throw new OperationNotSupportedException("Count aggregator can have at most 1 parameter, currently " +
+                    attributeExpressionExecutors.length + " parameters provided");
+        }
     }
 
     public Attribute.Type getReturnType() {
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.query.selector.attribute.aggergator;
+
+import org.wso2.siddhi.core.config.ExecutionPlanContext;
+import org.wso2.siddhi.core.exception.OperationNotSupportedException;
+import org.wso2.siddhi.core.executor.ConstantExpressionExecutor;
+import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.core.util.collection.HyperLogLog;
+import org.wso2.siddhi.query.api.definition.Attribute;
+
+/**
+ * Approximate count of the distinct values of an attribute, distinctCount(attribute) or
+ * distinctCount(attribute, precision), estimated by a HyperLogLog sketch of 2^precision registers with a relative
+ * standard error of about 1.04 / sqrt(2^precision). The precision defaults to 14, giving about 0.8%.
+ * A sketch cannot forget values, so the values can only be removed all together, as batch windows expire them
+ * before adding the next batch, hence queries using it over other windows are rejected when they are created.
+ */
+public class DistinctCountAttributeAggregator extends AttributeAggregator {
+
+    private static final int DEFAULT_PRECISION = 14;
+    private static Attribute.Type type = Attribute.Type.LONG;
+
+    private HyperLogLog hyperLogLog;
+    private long valueCount = 0;
+    private long removedCount = 0;
+
+    /**
+     * The initialization method for FunctionExecutor
+     *
+     * @param attributeExpressionExecutors are the executors of each attributes in the function
+     * @param executionPlanContext         Execution plan runtime context
+     */
+    @Override
+    protected void init(ExpressionExecutor[] attributeExpressionExecutors, ExecutionPlanContext executionPlanContext) {
+        if (attributeExpressionExecutors.length != 1 && attributeExpressionExecutors.length != 2) {
+            throw new OperationNotSupportedException("DistinctCount aggregator has to have 1 or 2 parameters, currently " +
+                    attributeExpressionExecutors.length + " parameters provided");
+        }
+        int precision = DEFAULT_PRECISION;
+        if (attributeExpressionExecutors.length == 2) {
+            if (!(attributeExpressionExecutors[1] instanceof ConstantExpressionExecutor) ||
+                    attributeExpressionExecutors[1].getReturnType() != Attribute.Type.INT) {
+                throw new OperationNotSupportedException("Precision of distinctCount has to be a constant int");
+            }
+            precision = (Integer) ((ConstantExpressionExecutor) attributeExpressionExecutors[1]).getValue();
+            if (precision < 4 || precision > 18) {
+                throw new OperationNotSupportedException("Precision of distinctCount has to be between 4 and 18, but found " + precision);
+            }
+        }
+        hyperLogLog = new HyperLogLog(precision);
+    }
+
+    public Attribute.Type getReturnType() {
+        return type;
+    }
+
+    @Override
+    public synchronized Object processAdd(Object data) {
+        if (removedCount != 0) {
+            throw new OperationNotSupportedException("DistinctCount cannot remove a part of the values, it can only " +
+                    "aggregate over batch windows, or without a window");
+        }
+        valueCount++;
+        hyperLogLog.add(data);
+        return hyperLogLog.estimate();
+    }
+
+    @Override
+    public Object processAdd(Object[] data) {
+        return processAdd(data[0]);
+    }
+
+    @Override
+    public synchronized Object processRemove(Object data) {
+        removedCount++;
+        if (removedCount == valueCount) {
+            return reset();
+        }
+        return hyperLogLog.estimate();
+    }
+
+    @Override
+    public Object processRemove(Object[] data) {
+        return processRemove(data[0]);
+    }
+
+    @Override
+    public synchronized Object reset() {
+        hyperLogLog.clear();
+        valueCount = 0;
+        removedCount = 0;
+        return 0L;
+    }
+
+    /**
+     * Adds the values counted by another distinctCount of the same precision, e.g. of another partition.
+     */
+    public synchronized void merge(DistinctCountAttributeAggregator distinctCountAttributeAggregator) {
+        synchronized (distinctCountAttributeAggregator) {
+            hyperLogLog.merge(distinctCountAttributeAggregator.hyperLogLog);
+            valueCount += distinctCountAttributeAggregator.valueCount - distinctCountAttributeAggregator.removedCount;
+        }
+    }
+
+    @Override
+    public void start() {
+        //Nothing to start
+    }
+
+    @Override
+    public void stop() {
+        //Nothing to stop
+    }
+
+    @Override
+    public synchronized Object[] currentState() {
+        return new Object[]{hyperLogLog.toByteArray(), valueCount, removedCount};
+    }
+
+    @Override
+    public synchronized void restoreState(Object[] state) {
+        hyperLogLog.restore((byte[]) state[0]);
+        valueCount = (Long) state[1];
+        removedCount = (Long) state[2];
+    }
+}
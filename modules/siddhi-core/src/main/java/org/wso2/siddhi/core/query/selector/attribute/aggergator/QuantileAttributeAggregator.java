@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.query.selector.attribute.aggergator;
+
+import org.wso2.siddhi.core.config.ExecutionPlanContext;
+import org.wso2.siddhi.core.exception.OperationNotSupportedException;
+import org.wso2.siddhi.core.executor.ConstantExpressionExecutor;
+import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.core.util.collection.TDigest;
+import org.wso2.siddhi.query.api.definition.Attribute;
+
+/**
+ * Approximate quantile of a numeric attribute, quantile(attribute, 0.95), estimated by a t-digest of about 100
+ * centroids. Removing a value takes it from the nearest centroid, so over sliding windows the estimate is
+ * approximate in the values kept as well, while batch windows, which remove all the values, empty it exactly.
+ * Null values are ignored, and the quantile is null when there are no values.
+ */
+public class QuantileAttributeAggregator extends AttributeAggregator {
+
+    private static final double COMPRESSION = 100;
+    private static Attribute.Type type = Attribute.Type.DOUBLE;
+
+    private double quantile;
+    private TDigest tDigest;
+
+    /**
+     * The initialization method for FunctionExecutor
+     *
+     * @param attributeExpressionExecutors are the executors of each attributes in the function
+     * @param executionPlanContext         Execution plan runtime context
+     */
+    @Override
+    protected void init(ExpressionExecutor[] attributeExpressionExecutors, ExecutionPlanContext executionPlanContext) {
+        if (attributeExpressionExecutors.length != 2) {
+            throw new OperationNotSupportedException("Quantile aggregator has to have exactly 2 parameters, currently " +
+                    attributeExpressionExecutors.length + " parameters provided");
+        }
+        Attribute.Type valueType = attributeExpressionExecutors[0].getReturnType();
+        if (valueType != Attribute.Type.INT && valueType != Attribute.Type.LONG &&
+                valueType != Attribute.Type.FLOAT && valueType != Attribute.Type.DOUBLE) {
+            throw new OperationNotSupportedException("Quantile not supported for " + valueType);
+        }
+        if (!(attributeExpressionExecutors[1] instanceof ConstantExpressionExecutor) ||
+                !(((ConstantExpressionExecutor) attributeExpressionExecutors[1]).getValue() instanceof Number)) {
+            throw new OperationNotSupportedException("Quantile of the quantile aggregator has to be a constant number");
+        }
+        quantile = ((Number) ((ConstantExpressionExecutor) attributeExpressionExecutors[1]).getValue()).doubleValue();
+        if (quantile < 0 || quantile > 1) {
+            throw new OperationNotSupportedException("Quantile of the quantile aggregator has to be between 0 and 1, but found " + quantile);
+        }
+        tDigest = new TDigest(COMPRESSION);
+    }
+
+    public Attribute.Type getReturnType() {
+        return type;
+    }
+
+    @Override
+    public synchronized Object processAdd(Object data) {
+        if (data != null) {
+            tDigest.add(((Number) data).doubleValue());
+        }
+        return currentQuantile();
+    }
+
+    @Override
+    public Object processAdd(Object[] data) {
+        return processAdd(data[0]);
+    }
+
+    @Override
+    public synchronized Object processRemove(Object data) {
+        if (data != null) {
+            tDigest.remove(((Number) data).doubleValue());
+        }
+        return currentQuantile();
+    }
+
+    @Override
+    public Object processRemove(Object[] data) {
+        return processRemove(data[0]);
+    }
+
+    @Override
+    public synchronized Object reset() {
+        tDigest.clear();
+        return null;
+    }
+
+    private Double currentQuantile() {
+        return tDigest.getTotalWeight() > 0 ? tDigest.quantile(quantile) : null;
+    }
+
+    /**
+     * Adds the values summarized by another quantile aggregator, e.g. of another partition.
+     */
+    public synchronized void merge(QuantileAttributeAggregator quantileAttributeAggregator) {
+        synchronized (quantileAttributeAggregator) {
+            tDigest.merge(quantileAttributeAggregator.tDigest);
+        }
+    }
+
+    @Override
+    public void start() {
+        //Nothing to start
+    }
+
+    @Override
+    public void stop() {
+        //Nothing to stop
+    }
+
+    @Override
+    public synchronized Object[] currentState() {
+        return new Object[]{tDigest.toByteArray()};
+    }
+
+    @Override
+    public synchronized void restoreState(Object[] state) {
+        tDigest.restore((byte[]) state[0]);
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.query.selector.attribute.aggergator;
+
+import org.wso2.siddhi.core.config.ExecutionPlanContext;
+import org.wso2.siddhi.core.event.ComplexEvent;
+import org.wso2.siddhi.core.exception.ExecutionPlanRuntimeException;
+import org.wso2.siddhi.core.exception.OperationNotSupportedException;
+import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.core.util.collection.SlidingWindowAggregateQueue;
+import org.wso2.siddhi.query.api.definition.Attribute;
+
+import java.util.Arrays;
+
+/**
+ * Replaces a sum, count, avg, min or max aggregator following a time window whose expired events are not
+ * emitted by the query. The values are kept in a {@link SlidingWindowAggregateQueue} and expire by themselves
+ * when new values arrive, so the window does not have to hold, clone and replay the events. The results have
+ * the same types as the ones of the replaced aggregator, null values are ignored.
+ */
+public class SlidingTimeWindowAttributeAggregator extends AttributeAggregator {
+
+    private final SlidingWindowAggregateQueue.Function function;
+    private final long windowLength;
+    private Attribute.Type inputType;
+    private Attribute.Type returnType;
+    private SlidingWindowAggregateQueue queue;
+
+    /**
+     * @param function     aggregate function
+     * @param windowLength length of the time window in milliseconds
+     */
+    public SlidingTimeWindowAttributeAggregator(SlidingWindowAggregateQueue.Function function, long windowLength) {
+        this.function = function;
+        this.windowLength = windowLength;
+    }
+
+    /**
+     * @param attributeAggregator aggregator of the query
+     * @return the function of the aggregator, null when it cannot be computed over panes
+     */
+    public static SlidingWindowAggregateQueue.Function getFunction(AttributeAggregator attributeAggregator) {
+        if (attributeAggregator instanceof SumAttributeAggregator) {
+            return SlidingWindowAggregateQueue.Function.SUM;
+        } else if (attributeAggregator instanceof CountAttributeAggregator) {
+            return SlidingWindowAggregateQueue.Function.COUNT;
+        } else if (attributeAggregator instanceof AvgAttributeAggregator) {
+            return SlidingWindowAggregateQueue.Function.AVG;
+        } else if (attributeAggregator instanceof MinAttributeAggregator) {
+            return SlidingWindowAggregateQueue.Function.MIN;
+        } else if (attributeAggregator instanceof MaxAttributeAggregator) {
+            return SlidingWindowAggregateQueue.Function.MAX;
+        }
+        return null;
+    }
+
+    @Override
+    protected void init(ExpressionExecutor[] attributeExpressionExecutors, ExecutionPlanContext executionPlanContext) {
+        if (function == SlidingWindowAggregateQueue.Function.COUNT) {
+            returnType = Attribute.Type.LONG;
+            queue = new SlidingWindowAggregateQueue(function, false, windowLength);
+            return;
+        }
+        if (attributeExpressionExecutors.length != 1) {
+            throw new OperationNotSupportedException(function + " aggregator has to have exactly 1 parameter, " +
+                    "currently " + attributeExpressionExecutors.length + " parameters provided");
+        }
+        inputType = attributeExpressionExecutors[0].getReturnType();
+        if (inputType != Attribute.Type.INT && inputType != Attribute.Type.LONG &&
+                inputType != Attribute.Type.FLOAT && inputType != Attribute.Type.DOUBLE) {
+            throw new OperationNotSupportedException(function + " not supported for " + inputType);
+        }
+        boolean floatingPoint = inputType == Attribute.Type.FLOAT || inputType == Attribute.Type.DOUBLE;
+        switch (function) {
+            case SUM:
+                returnType = floatingPoint ? Attribute.Type.DOUBLE : Attribute.Type.LONG;
+                break;
+            case AVG:
+                returnType = Attribute.Type.DOUBLE;
+                floatingPoint = true;
+                break;
+            default:
+                returnType = inputType;
+        }
+        queue = new SlidingWindowAggregateQueue(function, floatingPoint, windowLength);
+    }
+
+    @Override
+    public AttributeAggregator cloneAggregator(String key) {
+        try {
+            SlidingTimeWindowAttributeAggregator attributeAggregator =
+                    new SlidingTimeWindowAttributeAggregator(function, windowLength);
+            ExpressionExecutor[] innerExpressionExecutors = new ExpressionExecutor[attributeExpressionExecutors.length];
+            for (int i = 0; i < attributeExpressionExecutors.length; i++) {
+                innerExpressionExecutors[i] = attributeExpressionExecutors[i].cloneExecutor(key);
+            }
+            attributeAggregator.elementId = elementId + "-" + key;
+            attributeAggregator.initAggregator(innerExpressionExecutors, executionPlanContext);
+            attributeAggregator.start();
+            return attributeAggregator;
+        } catch (Exception e) {
+            throw new ExecutionPlanRuntimeException("Exception in cloning " + this.getClass().getCanonicalName(), e);
+        }
+    }
+
+    @Override
+    public Object process(ComplexEvent event) {
+        switch (event.getType()) {
+            case CURRENT:
+                return processAdd(attributeExpressionExecutors.length == 0 ? null :
+                        attributeExpressionExecutors[0].execute(event));
+            case EXPIRED:
+                return processRemove(null);
+            case RESET:
+                return reset();
+        }
+        return null;
+    }
+
+    public Attribute.Type getReturnType() {
+        return returnType;
+    }
+
+    @Override
+    public synchronized Object processAdd(Object data) {
+        long currentTime = executionPlanContext.getTimestampGenerator().currentTime();
+        queue.expire(currentTime - windowLength);
+        if (function == SlidingWindowAggregateQueue.Function.COUNT) {
+            queue.add(currentTime, 0L);
+        } else if (data != null) {
+            if (inputType == Attribute.Type.FLOAT || inputType == Attribute.Type.DOUBLE ||
+                    function == SlidingWindowAggregateQueue.Function.AVG) {
+                queue.add(currentTime, ((Number) data).doubleValue());
+            } else {
+                queue.add(currentTime, ((Number) data).longValue());
+            }
+        }
+        return result();
+    }
+
+    @Override
+    public Object processAdd(Object[] data) {
+        // will not occur
+        throw new IllegalStateException(function + " cannot process data array, but found " + Arrays.deepToString(data));
+    }
+
+    /**
+     * The values expire by themselves as the time passes, hence removing only returns the current result
+     */
+    @Override
+    public synchronized Object processRemove(Object data) {
+        return result();
+    }
+
+    @Override
+    public Object processRemove(Object[] data) {
+        // will not occur
+        throw new IllegalStateException(function + " cannot process data array, but found " + Arrays.deepToString(data));
+    }
+
+    @Override
+    public synchronized Object reset() {
+        queue.clear();
+        return result();
+    }
+
+    private Object result() {
+        switch (function) {
+            case COUNT:
+                return queue.getCount();
+            case AVG:
+                return queue.getDouble();
+            case SUM:
+                if (returnType == Attribute.Type.DOUBLE) {
+                    return queue.getDouble();
+                }
+                return queue.getLong();
+            default:
+                if (queue.size() == 0) {
+                    return null;
+                }
+                switch (inputType) {
+                    case INT:
+                        return (int) queue.getLong();
+                    case LONG:
+                        return queue.getLong();
+                    case FLOAT:
+                        return (float) queue.getDouble();
+                    default:
+                        return queue.getDouble();
+                }
+        }
+    }
+
+    @Override
+    public void start() {
+        //Nothing to start
+    }
+
+    @Override
+    public void stop() {
+        //nothing to stop
+    }
+
+    @Override
+    public synchronized Object[] currentState() {
+        return queue.snapshot();
+    }
+
+    @Override
+    public synchronized void restoreState(Object[] state) {
+        queue.restore(state);
+    }
+}
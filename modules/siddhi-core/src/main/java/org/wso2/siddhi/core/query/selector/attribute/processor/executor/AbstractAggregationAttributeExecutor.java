@@ -39,5 +39,20 @@ public abstract class AbstractAggregationAttributeExecutor implements Expression
         return attributeAggregator.getReturnType();
     }
 
+    public AttributeAggregator getAttributeAggregator() {
+        return attributeAggregator;
+    }
+
+    /**
+     * Replace the aggregator before any event is processed, the given aggregator is initialized with the
+     * attribute executors of this executor
+     *
+     * @param attributeAggregator aggregator computing the same function as the current one
+     */
+    public void setAttributeAggregator(AttributeAggregator attributeAggregator) {
+        attributeAggregator.initAggregator(attributeExpressionExecutors, executionPlanContext);
+        this.attributeAggregator = attributeAggregator;
+    }
+
 }
 
@@ -16,43 +16,56 @@ package org.wso2.siddhi.core.stream;
 
 import com.lmax.disruptor.EventHandler;
 import com.lmax.disruptor.RingBuffer;
-import com.lmax.disruptor.SleepingWaitStrategy;
 import com.lmax.disruptor.dsl.Disruptor;
 import com.lmax.disruptor.dsl.ProducerType;
 import org.apache.log4j.Logger;
+import org.wso2.siddhi.core.config.DisruptorConfig;
 import org.wso2.siddhi.core.config.ExecutionPlanContext;
 import org.wso2.siddhi.core.event.ComplexEvent;
 import org.wso2.siddhi.core.event.Event;
 import org.wso2.siddhi.core.event.EventFactory;
-import org.wso2.siddhi.core.stream.input.InputProcessor;
+import org.wso2.siddhi.core.event.stream.StreamEvent;
+import org.wso2.siddhi.core.stream.input.BatchInputProcessor;
 import org.wso2.siddhi.core.util.SiddhiConstants;
+import org.wso2.siddhi.core.util.disruptor.OverloadController;
+import org.wso2.siddhi.core.util.disruptor.SpillQueue;
+import org.wso2.siddhi.core.util.parser.DisruptorConfigParser;
 import org.wso2.siddhi.query.api.annotation.Annotation;
 import org.wso2.siddhi.query.api.definition.StreamDefinition;
 import org.wso2.siddhi.query.api.exception.DuplicateAnnotationException;
 import org.wso2.siddhi.query.api.util.AnnotationHelper;
 
-import java.lang.reflect.Constructor;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 public class StreamJunction {
 
     private static final Logger log = Logger.getLogger(StreamJunction.class);
+    private static final long SPILL_DRAIN_INTERVAL = 10;
     private List<Receiver> receivers = new CopyOnWriteArrayList<Receiver>();
+    private Map<Receiver, String> receiverGroupNames = new ConcurrentHashMap<Receiver, String>();
     private List<Publisher> publishers = new CopyOnWriteArrayList<Publisher>();
     private ExecutorService executorService;
     private final ExecutionPlanContext executionPlanContext;
     private final StreamDefinition streamDefinition;
     private final int bufferSize;
+    private final DisruptorConfig disruptorConfig;
     private Boolean parallel = null;
-    private Disruptor<Event> disruptor;
-    private RingBuffer<Event> ringBuffer;
+    private ReceiverGroup[] receiverGroups;
 
     public StreamJunction(StreamDefinition streamDefinition, ExecutorService executorService, int defaultBufferSize,
                           ExecutionPlanContext executionPlanContext) {
         this.streamDefinition = streamDefinition;
-        this.bufferSize = defaultBufferSize;
         this.executorService = executorService;
         this.executionPlanContext = executionPlanContext;
 
@@ -62,6 +75,10 @@ public class StreamJunction {
             if (annotation != null) {
                 parallel = true;
             }
+            DisruptorConfig defaultConfig = new DisruptorConfig(executionPlanContext.getDisruptorConfig());
+            defaultConfig.setBufferSize(defaultBufferSize);
+            this.disruptorConfig = DisruptorConfigParser.parse(streamDefinition.getAnnotations(), defaultConfig);
+            this.bufferSize = disruptorConfig.getBufferSize();
 
         } catch (DuplicateAnnotationException e) {
             throw new DuplicateAnnotationException(e.getMessage() + " for the same Stream " +
@@ -72,20 +89,10 @@ public class StreamJunction {
 
     public void sendEvent(ComplexEvent complexEvent) {
 
-        ComplexEvent complexEventList = complexEvent;
-        if (disruptor != null) {
-
-            while (complexEventList != null) {
-                long sequenceNo = ringBuffer.next();
-                try {
-                    Event existingEvent = ringBuffer.get(sequenceNo);
-                    existingEvent.copyFrom(complexEventList);
-                } finally {
-                    ringBuffer.publish(sequenceNo);
-                }
-                complexEventList = complexEventList.getNext();
+        if (receiverGroups != null) {
+            for (ReceiverGroup receiverGroup : receiverGroups) {
+                receiverGroup.sendEvent(complexEvent);
             }
-
         } else {
             for (Receiver receiver : receivers) {
                 receiver.receive(complexEvent);
@@ -98,13 +105,9 @@ public class StreamJunction {
         if (log.isTraceEnabled()) {
             log.trace(event + " event is received by streamJunction " + this);
         }
-        if (disruptor != null) {
-            long sequenceNo = ringBuffer.next();
-            try {
-                Event existingEvent = ringBuffer.get(sequenceNo);
-                existingEvent.copyFrom(event);
-            } finally {
-                ringBuffer.publish(sequenceNo);
+        if (receiverGroups != null) {
+            for (ReceiverGroup receiverGroup : receiverGroups) {
+                receiverGroup.sendEvent(event);
             }
         } else {
             for (Receiver receiver : receivers) {
@@ -114,37 +117,37 @@ public class StreamJunction {
 
     }
 
-    private void sendEvent(Event[] events) {
+    private void sendEvents(Event[] events, int length) {
         if (log.isTraceEnabled()) {
             log.trace("event is received by streamJunction " + this);
         }
-        if (disruptor != null) {
-            for (Event event : events) {   //todo optimize for arrays
-                long sequenceNo = ringBuffer.next();
-                try {
-                    Event existingEvent = ringBuffer.get(sequenceNo);
-                    existingEvent.copyFrom(event);
-                } finally {
-                    ringBuffer.publish(sequenceNo);
-                }
+        if (receiverGroups != null) {
+            for (ReceiverGroup receiverGroup : receiverGroups) {
+                receiverGroup.sendEvents(events, length);
             }
         } else {
             for (Receiver receiver : receivers) {
-                receiver.receive(events);
+                receive(receiver, events, length);
             }
         }
     }
 
+    /**
+     * Hand the events at the start of a reused array to the receiver, copying them to an array of the exact size
+     * for the receivers that do not take a length
+     */
+    private static void receive(Receiver receiver, Event[] events, int length) {
+        if (receiver instanceof BatchReceiver) {
+            ((BatchReceiver) receiver).receive(events, length);
+        } else {
+            receiver.receive(Arrays.copyOf(events, length));
+        }
+    }
+
     private void sendData(long timeStamp, Object[] data) {
-        if (disruptor != null) {
-            long sequenceNo = ringBuffer.next();
-            try {
-                Event existingEvent = ringBuffer.get(sequenceNo);
-                existingEvent.setTimestamp(timeStamp);
-                existingEvent.setIsExpired(false);
-                System.arraycopy(data, 0, existingEvent.getData(), 0, data.length);
-            } finally {
-                ringBuffer.publish(sequenceNo);
+        if (receiverGroups != null) {
+            for (ReceiverGroup receiverGroup : receiverGroups) {
+                receiverGroup.sendData(timeStamp, data);
             }
         } else {
             for (Receiver receiver : receivers) {
@@ -154,7 +157,8 @@ public class StreamJunction {
     }
 
     /**
-     * create and start disruptor based on annotations given in the streamDefinition
+     * create and start disruptor based on annotations given in the streamDefinition, one disruptor for each
+     * receiver group
      */
     public synchronized void startProcessing() {
         if (!receivers.isEmpty()) {
@@ -163,36 +167,37 @@ public class StreamJunction {
                 parallel = executionPlanContext.isParallel();
             }
             if (parallel) {
-                for (Constructor constructor : Disruptor.class.getConstructors()) {
-                    if (constructor.getParameterTypes().length == 5) {      //if new disruptor classes available
-                        ProducerType producerType = ProducerType.SINGLE;
-
-                        if (publishers.size() > 1) {
-                            producerType = ProducerType.MULTI;
-                        }
-
-                        disruptor = new Disruptor<Event>(new EventFactory(streamDefinition.getAttributeList().size()),
-                                bufferSize, executorService, producerType, new SleepingWaitStrategy());
-                        break;
-                    }
-                }
-                if (disruptor == null) {
-                    disruptor = new Disruptor<Event>(new EventFactory(streamDefinition.getAttributeList().size()),
-                            bufferSize, executorService);
+                ProducerType producerType = ProducerType.SINGLE;
+                if (publishers.size() > 1) {
+                    producerType = ProducerType.MULTI;
                 }
+                Map<String, List<Receiver>> groupedReceivers = new LinkedHashMap<String, List<Receiver>>();
                 for (Receiver receiver : receivers) {
-                    disruptor.handleEventsWith(new StreamHandler(receiver));
+                    String groupName = receiverGroupNames.get(receiver);
+                    List<Receiver> groupReceivers = groupedReceivers.get(groupName);
+                    if (groupReceivers == null) {
+                        groupReceivers = new ArrayList<Receiver>();
+                        groupedReceivers.put(groupName, groupReceivers);
+                    }
+                    groupReceivers.add(receiver);
                 }
-
-                ringBuffer = disruptor.start();
-
+                ReceiverGroup[] receiverGroups = new ReceiverGroup[groupedReceivers.size()];
+                int i = 0;
+                for (Map.Entry<String, List<Receiver>> entry : groupedReceivers.entrySet()) {
+                    receiverGroups[i] = new ReceiverGroup(entry.getKey(), entry.getValue());
+                    receiverGroups[i].start(producerType);
+                    i++;
+                }
+                this.receiverGroups = receiverGroups;
             }
         }
     }
 
     public synchronized void stopProcessing() {
-        if (disruptor != null) {
-            disruptor.shutdown();
+        if (receiverGroups != null) {
+            for (ReceiverGroup receiverGroup : receiverGroups) {
+                receiverGroup.stop();
+            }
         }
     }
 
@@ -204,8 +209,21 @@ public class StreamJunction {
     }
 
     public synchronized void subscribe(Receiver receiver) {
+        subscribe(receiver, SiddhiConstants.DEFAULT_RECEIVER_GROUP);
+    }
+
+    /**
+     * Subscribe the receiver to a receiver group. When the junction is parallel the receivers of the same group
+     * consume a shared ring, while each group gets its own ring so that a slow group does not hold back the others.
+     *
+     * @param receiver      the receiver
+     * @param receiverGroup name of the group, or null for the default group
+     */
+    public synchronized void subscribe(Receiver receiver, String receiverGroup) {
         //to have reverse order at the sequence/pattern processors
         if (!receivers.contains(receiver)) {
+            receiverGroupNames.put(receiver, receiverGroup == null ? SiddhiConstants.DEFAULT_RECEIVER_GROUP :
+                    receiverGroup);
             receivers.add(0, receiver);
         }
     }
@@ -218,6 +236,323 @@ public class StreamJunction {
         return streamDefinition;
     }
 
+    public DisruptorConfig getDisruptorConfig() {
+        return disruptorConfig;
+    }
+
+    /**
+     * @return number of events dropped as the rings were full, summed over the receiver groups
+     */
+    public long getDroppedEventCount() {
+        long droppedEvents = 0;
+        if (receiverGroups != null) {
+            for (ReceiverGroup receiverGroup : receiverGroups) {
+                droppedEvents += receiverGroup.overloadController.getDroppedEvents();
+            }
+        }
+        return droppedEvents;
+    }
+
+    /**
+     * @return number of events spilled to disk as the rings were full, summed over the receiver groups
+     */
+    public long getSpilledEventCount() {
+        long spilledEvents = 0;
+        if (receiverGroups != null) {
+            for (ReceiverGroup receiverGroup : receiverGroups) {
+                spilledEvents += receiverGroup.getSpilledEventCount();
+            }
+        }
+        return spilledEvents;
+    }
+
+    /**
+     * @param receiver a subscribed receiver
+     * @return number of events published to the receiver's ring that the receiver has not consumed yet
+     */
+    public long getConsumerLag(Receiver receiver) {
+        if (receiverGroups != null) {
+            for (ReceiverGroup receiverGroup : receiverGroups) {
+                long lag = receiverGroup.getConsumerLag(receiver);
+                if (lag >= 0) {
+                    return lag;
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Receivers consuming a shared ring, the publishers copy each event into the ring of every group
+     */
+    private class ReceiverGroup {
+
+        private final String name;
+        private final List<Receiver> receivers;
+        private final List<StreamHandler> streamHandlers = new ArrayList<StreamHandler>();
+        private Disruptor<Event> disruptor;
+        private RingBuffer<Event> ringBuffer;
+        private OverloadController overloadController;
+        private SpillQueue spillQueue;
+        private Event drainEvent;
+        private ScheduledFuture spillDrainFuture;
+
+        private ReceiverGroup(String name, List<Receiver> receivers) {
+            this.name = name;
+            this.receivers = receivers;
+        }
+
+        private void start(ProducerType producerType) {
+            int attributeCount = streamDefinition.getAttributeList().size();
+            disruptor = disruptorConfig.createDisruptor(new EventFactory(attributeCount), executorService,
+                    producerType);
+            overloadController = new OverloadController(disruptor.getRingBuffer(), disruptorConfig, true);
+            for (Receiver receiver : receivers) {
+                StreamHandler streamHandler = new StreamHandler(receiver, overloadController);
+                streamHandlers.add(streamHandler);
+                disruptor.handleEventsWith(streamHandler);
+            }
+
+            ringBuffer = disruptor.start();
+            if (disruptorConfig.getOverloadPolicy() == DisruptorConfig.OverloadPolicy.SPILL) {
+                spillQueue = new SpillQueue(executionPlanContext.getName() + "-" + getStreamId() + "-" + name,
+                        disruptorConfig.getSpillDirectory());
+                drainEvent = new Event(attributeCount);
+                ScheduledExecutorService scheduledExecutorService =
+                        executionPlanContext.getScheduledExecutorService();
+                if (scheduledExecutorService != null) {
+                    spillDrainFuture = scheduledExecutorService.scheduleWithFixedDelay(new Runnable() {
+                        @Override
+                        public void run() {
+                            synchronized (spillQueue) {
+                                drainSpillQueue();
+                            }
+                        }
+                    }, SPILL_DRAIN_INTERVAL, SPILL_DRAIN_INTERVAL, TimeUnit.MILLISECONDS);
+                }
+            }
+        }
+
+        private void stop() {
+            if (spillDrainFuture != null) {
+                spillDrainFuture.cancel(false);
+            }
+            disruptor.shutdown();
+            if (spillQueue != null) {
+                synchronized (spillQueue) {
+                    long discarded = spillQueue.clear();
+                    if (discarded > 0) {
+                        overloadController.addDroppedEvents(discarded);
+                        log.warn("Dropped " + discarded + " spilled events of stream " + getStreamId() +
+                                " on shutdown");
+                    }
+                }
+            }
+        }
+
+        private long getSpilledEventCount() {
+            if (spillQueue == null) {
+                return 0;
+            }
+            synchronized (spillQueue) {
+                return spillQueue.getSpilledEvents();
+            }
+        }
+
+        private long getConsumerLag(Receiver receiver) {
+            for (StreamHandler streamHandler : streamHandlers) {
+                if (streamHandler.receiver == receiver) {
+                    return ringBuffer.getCursor() - disruptor.getSequenceValueFor(streamHandler);
+                }
+            }
+            return -1;
+        }
+
+        private void sendEvent(ComplexEvent complexEvent) {
+            if (spillQueue != null) {
+                synchronized (spillQueue) {
+                    publishEvent(complexEvent);
+                }
+            } else {
+                publishEvent(complexEvent);
+            }
+        }
+
+        private void sendEvent(Event event) {
+            if (spillQueue != null) {
+                synchronized (spillQueue) {
+                    publishEvent(event);
+                }
+            } else {
+                publishEvent(event);
+            }
+        }
+
+        private void sendEvents(Event[] events, int length) {
+            if (spillQueue != null) {
+                synchronized (spillQueue) {
+                    publishEvents(events, length);
+                }
+            } else {
+                publishEvents(events, length);
+            }
+        }
+
+        private void sendData(long timeStamp, Object[] data) {
+            if (spillQueue != null) {
+                synchronized (spillQueue) {
+                    publishData(timeStamp, data);
+                }
+            } else {
+                publishData(timeStamp, data);
+            }
+        }
+
+        private void publishEvent(ComplexEvent complexEvent) {
+            int size = 0;
+            for (ComplexEvent event = complexEvent; event != null; event = event.getNext()) {
+                size++;
+            }
+            ComplexEvent complexEventList = complexEvent;
+            while (size > 0) {
+                int chunkSize = Math.min(size, bufferSize);
+                long hi = claim(chunkSize);
+                if (hi == OverloadController.REJECTED) {
+                    for (int i = 0; i < chunkSize; i++) {
+                        spill(complexEventList.getTimestamp(),
+                                complexEventList.getType() == StreamEvent.Type.EXPIRED,
+                                complexEventList.getOutputData());
+                        complexEventList = complexEventList.getNext();
+                    }
+                } else {
+                    long lo = hi - (chunkSize - 1);
+                    try {
+                        for (long sequenceNo = lo; sequenceNo <= hi; sequenceNo++) {
+                            Event existingEvent = ringBuffer.get(sequenceNo);
+                            existingEvent.copyFrom(complexEventList);
+                            complexEventList = complexEventList.getNext();
+                        }
+                    } finally {
+                        ringBuffer.publish(lo, hi);
+                    }
+                }
+                size -= chunkSize;
+            }
+        }
+
+        private void publishEvent(Event event) {
+            long sequenceNo = claim(1);
+            if (sequenceNo == OverloadController.REJECTED) {
+                spill(event);
+                return;
+            }
+            try {
+                Event existingEvent = ringBuffer.get(sequenceNo);
+                existingEvent.copyFrom(event);
+            } finally {
+                ringBuffer.publish(sequenceNo);
+            }
+        }
+
+        private void publishEvents(Event[] events, int length) {
+            int index = 0;
+            while (index < length) {
+                int chunkSize = Math.min(length - index, bufferSize);
+                long hi = claim(chunkSize);
+                if (hi == OverloadController.REJECTED) {
+                    for (int i = 0; i < chunkSize; i++) {
+                        spill(events[index++]);
+                    }
+                } else {
+                    long lo = hi - (chunkSize - 1);
+                    try {
+                        for (long sequenceNo = lo; sequenceNo <= hi; sequenceNo++) {
+                            Event existingEvent = ringBuffer.get(sequenceNo);
+                            existingEvent.copyFrom(events[index++]);
+                        }
+                    } finally {
+                        ringBuffer.publish(lo, hi);
+                    }
+                }
+            }
+        }
+
+        private void publishData(long timeStamp, Object[] data) {
+            long sequenceNo = claim(1);
+            if (sequenceNo == OverloadController.REJECTED) {
+                spill(timeStamp, false, data);
+                return;
+            }
+            try {
+                Event existingEvent = ringBuffer.get(sequenceNo);
+                existingEvent.setTimestamp(timeStamp);
+                existingEvent.setIsExpired(false);
+                System.arraycopy(data, 0, existingEvent.getData(), 0, data.length);
+            } finally {
+                ringBuffer.publish(sequenceNo);
+            }
+        }
+
+        /**
+         * Claim ring slots as per the overload policy. Under the spill policy the spilled events are moved to the
+         * ring first, and new events are spilled as long as older events are still spilled to retain the order.
+         */
+        private long claim(int n) {
+            if (spillQueue != null) {
+                drainSpillQueue();
+                if (!spillQueue.isEmpty()) {
+                    return OverloadController.REJECTED;
+                }
+            }
+            return overloadController.next(n);
+        }
+
+        private void spill(Event event) {
+            spill(event.getTimestamp(), event.isExpired(), event.getData());
+        }
+
+        private void spill(long timestamp, boolean isExpired, Object[] data) {
+            if (spillQueue == null) {
+                // dropped by the overload policy
+                return;
+            }
+            try {
+                spillQueue.add(timestamp, isExpired, data);
+            } catch (IOException e) {
+                overloadController.addDroppedEvents(1 + spillQueue.clear());
+                log.error("Error spilling events of stream " + getStreamId() + ", dropping the spilled events", e);
+            }
+        }
+
+        private void drainSpillQueue() {
+            while (!spillQueue.isEmpty()) {
+                if (ringBuffer.remainingCapacity() == 0) {
+                    return;
+                }
+                long pending = spillQueue.size();
+                try {
+                    spillQueue.poll(drainEvent);
+                } catch (IOException e) {
+                    overloadController.addDroppedEvents(pending);
+                    log.error("Error reading spilled events of stream " + getStreamId() + ", dropping " + pending +
+                            " spilled events", e);
+                    return;
+                }
+                long sequenceNo = ringBuffer.next();
+                try {
+                    ringBuffer.get(sequenceNo).copyFrom(drainEvent);
+                } finally {
+                    ringBuffer.publish(sequenceNo);
+                }
+            }
+        }
+    }
+
+    /**
+     * Receives the events of the stream. The events and data passed to a receiver are only valid for the duration
+     * of the call, as the junction and the entry valves reuse them, hence a receiver keeping them has to copy them.
+     * The event arrays are owned by the receiver.
+     */
     public interface Receiver {
 
         public String getStreamId();
@@ -233,21 +568,62 @@ public class StreamJunction {
         public void receive(Event[] events);
     }
 
+    /**
+     * Optionally implemented by a {@link Receiver} that takes the events at the start of a reused array, so that
+     * the junction can hand over its batch array without copying it to an array of the exact size.
+     */
+    public interface BatchReceiver extends Receiver {
+
+        /**
+         * @param events events to be received, the array is reused by the junction once the call returns
+         * @param length number of events at the start of the array to be received
+         */
+        public void receive(Event[] events, int length);
+    }
+
+    /**
+     * Hands each published range to the receiver as one event array, skipping the events discarded by the overload
+     * policy. The ring slots stay valid until the end of the batch, hence the array only refers to them.
+     */
     public class StreamHandler implements EventHandler<Event> {
 
         private Receiver receiver;
+        private final OverloadController overloadController;
+        private final Event[] batch;
+        private int batchSize;
 
-        public StreamHandler(Receiver receiver) {
+        public StreamHandler(Receiver receiver, OverloadController overloadController) {
             this.receiver = receiver;
+            this.overloadController = overloadController;
+            this.batch = new Event[bufferSize];
         }
 
         public void onEvent(Event event, long sequence, boolean endOfBatch) {
-            receiver.receive(event, endOfBatch);
+            if (!overloadController.isDiscarded(sequence)) {
+                if (batchSize == batch.length) {
+                    flush();
+                }
+                batch[batchSize++] = event;
+            }
+            if (endOfBatch && batchSize > 0) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            try {
+                receive(receiver, batch, batchSize);
+            } finally {
+                for (int i = 0; i < batchSize; i++) {
+                    batch[i] = null;
+                }
+                batchSize = 0;
+            }
         }
 
     }
 
-    public class Publisher implements InputProcessor {
+    public class Publisher implements BatchInputProcessor {
 
         private StreamJunction streamJunction;
 
@@ -266,7 +642,12 @@ public class StreamJunction {
 
         @Override
         public void send(Event[] events, int streamIndex) {
-            streamJunction.sendEvent(events);
+            streamJunction.sendEvents(events, events.length);
+        }
+
+        @Override
+        public void send(Event[] events, int length, int streamIndex) {
+            streamJunction.sendEvents(events, length);
         }
 
         @Override
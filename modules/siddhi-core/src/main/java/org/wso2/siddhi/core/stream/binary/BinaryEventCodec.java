@@ -0,0 +1,252 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.stream.binary;
+
+import org.wso2.siddhi.core.event.ComplexEvent;
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.exception.ExecutionPlanRuntimeException;
+import org.wso2.siddhi.core.exception.OperationNotSupportedException;
+import org.wso2.siddhi.core.stream.input.EventSlot;
+import org.wso2.siddhi.core.stream.input.InputHandler;
+import org.wso2.siddhi.query.api.definition.AbstractDefinition;
+import org.wso2.siddhi.query.api.definition.Attribute;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.List;
+
+/**
+ * Encodes and decodes the events of a stream as length-prefixed binary frames. A frame is laid out as
+ * <pre>
+ * int    length of the rest of the frame
+ * long   timestamp
+ * byte[] null bitmap, one bit per attribute
+ * ...    non null attributes in the order of the stream definition: int, long, float and double in
+ *        big-endian, bool as one byte, and string as an int byte count followed by the UTF-8 bytes
+ * </pre>
+ * Frames are decoded straight into the event slots claimed from the input handler, without building
+ * Object[] or Event instances. A codec is not thread safe.
+ */
+public class BinaryEventCodec {
+
+    public static final int LENGTH_FIELD_SIZE = 4;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final Attribute.Type[] attributeTypes;
+    private final int nullBitmapSize;
+    private byte[] stringBytes = new byte[64];
+
+    public BinaryEventCodec(AbstractDefinition definition) {
+        List<Attribute> attributeList = definition.getAttributeList();
+        this.attributeTypes = new Attribute.Type[attributeList.size()];
+        for (int i = 0; i < attributeTypes.length; i++) {
+            Attribute attribute = attributeList.get(i);
+            if (attribute.getType() == Attribute.Type.OBJECT) {
+                throw new OperationNotSupportedException("Attribute " + attribute.getName() + " of stream " +
+                        definition.getId() + " cannot be encoded as it is of type " + attribute.getType());
+            }
+            attributeTypes[i] = attribute.getType();
+        }
+        this.nullBitmapSize = (attributeTypes.length + 7) / 8;
+    }
+
+    /**
+     * Decode the frame at the position of the buffer into an event slot of the input handler
+     *
+     * @param buffer       buffer holding the frames
+     * @param inputHandler input handler of the stream
+     * @return false, leaving the position unchanged, if the buffer does not hold a whole frame
+     */
+    public boolean decode(ByteBuffer buffer, InputHandler inputHandler) {
+        int frameStart = buffer.position();
+        if (buffer.remaining() < LENGTH_FIELD_SIZE) {
+            return false;
+        }
+        int length = buffer.getInt(frameStart);
+        if (length < 8 + nullBitmapSize) {
+            throw new ExecutionPlanRuntimeException("Invalid frame length " + length + " at position " + frameStart);
+        }
+        if (buffer.remaining() < LENGTH_FIELD_SIZE + length) {
+            return false;
+        }
+        int frameEnd = frameStart + LENGTH_FIELD_SIZE + length;
+        validate(buffer, frameStart, frameEnd);
+
+        buffer.position(frameStart + LENGTH_FIELD_SIZE);
+        EventSlot eventSlot = inputHandler.claim();
+        eventSlot.setTimestamp(buffer.getLong());
+        int bitmapStart = buffer.position();
+        buffer.position(bitmapStart + nullBitmapSize);
+        for (int i = 0; i < attributeTypes.length; i++) {
+            if (isNull(buffer, bitmapStart, i)) {
+                eventSlot.setObject(i, null);
+                continue;
+            }
+            switch (attributeTypes[i]) {
+                case INT:
+                    eventSlot.setInt(i, buffer.getInt());
+                    break;
+                case LONG:
+                    eventSlot.setLong(i, buffer.getLong());
+                    break;
+                case FLOAT:
+                    eventSlot.setFloat(i, buffer.getFloat());
+                    break;
+                case DOUBLE:
+                    eventSlot.setDouble(i, buffer.getDouble());
+                    break;
+                case BOOL:
+                    eventSlot.setBool(i, buffer.get() != 0);
+                    break;
+                default:
+                    eventSlot.setString(i, getString(buffer));
+            }
+        }
+        inputHandler.commit(eventSlot);
+        return true;
+    }
+
+    /**
+     * Decode all the whole frames of the buffer, leaving the position at the start of the partial frame if any
+     *
+     * @param buffer       buffer holding the frames
+     * @param inputHandler input handler of the stream
+     * @return number of decoded events
+     */
+    public int decodeAll(ByteBuffer buffer, InputHandler inputHandler) {
+        int count = 0;
+        while (decode(buffer, inputHandler)) {
+            count++;
+        }
+        return count;
+    }
+
+    public void encode(Event event, ByteBuffer buffer) {
+        encode(event.getTimestamp(), event.getData(), buffer);
+    }
+
+    public void encode(ComplexEvent complexEvent, ByteBuffer buffer) {
+        encode(complexEvent.getTimestamp(), complexEvent.getOutputData(), buffer);
+    }
+
+    /**
+     * Encode an event as a frame at the position of the buffer
+     *
+     * @param timestamp timestamp of the event
+     * @param data      attributes of the event
+     * @param buffer    buffer to write to
+     * @throws BufferOverflowException if the frame does not fit the buffer, leaving the position unchanged
+     */
+    public void encode(long timestamp, Object[] data, ByteBuffer buffer) {
+        int frameStart = buffer.position();
+        try {
+            buffer.position(frameStart + LENGTH_FIELD_SIZE);
+            buffer.putLong(timestamp);
+            int bitmapStart = buffer.position();
+            for (int i = 0; i < nullBitmapSize; i++) {
+                buffer.put((byte) 0);
+            }
+            for (int i = 0; i < attributeTypes.length; i++) {
+                Object value = data[i];
+                if (value == null) {
+                    buffer.put(bitmapStart + (i >> 3), (byte) (buffer.get(bitmapStart + (i >> 3)) | (1 << (i & 7))));
+                    continue;
+                }
+                switch (attributeTypes[i]) {
+                    case INT:
+                        buffer.putInt((Integer) value);
+                        break;
+                    case LONG:
+                        buffer.putLong((Long) value);
+                        break;
+                    case FLOAT:
+                        buffer.putFloat((Float) value);
+                        break;
+                    case DOUBLE:
+                        buffer.putDouble((Double) value);
+                        break;
+                    case BOOL:
+                        buffer.put((Boolean) value ? (byte) 1 : (byte) 0);
+                        break;
+                    default:
+                        byte[] bytes = ((String) value).getBytes(UTF_8);
+                        buffer.putInt(bytes.length);
+                        buffer.put(bytes);
+                }
+            }
+        } catch (RuntimeException e) {
+            buffer.position(frameStart);
+            throw e;
+        }
+        buffer.putInt(frameStart, buffer.position() - frameStart - LENGTH_FIELD_SIZE);
+    }
+
+    private static boolean isNull(ByteBuffer buffer, int bitmapStart, int attributeIndex) {
+        return (buffer.get(bitmapStart + (attributeIndex >> 3)) & (1 << (attributeIndex & 7))) != 0;
+    }
+
+    /**
+     * Check the attributes of a frame fit its length before claiming a slot for it,
+     * as a claimed slot has to be committed even when the frame turns out to be malformed
+     */
+    private void validate(ByteBuffer buffer, int frameStart, int frameEnd) {
+        int bitmapStart = frameStart + LENGTH_FIELD_SIZE + 8;
+        int position = bitmapStart + nullBitmapSize;
+        for (int i = 0; i < attributeTypes.length && position <= frameEnd; i++) {
+            if (isNull(buffer, bitmapStart, i)) {
+                continue;
+            }
+            switch (attributeTypes[i]) {
+                case INT:
+                case FLOAT:
+                    position += 4;
+                    break;
+                case LONG:
+                case DOUBLE:
+                    position += 8;
+                    break;
+                case BOOL:
+                    position += 1;
+                    break;
+                default:
+                    if (position + 4 > frameEnd) {
+                        position = frameEnd + 1;
+                        break;
+                    }
+                    int stringLength = buffer.getInt(position);
+                    position = stringLength < 0 ? frameEnd + 1 : position + 4 + stringLength;
+            }
+        }
+        if (position != frameEnd) {
+            throw new ExecutionPlanRuntimeException("Malformed frame at position " + frameStart + ", attributes " +
+                    "do not match the frame length " + (frameEnd - frameStart - LENGTH_FIELD_SIZE));
+        }
+    }
+
+    private String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (buffer.hasArray()) {
+            String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, UTF_8);
+            buffer.position(buffer.position() + length);
+            return value;
+        }
+        if (stringBytes.length < length) {
+            stringBytes = new byte[Math.max(length, stringBytes.length * 2)];
+        }
+        buffer.get(stringBytes, 0, length);
+        return new String(stringBytes, 0, length, UTF_8);
+    }
+}
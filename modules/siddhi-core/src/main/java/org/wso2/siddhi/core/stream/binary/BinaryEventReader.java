@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.stream.binary;
+
+import org.wso2.siddhi.core.stream.input.InputHandler;
+import org.wso2.siddhi.query.api.definition.AbstractDefinition;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Feeds the binary event frames of a buffer, a channel such as a socket, or a memory-mapped file
+ * to the input handler of a stream. See {@link BinaryEventCodec} for the frame layout.
+ */
+public class BinaryEventReader {
+
+    private static final long MAX_MAPPED_REGION = Integer.MAX_VALUE;
+
+    private final InputHandler inputHandler;
+    private final BinaryEventCodec binaryEventCodec;
+
+    public BinaryEventReader(InputHandler inputHandler, AbstractDefinition streamDefinition) {
+        this.inputHandler = inputHandler;
+        this.binaryEventCodec = new BinaryEventCodec(streamDefinition);
+    }
+
+    /**
+     * Send the whole frames of the buffer, leaving the position at the start of the partial frame if any
+     *
+     * @param buffer buffer holding the frames
+     * @return number of events sent
+     */
+    public int read(ByteBuffer buffer) {
+        return binaryEventCodec.decodeAll(buffer, inputHandler);
+    }
+
+    /**
+     * Send the frames read from the channel till it reaches the end of stream
+     *
+     * @param channel    channel to read from
+     * @param bufferSize size of the read buffer, should be larger than any frame
+     * @return number of events sent
+     * @throws IOException if reading fails, a frame is larger than the buffer, or the stream ends within a frame
+     */
+    public long read(ReadableByteChannel channel, int bufferSize) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bufferSize);
+        long count = 0;
+        while (channel.read(buffer) != -1) {
+            buffer.flip();
+            int decoded = binaryEventCodec.decodeAll(buffer, inputHandler);
+            if (decoded == 0 && buffer.remaining() == buffer.capacity()) {
+                throw new IOException("Frame does not fit the read buffer of " + bufferSize + " bytes");
+            }
+            count += decoded;
+            buffer.compact();
+        }
+        if (buffer.position() != 0) {
+            throw new IOException("Stream ended within a frame, " + buffer.position() + " bytes left unread");
+        }
+        return count;
+    }
+
+    /**
+     * Send the frames of a file by memory mapping it
+     *
+     * @param file file holding the frames
+     * @return number of events sent
+     * @throws IOException if reading fails or the file ends within a frame
+     */
+    public long read(File file) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            FileChannel fileChannel = randomAccessFile.getChannel();
+            long size = fileChannel.size();
+            long position = 0;
+            long count = 0;
+            while (position < size) {
+                long regionSize = Math.min(size - position, MAX_MAPPED_REGION);
+                MappedByteBuffer buffer = fileChannel.map(FileChannel.MapMode.READ_ONLY, position, regionSize);
+                count += binaryEventCodec.decodeAll(buffer, inputHandler);
+                if (buffer.position() == 0) {
+                    throw new IOException("File " + file + " ends within a frame at position " + position);
+                }
+                position += buffer.position();
+            }
+            return count;
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+}
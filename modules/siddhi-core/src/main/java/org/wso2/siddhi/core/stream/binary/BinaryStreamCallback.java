@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.stream.binary;
+
+import org.apache.log4j.Logger;
+import org.wso2.siddhi.core.event.ComplexEvent;
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.stream.output.StreamCallback;
+import org.wso2.siddhi.query.api.definition.AbstractDefinition;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Stream callback writing the events of the stream to a channel, such as a socket or a file, as binary
+ * frames. Events are encoded straight from the delivered events without converting them to Event
+ * instances, and each delivered batch is written at once. See {@link BinaryEventCodec} for the frame layout.
+ */
+public class BinaryStreamCallback extends StreamCallback {
+
+    private static final Logger log = Logger.getLogger(BinaryStreamCallback.class);
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer;
+    private BinaryEventCodec binaryEventCodec;
+
+    /**
+     * @param channel    channel to write to
+     * @param bufferSize size of the write buffer, should be larger than any frame
+     */
+    public BinaryStreamCallback(WritableByteChannel channel, int bufferSize) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    @Override
+    public void setStreamDefinition(AbstractDefinition streamDefinition) {
+        super.setStreamDefinition(streamDefinition);
+        binaryEventCodec = new BinaryEventCodec(streamDefinition);
+    }
+
+    @Override
+    public synchronized void receive(ComplexEvent complexEvent) {
+        try {
+            while (complexEvent != null) {
+                try {
+                    binaryEventCodec.encode(complexEvent, buffer);
+                } catch (BufferOverflowException e) {
+                    flush();
+                    binaryEventCodec.encode(complexEvent, buffer);
+                }
+                complexEvent = complexEvent.getNext();
+            }
+            flush();
+        } catch (IOException e) {
+            log.error("Error when writing events of stream " + getStreamId(), e);
+        }
+    }
+
+    @Override
+    public synchronized void receive(Event event) {
+        try {
+            write(event);
+            flush();
+        } catch (IOException e) {
+            log.error("Error when writing events of stream " + getStreamId(), e);
+        }
+    }
+
+    @Override
+    public synchronized void receive(Event event, boolean endOfBatch) {
+        try {
+            write(event);
+            if (endOfBatch) {
+                flush();
+            }
+        } catch (IOException e) {
+            log.error("Error when writing events of stream " + getStreamId(), e);
+        }
+    }
+
+    @Override
+    public synchronized void receive(long timeStamp, Object[] data) {
+        try {
+            try {
+                binaryEventCodec.encode(timeStamp, data, buffer);
+            } catch (BufferOverflowException e) {
+                flush();
+                binaryEventCodec.encode(timeStamp, data, buffer);
+            }
+            flush();
+        } catch (IOException e) {
+            log.error("Error when writing events of stream " + getStreamId(), e);
+        }
+    }
+
+    @Override
+    public void receive(Event[] events) {
+        receive(events, events.length);
+    }
+
+    @Override
+    public synchronized void receive(Event[] events, int length) {
+        try {
+            for (int i = 0; i < length; i++) {
+                write(events[i]);
+            }
+            flush();
+        } catch (IOException e) {
+            log.error("Error when writing events of stream " + getStreamId(), e);
+        }
+    }
+
+    private void write(Event event) throws IOException {
+        try {
+            binaryEventCodec.encode(event, buffer);
+        } catch (BufferOverflowException e) {
+            flush();
+            binaryEventCodec.encode(event, buffer);
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } finally {
+            buffer.clear();
+        }
+    }
+}
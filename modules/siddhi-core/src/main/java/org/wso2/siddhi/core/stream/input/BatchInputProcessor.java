@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.stream.input;
+
+import org.wso2.siddhi.core.event.Event;
+
+/**
+ * Optionally implemented by an {@link InputProcessor} that takes the events at the start of a reused array, so that
+ * the entry valves can hand over their staging array without copying it to an array of the exact size. Processors
+ * that do not implement it are sent an exact size array they can keep.
+ */
+public interface BatchInputProcessor extends InputProcessor {
+
+    /**
+     * @param events      events to be sent, the array is reused by the sender once the call returns
+     * @param length      number of events at the start of the array to be sent
+     * @param streamIndex index of the stream the events belong to
+     */
+    public void send(Event[] events, int length, int streamIndex);
+
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.stream.input;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Shared lock of an execution plan running in the @EventLoop mode. The events of the plan are processed by the
+ * single consumer thread of the {@link SingleStreamEntryValve}, which owns the plan state, hence locking from that
+ * thread is free. Other threads, such as schedulers and snapshots, acquire the lock by pausing the event loop:
+ * a task is queued behind the already published events and the event loop waits in it until the lock is released.
+ * Producers never take a lock, while the loop is paused their events are queued in the ring.
+ * <p/>
+ * Conditions are backed by the internal lock, hence only the threads pausing the event loop can wait on and signal
+ * them. A waiting thread lets the event loop resume and pauses it again before returning.
+ */
+public class EventLoopLock implements Lock {
+
+    private final ReentrantLock externalLock = new ReentrantLock();
+    private volatile SingleStreamEntryValve entryValve;
+    private CountDownLatch resumed;
+
+    public void setEntryValve(SingleStreamEntryValve entryValve) {
+        this.entryValve = entryValve;
+    }
+
+    @Override
+    public void lock() {
+        SingleStreamEntryValve entryValve = this.entryValve;
+        if (entryValve != null && entryValve.isEventLoopThread()) {
+            return;
+        }
+        externalLock.lock();
+        if (externalLock.getHoldCount() == 1) {
+            pause(entryValve);
+        }
+    }
+
+    @Override
+    public void lockInterruptibly() throws InterruptedException {
+        SingleStreamEntryValve entryValve = this.entryValve;
+        if (entryValve != null && entryValve.isEventLoopThread()) {
+            return;
+        }
+        externalLock.lockInterruptibly();
+        if (externalLock.getHoldCount() == 1) {
+            pause(entryValve);
+        }
+    }
+
+    @Override
+    public boolean tryLock() {
+        SingleStreamEntryValve entryValve = this.entryValve;
+        if (entryValve != null && entryValve.isEventLoopThread()) {
+            return true;
+        }
+        if (externalLock.tryLock()) {
+            if (externalLock.getHoldCount() == 1) {
+                pause(entryValve);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+        SingleStreamEntryValve entryValve = this.entryValve;
+        if (entryValve != null && entryValve.isEventLoopThread()) {
+            return true;
+        }
+        if (externalLock.tryLock(time, unit)) {
+            if (externalLock.getHoldCount() == 1) {
+                pause(entryValve);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void unlock() {
+        SingleStreamEntryValve entryValve = this.entryValve;
+        if (entryValve != null && entryValve.isEventLoopThread()) {
+            return;
+        }
+        if (externalLock.getHoldCount() == 1) {
+            resume();
+        }
+        externalLock.unlock();
+    }
+
+    @Override
+    public Condition newCondition() {
+        return new EventLoopCondition(externalLock.newCondition());
+    }
+
+    private void resume() {
+        if (resumed != null) {
+            resumed.countDown();
+            resumed = null;
+        }
+    }
+
+    private void pause(SingleStreamEntryValve entryValve) {
+        if (entryValve == null || !entryValve.isRunning()) {
+            return;
+        }
+        final CountDownLatch paused = new CountDownLatch(1);
+        final CountDownLatch resumed = new CountDownLatch(1);
+        entryValve.execute(new Runnable() {
+            @Override
+            public void run() {
+                paused.countDown();
+                awaitUninterruptibly(resumed);
+            }
+        });
+        this.resumed = resumed;
+        awaitUninterruptibly(paused);
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Condition of the internal lock, the event loop is resumed while a thread waits on it
+     */
+    private class EventLoopCondition implements Condition {
+
+        private final Condition condition;
+
+        private EventLoopCondition(Condition condition) {
+            this.condition = condition;
+        }
+
+        @Override
+        public void await() throws InterruptedException {
+            checkOwner();
+            resume();
+            try {
+                condition.await();
+            } finally {
+                pause(entryValve);
+            }
+        }
+
+        @Override
+        public void awaitUninterruptibly() {
+            checkOwner();
+            resume();
+            try {
+                condition.awaitUninterruptibly();
+            } finally {
+                pause(entryValve);
+            }
+        }
+
+        @Override
+        public long awaitNanos(long nanosTimeout) throws InterruptedException {
+            checkOwner();
+            resume();
+            try {
+                return condition.awaitNanos(nanosTimeout);
+            } finally {
+                pause(entryValve);
+            }
+        }
+
+        @Override
+        public boolean await(long time, TimeUnit unit) throws InterruptedException {
+            checkOwner();
+            resume();
+            try {
+                return condition.await(time, unit);
+            } finally {
+                pause(entryValve);
+            }
+        }
+
+        @Override
+        public boolean awaitUntil(Date deadline) throws InterruptedException {
+            checkOwner();
+            resume();
+            try {
+                return condition.awaitUntil(deadline);
+            } finally {
+                pause(entryValve);
+            }
+        }
+
+        @Override
+        public void signal() {
+            checkOwner();
+            condition.signal();
+        }
+
+        @Override
+        public void signalAll() {
+            checkOwner();
+            condition.signalAll();
+        }
+
+        /**
+         * The event loop thread does not hold the internal lock, it cannot wait as no other thread could pause the
+         * loop to signal it
+         */
+        private void checkOwner() {
+            if (!externalLock.isHeldByCurrentThread()) {
+                throw new IllegalMonitorStateException("Conditions of the event loop lock can only be used by " +
+                        "threads other than the event loop holding the lock");
+            }
+        }
+    }
+}
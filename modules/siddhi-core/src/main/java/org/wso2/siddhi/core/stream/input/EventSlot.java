@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.stream.input;
+
+/**
+ * A pre-allocated event slot claimed through {@link InputHandler#claim()}. The attributes are written
+ * in place without boxing numeric values, and the slot is handed over with {@link InputHandler#commit(EventSlot)}.
+ * A slot is owned by the claiming thread and reused by its next claim on the same stream, hence a slot must not
+ * be used after it is committed. Attributes that are not set are null, and a slot that is not committed is
+ * simply discarded.
+ */
+public interface EventSlot {
+
+    public void setTimestamp(long timestamp);
+
+    public void setInt(int attributeIndex, int value);
+
+    public void setLong(int attributeIndex, long value);
+
+    public void setFloat(int attributeIndex, float value);
+
+    public void setDouble(int attributeIndex, double value);
+
+    public void setBool(int attributeIndex, boolean value);
+
+    public void setString(int attributeIndex, String value);
+
+    public void setObject(int attributeIndex, Object value);
+
+}
@@ -17,12 +17,13 @@ package org.wso2.siddhi.core.stream.input;
 import org.wso2.siddhi.core.event.Event;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * Created on 11/28/14.
  */
-public class InputDistributor implements InputProcessor {
+public class InputDistributor implements BatchInputProcessor {
 
     private List<InputProcessor> inputProcessors = new ArrayList<InputProcessor>();
 
@@ -36,6 +37,16 @@ public class InputDistributor implements InputProcessor {
         inputProcessors.get(streamIndex).send(events, streamIndex);
     }
 
+    @Override
+    public void send(Event[] events, int length, int streamIndex) {
+        InputProcessor inputProcessor = inputProcessors.get(streamIndex);
+        if (inputProcessor instanceof BatchInputProcessor) {
+            ((BatchInputProcessor) inputProcessor).send(events, length, streamIndex);
+        } else {
+            inputProcessor.send(Arrays.copyOf(events, length), streamIndex);
+        }
+    }
+
     @Override
     public void send(long timeStamp, Object[] data, int streamIndex) {
         inputProcessors.get(streamIndex).send(timeStamp, data, streamIndex);
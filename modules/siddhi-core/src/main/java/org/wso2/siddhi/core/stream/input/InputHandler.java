@@ -16,6 +16,11 @@ package org.wso2.siddhi.core.stream.input;
 
 import org.apache.log4j.Logger;
 import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.exception.ExecutionPlanRuntimeException;
+import org.wso2.siddhi.query.api.definition.AbstractDefinition;
+import org.wso2.siddhi.query.api.definition.Attribute;
+
+import java.util.List;
 
 public class InputHandler {
 
@@ -26,6 +31,8 @@ public class InputHandler {
     protected InputProcessor inputProcessor;
     protected InputProcessor pausedInputPublisher;
 
+    protected Attribute.Type[] attributeTypes;
+
     public InputHandler(String streamId, int streamIndex, InputProcessor inputProcessor) {
         this.streamId = streamId;
         this.streamIndex = streamIndex;
@@ -33,6 +40,16 @@ public class InputHandler {
         this.pausedInputPublisher = this.inputProcessor;
     }
 
+    public InputHandler(String streamId, int streamIndex, InputProcessor inputProcessor,
+                        AbstractDefinition streamDefinition) {
+        this(streamId, streamIndex, inputProcessor);
+        List<Attribute> attributeList = streamDefinition.getAttributeList();
+        this.attributeTypes = new Attribute.Type[attributeList.size()];
+        for (int i = 0; i < attributeTypes.length; i++) {
+            attributeTypes[i] = attributeList.get(i).getType();
+        }
+    }
+
     public String getStreamId() {
         return streamId;
     }
@@ -61,6 +78,71 @@ public class InputHandler {
         }
     }
 
+    /**
+     * Send the data without blocking the caller, the event is rejected instead if the entry ring is full
+     *
+     * @param data attributes of the event
+     * @return true if the event is accepted
+     */
+    public boolean trySend(Object[] data) {
+        return trySend(System.currentTimeMillis(), data);
+    }
+
+    public boolean trySend(long timeStamp, Object[] data) {
+        InputProcessor processor = inputProcessor;
+        if (processor instanceof SingleStreamEntryValve) {
+            return ((SingleStreamEntryValve) processor).trySend(timeStamp, data, streamIndex);
+        } else if (processor != null) {
+            processor.send(timeStamp, data, streamIndex);
+            return true;
+        }
+        return false;
+    }
+
+    public boolean trySend(Event event) {
+        InputProcessor processor = inputProcessor;
+        if (processor instanceof SingleStreamEntryValve) {
+            return ((SingleStreamEntryValve) processor).trySend(event, streamIndex);
+        } else if (processor != null) {
+            processor.send(event, streamIndex);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Claim a pre-allocated event slot to write the next event in place without allocating it.
+     * No ring slot is held until the slot is passed to {@link #commit(EventSlot)}, hence a slot that
+     * fails validation can be abandoned without holding back the events sent after it.
+     *
+     * @return slot to be populated
+     */
+    public EventSlot claim() {
+        InputProcessor processor = inputProcessor;
+        if (processor == null) {
+            throw new ExecutionPlanRuntimeException("Input handler of stream " + streamId + " is disconnected as " +
+                    "its execution plan is shut down, hence cannot claim event slots");
+        }
+        if (!(processor instanceof SingleStreamEntryValve) || attributeTypes == null) {
+            throw new ExecutionPlanRuntimeException("Input handler of stream " + streamId + " does not support " +
+                    "claiming event slots as it is not connected to an entry valve");
+        }
+        return ((SingleStreamEntryValve) processor).claim(streamIndex, attributeTypes);
+    }
+
+    /**
+     * Publish a slot returned by {@link #claim()}, the slot is dropped like any other event sent once the input
+     * handler is disconnected
+     *
+     * @param eventSlot populated slot
+     */
+    public void commit(EventSlot eventSlot) {
+        InputProcessor processor = inputProcessor;
+        if (processor != null) {
+            ((SingleStreamEntryValve) processor).commit(eventSlot);
+        }
+    }
+
     void disconnect() {
         this.inputProcessor = null;
     }
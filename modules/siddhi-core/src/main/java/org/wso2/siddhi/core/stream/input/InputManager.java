@@ -46,6 +46,9 @@ public class InputManager {
             inputDistributor = new InputDistributor();
             singleThreadEntryValve = new SingleThreadEntryValve(executionPlanContext, inputDistributor);
             singleStreamEntryValve = new SingleStreamEntryValve(executionPlanContext, singleThreadEntryValve);
+            if (executionPlanContext.getSharedLock() instanceof EventLoopLock) {
+                ((EventLoopLock) executionPlanContext.getSharedLock()).setEntryValve(singleStreamEntryValve);
+            }
         }
 
     }
@@ -80,11 +83,12 @@ public class InputManager {
 
         InputHandler inputHandler = null;
         if (singleStreamEntryValve != null) {
-            inputHandler = new InputHandler(streamId, inputHandlerMap.size(), singleStreamEntryValve);
             StreamJunction streamJunction = streamJunctionMap.get(streamId);
             if (streamJunction == null) {
                 throw new DefinitionNotExistException("Stream with stream ID " + streamId + " has not been defined");
             }
+            inputHandler = new InputHandler(streamId, inputHandlerMap.size(), singleStreamEntryValve,
+                    streamDefinitionMap.get(streamId));
             inputDistributor.addInputProcessor(streamJunctionMap.get(streamId).constructPublisher());
         } else {
             //todo handle
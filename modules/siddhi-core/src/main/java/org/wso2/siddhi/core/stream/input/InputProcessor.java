@@ -17,6 +17,10 @@ package org.wso2.siddhi.core.stream.input;
 
 import org.wso2.siddhi.core.event.Event;
 
+/**
+ * Passes the events of the input streams on. The events sent on by an entry valve are reused by the valve once the
+ * call returns, hence the receivers keeping them have to copy them. The event arrays are owned by the receivers.
+ */
 public interface InputProcessor {
 
     public void send(Event event, int streamIndex);
@@ -16,67 +16,69 @@
 package org.wso2.siddhi.core.stream.input;
 
 import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.LifecycleAware;
 import com.lmax.disruptor.RingBuffer;
-import com.lmax.disruptor.SleepingWaitStrategy;
 import com.lmax.disruptor.dsl.Disruptor;
 import com.lmax.disruptor.dsl.ProducerType;
 import org.apache.log4j.Logger;
+import org.wso2.siddhi.core.config.DisruptorConfig;
 import org.wso2.siddhi.core.config.ExecutionPlanContext;
 import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.event.UnboxedData;
 import org.wso2.siddhi.core.exception.ExecutionPlanRuntimeException;
+import org.wso2.siddhi.core.util.disruptor.OverloadController;
+import org.wso2.siddhi.query.api.definition.Attribute;
 
-import java.lang.reflect.Constructor;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.Arrays;
 
 /**
  * Created on 11/28/14.
  */
-public class SingleStreamEntryValve implements InputProcessor {
+public class SingleStreamEntryValve implements BatchInputProcessor {
 
     private Disruptor<IndexedEventFactory.IndexedEvent> singleEntryDisruptor;
     private RingBuffer<IndexedEventFactory.IndexedEvent> ringBuffer;
     private ExecutionPlanContext executionPlanContext;
     private InputProcessor inputProcessor;
-    private AtomicLong eventSizeInDisruptor = new AtomicLong(0l);
-    private long count;
+    private int bufferSize;
+    private final OverloadController overloadController;
+    private volatile boolean running = false;
+    private volatile Thread eventLoopThread;
+    private final ThreadLocal<StagedEventSlot[]> stagedSlots = new ThreadLocal<StagedEventSlot[]>() {
+        @Override
+        protected StagedEventSlot[] initialValue() {
+            return new StagedEventSlot[0];
+        }
+    };
 
     static final Logger log = Logger.getLogger(SingleStreamEntryValve.class);
+    private static final long STAT_INTERVAL = 1000000;
 
     public SingleStreamEntryValve(ExecutionPlanContext executionPlanContext, InputProcessor inputProcessor) {
         this.executionPlanContext = executionPlanContext;
         this.inputProcessor = inputProcessor;
+        this.bufferSize = executionPlanContext.getDisruptorConfig().getBufferSize();
         SingleEntryValveHandler singleEntryValveHandler = new SingleEntryValveHandler();
-        for (Constructor constructor : Disruptor.class.getConstructors()) {
-            if (constructor.getParameterTypes().length == 5) {      //if new disruptor classes available
-                singleEntryDisruptor = new Disruptor<IndexedEventFactory.IndexedEvent>(new IndexedEventFactory(),
-                        executionPlanContext.getSiddhiContext().getEventBufferSize(),
-                        executionPlanContext.getExecutorService(),
-                        ProducerType.MULTI,
-                        new SleepingWaitStrategy());
-                break;
-            }
-        }
-        if (singleEntryDisruptor == null) {
-            singleEntryDisruptor = new Disruptor<IndexedEventFactory.IndexedEvent>(new IndexedEventFactory(),
-                    executionPlanContext.getSiddhiContext().getEventBufferSize(),
-                    executionPlanContext.getExecutorService());
-        }
+        DisruptorConfig disruptorConfig = executionPlanContext.getDisruptorConfig();
+        singleEntryDisruptor = disruptorConfig.createDisruptor(new IndexedEventFactory(),
+                executionPlanContext.getExecutorService(), ProducerType.MULTI);
+        overloadController = new OverloadController(singleEntryDisruptor.getRingBuffer(), disruptorConfig);
         singleEntryDisruptor.handleEventsWith(singleEntryValveHandler);
     }
 
     @Override
     public void send(Event event, int streamIndex) {
         try {
-            long sequenceNo = ringBuffer.next();
+            long sequenceNo = overloadController.next();
+            if (sequenceNo == OverloadController.REJECTED) {
+                return;
+            }
             try {
                 IndexedEventFactory.IndexedEvent existingEvent = ringBuffer.get(sequenceNo);
                 existingEvent.setEvent(event);
                 existingEvent.setStreamIndex(streamIndex);
             } finally {
-                eventSizeInDisruptor.incrementAndGet();
-                ringBuffer.publish(sequenceNo);    //Todo fix this for array of events
+                ringBuffer.publish(sequenceNo);
             }
         } catch (NullPointerException e) {
             throw new ExecutionPlanRuntimeException("Execution Plan:" + executionPlanContext.getName() + " not " +
@@ -87,28 +89,229 @@ public class SingleStreamEntryValve implements InputProcessor {
 
     @Override
     public void send(Event[] events, int streamIndex) {
-        for (Event event : events) {
-            send(event, streamIndex);
+        send(events, events.length, streamIndex);
+    }
+
+    @Override
+    public void send(Event[] events, int length, int streamIndex) {
+        try {
+            int index = 0;
+            while (index < length) {
+                int chunkSize = Math.min(length - index, bufferSize);
+                long hi = overloadController.next(chunkSize);
+                if (hi == OverloadController.REJECTED) {
+                    index += chunkSize;
+                    continue;
+                }
+                long lo = hi - (chunkSize - 1);
+                try {
+                    for (long sequenceNo = lo; sequenceNo <= hi; sequenceNo++) {
+                        IndexedEventFactory.IndexedEvent existingEvent = ringBuffer.get(sequenceNo);
+                        existingEvent.setEvent(events[index++]);
+                        existingEvent.setStreamIndex(streamIndex);
+                    }
+                } finally {
+                    ringBuffer.publish(lo, hi);
+                }
+            }
+        } catch (NullPointerException e) {
+            throw new ExecutionPlanRuntimeException("Execution Plan:" + executionPlanContext.getName() + " not " +
+                    "initialised yet! Run executionPlanRuntime.start();", e);
         }
     }
 
     @Override
     public void send(long timeStamp, Object[] data, int streamIndex) {
-        send(new Event(timeStamp, data), streamIndex);
+        try {
+            long sequenceNo = overloadController.next();
+            if (sequenceNo == OverloadController.REJECTED) {
+                return;
+            }
+            try {
+                IndexedEventFactory.IndexedEvent existingEvent = ringBuffer.get(sequenceNo);
+                existingEvent.setData(timeStamp, data);
+                existingEvent.setStreamIndex(streamIndex);
+            } finally {
+                ringBuffer.publish(sequenceNo);
+            }
+        } catch (NullPointerException e) {
+            throw new ExecutionPlanRuntimeException("Execution Plan:" + executionPlanContext.getName() + " not " +
+                    "initialised yet! Run executionPlanRuntime.start();", e);
+        }
+    }
+
+    /**
+     * Publish the event only if a ring slot is free, without waiting and regardless of the overload policy
+     *
+     * @return true if the event is accepted
+     */
+    public boolean trySend(Event event, int streamIndex) {
+        try {
+            long sequenceNo = overloadController.tryNext();
+            if (sequenceNo == OverloadController.REJECTED) {
+                return false;
+            }
+            try {
+                IndexedEventFactory.IndexedEvent existingEvent = ringBuffer.get(sequenceNo);
+                existingEvent.setEvent(event);
+                existingEvent.setStreamIndex(streamIndex);
+            } finally {
+                ringBuffer.publish(sequenceNo);
+            }
+            return true;
+        } catch (NullPointerException e) {
+            throw new ExecutionPlanRuntimeException("Execution Plan:" + executionPlanContext.getName() + " not " +
+                    "initialised yet! Run executionPlanRuntime.start();", e);
+        }
+    }
+
+    /**
+     * Publish the data only if a ring slot is free, without waiting and regardless of the overload policy
+     *
+     * @return true if the event is accepted
+     */
+    public boolean trySend(long timeStamp, Object[] data, int streamIndex) {
+        try {
+            long sequenceNo = overloadController.tryNext();
+            if (sequenceNo == OverloadController.REJECTED) {
+                return false;
+            }
+            try {
+                IndexedEventFactory.IndexedEvent existingEvent = ringBuffer.get(sequenceNo);
+                existingEvent.setData(timeStamp, data);
+                existingEvent.setStreamIndex(streamIndex);
+            } finally {
+                ringBuffer.publish(sequenceNo);
+            }
+            return true;
+        } catch (NullPointerException e) {
+            throw new ExecutionPlanRuntimeException("Execution Plan:" + executionPlanContext.getName() + " not " +
+                    "initialised yet! Run executionPlanRuntime.start();", e);
+        }
+    }
+
+    /**
+     * Claim the event slot of the calling thread for the given stream. The slot is staged outside the ring,
+     * hence a slot that fails validation or is never committed does not hold back the ring.
+     *
+     * @param streamIndex    index of the stream the event belongs to
+     * @param attributeTypes attribute types of the stream
+     * @return the claimed slot
+     */
+    public EventSlot claim(int streamIndex, Attribute.Type[] attributeTypes) {
+        StagedEventSlot[] slots = stagedSlots.get();
+        if (streamIndex >= slots.length) {
+            StagedEventSlot[] newSlots = new StagedEventSlot[streamIndex + 1];
+            System.arraycopy(slots, 0, newSlots, 0, slots.length);
+            slots = newSlots;
+            stagedSlots.set(slots);
+        }
+        StagedEventSlot slot = slots[streamIndex];
+        if (slot == null) {
+            slot = new StagedEventSlot(streamIndex);
+            slots[streamIndex] = slot;
+        }
+        slot.reset(attributeTypes);
+        return slot;
+    }
+
+    /**
+     * Publish the populated slot, a ring slot is claimed according to the overload policy and the staged
+     * attributes are handed over to it without copying
+     *
+     * @param eventSlot slot returned by {@link #claim(int, Attribute.Type[])}
+     */
+    public void commit(EventSlot eventSlot) {
+        StagedEventSlot slot = (StagedEventSlot) eventSlot;
+        try {
+            long sequenceNo = overloadController.next();
+            if (sequenceNo == OverloadController.REJECTED) {
+                return;
+            }
+            try {
+                IndexedEventFactory.IndexedEvent existingEvent = ringBuffer.get(sequenceNo);
+                slot.slotData = existingEvent.setSlotData(slot.slotData);
+                existingEvent.setStreamIndex(slot.streamIndex);
+            } finally {
+                ringBuffer.publish(sequenceNo);
+            }
+        } catch (NullPointerException e) {
+            throw new ExecutionPlanRuntimeException("Execution Plan:" + executionPlanContext.getName() + " not " +
+                    "initialised yet! Run executionPlanRuntime.start();", e);
+        }
+    }
+
+    /**
+     * Run the task on the consumer thread once the events published before it are processed
+     *
+     * @param task task to be run
+     */
+    public void execute(Runnable task) {
+        try {
+            long sequenceNo = ringBuffer.next();
+            try {
+                IndexedEventFactory.IndexedEvent existingEvent = ringBuffer.get(sequenceNo);
+                existingEvent.setTask(task);
+            } finally {
+                ringBuffer.publish(sequenceNo);
+            }
+        } catch (NullPointerException e) {
+            throw new ExecutionPlanRuntimeException("Execution Plan:" + executionPlanContext.getName() + " not " +
+                    "initialised yet! Run executionPlanRuntime.start();", e);
+        }
     }
 
     public synchronized void startProcessing() {
         ringBuffer = singleEntryDisruptor.start();
+        running = true;
     }
 
     public synchronized void stopProcessing() {
+        running = false;
         singleEntryDisruptor.shutdown();
     }
 
-    public class SingleEntryValveHandler implements EventHandler<IndexedEventFactory.IndexedEvent> {
+    public boolean isRunning() {
+        return running;
+    }
 
-        private List<Event> eventBuffer = new ArrayList<Event>();
+    /**
+     * @return true if called from the consumer thread processing the events of the ring
+     */
+    public boolean isEventLoopThread() {
+        return Thread.currentThread() == eventLoopThread;
+    }
+
+    /**
+     * @return number of events claimed in the ring that are not yet consumed
+     */
+    public long getQueueDepth() {
+        RingBuffer<IndexedEventFactory.IndexedEvent> ringBuffer = this.ringBuffer;
+        if (ringBuffer == null) {
+            return 0;
+        }
+        return ringBuffer.getBufferSize() - ringBuffer.remainingCapacity();
+    }
+
+    /**
+     * @return number of events dropped by the overload policy as the ring was full
+     */
+    public long getDroppedEventCount() {
+        return overloadController.getDroppedEvents();
+    }
+
+    /**
+     * Groups consecutive events of the same stream and sends them downstream as one array. The array and the
+     * events of the ring slots are reused once sent, the receivers that keep them, such as the stream callbacks,
+     * copy them.
+     */
+    public class SingleEntryValveHandler implements EventHandler<IndexedEventFactory.IndexedEvent>, LifecycleAware {
+
+        private final Event[] eventBuffer = new Event[bufferSize];
+        private int bufferedEvents = 0;
         private int currentIndex = -1;
+        private long count;
+        private long nextStatCount = STAT_INTERVAL;
 
         /**
          * Called when a publisher has published an event to the {@link com.lmax.disruptor.RingBuffer}
@@ -120,42 +323,72 @@ public class SingleStreamEntryValve implements InputProcessor {
          */
         @Override
         public void onEvent(IndexedEventFactory.IndexedEvent indexedEvent, long sequence, boolean endOfBatch) throws Exception {
-            if(ExecutionPlanContext.statEnable) {
-                count++;
-                if (count % 1000000 == 0) {
-                    log.info("Number of events in the disruptor:" + eventSizeInDisruptor.get()+"\nThread:"+Thread.currentThread().getName());
-                }
-            }
-            eventSizeInDisruptor.decrementAndGet();
-            int streamIndex = indexedEvent.getStreamIndex();
-            if (currentIndex != streamIndex) {
+            Runnable task = indexedEvent.getTask();
+            if (task != null) {
                 sendEvents();
-                currentIndex = streamIndex;
+                currentIndex = -1;
+                indexedEvent.setTask(null);
+                task.run();
+            } else if (!overloadController.isDiscarded(sequence)) {
+                int streamIndex = indexedEvent.getStreamIndex();
+                if (currentIndex != streamIndex) {
+                    sendEvents();
+                    currentIndex = streamIndex;
+                }
+                Event event = indexedEvent.getEvent();
+                if (event == null) {
+                    event = indexedEvent.getSlotData();
+                }
+                eventBuffer[bufferedEvents++] = event;
             }
-            eventBuffer.add(indexedEvent.getEvent());
 
             if (endOfBatch) {
                 sendEvents();
                 currentIndex = -1;
+                count = sequence + 1;
+                if (count >= nextStatCount) {
+                    nextStatCount = count + STAT_INTERVAL;
+                    if (executionPlanContext.isStatsEnabled()) {
+                        log.info("Execution plan:" + executionPlanContext.getName() + ", events received:" + count +
+                                ", events in the disruptor:" + getQueueDepth() + ", thread:" +
+                                Thread.currentThread().getName());
+                    }
+                }
             }
         }
 
+        @Override
+        public void onStart() {
+            eventLoopThread = Thread.currentThread();
+        }
+
+        @Override
+        public void onShutdown() {
+            eventLoopThread = null;
+        }
+
         private void sendEvents() {
-            int size = eventBuffer.size();
+            int size = bufferedEvents;
             switch (size) {
                 case 0: {
                     return;
                 }
                 case 1: {
-                    inputProcessor.send(eventBuffer.get(0), currentIndex);
-                    eventBuffer.clear();
-                    return;
+                    inputProcessor.send(eventBuffer[0], currentIndex);
+                    break;
                 }
                 default: {
-                    inputProcessor.send(eventBuffer.toArray(new Event[size]), currentIndex);
-                    eventBuffer.clear();
+                    if (inputProcessor instanceof BatchInputProcessor) {
+                        ((BatchInputProcessor) inputProcessor).send(eventBuffer, size, currentIndex);
+                    } else {
+                        inputProcessor.send(Arrays.copyOf(eventBuffer, size), currentIndex);
+                    }
                 }
             }
+            for (int i = 0; i < size; i++) {
+                eventBuffer[i] = null;
+            }
+            bufferedEvents = 0;
         }
 
     }
@@ -171,6 +404,9 @@ public class SingleStreamEntryValve implements InputProcessor {
 
             private int streamIndex;
             private Event event;
+            private final Event dataEvent = new Event(-1, null);
+            private SlotData slotData;
+            private Runnable task;
 
             public Event getEvent() {
                 return event;
@@ -180,6 +416,40 @@ public class SingleStreamEntryValve implements InputProcessor {
                 this.event = event;
             }
 
+            /**
+             * Wrap the data in the event owned by the slot, the event is reused once the slot is consumed
+             */
+            public void setData(long timestamp, Object[] data) {
+                dataEvent.setTimestamp(timestamp);
+                dataEvent.setData(data);
+                this.event = dataEvent;
+            }
+
+            public SlotData getSlotData() {
+                return slotData;
+            }
+
+            /**
+             * Hand over the attributes staged by a claimed slot, they are sent downstream as the event of the slot
+             *
+             * @param slotData staged attributes
+             * @return the previously held attributes, already consumed, to be reused by the claimed slot
+             */
+            SlotData setSlotData(SlotData slotData) {
+                SlotData previous = this.slotData;
+                this.slotData = slotData;
+                this.event = null;
+                return previous;
+            }
+
+            public Runnable getTask() {
+                return task;
+            }
+
+            public void setTask(Runnable task) {
+                this.task = task;
+            }
+
             public int getStreamIndex() {
                 return streamIndex;
             }
@@ -197,4 +467,202 @@ public class SingleStreamEntryValve implements InputProcessor {
             }
         }
     }
+
+    /**
+     * Attributes of a claimed event, passed downstream as the event itself. Numeric and bool values are kept
+     * unboxed and an attribute is boxed only when it is first read, hence the attributes not used by the
+     * receivers of the stream are never boxed. Numeric values are copied unboxed to the stream events of the
+     * receiving queries.
+     */
+    static class SlotData extends Event implements EventSlot, UnboxedData {
+
+        private static final Object UNBOXED = new Object();
+
+        private Attribute.Type[] attributeTypes;
+        private long[] longValues;
+        private double[] doubleValues;
+
+        private SlotData() {
+            super(0);
+        }
+
+        private void reset(Attribute.Type[] attributeTypes) {
+            if (this.attributeTypes != attributeTypes) {
+                this.attributeTypes = attributeTypes;
+                longValues = new long[attributeTypes.length];
+                doubleValues = new double[attributeTypes.length];
+                data = new Object[attributeTypes.length];
+            } else {
+                Arrays.fill(data, null);
+            }
+            timestamp = System.currentTimeMillis();
+        }
+
+        @Override
+        public Object[] getData() {
+            for (int i = 0; i < data.length; i++) {
+                if (data[i] == UNBOXED) {
+                    data[i] = box(i);
+                }
+            }
+            return data;
+        }
+
+        @Override
+        public Object getData(int i) {
+            Object value = data[i];
+            if (value == UNBOXED) {
+                value = box(i);
+                data[i] = value;
+            }
+            return value;
+        }
+
+        private Object box(int i) {
+            switch (attributeTypes[i]) {
+                case INT:
+                    return (int) longValues[i];
+                case LONG:
+                    return longValues[i];
+                case FLOAT:
+                    return (float) doubleValues[i];
+                case DOUBLE:
+                    return doubleValues[i];
+                default:
+                    return longValues[i] != 0;
+            }
+        }
+
+        @Override
+        public Attribute.Type getUnboxedType(int index) {
+            if (data[index] != UNBOXED || attributeTypes[index] == Attribute.Type.BOOL) {
+                return null;
+            }
+            return attributeTypes[index];
+        }
+
+        @Override
+        public long getLong(int index) {
+            return longValues[index];
+        }
+
+        @Override
+        public double getDouble(int index) {
+            return doubleValues[index];
+        }
+
+        private void validate(int attributeIndex, Attribute.Type type) {
+            if (attributeTypes[attributeIndex] != type) {
+                throw new ExecutionPlanRuntimeException("Attribute at index " + attributeIndex + " is of type " +
+                        attributeTypes[attributeIndex] + ", hence cannot set a value of type " + type);
+            }
+        }
+
+        @Override
+        public void setInt(int attributeIndex, int value) {
+            validate(attributeIndex, Attribute.Type.INT);
+            longValues[attributeIndex] = value;
+            data[attributeIndex] = UNBOXED;
+        }
+
+        @Override
+        public void setLong(int attributeIndex, long value) {
+            validate(attributeIndex, Attribute.Type.LONG);
+            longValues[attributeIndex] = value;
+            data[attributeIndex] = UNBOXED;
+        }
+
+        @Override
+        public void setFloat(int attributeIndex, float value) {
+            validate(attributeIndex, Attribute.Type.FLOAT);
+            doubleValues[attributeIndex] = value;
+            data[attributeIndex] = UNBOXED;
+        }
+
+        @Override
+        public void setDouble(int attributeIndex, double value) {
+            validate(attributeIndex, Attribute.Type.DOUBLE);
+            doubleValues[attributeIndex] = value;
+            data[attributeIndex] = UNBOXED;
+        }
+
+        @Override
+        public void setBool(int attributeIndex, boolean value) {
+            validate(attributeIndex, Attribute.Type.BOOL);
+            longValues[attributeIndex] = value ? 1 : 0;
+            data[attributeIndex] = UNBOXED;
+        }
+
+        @Override
+        public void setString(int attributeIndex, String value) {
+            validate(attributeIndex, Attribute.Type.STRING);
+            data[attributeIndex] = value;
+        }
+
+        @Override
+        public void setObject(int attributeIndex, Object value) {
+            data[attributeIndex] = value;
+        }
+    }
+
+    /**
+     * Event slot staged per publishing thread and stream, validated values are written to it before any ring
+     * slot is claimed
+     */
+    private static class StagedEventSlot implements EventSlot {
+
+        private final int streamIndex;
+        private SlotData slotData;
+
+        private StagedEventSlot(int streamIndex) {
+            this.streamIndex = streamIndex;
+        }
+
+        private void reset(Attribute.Type[] attributeTypes) {
+            if (slotData == null) {
+                slotData = new SlotData();
+            }
+            slotData.reset(attributeTypes);
+        }
+
+        @Override
+        public void setTimestamp(long timestamp) {
+            slotData.setTimestamp(timestamp);
+        }
+
+        @Override
+        public void setInt(int attributeIndex, int value) {
+            slotData.setInt(attributeIndex, value);
+        }
+
+        @Override
+        public void setLong(int attributeIndex, long value) {
+            slotData.setLong(attributeIndex, value);
+        }
+
+        @Override
+        public void setFloat(int attributeIndex, float value) {
+            slotData.setFloat(attributeIndex, value);
+        }
+
+        @Override
+        public void setDouble(int attributeIndex, double value) {
+            slotData.setDouble(attributeIndex, value);
+        }
+
+        @Override
+        public void setBool(int attributeIndex, boolean value) {
+            slotData.setBool(attributeIndex, value);
+        }
+
+        @Override
+        public void setString(int attributeIndex, String value) {
+            slotData.setString(attributeIndex, value);
+        }
+
+        @Override
+        public void setObject(int attributeIndex, Object value) {
+            slotData.setObject(attributeIndex, value);
+        }
+    }
 }
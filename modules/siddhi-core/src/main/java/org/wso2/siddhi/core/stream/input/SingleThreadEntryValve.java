@@ -18,13 +18,14 @@ package org.wso2.siddhi.core.stream.input;
 import org.wso2.siddhi.core.config.ExecutionPlanContext;
 import org.wso2.siddhi.core.event.Event;
 
+import java.util.Arrays;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Created on 11/28/14.
  */
-public class SingleThreadEntryValve implements InputProcessor {
+public class SingleThreadEntryValve implements BatchInputProcessor {
 
     private Lock lock;
     private InputProcessor inputProcessor;
@@ -58,6 +59,20 @@ public class SingleThreadEntryValve implements InputProcessor {
         }
     }
 
+    @Override
+    public void send(Event[] events, int length, int streamIndex) {
+        if (!(inputProcessor instanceof BatchInputProcessor)) {
+            send(Arrays.copyOf(events, length), streamIndex);
+            return;
+        }
+        lock.lock();
+        try {
+            ((BatchInputProcessor) inputProcessor).send(events, length, streamIndex);
+        } finally {
+            lock.unlock();
+        }
+    }
+
     @Override
     public void send(long timeStamp, Object[] data, int streamIndex) {
         lock.lock();
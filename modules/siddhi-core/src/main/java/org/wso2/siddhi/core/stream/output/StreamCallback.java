@@ -17,22 +17,23 @@ package org.wso2.siddhi.core.stream.output;
 import com.lmax.disruptor.EventFactory;
 import com.lmax.disruptor.EventHandler;
 import com.lmax.disruptor.RingBuffer;
-import com.lmax.disruptor.SleepingWaitStrategy;
 import com.lmax.disruptor.dsl.Disruptor;
 import com.lmax.disruptor.dsl.ProducerType;
 import org.apache.log4j.Logger;
+import org.wso2.siddhi.core.config.DisruptorConfig;
 import org.wso2.siddhi.core.config.ExecutionPlanContext;
 import org.wso2.siddhi.core.event.ComplexEvent;
 import org.wso2.siddhi.core.event.Event;
 import org.wso2.siddhi.core.stream.StreamJunction;
+import org.wso2.siddhi.core.util.disruptor.OverloadController;
+import org.wso2.siddhi.core.util.parser.DisruptorConfigParser;
 import org.wso2.siddhi.query.api.definition.AbstractDefinition;
 
-import java.lang.reflect.Constructor;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
-public abstract class StreamCallback implements StreamJunction.Receiver {
+public abstract class StreamCallback implements StreamJunction.BatchReceiver {
 
     private static final Logger log = Logger.getLogger(StreamCallback.class);
 
@@ -41,9 +42,11 @@ public abstract class StreamCallback implements StreamJunction.Receiver {
     private List<Event> eventBuffer = new ArrayList<Event>();
     private ExecutionPlanContext executionPlanContext;
     private AsyncEventHandler asyncEventHandler;
+    private String receiverGroup;
 
     private Disruptor<EventHolder> disruptor;
     private RingBuffer<EventHolder> ringBuffer;
+    private OverloadController overloadController;
 
 
     @Override
@@ -63,6 +66,20 @@ public abstract class StreamCallback implements StreamJunction.Receiver {
         this.executionPlanContext = executionPlanContext;
     }
 
+    public String getReceiverGroup() {
+        return receiverGroup;
+    }
+
+    /**
+     * Set the receiver group of this callback, on a parallel stream each receiver group consumes its own ring,
+     * hence a slow callback in a separate group does not hold back the queries of the stream
+     *
+     * @param receiverGroup name of the group, the default group is used when not set
+     */
+    public void setReceiverGroup(String receiverGroup) {
+        this.receiverGroup = receiverGroup;
+    }
+
     @Override
     public void receive(ComplexEvent complexEvent) {
 
@@ -80,6 +97,7 @@ public abstract class StreamCallback implements StreamJunction.Receiver {
 
     @Override
     public void receive(Event event) {
+        event = new Event(event.getData().length).copyFrom(event);
         if (disruptor == null) {
             receiveSync(new Event[]{event});
         } else {
@@ -89,7 +107,7 @@ public abstract class StreamCallback implements StreamJunction.Receiver {
 
     @Override
     public void receive(Event event, boolean endOfBatch) {
-        eventBuffer.add(event);
+        eventBuffer.add(new Event(event.getData().length).copyFrom(event));
         if (endOfBatch) {
             receiveSync(eventBuffer.toArray(new Event[eventBuffer.size()]));
             eventBuffer.clear();
@@ -97,10 +115,30 @@ public abstract class StreamCallback implements StreamJunction.Receiver {
     }
 
     public void receive(long timeStamp, Object[] data) {
+        Event event = new Event(timeStamp, data.clone());
+        if (disruptor == null) {
+            receiveSync(new Event[]{event});
+        } else {
+            receiveAsync(new Event[]{event});
+        }
+    }
+
+    /**
+     * Copy the events handed over by the junction, the callback can keep the copies
+     *
+     * @param events events to be received, reused by the junction once the call returns
+     * @param length number of events at the start of the array to be received
+     */
+    @Override
+    public void receive(Event[] events, int length) {
+        Event[] copiedEvents = new Event[length];
+        for (int i = 0; i < length; i++) {
+            copiedEvents[i] = new Event(events[i].getData().length).copyFrom(events[i]);
+        }
         if (disruptor == null) {
-            receiveSync(new Event[]{new Event(timeStamp, data)});
+            receiveSync(copiedEvents);
         } else {
-            receiveAsync(new Event[]{new Event(timeStamp, data)});
+            receiveAsync(copiedEvents);
         }
     }
 
@@ -115,7 +153,10 @@ public abstract class StreamCallback implements StreamJunction.Receiver {
     public abstract void receive(Event[] events);
 
     private void receiveAsync(Event[] events) {
-        long sequenceNo = ringBuffer.next();
+        long sequenceNo = overloadController.next();
+        if (sequenceNo == OverloadController.REJECTED) {
+            return;
+        }
         try {
             EventHolder eventHolder = ringBuffer.get(sequenceNo);
             eventHolder.events = events;
@@ -127,35 +168,28 @@ public abstract class StreamCallback implements StreamJunction.Receiver {
     public synchronized void startProcessing() {
         Boolean asyncEnabled = null;
         if (asyncEnabled != null && asyncEnabled || asyncEnabled == null) {
-            for (Constructor constructor : Disruptor.class.getConstructors()) {
-                if (constructor.getParameterTypes().length == 5) {      //if new disruptor classes available
-                    disruptor = new Disruptor<EventHolder>(new EventFactory<EventHolder>() {
-                        @Override
-                        public EventHolder newInstance() {
-                            return new EventHolder();
-                        }
-                    },
-                            executionPlanContext.getSiddhiContext().getEventBufferSize(),
-                            executionPlanContext.getExecutorService(), ProducerType.SINGLE, new SleepingWaitStrategy());
-                    break;
+            DisruptorConfig disruptorConfig = DisruptorConfigParser.parse(streamDefinition.getAnnotations(),
+                    executionPlanContext.getDisruptorConfig());
+            disruptor = disruptorConfig.createDisruptor(new EventFactory<EventHolder>() {
+                @Override
+                public EventHolder newInstance() {
+                    return new EventHolder();
                 }
-            }
-            if (disruptor == null) {
-                disruptor = new Disruptor<EventHolder>(new EventFactory<EventHolder>() {
-                    @Override
-                    public EventHolder newInstance() {
-                        return new EventHolder();
-                    }
-                },
-                        executionPlanContext.getSiddhiContext().getEventBufferSize(),
-                        executionPlanContext.getExecutorService());
-            }
-            asyncEventHandler = new AsyncEventHandler(this);
+            }, executionPlanContext.getExecutorService(), ProducerType.SINGLE);
+            overloadController = new OverloadController(disruptor.getRingBuffer(), disruptorConfig);
+            asyncEventHandler = new AsyncEventHandler(this, overloadController);
             disruptor.handleEventsWith(asyncEventHandler);
             ringBuffer = disruptor.start();
         }
     }
 
+    /**
+     * @return number of events dropped by the overload policy as the callback ring was full
+     */
+    public long getDroppedEventCount() {
+        return overloadController == null ? 0 : overloadController.getDroppedEvents();
+    }
+
     public synchronized void stopProcessing() {
         if (disruptor != null) {
             asyncEventHandler.streamCallback = null;
@@ -166,9 +200,11 @@ public abstract class StreamCallback implements StreamJunction.Receiver {
     public class AsyncEventHandler implements EventHandler<EventHolder> {
 
         private StreamCallback streamCallback;
+        private final OverloadController overloadController;
 
-        public AsyncEventHandler(StreamCallback streamCallback) {
+        public AsyncEventHandler(StreamCallback streamCallback, OverloadController overloadController) {
             this.streamCallback = streamCallback;
+            this.overloadController = overloadController;
         }
 
         /**
@@ -181,7 +217,7 @@ public abstract class StreamCallback implements StreamJunction.Receiver {
          */
         @Override
         public void onEvent(EventHolder eventHolder, long sequence, boolean endOfBatch) throws Exception {
-            if (streamCallback != null) {
+            if (streamCallback != null && !overloadController.isDiscarded(sequence)) {
                 streamCallback.receive(eventHolder.events);
             }
         }
@@ -25,6 +25,7 @@ import org.wso2.siddhi.core.event.stream.StreamEventCloner;
 import org.wso2.siddhi.core.event.stream.StreamEventPool;
 import org.wso2.siddhi.core.exception.OperationNotSupportedException;
 import org.wso2.siddhi.core.executor.VariableExpressionExecutor;
+import org.wso2.siddhi.core.query.processor.stream.window.ReleasableFinder;
 import org.wso2.siddhi.core.util.SiddhiConstants;
 import org.wso2.siddhi.core.util.collection.operator.Finder;
 import org.wso2.siddhi.core.util.collection.operator.Operator;
@@ -41,7 +42,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 
-public class InMemoryEventTable implements EventTable {
+public class InMemoryEventTable implements EventTable, ReleasableFinder {
 
     private final TableDefinition tableDefinition;
     private final ExecutionPlanContext executionPlanContext;
@@ -97,9 +98,9 @@ public class InMemoryEventTable implements EventTable {
             StreamEvent streamEvent = addingEventChunk.next();
             StreamEvent clonedEvent = streamEventCloner.copyStreamEvent(streamEvent);
             if (indexAttribute != null) {
-                treeMap.put(clonedEvent.getOutputData()[indexPosition], streamEvent);
+                treeMap.put(clonedEvent.getOutputData()[indexPosition], clonedEvent);
             } else {
-                list.add(streamEvent);
+                list.add(clonedEvent);
             }
         }
     }
@@ -139,6 +140,11 @@ public class InMemoryEventTable implements EventTable {
 
     }
 
+    @Override
+    public void releaseFoundEvents(StreamEvent foundEvents) {
+        streamEventCloner.returnEvents(foundEvents);
+    }
+
     public Finder constructFinder(Expression expression, MetaComplexEvent metaComplexEvent, ExecutionPlanContext executionPlanContext, List<VariableExpressionExecutor> variableExpressionExecutors, Map<String, EventTable> eventTableMap, int matchingStreamIndex, long withinTime) {
         return CollectionOperatorParser.parse(expression, metaComplexEvent, executionPlanContext, variableExpressionExecutors, eventTableMap, matchingStreamIndex, tableDefinition, withinTime, indexAttribute);
     }
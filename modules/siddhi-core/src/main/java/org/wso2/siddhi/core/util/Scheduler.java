@@ -15,7 +15,6 @@
 
 package org.wso2.siddhi.core.util;
 
-import org.apache.log4j.Logger;
 import org.wso2.siddhi.core.config.ExecutionPlanContext;
 import org.wso2.siddhi.core.event.ComplexEventChunk;
 import org.wso2.siddhi.core.event.stream.StreamEvent;
@@ -25,55 +24,48 @@ import org.wso2.siddhi.core.event.stream.converter.StreamEventConverter;
 import org.wso2.siddhi.core.query.input.stream.single.SingleThreadEntryValveProcessor;
 import org.wso2.siddhi.core.util.snapshot.Snapshotable;
 
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 /**
- * Created on 12/3/14.
+ * Sends TIMER events to a {@link Schedulable} at the requested times, through the {@link TimerWheel} of the
+ * execution plan.
  */
 public class Scheduler implements Snapshotable {
 
-    private static final Logger log = Logger.getLogger(Scheduler.class);
-    private final BlockingQueue<Long> toNotifyQueue = new LinkedBlockingQueue<Long>();
-    private ScheduledExecutorService scheduledExecutorService;
-    private EventCaller eventCaller;
-    private volatile boolean running = false;
+    private final TimerWheel timerWheel;
+    private final Schedulable singleThreadEntryValve;
+    // Guarded by the timer wheel
+    final Set<Long> pendingTicks = new HashSet<Long>(4);
+    // Due ticks of the TIMER event handed over to the executor and not yet sent, null when there is no such event
+    List<Long> dispatchedTicks;
     private StreamEventPool streamEventPool;
     private ComplexEventChunk<StreamEvent> streamEventChunk;
     private ExecutionPlanContext executionPlanContext;
     private String elementId;
 
 
-    public Scheduler(ScheduledExecutorService scheduledExecutorService, Schedulable singleThreadEntryValve) {
-        this.scheduledExecutorService = scheduledExecutorService;
-        eventCaller = new EventCaller(singleThreadEntryValve);
+    public Scheduler(TimerWheel timerWheel, Schedulable singleThreadEntryValve) {
+        this.timerWheel = timerWheel;
+        this.singleThreadEntryValve = singleThreadEntryValve;
     }
 
     public void notifyAt(long time) {
-        try {
-            toNotifyQueue.put(time);
-
-            if (!running && toNotifyQueue.size() == 1) {
-                synchronized (toNotifyQueue) {
-                    if (!running) {
-                        running = true;
-                        long timeDiff = time - System.currentTimeMillis(); //todo fix
-                        if (timeDiff > 0) {
-                            scheduledExecutorService.schedule(eventCaller, timeDiff, TimeUnit.MILLISECONDS);
-                        } else {
-                            scheduledExecutorService.schedule(eventCaller, 0, TimeUnit.MILLISECONDS);
-                        }
-                    }
-                }
-            }
+        timerWheel.schedule(this, time);
+    }
 
-        } catch (InterruptedException e) {
-            log.error("Error when adding time:" + time + " to TimeNotifier ", e);//todo improve
+    synchronized void sendTimerEvent() {
+        StreamEvent timerEvent = streamEventPool.borrowEvent();
+        timerEvent.setType(StreamEvent.Type.TIMER);
+        timerEvent.setTimestamp(System.currentTimeMillis());
+        streamEventChunk.add(timerEvent);
+        try {
+            singleThreadEntryValve.process(streamEventChunk);
+        } finally {
+            streamEventChunk.clear();
         }
-
-
     }
 
     public void setStreamEventPool(StreamEventPool streamEventPool) {
@@ -91,13 +83,13 @@ public class Scheduler implements Snapshotable {
 
     @Override
     public Object[] currentState() {
-        return new Object[]{toNotifyQueue};
+        return new Object[]{timerWheel.getNotifyTimes(this)};
     }
 
     @Override
     public void restoreState(Object[] state) {
-        BlockingQueue<Long> restoreToNotifyQueue = (BlockingQueue<Long>) state[0];
-        for (Long time : restoreToNotifyQueue) {
+        Collection<Long> restoreNotifyTimes = (Collection<Long>) state[0];
+        for (Long time : restoreNotifyTimes) {
             notifyAt(time);
         }
     }
@@ -108,62 +100,9 @@ public class Scheduler implements Snapshotable {
     }
 
     public Scheduler clone(String key, SingleThreadEntryValveProcessor singleThreadEntryValveProcessor) {
-        Scheduler scheduler = new Scheduler(scheduledExecutorService, singleThreadEntryValveProcessor);
+        Scheduler scheduler = new Scheduler(timerWheel, singleThreadEntryValveProcessor);
         scheduler.elementId = elementId + "-" + key;
         scheduler.init(executionPlanContext);
         return scheduler;
     }
-
-    private class EventCaller implements Runnable {
-        private Schedulable singleThreadEntryValve;
-
-        public EventCaller(Schedulable singleThreadEntryValve) {
-
-            this.singleThreadEntryValve = singleThreadEntryValve;
-        }
-
-        /**
-         * When an object implementing interface <code>Runnable</code> is used
-         * to create a thread, starting the thread causes the object's
-         * <code>run</code> method to be called in that separately executing
-         * thread.
-         * <p/>
-         * The general contract of the method <code>run</code> is that it may
-         * take any action whatsoever.
-         *
-         * @see Thread#run()
-         */
-        @Override
-        public void run() {
-            Long toNotifyTime = toNotifyQueue.peek();
-            long currentTime = System.currentTimeMillis();
-            while (toNotifyTime != null && toNotifyTime - currentTime <= 0) {
-
-                toNotifyQueue.poll();
-
-                StreamEvent timerEvent = streamEventPool.borrowEvent();
-                timerEvent.setType(StreamEvent.Type.TIMER);
-                timerEvent.setTimestamp(currentTime);
-                streamEventChunk.add(timerEvent);
-                singleThreadEntryValve.process(streamEventChunk);
-                streamEventChunk.clear();
-
-                toNotifyTime = toNotifyQueue.peek();
-                currentTime = System.currentTimeMillis();
-
-            }
-            if (toNotifyTime != null) {
-                scheduledExecutorService.schedule(eventCaller, currentTime - toNotifyTime, TimeUnit.MILLISECONDS);
-            } else {
-                synchronized (toNotifyQueue) {
-                    running = false;
-                    if (toNotifyQueue.peek() != null) {
-                        running = true;
-                        scheduledExecutorService.schedule(eventCaller, 0, TimeUnit.MILLISECONDS);
-                    }
-                }
-            }
-        }
-
-    }
 }
@@ -32,16 +32,52 @@ public final class SiddhiConstants {
     public static final String ANNOTATION_PLAYBACK = "Playback";
     public static final String ANNOTATION_ENFORCE_ORDER = "EnforceOrder";
     public static final String ANNOTATION_PARALLEL = "Parallel";
+    public static final String ANNOTATION_EVENT_LOOP = "EventLoop";
+    public static final String ANNOTATION_PIPELINE = "Pipeline";
+    public static final String ANNOTATION_COMPILE = "Compile";
+    public static final String ANNOTATION_STATISTICS = "Statistics";
 
     public static final String ANNOTATION_INDEX_BY = "IndexBy";
 
-    //    public static final String ANNOTATION_CONFIG = "config";
+    public static final String ANNOTATION_CONFIG = "config";
 //    public static final String ANNOTATION_INFO = "info";
 //    public static final String ASYNC = "async";
     public static final String TRUE = "true";
 
+    public static final String ANNOTATION_ELEMENT_BUFFER_SIZE = "buffer.size";
+    public static final String ANNOTATION_ELEMENT_WAIT_STRATEGY = "wait.strategy";
+    public static final String ANNOTATION_ELEMENT_WAIT_TIMEOUT = "wait.timeout";
+    public static final String ANNOTATION_ELEMENT_PRODUCER_TYPE = "producer.type";
+    public static final String ANNOTATION_ELEMENT_OVERLOAD_POLICY = "overload.policy";
+    public static final String ANNOTATION_ELEMENT_OVERLOAD_TIMEOUT = "overload.timeout";
+    public static final String ANNOTATION_ELEMENT_SPILL_DIRECTORY = "spill.directory";
+    public static final String ANNOTATION_ELEMENT_RECEIVER_GROUP = "receiver.group";
+    public static final String ANNOTATION_ELEMENT_TIMER_TICK = "timer.tick";
+
+    public static final String WAIT_STRATEGY_BUSY_SPIN = "busy.spin";
+    public static final String WAIT_STRATEGY_YIELDING = "yielding";
+    public static final String WAIT_STRATEGY_SLEEPING = "sleeping";
+    public static final String WAIT_STRATEGY_BLOCKING = "blocking";
+    public static final String WAIT_STRATEGY_TIMEOUT_BLOCKING = "timeout.blocking";
+
+    public static final String PRODUCER_TYPE_SINGLE = "single";
+    public static final String PRODUCER_TYPE_MULTI = "multi";
+
+    public static final String OVERLOAD_POLICY_BLOCK = "block";
+    public static final String OVERLOAD_POLICY_BLOCK_TIMEOUT = "block.timeout";
+    public static final String OVERLOAD_POLICY_DROP_NEWEST = "drop.newest";
+    public static final String OVERLOAD_POLICY_DROP_OLDEST = "drop.oldest";
+    public static final String OVERLOAD_POLICY_SPILL = "spill";
+
+    public static final String WINDOW_STORE_OFF_HEAP = "off.heap";
 
     public static final int DEFAULT_EVENT_BUFFER_SIZE = 1024;
+    public static final long DEFAULT_WAIT_TIMEOUT = 1;
+    public static final long DEFAULT_OVERLOAD_TIMEOUT = 100;
+    public static final String DEFAULT_RECEIVER_GROUP = "default";
+    public static final String DEFAULT_THREAD_GROUP = "Siddhi";
+    public static final int DEFAULT_SCHEDULER_THREADS = 5;
+    public static final long DEFAULT_TIMER_TICK = 1;
 
     public static final int HAVING_STATE = -2;
     public static final int UNKNOWN_STATE = -1;
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.util;
+
+import org.wso2.siddhi.core.config.ThreadAffinity;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates named threads of a thread group, optionally pinning each of them to the next CPU
+ * of the given list.
+ */
+public class SiddhiThreadFactory implements ThreadFactory {
+
+    private final ThreadGroup threadGroup;
+    private final String namePrefix;
+    private final ThreadAffinity threadAffinity;
+    private final int[] cpuIds;
+    private final AtomicInteger threadCount = new AtomicInteger(0);
+
+    public SiddhiThreadFactory(ThreadGroup threadGroup, String namePrefix) {
+        this(threadGroup, namePrefix, null, null);
+    }
+
+    /**
+     * @param threadGroup    group of the created threads
+     * @param namePrefix     prefix of the thread names, followed by the thread number
+     * @param threadAffinity affinity used to pin the threads, null when they are not pinned
+     * @param cpuIds         CPUs assigned to the threads in round robin, null to use all the available CPUs
+     */
+    public SiddhiThreadFactory(ThreadGroup threadGroup, String namePrefix, ThreadAffinity threadAffinity,
+                               int[] cpuIds) {
+        this.threadGroup = threadGroup;
+        this.namePrefix = namePrefix;
+        this.threadAffinity = threadAffinity;
+        if (threadAffinity != null && (cpuIds == null || cpuIds.length == 0)) {
+            cpuIds = new int[Runtime.getRuntime().availableProcessors()];
+            for (int i = 0; i < cpuIds.length; i++) {
+                cpuIds[i] = i;
+            }
+        }
+        this.cpuIds = cpuIds;
+    }
+
+    @Override
+    public Thread newThread(final Runnable runnable) {
+        int threadNumber = threadCount.getAndIncrement();
+        Runnable task = runnable;
+        if (threadAffinity != null) {
+            final int cpuId = cpuIds[threadNumber % cpuIds.length];
+            task = new Runnable() {
+                @Override
+                public void run() {
+                    threadAffinity.bindCurrentThread(cpuId);
+                    runnable.run();
+                }
+            };
+        }
+        return new Thread(threadGroup, task, namePrefix + "-" + threadNumber);
+    }
+}
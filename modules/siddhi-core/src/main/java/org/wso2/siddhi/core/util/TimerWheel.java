@@ -0,0 +1,332 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.util;
+
+import org.apache.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hierarchical timing wheel shared by all the {@link Scheduler}s of an execution plan. Notify times are rounded
+ * up to the tick resolution, each scheduler keeps at most one timer per tick, and the schedulers that are due at a
+ * tick are collected in one pass of a single timer task, which hands their TIMER events over to the timer event
+ * executor so that a slow query only holds one of its threads. A scheduler has at most one TIMER event waiting in
+ * the executor, as that event already covers the ticks that fall due before it is sent.
+ * <p/>
+ * The timer event executor should queue the tasks it cannot run right away, as the scheduled executor service of
+ * the execution plan does. The consumer executor is not suitable, its threads are held by the disruptor consumers.
+ * <p/>
+ * The wheel has 4 levels of 256 slots, level n holding the timers that are due within 256^(n+1) ticks, and the
+ * slots of a level are moved down to the lower levels when the lower level completes a rotation.
+ */
+public class TimerWheel {
+
+    private static final Logger log = Logger.getLogger(TimerWheel.class);
+    private static final int WHEEL_BITS = 8;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_DELTA = (1L << (WHEEL_BITS * LEVELS)) - 1;
+
+    private final ScheduledExecutorService scheduledExecutorService;
+    private final Executor timerEventExecutor;
+    private final long tickMillis;
+    private final Timer[][] wheels = new Timer[LEVELS][WHEEL_SIZE];
+    private final int[] levelSizes = new int[LEVELS];
+    private final Runnable ticker = new Runnable() {
+        @Override
+        public void run() {
+            tick();
+        }
+    };
+    private int size;
+    // Ticks before the current tick are already processed
+    private long currentTick;
+    private long nextRunTick = Long.MAX_VALUE;
+    private ScheduledFuture<?> nextRun;
+    private boolean shutdown;
+
+    /**
+     * @param scheduledExecutorService executor running the timer task and sending the TIMER events
+     * @param tickMillis               resolution of the notify times in milliseconds
+     */
+    public TimerWheel(ScheduledExecutorService scheduledExecutorService, long tickMillis) {
+        this(scheduledExecutorService, scheduledExecutorService, tickMillis);
+    }
+
+    /**
+     * @param scheduledExecutorService executor running the timer task
+     * @param timerEventExecutor       executor sending the TIMER events to the due schedulers, queueing the ones
+     *                                 it cannot send right away
+     * @param tickMillis               resolution of the notify times in milliseconds
+     */
+    public TimerWheel(ScheduledExecutorService scheduledExecutorService, Executor timerEventExecutor,
+                      long tickMillis) {
+        if (tickMillis < 1) {
+            throw new IllegalArgumentException("Timer tick should be a positive number of milliseconds, but found " +
+                    tickMillis);
+        }
+        this.scheduledExecutorService = scheduledExecutorService;
+        this.timerEventExecutor = timerEventExecutor;
+        this.tickMillis = tickMillis;
+        this.currentTick = System.currentTimeMillis() / tickMillis;
+    }
+
+    /**
+     * Send a TIMER event to the scheduler at the first tick at or after the given time, unless the scheduler is
+     * already notified at that tick
+     *
+     * @param scheduler scheduler to be notified
+     * @param time      time in milliseconds
+     */
+    public synchronized void schedule(Scheduler scheduler, long time) {
+        if (shutdown) {
+            return;
+        }
+        long tick = (time + tickMillis - 1) / tickMillis;
+        if (!scheduler.pendingTicks.add(tick)) {
+            return;
+        }
+        if (size == 0) {
+            // Nothing to expire in between, skip the idle ticks
+            currentTick = Math.max(currentTick, System.currentTimeMillis() / tickMillis);
+        }
+        insert(new Timer(scheduler, tick));
+        size++;
+        scheduleRun(Math.max(tick, currentTick));
+    }
+
+    /**
+     * @param scheduler scheduler to be checked
+     * @return the times the scheduler is going to be notified at
+     */
+    public synchronized List<Long> getNotifyTimes(Scheduler scheduler) {
+        List<Long> notifyTimes = new ArrayList<Long>(scheduler.pendingTicks.size());
+        for (Long tick : scheduler.pendingTicks) {
+            notifyTimes.add(tick * tickMillis);
+        }
+        return notifyTimes;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    /**
+     * Drop all the timers, the schedulers are not notified afterwards
+     */
+    public synchronized void shutdown() {
+        shutdown = true;
+        if (nextRun != null) {
+            nextRun.cancel(false);
+            nextRun = null;
+        }
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < WHEEL_SIZE; slot++) {
+                for (Timer timer = wheels[level][slot]; timer != null; timer = timer.next) {
+                    timer.scheduler.pendingTicks.remove(timer.tick);
+                }
+                wheels[level][slot] = null;
+            }
+            levelSizes[level] = 0;
+        }
+        size = 0;
+    }
+
+    private void tick() {
+        List<TimerEventSender> timerEventSenders = new ArrayList<TimerEventSender>();
+        synchronized (this) {
+            nextRun = null;
+            nextRunTick = Long.MAX_VALUE;
+            if (shutdown) {
+                return;
+            }
+            long nowTick = System.currentTimeMillis() / tickMillis;
+            while (currentTick <= nowTick) {
+                if (size == 0) {
+                    currentTick = nowTick + 1;
+                    break;
+                }
+                int slot = (int) (currentTick & WHEEL_MASK);
+                if (slot == 0) {
+                    cascade();
+                }
+                if (levelSizes[0] == 0) {
+                    // Nothing is due till the end of this rotation
+                    currentTick = Math.min((currentTick | WHEEL_MASK) + 1, nowTick + 1);
+                    continue;
+                }
+                for (Timer timer = wheels[0][slot]; timer != null; timer = timer.next) {
+                    levelSizes[0]--;
+                    size--;
+                    // The tick stays pending till its TIMER event is sent
+                    Scheduler scheduler = timer.scheduler;
+                    if (scheduler.dispatchedTicks == null) {
+                        scheduler.dispatchedTicks = new ArrayList<Long>(2);
+                        timerEventSenders.add(new TimerEventSender(scheduler, scheduler.dispatchedTicks));
+                    }
+                    scheduler.dispatchedTicks.add(timer.tick);
+                }
+                wheels[0][slot] = null;
+                currentTick++;
+            }
+            if (size > 0) {
+                scheduleRun(nextDueTick());
+            }
+        }
+        for (TimerEventSender timerEventSender : timerEventSenders) {
+            try {
+                timerEventExecutor.execute(timerEventSender);
+            } catch (RejectedExecutionException e) {
+                reschedule(timerEventSender);
+                log.warn("Cannot send the timer event of " + timerEventSender.scheduler.getElementId() +
+                        " now, retrying at the next tick, " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Put the ticks of a TIMER event the executor did not accept back to the wheel, they fall due at the next tick
+     */
+    private synchronized void reschedule(TimerEventSender timerEventSender) {
+        Scheduler scheduler = timerEventSender.scheduler;
+        if (shutdown || scheduler.dispatchedTicks != timerEventSender.ticks) {
+            return;
+        }
+        scheduler.dispatchedTicks = null;
+        for (Long tick : timerEventSender.ticks) {
+            insert(new Timer(scheduler, tick));
+            size++;
+        }
+        scheduleRun(currentTick);
+    }
+
+    /**
+     * Move the timers of the slots of the higher levels that start at the current tick to the lower levels
+     */
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            int slot = (int) ((currentTick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+            Timer timer = wheels[level][slot];
+            wheels[level][slot] = null;
+            while (timer != null) {
+                Timer next = timer.next;
+                levelSizes[level]--;
+                insert(timer);
+                timer = next;
+            }
+            if (slot != 0) {
+                break;
+            }
+        }
+    }
+
+    private void insert(Timer timer) {
+        long tick = Math.max(timer.tick, currentTick);
+        long delta = tick - currentTick;
+        if (delta > MAX_DELTA) {
+            // Parked at the far end of the wheel and placed again when cascaded
+            delta = MAX_DELTA;
+            tick = currentTick + MAX_DELTA;
+        }
+        int level = 0;
+        while (delta >= 1L << (WHEEL_BITS * (level + 1))) {
+            level++;
+        }
+        int slot = (int) ((tick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+        timer.next = wheels[level][slot];
+        wheels[level][slot] = timer;
+        levelSizes[level]++;
+    }
+
+    /**
+     * @return the next tick having timers in the lowest level, or the start of the next rotation where the higher
+     * levels have to be cascaded
+     */
+    private long nextDueTick() {
+        if ((currentTick & WHEEL_MASK) == 0) {
+            return currentTick;
+        }
+        long rotationEnd = (currentTick | WHEEL_MASK) + 1;
+        if (levelSizes[0] > 0) {
+            for (long tick = currentTick; tick < rotationEnd; tick++) {
+                if (wheels[0][(int) (tick & WHEEL_MASK)] != null) {
+                    return tick;
+                }
+            }
+        }
+        return rotationEnd;
+    }
+
+    private void scheduleRun(long tick) {
+        if (nextRun != null) {
+            if (nextRunTick <= tick) {
+                return;
+            }
+            nextRun.cancel(false);
+        }
+        long delay = tick * tickMillis - System.currentTimeMillis();
+        nextRunTick = tick;
+        nextRun = scheduledExecutorService.schedule(ticker, delay > 0 ? delay : 0, TimeUnit.MILLISECONDS);
+    }
+
+    private class TimerEventSender implements Runnable {
+        private final Scheduler scheduler;
+        private final List<Long> ticks;
+
+        private TimerEventSender(Scheduler scheduler, List<Long> ticks) {
+            this.scheduler = scheduler;
+            this.ticks = ticks;
+        }
+
+        @Override
+        public void run() {
+            synchronized (TimerWheel.this) {
+                // Ticks falling due from now on need a TIMER event of their own
+                scheduler.pendingTicks.removeAll(ticks);
+                scheduler.dispatchedTicks = null;
+                if (shutdown) {
+                    return;
+                }
+            }
+            try {
+                scheduler.sendTimerEvent();
+            } catch (Throwable t) {
+                log.error("Error when sending the timer event of " + scheduler.getElementId(), t);
+            }
+        }
+    }
+
+    private static class Timer {
+        private final Scheduler scheduler;
+        private final long tick;
+        private Timer next;
+
+        private Timer(Scheduler scheduler, long tick) {
+            this.scheduler = scheduler;
+            this.tick = tick;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.util.collection;
+
+/**
+ * Count-Min sketch estimating how often 64 bit hashed keys occur in a stream, in memory fixed by the error bound.
+ * With width ceil(e / error) and depth ceil(ln(1 / (1 - confidence))), an estimate never underestimates the real
+ * count, and overestimates it by more than error * n after n added keys with probability at most 1 - confidence.
+ * The row indexes of a key are derived from the two halves of its hash (Kirsch-Mitzenmacher), and counters are
+ * updated conservatively, raising only the counters below the new estimate, which keeps the same bounds with a
+ * smaller overestimation. A sketch is not thread safe.
+ */
+public class CountMinSketch {
+
+    private final int width;
+    private final int depth;
+    private final long[] counters;
+    private final int[] indexes;
+
+    /**
+     * @param error      maximum overestimation relative to the number of added keys, between 0 and 1
+     * @param confidence probability of an estimate being within the error, between 0 and 1
+     */
+    public CountMinSketch(double error, double confidence) {
+        if (error <= 0 || error >= 1) {
+            throw new IllegalArgumentException("Error should be between 0 and 1, but found " + error);
+        }
+        if (confidence <= 0 || confidence >= 1) {
+            throw new IllegalArgumentException("Confidence should be between 0 and 1, but found " + confidence);
+        }
+        this.width = (int) Math.ceil(Math.E / error);
+        this.depth = (int) Math.ceil(Math.log(1 / (1 - confidence)));
+        this.counters = new long[width * depth];
+        this.indexes = new int[depth];
+    }
+
+    /**
+     * Counts one occurrence of a key.
+     *
+     * @param hash 64 bit hash of the key
+     * @return the estimated count of the key, including this occurrence
+     */
+    public long add(long hash) {
+        long estimate = computeIndexes(hash) + 1;
+        for (int index : indexes) {
+            if (counters[index] < estimate) {
+                counters[index] = estimate;
+            }
+        }
+        return estimate;
+    }
+
+    /**
+     * @param hash 64 bit hash of the key
+     * @return the estimated count of the key
+     */
+    public long estimate(long hash) {
+        return computeIndexes(hash);
+    }
+
+    public void clear() {
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = 0;
+        }
+    }
+
+    public long[] snapshot() {
+        return counters.clone();
+    }
+
+    public void restore(long[] snapshot) {
+        System.arraycopy(snapshot, 0, counters, 0, counters.length);
+    }
+
+    /**
+     * Fills the indexes of the counters of the key, and returns the smallest of those counters.
+     */
+    private long computeIndexes(long hash) {
+        int hash1 = (int) hash;
+        int hash2 = (int) (hash >>> 32);
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int combined = hash1 + row * hash2;
+            if (combined < 0) {
+                combined = ~combined;
+            }
+            int index = row * width + combined % width;
+            indexes[row] = index;
+            if (counters[index] < min) {
+                min = counters[index];
+            }
+        }
+        return min;
+    }
+}
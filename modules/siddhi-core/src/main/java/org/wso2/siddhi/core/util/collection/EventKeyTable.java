@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.util.collection;
+
+import org.wso2.siddhi.core.event.stream.StreamEvent;
+
+import java.util.AbstractCollection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Fixed capacity table of StreamEvents keyed by the values of some of their attributes, or by all of their output
+ * data when no key positions are given. Keys are hashed into 64 bits from the attribute values without building
+ * an intermediate key object, and are compared against the stored events, so the table allocates nothing after it
+ * is created. Events are held in entries numbered from 0 to capacity - 1, which stay fixed while the event is in
+ * the table; the entry freed last is reused first. Slots are found by linear probing and are kept at most half
+ * full. A table is not thread safe.
+ */
+public class EventKeyTable extends AbstractCollection<StreamEvent> {
+
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private final int[][] keyPositions;
+    private final StreamEvent[] events;
+    private final long[] hashes;
+    private final int[] slots;
+    private final int mask;
+    private final int[] freeEntries;
+    private int freeCount;
+
+    /**
+     * @param capacity     maximum number of events in the table
+     * @param keyPositions positions of the key attributes in the events, or null to key by all of the output data
+     */
+    public EventKeyTable(int capacity, int[][] keyPositions) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity should be positive, but found " + capacity);
+        }
+        this.keyPositions = keyPositions;
+        this.events = new StreamEvent[capacity];
+        this.hashes = new long[capacity];
+        int slotCount = Integer.highestOneBit(capacity) << 2;
+        this.slots = new int[slotCount];
+        this.mask = slotCount - 1;
+        this.freeEntries = new int[capacity];
+        clear();
+    }
+
+    /**
+     * @param streamEvent event to hash
+     * @return 64 bit hash of the key of the event
+     */
+    public long hash(StreamEvent streamEvent) {
+        long hash = 0;
+        if (keyPositions == null) {
+            for (Object value : streamEvent.getOutputData()) {
+                hash = (hash + hashValue(value)) * HASH_MULTIPLIER;
+            }
+        } else {
+            for (int[] position : keyPositions) {
+                hash = (hash + hashValue(streamEvent.getAttribute(position))) * HASH_MULTIPLIER;
+            }
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    /**
+     * @param streamEvent event to look up
+     * @param hash        hash of the key of the event
+     * @return entry of the event stored under the same key, or -1 when there is none
+     */
+    public int find(StreamEvent streamEvent, long hash) {
+        for (int slot = (int) hash & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+            int entry = slots[slot] - 1;
+            if (hashes[entry] == hash && keyEquals(events[entry], streamEvent)) {
+                return entry;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Adds an event whose key is not in the table.
+     *
+     * @param streamEvent event to add
+     * @param hash        hash of the key of the event
+     * @return entry the event is stored in
+     */
+    public int put(StreamEvent streamEvent, long hash) {
+        if (freeCount == 0) {
+            throw new IllegalStateException("Table is full");
+        }
+        int entry = freeEntries[--freeCount];
+        events[entry] = streamEvent;
+        hashes[entry] = hash;
+        int slot = (int) hash & mask;
+        while (slots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = entry + 1;
+        return entry;
+    }
+
+    /**
+     * Replaces the event of an entry by an event with the same key.
+     */
+    public StreamEvent set(int entry, StreamEvent streamEvent) {
+        StreamEvent oldEvent = events[entry];
+        events[entry] = streamEvent;
+        return oldEvent;
+    }
+
+    /**
+     * Removes the event of an entry, shifting back the slots probed past it so that no tombstones are left.
+     *
+     * @return the removed event
+     */
+    public StreamEvent remove(int entry) {
+        int slot = (int) hashes[entry] & mask;
+        while (slots[slot] != entry + 1) {
+            slot = (slot + 1) & mask;
+        }
+        int next = (slot + 1) & mask;
+        while (slots[next] != 0) {
+            int home = (int) hashes[slots[next] - 1] & mask;
+            if (((next - home) & mask) >= ((next - slot) & mask)) {
+                slots[slot] = slots[next];
+                slot = next;
+            }
+            next = (next + 1) & mask;
+        }
+        slots[slot] = 0;
+        StreamEvent streamEvent = events[entry];
+        events[entry] = null;
+        freeEntries[freeCount++] = entry;
+        return streamEvent;
+    }
+
+    public StreamEvent get(int entry) {
+        return events[entry];
+    }
+
+    public long getHash(int entry) {
+        return hashes[entry];
+    }
+
+    public int capacity() {
+        return events.length;
+    }
+
+    public boolean isFull() {
+        return freeCount == 0;
+    }
+
+    @Override
+    public int size() {
+        return events.length - freeCount;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < events.length; i++) {
+            events[i] = null;
+            freeEntries[i] = events.length - 1 - i;
+        }
+        freeCount = events.length;
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = 0;
+        }
+    }
+
+    /**
+     * @return iterator over the events of the table in the order of their entries
+     */
+    @Override
+    public Iterator<StreamEvent> iterator() {
+        return new Iterator<StreamEvent>() {
+            private int nextEntry = advance(0);
+            private int lastEntry = -1;
+
+            private int advance(int entry) {
+                while (entry < events.length && events[entry] == null) {
+                    entry++;
+                }
+                return entry;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return nextEntry < events.length;
+            }
+
+            @Override
+            public StreamEvent next() {
+                if (nextEntry >= events.length) {
+                    throw new NoSuchElementException();
+                }
+                lastEntry = nextEntry;
+                nextEntry = advance(nextEntry + 1);
+                return events[lastEntry];
+            }
+
+            @Override
+            public void remove() {
+                if (lastEntry == -1) {
+                    throw new IllegalStateException();
+                }
+                EventKeyTable.this.remove(lastEntry);
+                lastEntry = -1;
+            }
+        };
+    }
+
+    private boolean keyEquals(StreamEvent storedEvent, StreamEvent streamEvent) {
+        if (keyPositions == null) {
+            Object[] storedData = storedEvent.getOutputData();
+            Object[] data = streamEvent.getOutputData();
+            for (int i = 0; i < data.length; i++) {
+                if (!valueEquals(storedData[i], data[i])) {
+                    return false;
+                }
+            }
+        } else {
+            for (int[] position : keyPositions) {
+                if (!valueEquals(storedEvent.getAttribute(position), streamEvent.getAttribute(position))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean valueEquals(Object storedValue, Object value) {
+        return storedValue == null ? value == null : storedValue.equals(value);
+    }
+
+    private static long hashValue(Object value) {
+        if (value == null) {
+            return 0;
+        } else if (value instanceof Long) {
+            return (Long) value;
+        } else if (value instanceof Integer) {
+            return (Integer) value;
+        } else if (value instanceof Double) {
+            return Double.doubleToLongBits((Double) value);
+        } else if (value instanceof Float) {
+            return Float.floatToIntBits((Float) value);
+        } else {
+            return value.hashCode();
+        }
+    }
+}
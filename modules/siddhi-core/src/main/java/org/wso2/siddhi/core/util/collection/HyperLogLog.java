@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.util.collection;
+
+/**
+ * HyperLogLog sketch estimating the number of distinct values added to it, in 2^precision bytes with a relative
+ * standard error of about 1.04 / sqrt(2^precision). Values are hashed into 64 bits, so no large range correction
+ * is needed, and small estimates are corrected by linear counting. The sum of the inverse register powers is kept
+ * up to date as registers change, so estimating takes O(1) time. Sketches of the same precision are merged by
+ * taking the larger of each pair of registers. A sketch is not thread safe.
+ */
+public class HyperLogLog {
+
+    private static final double[] INVERSE_POWERS = new double[66];
+
+    static {
+        for (int i = 0; i < INVERSE_POWERS.length; i++) {
+            INVERSE_POWERS[i] = Math.pow(2, -i);
+        }
+    }
+
+    private final int precision;
+    private final byte[] registers;
+    private final double alpha;
+    private double inverseSum;
+    private int zeroCount;
+
+    /**
+     * @param precision number of hash bits choosing a register, between 4 and 18
+     */
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 18) {
+            throw new IllegalArgumentException("Precision should be between 4 and 18, but found " + precision);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+        int m = registers.length;
+        if (m == 16) {
+            alpha = 0.673;
+        } else if (m == 32) {
+            alpha = 0.697;
+        } else if (m == 64) {
+            alpha = 0.709;
+        } else {
+            alpha = 0.7213 / (1 + 1.079 / m);
+        }
+        clear();
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    /**
+     * @param value value to count, null values are not counted
+     * @return whether the sketch changed
+     */
+    public boolean add(Object value) {
+        if (value == null) {
+            return false;
+        }
+        return addHash(hash(value));
+    }
+
+    public boolean addHash(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+        return update(index, rank);
+    }
+
+    /**
+     * @return estimated number of distinct values added
+     */
+    public long estimate() {
+        int m = registers.length;
+        double estimate = alpha * m * m / inverseSum;
+        if (estimate <= 2.5 * m && zeroCount != 0) {
+            estimate = m * Math.log((double) m / zeroCount);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * Adds the values counted by another sketch of the same precision.
+     */
+    public void merge(HyperLogLog hyperLogLog) {
+        if (hyperLogLog.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge a sketch of precision " + hyperLogLog.precision +
+                    " into a sketch of precision " + precision);
+        }
+        for (int i = 0; i < registers.length; i++) {
+            update(i, hyperLogLog.registers[i]);
+        }
+    }
+
+    public void clear() {
+        for (int i = 0; i < registers.length; i++) {
+            registers[i] = 0;
+        }
+        inverseSum = registers.length;
+        zeroCount = registers.length;
+    }
+
+    /**
+     * @return the registers, one byte each
+     */
+    public byte[] toByteArray() {
+        return registers.clone();
+    }
+
+    /**
+     * Replaces the registers by ones taken from {@link #toByteArray()} of a sketch of the same precision.
+     */
+    public void restore(byte[] bytes) {
+        if (bytes.length != registers.length) {
+            throw new IllegalArgumentException("Expected " + registers.length + " registers, but found " + bytes.length);
+        }
+        System.arraycopy(bytes, 0, registers, 0, registers.length);
+        inverseSum = 0;
+        zeroCount = 0;
+        for (byte register : registers) {
+            inverseSum += INVERSE_POWERS[register];
+            if (register == 0) {
+                zeroCount++;
+            }
+        }
+    }
+
+    private boolean update(int index, int rank) {
+        int register = registers[index];
+        if (rank <= register) {
+            return false;
+        }
+        registers[index] = (byte) rank;
+        inverseSum += INVERSE_POWERS[rank] - INVERSE_POWERS[register];
+        if (register == 0) {
+            zeroCount--;
+        }
+        return true;
+    }
+
+    /**
+     * @return 64 bit hash of the value, computed from the bits of numbers and the characters of strings
+     */
+    public static long hash(Object value) {
+        long hash;
+        if (value instanceof String) {
+            String string = (String) value;
+            hash = string.length();
+            for (int i = 0; i < string.length(); i++) {
+                hash = (hash + string.charAt(i)) * 0x9E3779B97F4A7C15L;
+            }
+        } else if (value instanceof Long) {
+            hash = (Long) value;
+        } else if (value instanceof Integer) {
+            hash = (Integer) value;
+        } else if (value instanceof Double) {
+            hash = Double.doubleToLongBits((Double) value);
+        } else if (value instanceof Float) {
+            hash = Float.floatToIntBits((Float) value);
+        } else {
+            hash = value.hashCode();
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        return hash ^ (hash >>> 33);
+    }
+}
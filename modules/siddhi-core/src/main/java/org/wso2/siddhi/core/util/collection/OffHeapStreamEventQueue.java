@@ -0,0 +1,670 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.util.collection;
+
+import org.apache.log4j.Logger;
+import org.wso2.siddhi.core.event.ComplexEvent;
+import org.wso2.siddhi.core.event.stream.MetaStreamEvent;
+import org.wso2.siddhi.core.event.stream.StreamEvent;
+import org.wso2.siddhi.core.event.stream.StreamEventPool;
+import org.wso2.siddhi.core.exception.OperationNotSupportedException;
+import org.wso2.siddhi.core.util.SiddhiConstants;
+import org.wso2.siddhi.query.api.definition.Attribute;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.AbstractCollection;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * FIFO queue keeping the events of a window in direct memory instead of as StreamEvent instances, so that
+ * large windows do not add to the live set of the garbage collector. Events are serialized according to the
+ * layout of the window's MetaStreamEvent as
+ * <pre>
+ * long   timestamp
+ * byte   event type
+ * byte[] null bitmap, one bit per attribute of the beforeWindowData, onAfterWindowData and outputData
+ * ...    non null attributes: int, long, float and double in big-endian, bool as one byte, and string as an
+ *        int byte count followed by the UTF-8 bytes
+ * </pre>
+ * and are only materialized as StreamEvents, borrowed from the pool of the queue, when they are polled.
+ * Searches visit the events through a single reused StreamEvent that decodes an attribute only when it is
+ * read, see {@link #events()}. Events are appended to direct segments, which start small and double in size
+ * up to the segment size, and a segment is dropped once all its events are polled. The direct memory of
+ * dropped segments is freed right away instead of waiting for the garbage collector. A queue is not thread
+ * safe.
+ */
+public class OffHeapStreamEventQueue {
+
+    private static final Logger log = Logger.getLogger(OffHeapStreamEventQueue.class);
+    public static final int DEFAULT_SEGMENT_SIZE = 1 << 20;
+    private static final int INITIAL_SEGMENT_SIZE = 1 << 12;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final ComplexEvent.Type[] EVENT_TYPES = ComplexEvent.Type.values();
+
+    private final Attribute.Type[] beforeWindowDataTypes;
+    private final Attribute.Type[] onAfterWindowDataTypes;
+    private final Attribute.Type[] outputDataTypes;
+    private final Attribute.Type[] attributeTypes;
+    private final int nullBitmapSize;
+    private final int segmentSize;
+    private int nextSegmentSize;
+    private final StreamEventPool streamEventPool;
+    private final SearchEvent searchEvent;
+    private final Collection<StreamEvent> events = new EventView();
+    private final ArrayDeque<Segment> segments = new ArrayDeque<Segment>();
+    private Segment spareSegment;
+    private ByteBuffer stagingBuffer = ByteBuffer.allocate(256);
+    private byte[] stringBytes = new byte[64];
+    private int size = 0;
+
+    public OffHeapStreamEventQueue(MetaStreamEvent metaStreamEvent) {
+        this(metaStreamEvent, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * @param metaStreamEvent layout of the events kept in the queue
+     * @param segmentSize     maximum size in bytes of the direct segments, events larger than this get a segment
+     *                        of their own
+     */
+    public OffHeapStreamEventQueue(MetaStreamEvent metaStreamEvent, int segmentSize) {
+        this.beforeWindowDataTypes = toTypes(metaStreamEvent.getBeforeWindowData());
+        this.onAfterWindowDataTypes = toTypes(metaStreamEvent.getOnAfterWindowData());
+        this.outputDataTypes = toTypes(metaStreamEvent.getOutputData());
+        this.attributeTypes = new Attribute.Type[beforeWindowDataTypes.length + onAfterWindowDataTypes.length +
+                outputDataTypes.length];
+        System.arraycopy(beforeWindowDataTypes, 0, attributeTypes, 0, beforeWindowDataTypes.length);
+        System.arraycopy(onAfterWindowDataTypes, 0, attributeTypes, beforeWindowDataTypes.length,
+                onAfterWindowDataTypes.length);
+        System.arraycopy(outputDataTypes, 0, attributeTypes,
+                beforeWindowDataTypes.length + onAfterWindowDataTypes.length, outputDataTypes.length);
+        this.nullBitmapSize = (attributeTypes.length + 7) / 8;
+        this.segmentSize = segmentSize;
+        this.nextSegmentSize = Math.min(INITIAL_SEGMENT_SIZE, segmentSize);
+        this.streamEventPool = new StreamEventPool(metaStreamEvent, 5);
+        this.searchEvent = new SearchEvent();
+    }
+
+    private static Attribute.Type[] toTypes(List<Attribute> attributes) {
+        Attribute.Type[] types = new Attribute.Type[attributes.size()];
+        for (int i = 0; i < types.length; i++) {
+            Attribute attribute = attributes.get(i);
+            if (attribute.getType() == Attribute.Type.OBJECT) {
+                throw new OperationNotSupportedException("Attribute " + attribute.getName() + " cannot be kept " +
+                        "off heap as it is of type " + attribute.getType());
+            }
+            types[i] = attribute.getType();
+        }
+        return types;
+    }
+
+    /**
+     * Serialize the event to the end of the queue, the given event is not referenced by the queue
+     *
+     * @param streamEvent event to be added
+     * @param type        type the event should have when it is materialized
+     * @param timestamp   timestamp the event should have when it is materialized
+     */
+    public void add(StreamEvent streamEvent, ComplexEvent.Type type, long timestamp) {
+        while (true) {
+            stagingBuffer.clear();
+            try {
+                encode(streamEvent, type, timestamp, stagingBuffer);
+                break;
+            } catch (BufferOverflowException e) {
+                stagingBuffer = ByteBuffer.allocate(stagingBuffer.capacity() * 2);
+            }
+        }
+        stagingBuffer.flip();
+        Segment tail = segments.peekLast();
+        if (tail == null || tail.writeBuffer.remaining() < stagingBuffer.remaining()) {
+            tail = newSegment(stagingBuffer.remaining());
+            segments.addLast(tail);
+        }
+        tail.writeBuffer.put(stagingBuffer);
+        size++;
+    }
+
+    /**
+     * @return timestamp of the first event of the queue, without materializing it
+     * @throws NoSuchElementException if the queue is empty
+     */
+    public long peekTimestamp() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        ByteBuffer readBuffer = segments.peekFirst().readBuffer;
+        return readBuffer.getLong(readBuffer.position());
+    }
+
+    /**
+     * Remove the first event of the queue
+     *
+     * @return the event materialized as a StreamEvent, or null if the queue is empty
+     */
+    public StreamEvent poll() {
+        if (size == 0) {
+            return null;
+        }
+        Segment head = segments.peekFirst();
+        StreamEvent streamEvent = streamEventPool.borrowEvent();
+        decode(head.readBuffer, streamEvent);
+        size--;
+        if (head.isConsumed()) {
+            if (segments.size() == 1) {
+                head.clear();
+            } else {
+                segments.pollFirst();
+                head.clear();
+                if (spareSegment != null) {
+                    spareSegment.release();
+                }
+                spareSegment = head;
+            }
+        }
+        return streamEvent;
+    }
+
+    /**
+     * Read only view of the events of the queue in the order of the queue, e.g. to search them. The events are
+     * visited through the same StreamEvent, which decodes only the attributes that are read, hence an event
+     * should be copied if it is kept after the iterator moves on.
+     *
+     * @return the events of the queue
+     */
+    public Collection<StreamEvent> events() {
+        return events;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.release();
+        }
+        segments.clear();
+        size = 0;
+    }
+
+    /**
+     * Free the direct memory held by the queue, e.g. when the window is stopped. The queue is empty afterwards,
+     * and should not be searched concurrently.
+     */
+    public void release() {
+        clear();
+        if (spareSegment != null) {
+            spareSegment.release();
+            spareSegment = null;
+        }
+    }
+
+    /**
+     * @return the serialized events of the queue, to be used with {@link #restore(byte[])}
+     */
+    public byte[] snapshot() {
+        int length = 4;
+        for (Segment segment : segments) {
+            length += segment.writeBuffer.position() - segment.readBuffer.position();
+        }
+        ByteBuffer snapshot = ByteBuffer.allocate(length);
+        snapshot.putInt(size);
+        for (Segment segment : segments) {
+            ByteBuffer readBuffer = segment.readBuffer.duplicate();
+            readBuffer.limit(segment.writeBuffer.position());
+            snapshot.put(readBuffer);
+        }
+        return snapshot.array();
+    }
+
+    /**
+     * Replace the events of the queue with the events of a snapshot
+     *
+     * @param snapshot serialized events returned by {@link #snapshot()}
+     */
+    public void restore(byte[] snapshot) {
+        clear();
+        ByteBuffer buffer = ByteBuffer.wrap(snapshot);
+        int restoredSize = buffer.getInt();
+        if (restoredSize > 0) {
+            Segment segment = newSegment(buffer.remaining());
+            segment.writeBuffer.put(buffer);
+            segments.addLast(segment);
+            size = restoredSize;
+        }
+    }
+
+    private Segment newSegment(int minCapacity) {
+        Segment segment = spareSegment;
+        spareSegment = null;
+        if (segment == null || segment.writeBuffer.capacity() < minCapacity) {
+            if (segment != null) {
+                segment.release();
+            }
+            segment = new Segment(Math.max(nextSegmentSize, minCapacity));
+            nextSegmentSize = Math.min(nextSegmentSize << 1, segmentSize);
+        }
+        return segment;
+    }
+
+    private void encode(StreamEvent streamEvent, ComplexEvent.Type type, long timestamp, ByteBuffer buffer) {
+        buffer.putLong(timestamp);
+        buffer.put((byte) type.ordinal());
+        int bitmapStart = buffer.position();
+        for (int i = 0; i < nullBitmapSize; i++) {
+            buffer.put((byte) 0);
+        }
+        int attributeIndex = encode(streamEvent.getBeforeWindowData(), beforeWindowDataTypes, 0, bitmapStart, buffer);
+        attributeIndex = encode(streamEvent.getOnAfterWindowData(), onAfterWindowDataTypes, attributeIndex,
+                bitmapStart, buffer);
+        encode(streamEvent.getOutputData(), outputDataTypes, attributeIndex, bitmapStart, buffer);
+    }
+
+    private static int encode(Object[] data, Attribute.Type[] types, int attributeIndex, int bitmapStart,
+                              ByteBuffer buffer) {
+        for (int i = 0; i < types.length; i++, attributeIndex++) {
+            Object value = data[i];
+            if (value == null) {
+                int bitmapIndex = bitmapStart + (attributeIndex >> 3);
+                buffer.put(bitmapIndex, (byte) (buffer.get(bitmapIndex) | (1 << (attributeIndex & 7))));
+                continue;
+            }
+            switch (types[i]) {
+                case INT:
+                    buffer.putInt(((Number) value).intValue());
+                    break;
+                case LONG:
+                    buffer.putLong(((Number) value).longValue());
+                    break;
+                case FLOAT:
+                    buffer.putFloat(((Number) value).floatValue());
+                    break;
+                case DOUBLE:
+                    buffer.putDouble(((Number) value).doubleValue());
+                    break;
+                case BOOL:
+                    buffer.put((Boolean) value ? (byte) 1 : (byte) 0);
+                    break;
+                default:
+                    byte[] bytes = value.toString().getBytes(UTF_8);
+                    buffer.putInt(bytes.length);
+                    buffer.put(bytes);
+            }
+        }
+        return attributeIndex;
+    }
+
+    private void decode(ByteBuffer buffer, StreamEvent streamEvent) {
+        streamEvent.setTimestamp(buffer.getLong());
+        streamEvent.setType(EVENT_TYPES[buffer.get()]);
+        int bitmapStart = buffer.position();
+        buffer.position(bitmapStart + nullBitmapSize);
+        int attributeIndex = 0;
+        for (int i = 0; i < beforeWindowDataTypes.length; i++, attributeIndex++) {
+            streamEvent.setBeforeWindowData(decode(buffer, bitmapStart, attributeIndex, beforeWindowDataTypes[i]), i);
+        }
+        for (int i = 0; i < onAfterWindowDataTypes.length; i++, attributeIndex++) {
+            streamEvent.setOnAfterWindowData(decode(buffer, bitmapStart, attributeIndex, onAfterWindowDataTypes[i]), i);
+        }
+        for (int i = 0; i < outputDataTypes.length; i++, attributeIndex++) {
+            streamEvent.setOutputData(decode(buffer, bitmapStart, attributeIndex, outputDataTypes[i]), i);
+        }
+    }
+
+    private Object decode(ByteBuffer buffer, int bitmapStart, int attributeIndex, Attribute.Type type) {
+        if ((buffer.get(bitmapStart + (attributeIndex >> 3)) & (1 << (attributeIndex & 7))) != 0) {
+            return null;
+        }
+        switch (type) {
+            case INT:
+                return buffer.getInt();
+            case LONG:
+                return buffer.getLong();
+            case FLOAT:
+                return buffer.getFloat();
+            case DOUBLE:
+                return buffer.getDouble();
+            case BOOL:
+                return buffer.get() != 0;
+            default:
+                int length = buffer.getInt();
+                if (stringBytes.length < length) {
+                    stringBytes = new byte[Math.max(length, stringBytes.length * 2)];
+                }
+                buffer.get(stringBytes, 0, length);
+                return new String(stringBytes, 0, length, UTF_8);
+        }
+    }
+
+    private class EventView extends AbstractCollection<StreamEvent> {
+
+        @Override
+        public Iterator<StreamEvent> iterator() {
+            return new EventIterator();
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    private class EventIterator implements Iterator<StreamEvent> {
+
+        private final Iterator<Segment> segmentIterator = segments.iterator();
+        private ByteBuffer readBuffer;
+        private int end;
+
+        @Override
+        public boolean hasNext() {
+            while (readBuffer == null || readBuffer.position() == end) {
+                if (!segmentIterator.hasNext()) {
+                    return false;
+                }
+                Segment segment = segmentIterator.next();
+                readBuffer = segment.readBuffer.duplicate();
+                end = segment.writeBuffer.position();
+            }
+            return true;
+        }
+
+        @Override
+        public StreamEvent next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            searchEvent.wrap(readBuffer);
+            return searchEvent;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static class Segment {
+        private final ByteBuffer writeBuffer;
+        private final ByteBuffer readBuffer;
+
+        private Segment(int capacity) {
+            this.writeBuffer = ByteBuffer.allocateDirect(capacity);
+            this.readBuffer = writeBuffer.duplicate();
+        }
+
+        private boolean isConsumed() {
+            return readBuffer.position() == writeBuffer.position();
+        }
+
+        private void clear() {
+            writeBuffer.clear();
+            readBuffer.clear();
+        }
+
+        private void release() {
+            DirectMemory.free(writeBuffer);
+        }
+    }
+
+    /**
+     * Event visited by the searches. The header of the event and the offsets of its attributes are read when it
+     * is positioned on an event, an attribute is decoded only when it is read, and numeric attributes are read
+     * through {@link #getBeforeWindowLong(int)} and {@link #getBeforeWindowDouble(int)} without boxing them.
+     * Reading the data arrays, e.g. to copy a matching event, decodes all the attributes.
+     */
+    private class SearchEvent extends StreamEvent {
+
+        private final int[] offsets = new int[attributeTypes.length];
+        private final boolean[] decoded = new boolean[attributeTypes.length];
+        private final Object[] beforeWindowData;
+        private final Object[] onAfterWindowData;
+        private final Object[] outputData;
+        private ByteBuffer buffer;
+
+        private SearchEvent() {
+            super(beforeWindowDataTypes.length, onAfterWindowDataTypes.length, outputDataTypes.length);
+            this.beforeWindowData = orEmpty(super.getBeforeWindowData());
+            this.onAfterWindowData = orEmpty(super.getOnAfterWindowData());
+            this.outputData = orEmpty(super.getOutputData());
+        }
+
+        private Object[] orEmpty(Object[] data) {
+            return data == null ? new Object[0] : data;
+        }
+
+        /**
+         * Position the event on the event at the position of the buffer, and move the buffer past it
+         */
+        private void wrap(ByteBuffer buffer) {
+            this.buffer = buffer;
+            int position = buffer.position();
+            setTimestamp(buffer.getLong(position));
+            setType(EVENT_TYPES[buffer.get(position + 8)]);
+            int bitmapStart = position + 9;
+            position = bitmapStart + nullBitmapSize;
+            for (int i = 0; i < attributeTypes.length; i++) {
+                if ((buffer.get(bitmapStart + (i >> 3)) & (1 << (i & 7))) != 0) {
+                    offsets[i] = -1;
+                    continue;
+                }
+                offsets[i] = position;
+                switch (attributeTypes[i]) {
+                    case INT:
+                    case FLOAT:
+                        position += 4;
+                        break;
+                    case LONG:
+                    case DOUBLE:
+                        position += 8;
+                        break;
+                    case BOOL:
+                        position += 1;
+                        break;
+                    default:
+                        position += 4 + buffer.getInt(position);
+                }
+            }
+            buffer.position(position);
+            Arrays.fill(decoded, false);
+        }
+
+        private Object getValue(int attributeIndex, Object[] data, int index) {
+            if (!decoded[attributeIndex]) {
+                data[index] = decodeAt(attributeIndex);
+                decoded[attributeIndex] = true;
+            }
+            return data[index];
+        }
+
+        private Object decodeAt(int attributeIndex) {
+            int offset = offsets[attributeIndex];
+            if (offset < 0) {
+                return null;
+            }
+            switch (attributeTypes[attributeIndex]) {
+                case INT:
+                    return buffer.getInt(offset);
+                case LONG:
+                    return buffer.getLong(offset);
+                case FLOAT:
+                    return buffer.getFloat(offset);
+                case DOUBLE:
+                    return buffer.getDouble(offset);
+                case BOOL:
+                    return buffer.get(offset) != 0;
+                default:
+                    int length = buffer.getInt(offset);
+                    if (stringBytes.length < length) {
+                        stringBytes = new byte[Math.max(length, stringBytes.length * 2)];
+                    }
+                    for (int i = 0; i < length; i++) {
+                        stringBytes[i] = buffer.get(offset + 4 + i);
+                    }
+                    return new String(stringBytes, 0, length, UTF_8);
+            }
+        }
+
+        private void decodeAll(Object[] data, int attributeIndex) {
+            for (int i = 0; i < data.length; i++) {
+                getValue(attributeIndex + i, data, i);
+            }
+        }
+
+        @Override
+        public Object getBeforeWindowData(int index) {
+            return getValue(index, beforeWindowData, index);
+        }
+
+        @Override
+        public boolean isBeforeWindowDataNull(int index) {
+            return offsets[index] < 0;
+        }
+
+        @Override
+        public long getBeforeWindowLong(int index) {
+            int offset = offsets[index];
+            switch (attributeTypes[index]) {
+                case INT:
+                    return buffer.getInt(offset);
+                case LONG:
+                    return buffer.getLong(offset);
+                case FLOAT:
+                    return (long) buffer.getFloat(offset);
+                default:
+                    return (long) buffer.getDouble(offset);
+            }
+        }
+
+        @Override
+        public double getBeforeWindowDouble(int index) {
+            int offset = offsets[index];
+            switch (attributeTypes[index]) {
+                case INT:
+                    return buffer.getInt(offset);
+                case LONG:
+                    return buffer.getLong(offset);
+                case FLOAT:
+                    return buffer.getFloat(offset);
+                default:
+                    return buffer.getDouble(offset);
+            }
+        }
+
+        @Override
+        public Object getAttribute(int[] position) {
+            int index = position[SiddhiConstants.STREAM_ATTRIBUTE_INDEX];
+            switch (position[SiddhiConstants.STREAM_ATTRIBUTE_TYPE_INDEX]) {
+                case SiddhiConstants.BEFORE_WINDOW_DATA_INDEX:
+                    return getValue(index, beforeWindowData, index);
+                case SiddhiConstants.ON_AFTER_WINDOW_DATA_INDEX:
+                    return getValue(beforeWindowData.length + index, onAfterWindowData, index);
+                case SiddhiConstants.OUTPUT_DATA_INDEX:
+                    return getValue(beforeWindowData.length + onAfterWindowData.length + index, outputData, index);
+                default:
+                    throw new IllegalStateException("STREAM_ATTRIBUTE_TYPE_INDEX cannot be " +
+                            position[SiddhiConstants.STREAM_ATTRIBUTE_TYPE_INDEX]);
+            }
+        }
+
+        @Override
+        public Object[] getBeforeWindowData() {
+            decodeAll(beforeWindowData, 0);
+            return beforeWindowData;
+        }
+
+        @Override
+        public Object[] getOnAfterWindowData() {
+            decodeAll(onAfterWindowData, beforeWindowData.length);
+            return onAfterWindowData;
+        }
+
+        @Override
+        public Object[] getOutputData() {
+            decodeAll(outputData, beforeWindowData.length + onAfterWindowData.length);
+            return outputData;
+        }
+    }
+
+    /**
+     * Frees direct buffers without waiting for them to be garbage collected, through the cleaner of the buffer
+     * on Java 8 and earlier and through Unsafe.invokeCleaner on later versions. If neither is accessible the
+     * buffers are left to the garbage collector.
+     */
+    private static class DirectMemory {
+
+        private static final Object unsafe;
+        private static final Method invokeCleaner;
+        private static Method cleaner;
+        private static Method clean;
+        private static boolean supported = true;
+
+        static {
+            Object unsafeInstance = null;
+            Method invokeCleanerMethod = null;
+            try {
+                Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+                invokeCleanerMethod = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+                Field field = unsafeClass.getDeclaredField("theUnsafe");
+                field.setAccessible(true);
+                unsafeInstance = field.get(null);
+            } catch (Exception e) {
+                invokeCleanerMethod = null;
+            }
+            unsafe = unsafeInstance;
+            invokeCleaner = invokeCleanerMethod;
+        }
+
+        private static void free(ByteBuffer buffer) {
+            if (!supported || !buffer.isDirect()) {
+                return;
+            }
+            try {
+                if (invokeCleaner != null) {
+                    invokeCleaner.invoke(unsafe, buffer);
+                } else {
+                    if (cleaner == null) {
+                        cleaner = buffer.getClass().getMethod("cleaner");
+                        cleaner.setAccessible(true);
+                    }
+                    Object bufferCleaner = cleaner.invoke(buffer);
+                    if (bufferCleaner != null) {
+                        if (clean == null) {
+                            clean = bufferCleaner.getClass().getMethod("clean");
+                            clean.setAccessible(true);
+                        }
+                        clean.invoke(bufferCleaner);
+                    }
+                }
+            } catch (Exception e) {
+                supported = false;
+                log.warn("Cannot free direct memory explicitly, off heap window segments are freed by the " +
+                        "garbage collector", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,379 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.util.collection;
+
+import java.util.Arrays;
+
+/**
+ * Values of a sliding time window pre-aggregated in panes, so that the aggregate of the window is kept up to
+ * date without replaying the expired values. Values are appended to panes covering 1/{@value #PANE_COUNT} of
+ * the window length and a pane is dropped as a whole, in O(1), once all its values expire. The panes form the
+ * two stacks of a two-stack queue: the front panes carry the aggregate of themselves and all the younger front
+ * panes, computed when the back panes are flipped to the front, while the back keeps a running aggregate. The
+ * oldest pane, when partially expired, additionally gets the aggregates of each of its suffixes. Hence both the
+ * invertible (sum, count, avg) and the non invertible (min, max) functions are answered exactly in amortized
+ * O(1) per value. Front panes are never appended to, a value arriving after a flip starts a new back pane.
+ * A queue is not thread safe.
+ */
+public class SlidingWindowAggregateQueue {
+
+    public static final int PANE_COUNT = 32;
+    private static final int INITIAL_PANE_CAPACITY = 8;
+
+    public enum Function {
+        SUM, COUNT, AVG, MIN, MAX
+    }
+
+    private final Function function;
+    private final boolean floatingPoint;
+    private final long paneLength;
+    private Pane head;
+    private Pane tail;
+    private Pane firstBack;
+    private long backLong;
+    private double backDouble;
+    private long backCount;
+    private long resultLong;
+    private double resultDouble;
+    private long resultCount;
+    private int size = 0;
+
+    /**
+     * @param function      aggregate function of the values
+     * @param floatingPoint true when the values are added as doubles, false when added as longs
+     * @param windowLength  length of the window in milliseconds
+     */
+    public SlidingWindowAggregateQueue(Function function, boolean floatingPoint, long windowLength) {
+        this.function = function;
+        this.floatingPoint = floatingPoint;
+        this.paneLength = Math.max(1, windowLength / PANE_COUNT);
+    }
+
+    public void add(long time, long value) {
+        Pane pane = appendablePane(time);
+        pane.add(time, value, 0);
+        pane.aggregateLong = combineLong(pane.aggregateLong, pane.count, value);
+        pane.count++;
+        backLong = combineLong(backLong, backCount, value);
+        backCount++;
+        size++;
+        flipIfFrontEmpty();
+    }
+
+    public void add(long time, double value) {
+        Pane pane = appendablePane(time);
+        pane.add(time, 0, value);
+        pane.aggregateDouble = combineDouble(pane.aggregateDouble, pane.count, value);
+        pane.count++;
+        backDouble = combineDouble(backDouble, backCount, value);
+        backCount++;
+        size++;
+        flipIfFrontEmpty();
+    }
+
+    /**
+     * Remove the values added at or before the given time, dropping the fully expired panes as a whole
+     *
+     * @param time expiry time
+     */
+    public void expire(long time) {
+        while (head != null) {
+            if (head.times[head.size - 1] <= time) {
+                size -= head.size - head.start;
+                head = head.next;
+                if (head == null) {
+                    tail = null;
+                }
+                flipIfFrontEmpty();
+            } else {
+                while (head.times[head.start] <= time) {
+                    head.start++;
+                    size--;
+                }
+                break;
+            }
+        }
+    }
+
+    public void clear() {
+        head = null;
+        tail = null;
+        firstBack = null;
+        backLong = 0;
+        backDouble = 0;
+        backCount = 0;
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the aggregate of the values in the window as a long, valid when the values are added as longs
+     */
+    public long getLong() {
+        aggregate();
+        return resultLong;
+    }
+
+    /**
+     * @return the aggregate of the values in the window as a double, valid when the values are added as
+     * doubles, for {@link Function#AVG} the average of the values
+     */
+    public double getDouble() {
+        aggregate();
+        if (function == Function.AVG) {
+            return resultCount == 0 ? 0.0 : resultDouble / resultCount;
+        }
+        return resultDouble;
+    }
+
+    /**
+     * @return the number of values in the window
+     */
+    public long getCount() {
+        return size;
+    }
+
+    /**
+     * @return the times and the values in the window, oldest first
+     */
+    public Object[] snapshot() {
+        long[] times = new long[size];
+        long[] longValues = new long[floatingPoint ? 0 : size];
+        double[] doubleValues = new double[floatingPoint ? size : 0];
+        int index = 0;
+        for (Pane pane = head; pane != null; pane = pane.next) {
+            int length = pane.size - pane.start;
+            System.arraycopy(pane.times, pane.start, times, index, length);
+            if (floatingPoint) {
+                System.arraycopy(pane.doubleValues, pane.start, doubleValues, index, length);
+            } else {
+                System.arraycopy(pane.longValues, pane.start, longValues, index, length);
+            }
+            index += length;
+        }
+        return new Object[]{times, longValues, doubleValues};
+    }
+
+    public void restore(Object[] snapshot) {
+        clear();
+        long[] times = (long[]) snapshot[0];
+        for (int i = 0; i < times.length; i++) {
+            if (floatingPoint) {
+                add(times[i], ((double[]) snapshot[2])[i]);
+            } else {
+                add(times[i], ((long[]) snapshot[1])[i]);
+            }
+        }
+    }
+
+    private Pane appendablePane(long time) {
+        if (tail == null || tail.isFront || time >= tail.endTime) {
+            Pane pane = new Pane((time / paneLength + 1) * paneLength, floatingPoint);
+            if (tail == null) {
+                head = pane;
+            } else {
+                tail.next = pane;
+            }
+            tail = pane;
+            if (firstBack == null) {
+                firstBack = pane;
+            }
+        }
+        return tail;
+    }
+
+    /**
+     * Move the back panes to the front once the front panes are all dropped, computing the aggregate of each
+     * pane and the younger panes from the youngest to the oldest
+     */
+    private void flipIfFrontEmpty() {
+        if (head == null || head != firstBack) {
+            return;
+        }
+        Pane[] panes = new Pane[8];
+        int count = 0;
+        for (Pane pane = firstBack; pane != null; pane = pane.next) {
+            if (count == panes.length) {
+                panes = Arrays.copyOf(panes, count << 1);
+            }
+            panes[count++] = pane;
+        }
+        Pane younger = null;
+        for (int i = count - 1; i >= 0; i--) {
+            Pane pane = panes[i];
+            pane.isFront = true;
+            if (younger == null) {
+                pane.frontLong = pane.aggregateLong;
+                pane.frontDouble = pane.aggregateDouble;
+                pane.frontCount = pane.count;
+            } else {
+                pane.frontLong = combineLong(younger.frontLong, younger.frontCount, pane.aggregateLong, pane.count);
+                pane.frontDouble = combineDouble(younger.frontDouble, younger.frontCount, pane.aggregateDouble,
+                        pane.count);
+                pane.frontCount = younger.frontCount + pane.count;
+            }
+            younger = pane;
+        }
+        firstBack = null;
+        backLong = 0;
+        backDouble = 0;
+        backCount = 0;
+    }
+
+    /**
+     * Combine the partially expired oldest pane, the younger front panes and the back panes into the result
+     */
+    private void aggregate() {
+        resultLong = 0;
+        resultDouble = 0;
+        resultCount = 0;
+        if (head == null) {
+            return;
+        }
+        if (head.start == 0) {
+            accumulate(head.frontLong, head.frontDouble, head.frontCount);
+        } else {
+            head.computeSuffixes();
+            accumulate(head.suffixLong == null ? 0 : head.suffixLong[head.start],
+                    head.suffixDouble == null ? 0 : head.suffixDouble[head.start], head.size - head.start);
+            Pane younger = head.next;
+            if (younger != null && younger.isFront) {
+                accumulate(younger.frontLong, younger.frontDouble, younger.frontCount);
+            }
+        }
+        accumulate(backLong, backDouble, backCount);
+    }
+
+    private void accumulate(long longValue, double doubleValue, long count) {
+        resultLong = combineLong(resultLong, resultCount, longValue, count);
+        resultDouble = combineDouble(resultDouble, resultCount, doubleValue, count);
+        resultCount += count;
+    }
+
+    private long combineLong(long aggregate, long count, long value) {
+        return combineLong(aggregate, count, value, 1);
+    }
+
+    private long combineLong(long aggregate, long count, long otherAggregate, long otherCount) {
+        if (otherCount == 0) {
+            return aggregate;
+        } else if (count == 0) {
+            return otherAggregate;
+        }
+        switch (function) {
+            case MIN:
+                return Math.min(aggregate, otherAggregate);
+            case MAX:
+                return Math.max(aggregate, otherAggregate);
+            default:
+                return aggregate + otherAggregate;
+        }
+    }
+
+    private double combineDouble(double aggregate, long count, double value) {
+        return combineDouble(aggregate, count, value, 1);
+    }
+
+    private double combineDouble(double aggregate, long count, double otherAggregate, long otherCount) {
+        if (otherCount == 0) {
+            return aggregate;
+        } else if (count == 0) {
+            return otherAggregate;
+        }
+        switch (function) {
+            case MIN:
+                return Math.min(aggregate, otherAggregate);
+            case MAX:
+                return Math.max(aggregate, otherAggregate);
+            default:
+                return aggregate + otherAggregate;
+        }
+    }
+
+    private class Pane {
+
+        private final long endTime;
+        private long[] times = new long[INITIAL_PANE_CAPACITY];
+        private long[] longValues;
+        private double[] doubleValues;
+        private int start = 0;
+        private int size = 0;
+        private long aggregateLong;
+        private double aggregateDouble;
+        private long count;
+        private boolean isFront = false;
+        private long frontLong;
+        private double frontDouble;
+        private long frontCount;
+        private long[] suffixLong;
+        private double[] suffixDouble;
+        private boolean suffixesComputed = false;
+        private Pane next;
+
+        private Pane(long endTime, boolean floatingPoint) {
+            this.endTime = endTime;
+            if (floatingPoint) {
+                doubleValues = new double[INITIAL_PANE_CAPACITY];
+            } else {
+                longValues = new long[INITIAL_PANE_CAPACITY];
+            }
+        }
+
+        private void add(long time, long longValue, double doubleValue) {
+            if (size == times.length) {
+                times = Arrays.copyOf(times, size << 1);
+                if (longValues != null) {
+                    longValues = Arrays.copyOf(longValues, size << 1);
+                } else {
+                    doubleValues = Arrays.copyOf(doubleValues, size << 1);
+                }
+            }
+            times[size] = time;
+            if (longValues != null) {
+                longValues[size] = longValue;
+            } else {
+                doubleValues[size] = doubleValue;
+            }
+            size++;
+        }
+
+        /**
+         * Compute the aggregate of the values from each index to the end of the pane, the pane is in the front
+         * and no longer appended to
+         */
+        private void computeSuffixes() {
+            if (suffixesComputed) {
+                return;
+            }
+            if (longValues != null) {
+                suffixLong = new long[size];
+                suffixLong[size - 1] = longValues[size - 1];
+                for (int i = size - 2; i >= 0; i--) {
+                    suffixLong[i] = combineLong(suffixLong[i + 1], size - 1 - i, longValues[i]);
+                }
+            } else {
+                suffixDouble = new double[size];
+                suffixDouble[size - 1] = doubleValues[size - 1];
+                for (int i = size - 2; i >= 0; i--) {
+                    suffixDouble[i] = combineDouble(suffixDouble[i + 1], size - 1 - i, doubleValues[i]);
+                }
+            }
+            suffixesComputed = true;
+        }
+    }
+}
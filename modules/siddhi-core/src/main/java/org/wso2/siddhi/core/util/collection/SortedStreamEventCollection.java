@@ -0,0 +1,287 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.util.collection;
+
+import org.wso2.siddhi.core.event.stream.StreamEvent;
+import org.wso2.siddhi.query.api.definition.Attribute;
+import org.wso2.siddhi.query.api.expression.condition.Compare;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Collection of StreamEvents kept ordered by the values of some of their attributes in a balanced tree, so that
+ * events are added and the last event is removed in O(log n). The values are read from each event once, when it
+ * is added, and are compared by comparators chosen by the attribute types. Events with equal values are ordered
+ * by the order they are added in. Null values are ordered before all other values before the sort direction is
+ * applied. The events can be iterated in order, or within a range of values of the first sort attribute.
+ * A collection is not thread safe.
+ */
+public class SortedStreamEventCollection extends AbstractCollection<StreamEvent> {
+
+    private final int[][] positions;
+    private final ValueComparator[] valueComparators;
+    private final int[] orders;
+    private final TreeSet<Entry> entries;
+    private long sequence = 0;
+
+    /**
+     * @param positions  positions of the sort attributes in the events
+     * @param types      types of the sort attributes
+     * @param descending whether each sort attribute is sorted in descending order
+     */
+    public SortedStreamEventCollection(int[][] positions, Attribute.Type[] types, boolean[] descending) {
+        this.positions = positions;
+        this.valueComparators = new ValueComparator[types.length];
+        this.orders = new int[types.length];
+        for (int i = 0; i < types.length; i++) {
+            valueComparators[i] = ValueComparator.valueOf(types[i]);
+            orders[i] = descending[i] ? -1 : 1;
+        }
+        this.entries = new TreeSet<Entry>(new EntryComparator());
+    }
+
+    @Override
+    public boolean add(StreamEvent streamEvent) {
+        Object[] values = new Object[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            values[i] = streamEvent.getAttribute(positions[i]);
+        }
+        return entries.add(new Entry(values, sequence++, streamEvent));
+    }
+
+    /**
+     * @return the last event in the sort order, the latest added of the last events with equal values, or null
+     * when the collection is empty
+     */
+    public StreamEvent pollLast() {
+        Entry entry = entries.pollLast();
+        return entry == null ? null : entry.streamEvent;
+    }
+
+    @Override
+    public Iterator<StreamEvent> iterator() {
+        return new EventIterator(entries.iterator());
+    }
+
+    @Override
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * @param operator operator comparing the value of the first sort attribute of the events with the bound,
+     *                 one of less than, less than equal, greater than, greater than equal and equal
+     * @param bound    value of the type of the first sort attribute
+     * @return the events whose value of the first sort attribute satisfies the comparison, in order
+     */
+    public Collection<StreamEvent> range(Compare.Operator operator, Object bound) {
+        if (bound == null) {
+            return Collections.emptyList();
+        }
+        Entry lowerFence = new Entry(new Object[]{bound}, Long.MIN_VALUE, null);
+        Entry upperFence = new Entry(new Object[]{bound}, Long.MAX_VALUE, null);
+        boolean ascending = orders[0] == 1;
+        NavigableSet<Entry> range;
+        switch (operator) {
+            case EQUAL:
+                range = entries.subSet(lowerFence, false, upperFence, false);
+                break;
+            case LESS_THAN:
+                range = ascending ? entries.headSet(lowerFence, false) : entries.tailSet(upperFence, false);
+                break;
+            case LESS_THAN_EQUAL:
+                range = ascending ? entries.headSet(upperFence, false) : entries.tailSet(lowerFence, false);
+                break;
+            case GREATER_THAN:
+                range = ascending ? entries.tailSet(upperFence, false) : entries.headSet(lowerFence, false);
+                break;
+            case GREATER_THAN_EQUAL:
+                range = ascending ? entries.tailSet(lowerFence, false) : entries.headSet(upperFence, false);
+                break;
+            default:
+                throw new IllegalArgumentException("Range of " + operator + " is not supported");
+        }
+        return new RangeCollection(range);
+    }
+
+    private static class Entry {
+        private final Object[] values;
+        private final long sequence;
+        private final StreamEvent streamEvent;
+
+        private Entry(Object[] values, long sequence, StreamEvent streamEvent) {
+            this.values = values;
+            this.sequence = sequence;
+            this.streamEvent = streamEvent;
+        }
+    }
+
+    /**
+     * Orders the entries by their values and then by the order they are added in. The fences bounding a range
+     * only carry a value of the first sort attribute and are ordered before or after all the entries with an
+     * equal value.
+     */
+    private class EntryComparator implements Comparator<Entry> {
+        @Override
+        public int compare(Entry entry1, Entry entry2) {
+            int length = Math.min(entry1.values.length, entry2.values.length);
+            for (int i = 0; i < length; i++) {
+                Object value1 = entry1.values[i];
+                Object value2 = entry2.values[i];
+                int result;
+                if (value1 == null) {
+                    result = value2 == null ? 0 : -1;
+                } else if (value2 == null) {
+                    result = 1;
+                } else {
+                    result = valueComparators[i].compare(value1, value2);
+                }
+                if (result != 0) {
+                    return orders[i] * result;
+                }
+            }
+            return entry1.sequence < entry2.sequence ? -1 : (entry1.sequence == entry2.sequence ? 0 : 1);
+        }
+    }
+
+    private enum ValueComparator {
+        INT {
+            @Override
+            int compare(Object value1, Object value2) {
+                int int1 = (Integer) value1;
+                int int2 = (Integer) value2;
+                return int1 < int2 ? -1 : (int1 == int2 ? 0 : 1);
+            }
+        },
+        LONG {
+            @Override
+            int compare(Object value1, Object value2) {
+                long long1 = (Long) value1;
+                long long2 = (Long) value2;
+                return long1 < long2 ? -1 : (long1 == long2 ? 0 : 1);
+            }
+        },
+        FLOAT {
+            @Override
+            int compare(Object value1, Object value2) {
+                float float1 = (Float) value1;
+                float float2 = (Float) value2;
+                if (float1 < float2) {
+                    return -1;
+                } else if (float1 > float2) {
+                    return 1;
+                }
+                // equal values, including 0.0 and -0.0 as compared in conditions, or NaN ordered last
+                return Float.isNaN(float1) || Float.isNaN(float2) ? Float.compare(float1, float2) : 0;
+            }
+        },
+        DOUBLE {
+            @Override
+            int compare(Object value1, Object value2) {
+                double double1 = (Double) value1;
+                double double2 = (Double) value2;
+                if (double1 < double2) {
+                    return -1;
+                } else if (double1 > double2) {
+                    return 1;
+                }
+                return Double.isNaN(double1) || Double.isNaN(double2) ? Double.compare(double1, double2) : 0;
+            }
+        },
+        STRING {
+            @Override
+            int compare(Object value1, Object value2) {
+                return ((String) value1).compareTo((String) value2);
+            }
+        },
+        COMPARABLE {
+            @Override
+            int compare(Object value1, Object value2) {
+                return ((Comparable) value1).compareTo(value2);
+            }
+        };
+
+        abstract int compare(Object value1, Object value2);
+
+        static ValueComparator valueOf(Attribute.Type type) {
+            switch (type) {
+                case INT:
+                    return INT;
+                case LONG:
+                    return LONG;
+                case FLOAT:
+                    return FLOAT;
+                case DOUBLE:
+                    return DOUBLE;
+                case STRING:
+                    return STRING;
+                default:
+                    return COMPARABLE;
+            }
+        }
+    }
+
+    private static class EventIterator implements Iterator<StreamEvent> {
+        private final Iterator<Entry> iterator;
+
+        private EventIterator(Iterator<Entry> iterator) {
+            this.iterator = iterator;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return iterator.hasNext();
+        }
+
+        @Override
+        public StreamEvent next() {
+            return iterator.next().streamEvent;
+        }
+
+        @Override
+        public void remove() {
+            iterator.remove();
+        }
+    }
+
+    private static class RangeCollection extends AbstractCollection<StreamEvent> {
+        private final NavigableSet<Entry> range;
+
+        private RangeCollection(NavigableSet<Entry> range) {
+            this.range = range;
+        }
+
+        @Override
+        public Iterator<StreamEvent> iterator() {
+            return new EventIterator(range.iterator());
+        }
+
+        @Override
+        public int size() {
+            return range.size();
+        }
+    }
+}
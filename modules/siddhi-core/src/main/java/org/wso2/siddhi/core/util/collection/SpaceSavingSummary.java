@@ -0,0 +1,270 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.util.collection;
+
+import org.wso2.siddhi.core.event.stream.StreamEvent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * SpaceSaving summary of the most frequent keys of a stream, counting at most a fixed number of keys. A key that
+ * is not counted takes over the counter with the smallest count when the summary is full, and inherits that count
+ * as its error, so each count overestimates the real count of its key by at most its error, and every key occurring
+ * more than n / capacity times in n offered events is counted. Counters with equal counts are kept in buckets that
+ * are linked in increasing order of count (the Stream-Summary structure), so offering an event takes O(1) time.
+ * The latest offered event of each counted key is kept in an {@link EventKeyTable}. A summary is not thread safe.
+ */
+public class SpaceSavingSummary {
+
+    private final EventKeyTable eventTable;
+    private final long[] errors;
+
+    // counters of a bucket are linked in both directions, and buckets are linked in increasing order of count
+    private final int[] counterBucket;
+    private final int[] counterPrevious;
+    private final int[] counterNext;
+    private final long[] bucketCount;
+    private final int[] bucketFirst;
+    private final int[] bucketPrevious;
+    private final int[] bucketNext;
+    private final int[] freeBuckets;
+    private int freeBucketCount;
+    private int minBucket;
+
+    /**
+     * @param capacity     maximum number of keys counted
+     * @param keyPositions positions of the key attributes in the events, or null to key by all of the output data
+     */
+    public SpaceSavingSummary(int capacity, int[][] keyPositions) {
+        this.eventTable = new EventKeyTable(capacity, keyPositions);
+        this.errors = new long[capacity];
+        this.counterBucket = new int[capacity];
+        this.counterPrevious = new int[capacity];
+        this.counterNext = new int[capacity];
+        this.bucketCount = new long[capacity];
+        this.bucketFirst = new int[capacity];
+        this.bucketPrevious = new int[capacity];
+        this.bucketNext = new int[capacity];
+        this.freeBuckets = new int[capacity];
+        clear();
+    }
+
+    /**
+     * Counts an event, and keeps it as the latest event of its key.
+     *
+     * @param streamEvent event to count
+     * @return the latest event of the key that lost its counter to the key of the given event, or null when no key
+     * lost its counter
+     */
+    public StreamEvent offer(StreamEvent streamEvent) {
+        long hash = eventTable.hash(streamEvent);
+        int counter = eventTable.find(streamEvent, hash);
+        if (counter != -1) {
+            eventTable.set(counter, streamEvent);
+            increment(counter);
+            return null;
+        }
+        if (!eventTable.isFull()) {
+            counter = eventTable.put(streamEvent, hash);
+            errors[counter] = 0;
+            attachWithCountOne(counter);
+            return null;
+        }
+        int minCounter = bucketFirst[minBucket];
+        StreamEvent evictedEvent = eventTable.remove(minCounter);
+        counter = eventTable.put(streamEvent, hash);  // reuses the entry of the min counter, freed last
+        errors[counter] = bucketCount[minBucket];
+        increment(counter);
+        return evictedEvent;
+    }
+
+    /**
+     * @return the count of the key of the event, overestimated by at most its error, or 0 when it is not counted
+     */
+    public long getCount(StreamEvent streamEvent) {
+        int counter = eventTable.find(streamEvent, eventTable.hash(streamEvent));
+        return counter == -1 ? 0 : bucketCount[counterBucket[counter]];
+    }
+
+    /**
+     * @return the maximum overestimation of the count of the key of the event, or 0 when it is not counted
+     */
+    public long getError(StreamEvent streamEvent) {
+        int counter = eventTable.find(streamEvent, eventTable.hash(streamEvent));
+        return counter == -1 ? 0 : errors[counter];
+    }
+
+    /**
+     * @return the smallest count, which bounds the real count of every key that is not counted, or 0 when the
+     * summary is not full
+     */
+    public long getMinCount() {
+        return eventTable.isFull() ? bucketCount[minBucket] : 0;
+    }
+
+    /**
+     * @return live view of the latest events of the counted keys
+     */
+    public Collection<StreamEvent> getEvents() {
+        return eventTable;
+    }
+
+    public int size() {
+        return eventTable.size();
+    }
+
+    public void clear() {
+        eventTable.clear();
+        for (int i = 0; i < freeBuckets.length; i++) {
+            freeBuckets[i] = freeBuckets.length - 1 - i;
+        }
+        freeBucketCount = freeBuckets.length;
+        minBucket = -1;
+    }
+
+    /**
+     * @return the latest events, counts and errors of the counted keys, in increasing order of count
+     */
+    public Object[] snapshot() {
+        List<StreamEvent> events = new ArrayList<StreamEvent>(eventTable.size());
+        long[] counts = new long[eventTable.size()];
+        long[] errors = new long[eventTable.size()];
+        int i = 0;
+        for (int bucket = minBucket; bucket != -1; bucket = bucketNext[bucket]) {
+            int counter = bucketFirst[bucket];
+            do {
+                events.add(eventTable.get(counter));
+                counts[i] = bucketCount[bucket];
+                errors[i] = this.errors[counter];
+                i++;
+                counter = counterNext[counter];
+            } while (counter != bucketFirst[bucket]);
+        }
+        return new Object[]{events, counts, errors};
+    }
+
+    @SuppressWarnings("unchecked")
+    public void restore(Object[] snapshot) {
+        clear();
+        List<StreamEvent> events = (List<StreamEvent>) snapshot[0];
+        long[] counts = (long[]) snapshot[1];
+        long[] errors = (long[]) snapshot[2];
+        int lastBucket = -1;
+        for (int i = 0; i < events.size(); i++) {
+            StreamEvent streamEvent = events.get(i);
+            int counter = eventTable.put(streamEvent, eventTable.hash(streamEvent));
+            this.errors[counter] = errors[i];
+            if (lastBucket != -1 && bucketCount[lastBucket] == counts[i]) {
+                link(counter, lastBucket);
+            } else {
+                lastBucket = newBucket(counts[i], lastBucket, -1);
+                link(counter, lastBucket);
+            }
+        }
+    }
+
+    private void attachWithCountOne(int counter) {
+        if (minBucket != -1 && bucketCount[minBucket] == 1) {
+            link(counter, minBucket);
+        } else {
+            link(counter, newBucket(1, -1, minBucket));
+        }
+    }
+
+    /**
+     * Moves a counter to the bucket following its own, creating that bucket when its count is not one more.
+     */
+    private void increment(int counter) {
+        int bucket = counterBucket[counter];
+        long count = bucketCount[bucket] + 1;
+        int next = bucketNext[bucket];
+        if (counterNext[counter] == counter) {
+            // the counter is alone in its bucket
+            if (next != -1 && bucketCount[next] == count) {
+                unlinkBucket(bucket);
+                link(counter, next);
+            } else {
+                bucketCount[bucket] = count;
+            }
+            return;
+        }
+        unlink(counter);
+        if (next != -1 && bucketCount[next] == count) {
+            link(counter, next);
+        } else {
+            link(counter, newBucket(count, bucket, next));
+        }
+    }
+
+    private int newBucket(long count, int previous, int next) {
+        int bucket = freeBuckets[--freeBucketCount];
+        bucketCount[bucket] = count;
+        bucketFirst[bucket] = -1;
+        bucketPrevious[bucket] = previous;
+        bucketNext[bucket] = next;
+        if (previous == -1) {
+            minBucket = bucket;
+        } else {
+            bucketNext[previous] = bucket;
+        }
+        if (next != -1) {
+            bucketPrevious[next] = bucket;
+        }
+        return bucket;
+    }
+
+    private void unlinkBucket(int bucket) {
+        int previous = bucketPrevious[bucket];
+        int next = bucketNext[bucket];
+        if (previous == -1) {
+            minBucket = next;
+        } else {
+            bucketNext[previous] = next;
+        }
+        if (next != -1) {
+            bucketPrevious[next] = previous;
+        }
+        freeBuckets[freeBucketCount++] = bucket;
+    }
+
+    private void link(int counter, int bucket) {
+        counterBucket[counter] = bucket;
+        int first = bucketFirst[bucket];
+        if (first == -1) {
+            counterPrevious[counter] = counter;
+            counterNext[counter] = counter;
+            bucketFirst[bucket] = counter;
+        } else {
+            int last = counterPrevious[first];
+            counterPrevious[counter] = last;
+            counterNext[counter] = first;
+            counterNext[last] = counter;
+            counterPrevious[first] = counter;
+        }
+    }
+
+    private void unlink(int counter) {
+        int bucket = counterBucket[counter];
+        int previous = counterPrevious[counter];
+        int next = counterNext[counter];
+        counterNext[previous] = next;
+        counterPrevious[next] = previous;
+        if (bucketFirst[bucket] == counter) {
+            bucketFirst[bucket] = next;
+        }
+    }
+}
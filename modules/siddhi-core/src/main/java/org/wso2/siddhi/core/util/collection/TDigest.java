@@ -0,0 +1,341 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.util.collection;
+
+import java.nio.ByteBuffer;
+
+/**
+ * t-digest estimating quantiles of the values added to it, with errors that are smallest near the extreme
+ * quantiles. Values are clustered into about compression centroids, each holding the mean and the weight of
+ * adjacent values, and the weight of a centroid at quantile q is limited to pi * n * sqrt(q * (1 - q)) /
+ * compression, which follows the arcsine scale function. A single added value is merged into its nearest centroid
+ * or inserted next to it when it is asked for a quantile, and more values are buffered and merged into the sorted
+ * centroids in one pass, which also joins adjacent centroids when too many have been inserted. Removing a value
+ * takes one unit of weight from the centroid nearest to it, which is approximate, as the removed value may have
+ * been clustered into a neighbouring centroid. Digests are merged by merging their centroids. A digest is not
+ * thread safe.
+ */
+public class TDigest {
+
+    private final double compression;
+    private double[] means;
+    private double[] weights;
+    private int size;
+    private double totalWeight;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+
+    private final double[] bufferMeans;
+    private final double[] bufferWeights;
+    private int bufferSize;
+
+    // merge output, swapped with the centroids after each merge
+    private double[] mergedMeans;
+    private double[] mergedWeights;
+
+    /**
+     * @param compression accuracy parameter, a compression of 100 keeps the rank error of quantiles around 1% near
+     *                    the median, and much lower near the extremes
+     */
+    public TDigest(double compression) {
+        if (compression < 10) {
+            throw new IllegalArgumentException("Compression should be at least 10, but found " + compression);
+        }
+        this.compression = compression;
+        int capacity = (int) Math.ceil(4 * compression) + 10;
+        this.means = new double[capacity];
+        this.weights = new double[capacity];
+        this.mergedMeans = new double[capacity];
+        this.mergedWeights = new double[capacity];
+        this.bufferMeans = new double[capacity];
+        this.bufferWeights = new double[capacity];
+    }
+
+    public void add(double value) {
+        add(value, 1);
+    }
+
+    public void add(double value, double weight) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        if (bufferSize == bufferMeans.length) {
+            flush();
+        }
+        bufferMeans[bufferSize] = value;
+        bufferWeights[bufferSize] = weight;
+        bufferSize++;
+        totalWeight += weight;
+        if (Double.isNaN(min) || value < min) {
+            min = value;
+        }
+        if (Double.isNaN(max) || value > max) {
+            max = value;
+        }
+    }
+
+    /**
+     * Removes a unit of weight from the centroid nearest to the value.
+     */
+    public void remove(double value) {
+        flush();
+        if (size == 0 || Double.isNaN(value)) {
+            return;
+        }
+        int nearest = findNearest(value);
+        totalWeight -= Math.min(1, weights[nearest]);
+        weights[nearest] -= 1;
+        if (weights[nearest] <= 0) {
+            System.arraycopy(means, nearest + 1, means, nearest, size - nearest - 1);
+            System.arraycopy(weights, nearest + 1, weights, nearest, size - nearest - 1);
+            size--;
+        }
+        if (size == 0) {
+            clear();
+            return;
+        }
+        // the extremes are only known while their centroids keep them
+        if (value <= min) {
+            min = means[0];
+        }
+        if (value >= max) {
+            max = means[size - 1];
+        }
+    }
+
+    /**
+     * @param quantile quantile between 0 and 1
+     * @return estimated value at the quantile, or NaN when the digest is empty
+     */
+    public double quantile(double quantile) {
+        flush();
+        if (size == 0) {
+            return Double.NaN;
+        }
+        if (size == 1) {
+            return means[0];
+        }
+        double index = quantile * totalWeight;
+        if (index < weights[0] / 2) {
+            return min + (means[0] - min) * Math.max(0, index) / (weights[0] / 2);
+        }
+        double cumulative = weights[0] / 2;
+        for (int i = 0; i < size - 1; i++) {
+            double gap = (weights[i] + weights[i + 1]) / 2;
+            if (index < cumulative + gap) {
+                return means[i] + (means[i + 1] - means[i]) * (index - cumulative) / gap;
+            }
+            cumulative += gap;
+        }
+        double lastHalf = weights[size - 1] / 2;
+        return means[size - 1] + (max - means[size - 1]) * Math.min(1, (index - cumulative) / lastHalf);
+    }
+
+    public double getTotalWeight() {
+        return totalWeight;
+    }
+
+    /**
+     * Adds the values summarized by another digest.
+     */
+    public void merge(TDigest tDigest) {
+        tDigest.flush();
+        for (int i = 0; i < tDigest.size; i++) {
+            add(tDigest.means[i], tDigest.weights[i]);
+        }
+        if (tDigest.size > 0) {
+            min = Double.isNaN(min) ? tDigest.min : Math.min(min, tDigest.min);
+            max = Double.isNaN(max) ? tDigest.max : Math.max(max, tDigest.max);
+        }
+    }
+
+    public void clear() {
+        size = 0;
+        bufferSize = 0;
+        totalWeight = 0;
+        min = Double.NaN;
+        max = Double.NaN;
+    }
+
+    /**
+     * @return the extremes and the centroids, as 8 bytes for each number
+     */
+    public byte[] toByteArray() {
+        flush();
+        ByteBuffer buffer = ByteBuffer.allocate(4 + 16 + 16 * size);
+        buffer.putInt(size);
+        buffer.putDouble(min);
+        buffer.putDouble(max);
+        for (int i = 0; i < size; i++) {
+            buffer.putDouble(means[i]);
+            buffer.putDouble(weights[i]);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Replaces the centroids by ones taken from {@link #toByteArray()}.
+     */
+    public void restore(byte[] bytes) {
+        clear();
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int restoredSize = buffer.getInt();
+        min = buffer.getDouble();
+        max = buffer.getDouble();
+        if (restoredSize > means.length) {
+            means = new double[restoredSize];
+            weights = new double[restoredSize];
+            mergedMeans = new double[restoredSize];
+            mergedWeights = new double[restoredSize];
+        }
+        for (int i = 0; i < restoredSize; i++) {
+            means[i] = buffer.getDouble();
+            weights[i] = buffer.getDouble();
+            totalWeight += weights[i];
+        }
+        size = restoredSize;
+    }
+
+    private void flush() {
+        if (bufferSize == 0) {
+            return;
+        }
+        if (bufferSize == 1 && size > 0 && size < means.length) {
+            insert(bufferMeans[0], bufferWeights[0]);
+            bufferSize = 0;
+            return;
+        }
+        merge();
+    }
+
+    /**
+     * Merges a value into its nearest centroid when the size limit allows, or inserts a centroid for it.
+     */
+    private void insert(double value, double weight) {
+        int nearest = findNearest(value);
+        double weightBefore = 0;
+        for (int i = 0; i < nearest; i++) {
+            weightBefore += weights[i];
+        }
+        double proposed = weights[nearest] + weight;
+        if (proposed <= sizeLimit((weightBefore + proposed / 2) / totalWeight)) {
+            means[nearest] += (value - means[nearest]) * weight / proposed;
+            weights[nearest] = proposed;
+            return;
+        }
+        int position = value < means[nearest] ? nearest : nearest + 1;
+        System.arraycopy(means, position, means, position + 1, size - position);
+        System.arraycopy(weights, position, weights, position + 1, size - position);
+        means[position] = value;
+        weights[position] = weight;
+        size++;
+    }
+
+    private double sizeLimit(double quantile) {
+        return Math.PI * totalWeight * Math.sqrt(quantile * (1 - quantile)) / compression;
+    }
+
+    /**
+     * Merges the buffered values into the centroids, joining adjacent centroids while the size limit allows.
+     */
+    private void merge() {
+        sortBuffer();
+        int mergedSize = 0;
+        double weightSoFar = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size || j < bufferSize) {
+            double mean;
+            double weight;
+            if (j == bufferSize || (i < size && means[i] <= bufferMeans[j])) {
+                mean = means[i];
+                weight = weights[i];
+                i++;
+            } else {
+                mean = bufferMeans[j];
+                weight = bufferWeights[j];
+                j++;
+            }
+            if (mergedSize > 0) {
+                double last = mergedWeights[mergedSize - 1];
+                double proposed = last + weight;
+                if (proposed <= sizeLimit((weightSoFar - last + proposed / 2) / totalWeight)) {
+                    mergedMeans[mergedSize - 1] += (mean - mergedMeans[mergedSize - 1]) * weight / proposed;
+                    mergedWeights[mergedSize - 1] = proposed;
+                    weightSoFar += weight;
+                    continue;
+                }
+            }
+            if (mergedSize == mergedMeans.length) {
+                mergedMeans = grow(mergedMeans);
+                mergedWeights = grow(mergedWeights);
+            }
+            mergedMeans[mergedSize] = mean;
+            mergedWeights[mergedSize] = weight;
+            mergedSize++;
+            weightSoFar += weight;
+        }
+        double[] swap = means;
+        means = mergedMeans;
+        mergedMeans = swap;
+        swap = weights;
+        weights = mergedWeights;
+        mergedWeights = swap;
+        if (mergedMeans.length < means.length) {
+            mergedMeans = new double[means.length];
+            mergedWeights = new double[means.length];
+        }
+        size = mergedSize;
+        bufferSize = 0;
+    }
+
+    private void sortBuffer() {
+        for (int i = 1; i < bufferSize; i++) {
+            double mean = bufferMeans[i];
+            double weight = bufferWeights[i];
+            int j = i - 1;
+            while (j >= 0 && bufferMeans[j] > mean) {
+                bufferMeans[j + 1] = bufferMeans[j];
+                bufferWeights[j + 1] = bufferWeights[j];
+                j--;
+            }
+            bufferMeans[j + 1] = mean;
+            bufferWeights[j + 1] = weight;
+        }
+    }
+
+    private int findNearest(double value) {
+        int low = 0;
+        int high = size - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (means[middle] < value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        if (low > 0 && value - means[low - 1] < means[low] - value) {
+            return low - 1;
+        }
+        return low;
+    }
+
+    private static double[] grow(double[] array) {
+        double[] grown = new double[array.length * 2];
+        System.arraycopy(array, 0, grown, 0, array.length);
+        return grown;
+    }
+}
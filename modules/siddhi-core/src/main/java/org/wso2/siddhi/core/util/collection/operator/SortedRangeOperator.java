@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.util.collection.operator;
+
+import org.wso2.siddhi.core.event.ComplexEvent;
+import org.wso2.siddhi.core.event.state.StateEvent;
+import org.wso2.siddhi.core.event.stream.StreamEvent;
+import org.wso2.siddhi.core.event.stream.StreamEventCloner;
+import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.core.util.collection.SortedStreamEventCollection;
+import org.wso2.siddhi.query.api.expression.condition.Compare;
+
+/**
+ * Operator of a condition comparing the first sort attribute of a {@link SortedStreamEventCollection} with a
+ * value of the matching event, e.g. the join condition
+ * <pre>
+ * from cseEventStream#window.sort(100, price) join orderStream on cseEventStream.price &lt;= orderStream.limit
+ * </pre>
+ * Only the events within the range of the comparison are evaluated against the whole condition. Other candidate
+ * events are searched the same as by the {@link SimpleOperator}.
+ */
+public class SortedRangeOperator extends SimpleOperator {
+    private final ExpressionExecutor boundExecutor;
+    private final Compare.Operator operator;
+
+    /**
+     * @param boundExecutor executor of the value the first sort attribute is compared with
+     * @param operator      operator with the sort attribute on its left and the value on its right
+     */
+    public SortedRangeOperator(ExpressionExecutor expressionExecutor, int candidateEventPosition,
+                               int matchingEventPosition, int streamEvents, long withinTime,
+                               ExpressionExecutor boundExecutor, Compare.Operator operator) {
+        super(expressionExecutor, candidateEventPosition, matchingEventPosition, streamEvents, withinTime);
+        this.boundExecutor = boundExecutor;
+        this.operator = operator;
+    }
+
+    @Override
+    public Finder cloneFinder() {
+        return new SortedRangeOperator(expressionExecutor, candidateEventPosition, matchingEventPosition,
+                streamEvents, withinTime, boundExecutor, operator);
+    }
+
+    @Override
+    public StreamEvent find(ComplexEvent matchingEvent, Object candidateEvents, StreamEventCloner streamEventCloner) {
+        if (candidateEvents instanceof SortedStreamEventCollection) {
+            candidateEvents = ((SortedStreamEventCollection) candidateEvents).range(operator, bound(matchingEvent));
+        }
+        return super.find(matchingEvent, candidateEvents, streamEventCloner);
+    }
+
+    @Override
+    public boolean contains(ComplexEvent matchingEvent, Object candidateEvents) {
+        if (candidateEvents instanceof SortedStreamEventCollection) {
+            candidateEvents = ((SortedStreamEventCollection) candidateEvents).range(operator, bound(matchingEvent));
+        }
+        return super.contains(matchingEvent, candidateEvents);
+    }
+
+    private Object bound(ComplexEvent matchingEvent) {
+        try {
+            if (matchingEvent instanceof StreamEvent) {
+                this.event.setEvent(matchingEventPosition, ((StreamEvent) matchingEvent));
+            } else {
+                this.event.setEvent(((StateEvent) matchingEvent));
+            }
+            return boundExecutor.execute(event);
+        } finally {
+            if (matchingEvent instanceof StreamEvent) {
+                this.event.setEvent(matchingEventPosition, null);
+            } else {
+                this.event.setEvent(null);
+            }
+        }
+    }
+}
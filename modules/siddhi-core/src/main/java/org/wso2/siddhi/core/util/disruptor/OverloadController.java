@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.util.disruptor;
+
+import com.lmax.disruptor.InsufficientCapacityException;
+import com.lmax.disruptor.RingBuffer;
+import org.wso2.siddhi.core.config.DisruptorConfig;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Claims ring slots according to the {@link DisruptorConfig.OverloadPolicy} of the ring.
+ * <p/>
+ * When the ring is full, {@link DisruptorConfig.OverloadPolicy#BLOCK} waits for a free slot,
+ * {@link DisruptorConfig.OverloadPolicy#BLOCK_TIMEOUT} waits up to the overload timeout and then drops the events,
+ * {@link DisruptorConfig.OverloadPolicy#DROP_NEWEST} drops the events being published and
+ * {@link DisruptorConfig.OverloadPolicy#SPILL} rejects them so that the publisher can spill them. Rings whose
+ * publishers cannot spill the events treat {@link DisruptorConfig.OverloadPolicy#SPILL} as
+ * {@link DisruptorConfig.OverloadPolicy#BLOCK}, so that no event is lost.
+ * {@link DisruptorConfig.OverloadPolicy#DROP_OLDEST} marks the older half of the queued events as discarded;
+ * the event handlers skip discarded sequences via {@link #isDiscarded(long)}, freeing the ring quickly. The
+ * publisher never waits on the handlers, if the ring is still full after a few retries the new events are
+ * dropped instead.
+ */
+public class OverloadController {
+
+    public static final long REJECTED = -1;
+    private static final long PARK_NANOS = 1000;
+    private static final int DROP_OLDEST_RETRIES = 3;
+
+    private final RingBuffer<?> ringBuffer;
+    private final DisruptorConfig.OverloadPolicy overloadPolicy;
+    private final long timeoutNanos;
+    private final boolean dropOldest;
+    private final AtomicLong droppedEvents = new AtomicLong(0);
+    private final AtomicLong discardBefore = new AtomicLong(-1);
+
+    public OverloadController(RingBuffer<?> ringBuffer, DisruptorConfig disruptorConfig) {
+        this(ringBuffer, disruptorConfig, false);
+    }
+
+    /**
+     * @param ringBuffer      ring to claim the slots of
+     * @param disruptorConfig configuration of the ring
+     * @param spillSupported  true if the publishers spill the rejected events, otherwise the
+     *                        {@link DisruptorConfig.OverloadPolicy#SPILL} policy blocks
+     */
+    public OverloadController(RingBuffer<?> ringBuffer, DisruptorConfig disruptorConfig, boolean spillSupported) {
+        this.ringBuffer = ringBuffer;
+        DisruptorConfig.OverloadPolicy overloadPolicy = disruptorConfig.getOverloadPolicy();
+        if (overloadPolicy == DisruptorConfig.OverloadPolicy.SPILL && !spillSupported) {
+            overloadPolicy = DisruptorConfig.OverloadPolicy.BLOCK;
+        }
+        this.overloadPolicy = overloadPolicy;
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(disruptorConfig.getOverloadTimeout());
+        this.dropOldest = overloadPolicy == DisruptorConfig.OverloadPolicy.DROP_OLDEST;
+    }
+
+    /**
+     * Claim the next slot of the ring
+     *
+     * @return the claimed sequence, or {@link #REJECTED} if the event is not accepted
+     */
+    public long next() {
+        return next(1);
+    }
+
+    /**
+     * Claim the next n slots of the ring, either all of them are claimed or none
+     *
+     * @param n number of slots to claim, not more than the buffer size
+     * @return the highest claimed sequence, or {@link #REJECTED} if the events are not accepted
+     */
+    public long next(int n) {
+        switch (overloadPolicy) {
+            case BLOCK_TIMEOUT: {
+                long deadline = System.nanoTime() + timeoutNanos;
+                while (true) {
+                    try {
+                        return ringBuffer.tryNext(n);
+                    } catch (InsufficientCapacityException e) {
+                        if (System.nanoTime() - deadline >= 0) {
+                            droppedEvents.addAndGet(n);
+                            return REJECTED;
+                        }
+                        LockSupport.parkNanos(PARK_NANOS);
+                    }
+                }
+            }
+            case DROP_NEWEST: {
+                try {
+                    return ringBuffer.tryNext(n);
+                } catch (InsufficientCapacityException e) {
+                    droppedEvents.addAndGet(n);
+                    return REJECTED;
+                }
+            }
+            case SPILL: {
+                try {
+                    return ringBuffer.tryNext(n);
+                } catch (InsufficientCapacityException e) {
+                    return REJECTED;
+                }
+            }
+            case DROP_OLDEST: {
+                for (int retries = 0; ; retries++) {
+                    try {
+                        return ringBuffer.tryNext(n);
+                    } catch (InsufficientCapacityException e) {
+                        if (retries == DROP_OLDEST_RETRIES) {
+                            droppedEvents.addAndGet(n);
+                            return REJECTED;
+                        }
+                        discardOldest();
+                        Thread.yield();
+                    }
+                }
+            }
+            default: {
+                return ringBuffer.next(n);
+            }
+        }
+    }
+
+    /**
+     * Try to claim the next slot of the ring without waiting, regardless of the overload policy
+     *
+     * @return the claimed sequence, or {@link #REJECTED} if the ring is full
+     */
+    public long tryNext() {
+        try {
+            return ringBuffer.tryNext();
+        } catch (InsufficientCapacityException e) {
+            return REJECTED;
+        }
+    }
+
+    private void discardOldest() {
+        long keepFrom = ringBuffer.getCursor() + 1 - ringBuffer.getBufferSize() / 2;
+        long consumed = ringBuffer.getMinimumGatingSequence();
+        while (true) {
+            long current = discardBefore.get();
+            if (keepFrom <= current) {
+                return;
+            }
+            if (discardBefore.compareAndSet(current, keepFrom)) {
+                long from = Math.max(current, consumed + 1);
+                if (keepFrom > from) {
+                    droppedEvents.addAndGet(keepFrom - from);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * @param sequence sequence of the event being consumed
+     * @return true if the event is dropped by the {@link DisruptorConfig.OverloadPolicy#DROP_OLDEST} policy and
+     * should not be processed
+     */
+    public boolean isDiscarded(long sequence) {
+        return dropOldest && sequence < discardBefore.get();
+    }
+
+    public void addDroppedEvents(long count) {
+        droppedEvents.addAndGet(count);
+    }
+
+    /**
+     * @return number of events dropped due to overload. Under {@link DisruptorConfig.OverloadPolicy#DROP_OLDEST}
+     * this is an estimate, as events the handlers already consumed while the discard mark was raised are
+     * counted as well
+     */
+    public long getDroppedEvents() {
+        return droppedEvents.get();
+    }
+
+    public DisruptorConfig.OverloadPolicy getOverloadPolicy() {
+        return overloadPolicy;
+    }
+}
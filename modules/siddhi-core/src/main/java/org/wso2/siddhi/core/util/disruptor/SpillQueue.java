@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.util.disruptor;
+
+import org.apache.log4j.Logger;
+import org.wso2.siddhi.core.event.Event;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+/**
+ * FIFO queue of events backed by a local file, holding the events that did not fit into a full ring.
+ * The file is created when the first event is spilled and removed once the queue is drained.
+ * The queue is not thread safe, callers should synchronize on it.
+ */
+public class SpillQueue {
+
+    private static final Logger log = Logger.getLogger(SpillQueue.class);
+
+    private final String name;
+    private final File directory;
+    private File file;
+    private ObjectOutputStream outputStream;
+    private ObjectInputStream inputStream;
+    private long size = 0;
+    private long spilledEvents = 0;
+
+    /**
+     * @param name      prefix of the spill file
+     * @param directory directory of the spill file, or null to use the default temporary-file directory
+     */
+    public SpillQueue(String name, String directory) {
+        this.name = name;
+        this.directory = directory == null ? null : new File(directory);
+    }
+
+    public void add(Event event) throws IOException {
+        add(event.getTimestamp(), event.isExpired(), event.getData());
+    }
+
+    public void add(long timestamp, boolean isExpired, Object[] data) throws IOException {
+        if (outputStream == null) {
+            file = File.createTempFile(name + "-", ".spill", directory);
+            file.deleteOnExit();
+            outputStream = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        }
+        outputStream.writeLong(timestamp);
+        outputStream.writeBoolean(isExpired);
+        outputStream.writeObject(data);
+        //not to retain references of the written objects
+        outputStream.reset();
+        size++;
+        spilledEvents++;
+    }
+
+    /**
+     * Remove the oldest spilled event
+     *
+     * @param event event to copy the spilled event into
+     * @return false if the queue is empty
+     * @throws IOException if the spill file cannot be read, the remaining events are then discarded
+     */
+    public boolean poll(Event event) throws IOException {
+        if (size == 0) {
+            return false;
+        }
+        try {
+            outputStream.flush();
+            if (inputStream == null) {
+                inputStream = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)));
+            }
+            event.setTimestamp(inputStream.readLong());
+            event.setIsExpired(inputStream.readBoolean());
+            Object[] data = (Object[]) inputStream.readObject();
+            System.arraycopy(data, 0, event.getData(), 0, data.length);
+        } catch (ClassNotFoundException e) {
+            clear();
+            throw new IOException("Cannot read spilled event from " + file, e);
+        } catch (IOException e) {
+            clear();
+            throw e;
+        }
+        size--;
+        if (size == 0) {
+            clear();
+        }
+        return true;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    /**
+     * @return total number of events spilled to the file
+     */
+    public long getSpilledEvents() {
+        return spilledEvents;
+    }
+
+    /**
+     * Discard all the spilled events and remove the spill file
+     *
+     * @return number of events discarded
+     */
+    public long clear() {
+        long discarded = size;
+        size = 0;
+        try {
+            if (inputStream != null) {
+                inputStream.close();
+            }
+            if (outputStream != null) {
+                outputStream.close();
+            }
+        } catch (IOException e) {
+            log.warn("Error closing spill file " + file, e);
+        }
+        inputStream = null;
+        outputStream = null;
+        if (file != null && !file.delete()) {
+            log.warn("Cannot delete spill file " + file);
+        }
+        file = null;
+        return discarded;
+    }
+}
@@ -24,10 +24,12 @@ import org.wso2.siddhi.core.table.EventTable;
 import org.wso2.siddhi.core.util.collection.operator.Operator;
 import org.wso2.siddhi.core.util.collection.operator.SimpleIndexedOperator;
 import org.wso2.siddhi.core.util.collection.operator.SimpleOperator;
+import org.wso2.siddhi.core.util.collection.operator.SortedRangeOperator;
 import org.wso2.siddhi.query.api.definition.AbstractDefinition;
 import org.wso2.siddhi.query.api.definition.Attribute;
 import org.wso2.siddhi.query.api.expression.Expression;
 import org.wso2.siddhi.query.api.expression.Variable;
+import org.wso2.siddhi.query.api.expression.condition.And;
 import org.wso2.siddhi.query.api.expression.condition.Compare;
 import org.wso2.siddhi.query.api.expression.constant.Constant;
 
@@ -42,6 +44,25 @@ public class CollectionOperatorParser {
 
     public static Operator parse(Expression expression, MetaComplexEvent metaComplexEvent, ExecutionPlanContext executionPlanContext, List<VariableExpressionExecutor> variableExpressionExecutors,
                                Map<String, EventTable> eventTableMap, int matchingStreamIndex, AbstractDefinition candidateDefinition, long withinTime) {
+        return parseOperator(expression, metaComplexEvent, executionPlanContext, variableExpressionExecutors,
+                eventTableMap, matchingStreamIndex, candidateDefinition, withinTime, null);
+    }
+
+    /**
+     * Parse the operator searching a {@link org.wso2.siddhi.core.util.collection.SortedStreamEventCollection},
+     * which only evaluates the events within the range of a comparison of the first sort attribute when the
+     * expression is such a comparison or a conjunction containing one.
+     *
+     * @param sortedAttribute name of the first sort attribute of the candidate events
+     */
+    public static Operator parseSorted(Expression expression, MetaComplexEvent metaComplexEvent, ExecutionPlanContext executionPlanContext, List<VariableExpressionExecutor> variableExpressionExecutors,
+                                       Map<String, EventTable> eventTableMap, int matchingStreamIndex, AbstractDefinition candidateDefinition, long withinTime, String sortedAttribute) {
+        return parseOperator(expression, metaComplexEvent, executionPlanContext, variableExpressionExecutors,
+                eventTableMap, matchingStreamIndex, candidateDefinition, withinTime, sortedAttribute);
+    }
+
+    private static Operator parseOperator(Expression expression, MetaComplexEvent metaComplexEvent, ExecutionPlanContext executionPlanContext, List<VariableExpressionExecutor> variableExpressionExecutors,
+                                          Map<String, EventTable> eventTableMap, int matchingStreamIndex, AbstractDefinition candidateDefinition, long withinTime, String sortedAttribute) {
 
         int candidateEventPosition = 0;
         int size = 0;
@@ -88,9 +109,103 @@ public class CollectionOperatorParser {
 
         ExpressionExecutor expressionExecutor = ExpressionParser.parseExpression(expression,
                 metaStateEvent, matchingStreamIndex, eventTableMap, variableExpressionExecutors, executionPlanContext, false, 0);
+        if (sortedAttribute != null) {
+            Compare compare = findRangeCompare(expression, metaStateEvent.getMetaStreamEvent(candidateEventPosition),
+                    sortedAttribute);
+            if (compare != null) {
+                boolean sortedOnLeft = compare.getLeftExpression() instanceof Variable &&
+                        isCandidateVariable((Variable) compare.getLeftExpression(),
+                                metaStateEvent.getMetaStreamEvent(candidateEventPosition), sortedAttribute);
+                ExpressionExecutor boundExecutor = ExpressionParser.parseExpression(sortedOnLeft ?
+                                compare.getRightExpression() : compare.getLeftExpression(), metaStateEvent,
+                        matchingStreamIndex, eventTableMap, variableExpressionExecutors, executionPlanContext, false, 0);
+                if (boundExecutor.getReturnType() == candidateDefinition.getAttributeType(sortedAttribute)) {
+                    return new SortedRangeOperator(expressionExecutor, candidateEventPosition, matchingStreamIndex,
+                            size, withinTime, boundExecutor, sortedOnLeft ? compare.getOperator() :
+                            reverse(compare.getOperator()));
+                }
+            }
+        }
         return new SimpleOperator(expressionExecutor, candidateEventPosition, matchingStreamIndex, size, withinTime);
     }
 
+    /**
+     * @return the first comparison within the conjunctions of the expression, that compares the sorted attribute
+     * of the candidate events with a constant or an attribute of another stream, null when there is none
+     */
+    private static Compare findRangeCompare(Expression expression, MetaStreamEvent candidateStreamEvent,
+                                            String sortedAttribute) {
+        if (expression instanceof And) {
+            Compare compare = findRangeCompare(((And) expression).getLeftExpression(), candidateStreamEvent,
+                    sortedAttribute);
+            if (compare != null) {
+                return compare;
+            }
+            return findRangeCompare(((And) expression).getRightExpression(), candidateStreamEvent, sortedAttribute);
+        } else if (expression instanceof Compare) {
+            Compare compare = (Compare) expression;
+            switch (compare.getOperator()) {
+                case LESS_THAN:
+                case LESS_THAN_EQUAL:
+                case GREATER_THAN:
+                case GREATER_THAN_EQUAL:
+                case EQUAL:
+                    break;
+                default:
+                    return null;
+            }
+            Expression left = compare.getLeftExpression();
+            Expression right = compare.getRightExpression();
+            if (left instanceof Variable && isCandidateVariable((Variable) left, candidateStreamEvent, sortedAttribute)
+                    && isOtherStreamValue(right, candidateStreamEvent)) {
+                return compare;
+            } else if (right instanceof Variable && isCandidateVariable((Variable) right, candidateStreamEvent,
+                    sortedAttribute) && isOtherStreamValue(left, candidateStreamEvent)) {
+                return compare;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isCandidateVariable(Variable variable, MetaStreamEvent candidateStreamEvent,
+                                               String sortedAttribute) {
+        return variable.getAttributeName().equals(sortedAttribute) && isCandidateStream(variable.getStreamId(),
+                candidateStreamEvent);
+    }
+
+    private static boolean isOtherStreamValue(Expression expression, MetaStreamEvent candidateStreamEvent) {
+        if (expression instanceof Constant) {
+            return true;
+        }
+        return expression instanceof Variable && ((Variable) expression).getStreamId() != null &&
+                !isCandidateStream(((Variable) expression).getStreamId(), candidateStreamEvent);
+    }
+
+    private static boolean isCandidateStream(String streamId, MetaStreamEvent candidateStreamEvent) {
+        if (streamId == null) {
+            return false;
+        }
+        if (candidateStreamEvent.getInputReferenceId() != null) {
+            return streamId.equals(candidateStreamEvent.getInputReferenceId());
+        }
+        return streamId.equals(candidateStreamEvent.getLastInputDefinition().getId());
+    }
+
+    private static Compare.Operator reverse(Compare.Operator operator) {
+        switch (operator) {
+            case LESS_THAN:
+                return Compare.Operator.GREATER_THAN;
+            case LESS_THAN_EQUAL:
+                return Compare.Operator.GREATER_THAN_EQUAL;
+            case GREATER_THAN:
+                return Compare.Operator.LESS_THAN;
+            case GREATER_THAN_EQUAL:
+                return Compare.Operator.LESS_THAN_EQUAL;
+            default:
+                return operator;
+        }
+    }
+
     public static Operator parse(Expression expression, MetaComplexEvent metaComplexEvent, ExecutionPlanContext executionPlanContext, List<VariableExpressionExecutor> variableExpressionExecutors,
                                Map<String, EventTable> eventTableMap, int matchingStreamIndex, AbstractDefinition candidateDefinition, long withinTime, String indexedAttribute) {
 
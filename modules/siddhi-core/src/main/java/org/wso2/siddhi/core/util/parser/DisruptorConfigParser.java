@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.util.parser;
+
+import com.lmax.disruptor.dsl.ProducerType;
+import org.wso2.siddhi.core.config.DisruptorConfig;
+import org.wso2.siddhi.core.exception.ExecutionPlanCreationException;
+import org.wso2.siddhi.core.util.SiddhiConstants;
+import org.wso2.siddhi.query.api.annotation.Annotation;
+import org.wso2.siddhi.query.api.annotation.Element;
+import org.wso2.siddhi.query.api.util.AnnotationHelper;
+
+import java.util.List;
+
+public class DisruptorConfigParser {
+
+    private static final String[] CONFIG_ANNOTATIONS = {SiddhiConstants.ANNOTATION_PARALLEL,
+            SiddhiConstants.ANNOTATION_PIPELINE, SiddhiConstants.ANNOTATION_CONFIG};
+
+    /**
+     * Parse the disruptor tuning elements given in the @Parallel, @Pipeline and @config annotations, e.g.
+     * <pre>
+     * &#64;Parallel(buffer.size = '4096', wait.strategy = 'busy.spin', producer.type = 'single')
+     * </pre>
+     * A producer.type of 'single' only applies to rings with a single publisher, it is ignored for rings that
+     * more than one thread publishes to.
+     *
+     * @param annotations   annotations of the stream, query or execution plan
+     * @param defaultConfig configuration used for the elements that are not given
+     * @return DisruptorConfig
+     */
+    public static DisruptorConfig parse(List<Annotation> annotations, DisruptorConfig defaultConfig) {
+        DisruptorConfig disruptorConfig = new DisruptorConfig(defaultConfig);
+        for (String annotationName : CONFIG_ANNOTATIONS) {
+            Element element = AnnotationHelper.getAnnotationElement(annotationName,
+                    SiddhiConstants.ANNOTATION_ELEMENT_BUFFER_SIZE, annotations);
+            if (element != null) {
+                disruptorConfig.setBufferSize(parseBufferSize(element.getValue()));
+            }
+            element = AnnotationHelper.getAnnotationElement(annotationName,
+                    SiddhiConstants.ANNOTATION_ELEMENT_WAIT_STRATEGY, annotations);
+            if (element != null) {
+                disruptorConfig.setWaitStrategyType(parseWaitStrategy(element.getValue()));
+            }
+            element = AnnotationHelper.getAnnotationElement(annotationName,
+                    SiddhiConstants.ANNOTATION_ELEMENT_WAIT_TIMEOUT, annotations);
+            if (element != null) {
+                disruptorConfig.setWaitTimeout(parseTimeout(SiddhiConstants.ANNOTATION_ELEMENT_WAIT_TIMEOUT,
+                        element.getValue()));
+            }
+            element = AnnotationHelper.getAnnotationElement(annotationName,
+                    SiddhiConstants.ANNOTATION_ELEMENT_PRODUCER_TYPE, annotations);
+            if (element != null) {
+                disruptorConfig.setProducerType(parseProducerType(element.getValue()));
+            }
+            element = AnnotationHelper.getAnnotationElement(annotationName,
+                    SiddhiConstants.ANNOTATION_ELEMENT_OVERLOAD_POLICY, annotations);
+            if (element != null) {
+                disruptorConfig.setOverloadPolicy(parseOverloadPolicy(element.getValue()));
+            }
+            element = AnnotationHelper.getAnnotationElement(annotationName,
+                    SiddhiConstants.ANNOTATION_ELEMENT_OVERLOAD_TIMEOUT, annotations);
+            if (element != null) {
+                disruptorConfig.setOverloadTimeout(parseTimeout(SiddhiConstants.ANNOTATION_ELEMENT_OVERLOAD_TIMEOUT,
+                        element.getValue()));
+            }
+            element = AnnotationHelper.getAnnotationElement(annotationName,
+                    SiddhiConstants.ANNOTATION_ELEMENT_SPILL_DIRECTORY, annotations);
+            if (element != null) {
+                disruptorConfig.setSpillDirectory(element.getValue().trim());
+            }
+        }
+        return disruptorConfig;
+    }
+
+    private static int parseBufferSize(String value) {
+        int bufferSize;
+        try {
+            bufferSize = Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new ExecutionPlanCreationException(SiddhiConstants.ANNOTATION_ELEMENT_BUFFER_SIZE +
+                    " should be an integer, but found '" + value + "'", e);
+        }
+        if (bufferSize < 1 || Integer.bitCount(bufferSize) != 1) {
+            throw new ExecutionPlanCreationException(SiddhiConstants.ANNOTATION_ELEMENT_BUFFER_SIZE +
+                    " should be a power of 2, but found " + bufferSize);
+        }
+        return bufferSize;
+    }
+
+    private static DisruptorConfig.WaitStrategyType parseWaitStrategy(String value) {
+        String waitStrategy = value.trim();
+        if (SiddhiConstants.WAIT_STRATEGY_BUSY_SPIN.equalsIgnoreCase(waitStrategy)) {
+            return DisruptorConfig.WaitStrategyType.BUSY_SPIN;
+        } else if (SiddhiConstants.WAIT_STRATEGY_YIELDING.equalsIgnoreCase(waitStrategy)) {
+            return DisruptorConfig.WaitStrategyType.YIELDING;
+        } else if (SiddhiConstants.WAIT_STRATEGY_SLEEPING.equalsIgnoreCase(waitStrategy)) {
+            return DisruptorConfig.WaitStrategyType.SLEEPING;
+        } else if (SiddhiConstants.WAIT_STRATEGY_BLOCKING.equalsIgnoreCase(waitStrategy)) {
+            return DisruptorConfig.WaitStrategyType.BLOCKING;
+        } else if (SiddhiConstants.WAIT_STRATEGY_TIMEOUT_BLOCKING.equalsIgnoreCase(waitStrategy)) {
+            return DisruptorConfig.WaitStrategyType.TIMEOUT_BLOCKING;
+        }
+        throw new ExecutionPlanCreationException("Unknown " + SiddhiConstants.ANNOTATION_ELEMENT_WAIT_STRATEGY +
+                " '" + value + "', supported strategies are " + SiddhiConstants.WAIT_STRATEGY_BUSY_SPIN + ", " +
+                SiddhiConstants.WAIT_STRATEGY_YIELDING + ", " + SiddhiConstants.WAIT_STRATEGY_SLEEPING + ", " +
+                SiddhiConstants.WAIT_STRATEGY_BLOCKING + " and " + SiddhiConstants.WAIT_STRATEGY_TIMEOUT_BLOCKING);
+    }
+
+    private static long parseTimeout(String elementName, String value) {
+        try {
+            long timeout = Long.parseLong(value.trim());
+            if (timeout > 0) {
+                return timeout;
+            }
+        } catch (NumberFormatException e) {
+            throw new ExecutionPlanCreationException(elementName +
+                    " should be a positive number of milliseconds, but found '" + value + "'", e);
+        }
+        throw new ExecutionPlanCreationException(elementName +
+                " should be a positive number of milliseconds, but found '" + value + "'");
+    }
+
+    private static ProducerType parseProducerType(String value) {
+        String producerType = value.trim();
+        if (SiddhiConstants.PRODUCER_TYPE_SINGLE.equalsIgnoreCase(producerType)) {
+            return ProducerType.SINGLE;
+        } else if (SiddhiConstants.PRODUCER_TYPE_MULTI.equalsIgnoreCase(producerType)) {
+            return ProducerType.MULTI;
+        }
+        throw new ExecutionPlanCreationException("Unknown " + SiddhiConstants.ANNOTATION_ELEMENT_PRODUCER_TYPE +
+                " '" + value + "', supported types are " + SiddhiConstants.PRODUCER_TYPE_SINGLE + " and " +
+                SiddhiConstants.PRODUCER_TYPE_MULTI);
+    }
+
+    private static DisruptorConfig.OverloadPolicy parseOverloadPolicy(String value) {
+        String overloadPolicy = value.trim();
+        if (SiddhiConstants.OVERLOAD_POLICY_BLOCK.equalsIgnoreCase(overloadPolicy)) {
+            return DisruptorConfig.OverloadPolicy.BLOCK;
+        } else if (SiddhiConstants.OVERLOAD_POLICY_BLOCK_TIMEOUT.equalsIgnoreCase(overloadPolicy)) {
+            return DisruptorConfig.OverloadPolicy.BLOCK_TIMEOUT;
+        } else if (SiddhiConstants.OVERLOAD_POLICY_DROP_NEWEST.equalsIgnoreCase(overloadPolicy)) {
+            return DisruptorConfig.OverloadPolicy.DROP_NEWEST;
+        } else if (SiddhiConstants.OVERLOAD_POLICY_DROP_OLDEST.equalsIgnoreCase(overloadPolicy)) {
+            return DisruptorConfig.OverloadPolicy.DROP_OLDEST;
+        } else if (SiddhiConstants.OVERLOAD_POLICY_SPILL.equalsIgnoreCase(overloadPolicy)) {
+            return DisruptorConfig.OverloadPolicy.SPILL;
+        }
+        throw new ExecutionPlanCreationException("Unknown " + SiddhiConstants.ANNOTATION_ELEMENT_OVERLOAD_POLICY +
+                " '" + value + "', supported policies are " + SiddhiConstants.OVERLOAD_POLICY_BLOCK + ", " +
+                SiddhiConstants.OVERLOAD_POLICY_BLOCK_TIMEOUT + ", " + SiddhiConstants.OVERLOAD_POLICY_DROP_NEWEST +
+                ", " + SiddhiConstants.OVERLOAD_POLICY_DROP_OLDEST + " and " + SiddhiConstants.OVERLOAD_POLICY_SPILL);
+    }
+}
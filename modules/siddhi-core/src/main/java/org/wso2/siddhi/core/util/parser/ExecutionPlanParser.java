@@ -14,15 +14,18 @@
  */
 package org.wso2.siddhi.core.util.parser;
 
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.wso2.siddhi.core.ExecutionPlanRuntime;
+import org.wso2.siddhi.core.config.DisruptorConfig;
 import org.wso2.siddhi.core.config.ExecutionPlanContext;
+import org.wso2.siddhi.core.config.ExecutorServiceProvider;
 import org.wso2.siddhi.core.config.SiddhiContext;
 import org.wso2.siddhi.core.exception.ExecutionPlanCreationException;
 import org.wso2.siddhi.core.partition.PartitionRuntime;
 import org.wso2.siddhi.core.query.QueryRuntime;
+import org.wso2.siddhi.core.stream.input.EventLoopLock;
 import org.wso2.siddhi.core.util.ElementIdGenerator;
 import org.wso2.siddhi.core.util.SiddhiConstants;
+import org.wso2.siddhi.core.util.TimerWheel;
 import org.wso2.siddhi.core.util.persistence.PersistenceService;
 import org.wso2.siddhi.core.util.snapshot.SnapshotService;
 import org.wso2.siddhi.core.util.timestamp.SystemCurrentTimeMillisTimestampGenerator;
@@ -41,12 +44,9 @@ import org.wso2.siddhi.query.api.execution.partition.Partition;
 import org.wso2.siddhi.query.api.execution.query.Query;
 import org.wso2.siddhi.query.api.util.AnnotationHelper;
 
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingDeque;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
 
 public class ExecutionPlanParser {
@@ -89,15 +89,36 @@ public class ExecutionPlanParser {
                 executionPlanContext.setParallel(true);
             }
 
-            if (!executionPlanContext.isPlayback() && !executionPlanContext.isEnforceOrder() && !executionPlanContext.isParallel()) {
-                executionPlanContext.setSharedLock(new ReentrantLock());
+            annotation = AnnotationHelper.getAnnotation(SiddhiConstants.ANNOTATION_COMPILE,
+                    executionPlan.getAnnotations());
+            if (annotation != null) {
+                executionPlanContext.setCompileExpressions(true);
             }
 
-            executionPlanContext.setExecutorService(new ThreadPoolExecutor(25, Integer.MAX_VALUE,
-                    60L, TimeUnit.SECONDS,
-                    new LinkedBlockingDeque<Runnable>(), new ThreadFactoryBuilder().setNameFormat(executionPlanContext.getName()+"thread-%d").build()));
+            executionPlanContext.setStatsEnabled(parseStatistics(executionPlan.getAnnotations()));
+
+            executionPlanContext.setDisruptorConfig(DisruptorConfigParser.parse(executionPlan.getAnnotations(),
+                    new DisruptorConfig(siddhiContext.getEventBufferSize())));
+
+            if (!executionPlanContext.isPlayback() && !executionPlanContext.isEnforceOrder() && !executionPlanContext.isParallel()) {
+                annotation = AnnotationHelper.getAnnotation(SiddhiConstants.ANNOTATION_EVENT_LOOP,
+                        executionPlan.getAnnotations());
+                if (annotation != null) {
+                    executionPlanContext.setSharedLock(new EventLoopLock());
+                } else {
+                    executionPlanContext.setSharedLock(new ReentrantLock());
+                }
+            }
 
-            executionPlanContext.setScheduledExecutorService(Executors.newScheduledThreadPool(5));
+            ExecutorServiceProvider executorServiceProvider = siddhiContext.getExecutorServiceProvider();
+            executionPlanContext.setExecutorService(executorServiceProvider.getExecutorService(
+                    executionPlanContext.getName()));
+            executionPlanContext.setScheduledExecutorService(executorServiceProvider.getScheduledExecutorService(
+                    executionPlanContext.getName()));
+            // Timer events are sent on the scheduler threads, the consumer threads are held by the disruptor
+            // consumers and a bounded consumer pool rejects any other task
+            executionPlanContext.setTimerWheel(new TimerWheel(executionPlanContext.getScheduledExecutorService(),
+                    parseTimerTick(executionPlan.getAnnotations())));
             executionPlanContext.setTimestampGenerator(new SystemCurrentTimeMillisTimestampGenerator());
             executionPlanContext.setSnapshotService(new SnapshotService(executionPlanContext));
             executionPlanContext.setPersistenceService(new PersistenceService(executionPlanContext));
@@ -135,6 +156,49 @@ public class ExecutionPlanParser {
         return executionPlanRuntime;
     }
 
+    /**
+     * Parse whether the execution plan logs its statistics, given as <code>@plan:Statistics('false')</code>.
+     * Statistics are enabled unless disabled.
+     */
+    private static boolean parseStatistics(List<Annotation> annotations) {
+        Element element = AnnotationHelper.getAnnotationElement(SiddhiConstants.ANNOTATION_STATISTICS, null,
+                annotations);
+        if (element == null) {
+            return true;
+        }
+        String value = element.getValue().trim();
+        if ("true".equalsIgnoreCase(value)) {
+            return true;
+        } else if ("false".equalsIgnoreCase(value)) {
+            return false;
+        }
+        throw new ExecutionPlanCreationException("@" + SiddhiConstants.ANNOTATION_STATISTICS +
+                " should be 'true' or 'false', but found '" + element.getValue() + "'");
+    }
+
+    /**
+     * Parse the tick resolution of the timer wheel given as <code>@plan:config(timer.tick = '10')</code>, in
+     * milliseconds
+     */
+    private static long parseTimerTick(List<Annotation> annotations) {
+        Element element = AnnotationHelper.getAnnotationElement(SiddhiConstants.ANNOTATION_CONFIG,
+                SiddhiConstants.ANNOTATION_ELEMENT_TIMER_TICK, annotations);
+        if (element == null) {
+            return SiddhiConstants.DEFAULT_TIMER_TICK;
+        }
+        try {
+            long timerTick = Long.parseLong(element.getValue().trim());
+            if (timerTick > 0) {
+                return timerTick;
+            }
+        } catch (NumberFormatException e) {
+            throw new ExecutionPlanCreationException(SiddhiConstants.ANNOTATION_ELEMENT_TIMER_TICK +
+                    " should be a positive number of milliseconds, but found '" + element.getValue() + "'", e);
+        }
+        throw new ExecutionPlanCreationException(SiddhiConstants.ANNOTATION_ELEMENT_TIMER_TICK +
+                " should be a positive number of milliseconds, but found '" + element.getValue() + "'");
+    }
+
     private static void defineFunctionDefinitions(ExecutionPlanRuntime executionPlanRuntime, Map<String, FunctionDefinition> functionDefinitionMap) {
         for (FunctionDefinition definition : functionDefinitionMap.values()) {
             executionPlanRuntime.defineFunction(definition);
@@ -22,6 +22,7 @@ import org.wso2.siddhi.core.exception.ExecutionPlanCreationException;
 import org.wso2.siddhi.core.exception.OperationNotSupportedException;
 import org.wso2.siddhi.core.executor.ConstantExpressionExecutor;
 import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.core.executor.SharedExpressionExecutor;
 import org.wso2.siddhi.core.executor.VariableExpressionExecutor;
 import org.wso2.siddhi.core.executor.condition.*;
 import org.wso2.siddhi.core.executor.condition.compare.contains.ContainsCompareConditionExpressionExecutor;
@@ -75,6 +76,8 @@ import org.wso2.siddhi.query.api.expression.function.AttributeFunction;
 import org.wso2.siddhi.query.api.expression.function.AttributeFunctionExtension;
 import org.wso2.siddhi.query.api.expression.math.*;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -99,46 +102,76 @@ public class ExpressionParser {
     public static ExpressionExecutor parseExpression(Expression expression, MetaComplexEvent metaEvent, int currentState,
                                                      Map<String, EventTable> eventTableMap, List<VariableExpressionExecutor> executorList,
                                                      ExecutionPlanContext executionPlanContext, boolean groupBy, int defaultStreamEventIndex) {
+        return parseExpression(expression, metaEvent, currentState, eventTableMap, executorList, executionPlanContext,
+                groupBy, defaultStreamEventIndex, null);
+    }
+
+    /**
+     * Parse the given expression sharing the executors of the common sub expressions found by
+     * {@link #findSharedExpressions(List)}, so each of them is evaluated once per event.
+     *
+     * @param expression              Expression to be parsed
+     * @param metaEvent
+     * @param currentState
+     * @param eventTableMap
+     * @param executorList            List to hold VariableExpressionExecutors to update after query parsing
+     * @param executionPlanContext
+     * @param defaultStreamEventIndex
+     * @param sharedExecutors         executors of the sub expressions to be shared, null if nothing is shared
+     * @return ExpressionExecutor
+     */
+    public static ExpressionExecutor parseExpression(Expression expression, MetaComplexEvent metaEvent, int currentState,
+                                                     Map<String, EventTable> eventTableMap, List<VariableExpressionExecutor> executorList,
+                                                     ExecutionPlanContext executionPlanContext, boolean groupBy, int defaultStreamEventIndex,
+                                                     Map<Expression, SharedExpressionExecutor> sharedExecutors) {
+        if (sharedExecutors == null || !sharedExecutors.containsKey(expression)) {
+            return parseExpressionTree(expression, metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex, sharedExecutors);
+        }
+        SharedExpressionExecutor sharedExecutor = sharedExecutors.get(expression);
+        if (sharedExecutor == null) {
+            ExpressionExecutor expressionExecutor = parseExpressionTree(expression, metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex, sharedExecutors);
+            if (expressionExecutor instanceof ConstantExpressionExecutor) {
+                return expressionExecutor;
+            }
+            sharedExecutor = new SharedExpressionExecutor(expressionExecutor);
+            sharedExecutors.put(expression, sharedExecutor);
+        }
+        return sharedExecutor;
+    }
+
+    private static ExpressionExecutor parseExpressionTree(Expression expression, MetaComplexEvent metaEvent, int currentState,
+                                                          Map<String, EventTable> eventTableMap, List<VariableExpressionExecutor> executorList,
+                                                          ExecutionPlanContext executionPlanContext, boolean groupBy, int defaultStreamEventIndex,
+                                                          Map<Expression, SharedExpressionExecutor> sharedExecutors) {
         if (expression instanceof And) {
-            return new AndConditionExpressionExecutor(
-                    parseExpression(((And) expression).getLeftExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext,
-                            groupBy, defaultStreamEventIndex),
-                    parseExpression(((And) expression).getRightExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex));
+            return simplifyAnd(new AndConditionExpressionExecutor(
+                    parseExpression(((And) expression).getLeftExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex, sharedExecutors),
+                    parseExpression(((And) expression).getRightExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex, sharedExecutors)));
         } else if (expression instanceof Or) {
-            return new OrConditionExpressionExecutor(
-                    parseExpression(((Or) expression).getLeftExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex),
-                    parseExpression(((Or) expression).getRightExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex));
+            return simplifyOr(new OrConditionExpressionExecutor(
+                    parseExpression(((Or) expression).getLeftExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex, sharedExecutors),
+                    parseExpression(((Or) expression).getRightExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex, sharedExecutors)));
         } else if (expression instanceof Not) {
-            return new NotConditionExpressionExecutor(parseExpression(((Not) expression).getExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex));
+            return simplifyNot(new NotConditionExpressionExecutor(
+                    parseExpression(((Not) expression).getExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex, sharedExecutors)));
         } else if (expression instanceof Compare) {
-            if (((Compare) expression).getOperator() == Compare.Operator.EQUAL) {
-                return parseEqualCompare(
-                        parseExpression(((Compare) expression).getLeftExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex),
-                        parseExpression(((Compare) expression).getRightExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex));
-            } else if (((Compare) expression).getOperator() == Compare.Operator.NOT_EQUAL) {
-                return parseNotEqualCompare(
-                        parseExpression(((Compare) expression).getLeftExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex),
-                        parseExpression(((Compare) expression).getRightExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex));
-            } else if (((Compare) expression).getOperator() == Compare.Operator.GREATER_THAN) {
-                return parseGreaterThanCompare(
-                        parseExpression(((Compare) expression).getLeftExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex),
-                        parseExpression(((Compare) expression).getRightExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex));
-            } else if (((Compare) expression).getOperator() == Compare.Operator.GREATER_THAN_EQUAL) {
-                return parseGreaterThanEqualCompare(
-                        parseExpression(((Compare) expression).getLeftExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex),
-                        parseExpression(((Compare) expression).getRightExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex));
-            } else if (((Compare) expression).getOperator() == Compare.Operator.LESS_THAN) {
-                return parseLessThanCompare(
-                        parseExpression(((Compare) expression).getLeftExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex),
-                        parseExpression(((Compare) expression).getRightExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex));
-            } else if (((Compare) expression).getOperator() == Compare.Operator.LESS_THAN_EQUAL) {
-                return parseLessThanEqualCompare(
-                        parseExpression(((Compare) expression).getLeftExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex),
-                        parseExpression(((Compare) expression).getRightExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex));
-            } else if (((Compare) expression).getOperator() == Compare.Operator.CONTAINS) {
-                return parseContainsCompare(
-                        parseExpression(((Compare) expression).getLeftExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex),
-                        parseExpression(((Compare) expression).getRightExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex));
+            ExpressionExecutor left = parseExpression(((Compare) expression).getLeftExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex, sharedExecutors);
+            ExpressionExecutor right = parseExpression(((Compare) expression).getRightExpression(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex, sharedExecutors);
+            switch (((Compare) expression).getOperator()) {
+                case EQUAL:
+                    return foldConstants(parseEqualCompare(left, right), left, right);
+                case NOT_EQUAL:
+                    return foldConstants(parseNotEqualCompare(left, right), left, right);
+                case GREATER_THAN:
+                    return foldConstants(parseGreaterThanCompare(left, right), left, right);
+                case GREATER_THAN_EQUAL:
+                    return foldConstants(parseGreaterThanEqualCompare(left, right), left, right);
+                case LESS_THAN:
+                    return foldConstants(parseLessThanCompare(left, right), left, right);
+                case LESS_THAN_EQUAL:
+                    return foldConstants(parseLessThanEqualCompare(left, right), left, right);
+                case CONTAINS:
+                    return foldConstants(parseContainsCompare(left, right), left, right);
             }
 
         } else if (expression instanceof Constant) {
@@ -160,78 +193,78 @@ public class ExpressionParser {
             return parseVariable((Variable) expression, metaEvent, currentState, executorList, defaultStreamEventIndex);
 
         } else if (expression instanceof Multiply) {
-            ExpressionExecutor left = parseExpression(((Multiply) expression).getLeftValue(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex);
-            ExpressionExecutor right = parseExpression(((Multiply) expression).getRightValue(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex);
+            ExpressionExecutor left = parseExpression(((Multiply) expression).getLeftValue(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex, sharedExecutors);
+            ExpressionExecutor right = parseExpression(((Multiply) expression).getRightValue(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex, sharedExecutors);
             Attribute.Type type = parseArithmeticOperationResultType(left, right);
             switch (type) {
                 case INT:
-                    return new MultiplyExpressionExecutorInt(left, right);
+                    return foldConstants(new MultiplyExpressionExecutorInt(left, right), left, right);
                 case LONG:
-                    return new MultiplyExpressionExecutorLong(left, right);
+                    return foldConstants(new MultiplyExpressionExecutorLong(left, right), left, right);
                 case FLOAT:
-                    return new MultiplyExpressionExecutorFloat(left, right);
+                    return foldConstants(new MultiplyExpressionExecutorFloat(left, right), left, right);
                 case DOUBLE:
-                    return new MultiplyExpressionExecutorDouble(left, right);
+                    return foldConstants(new MultiplyExpressionExecutorDouble(left, right), left, right);
                 default: //Will not happen. Handled in parseArithmeticOperationResultType()
             }
         } else if (expression instanceof Add) {
-            ExpressionExecutor left = parseExpression(((Add) expression).getLeftValue(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex);
-            ExpressionExecutor right = parseExpression(((Add) expression).getRightValue(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex);
+            ExpressionExecutor left = parseExpression(((Add) expression).getLeftValue(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex, sharedExecutors);
+            ExpressionExecutor right = parseExpression(((Add) expression).getRightValue(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex, sharedExecutors);
             Attribute.Type type = parseArithmeticOperationResultType(left, right);
             switch (type) {
                 case INT:
-                    return new AddExpressionExecutorInt(left, right);
+                    return foldConstants(new AddExpressionExecutorInt(left, right), left, right);
                 case LONG:
-                    return new AddExpressionExecutorLong(left, right);
+                    return foldConstants(new AddExpressionExecutorLong(left, right), left, right);
                 case FLOAT:
-                    return new AddExpressionExecutorFloat(left, right);
+                    return foldConstants(new AddExpressionExecutorFloat(left, right), left, right);
                 case DOUBLE:
-                    return new AddExpressionExecutorDouble(left, right);
+                    return foldConstants(new AddExpressionExecutorDouble(left, right), left, right);
                 default: //Will not happen. Handled in parseArithmeticOperationResultType()
             }
         } else if (expression instanceof Subtract) {
-            ExpressionExecutor left = parseExpression(((Subtract) expression).getLeftValue(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex);
-            ExpressionExecutor right = parseExpression(((Subtract) expression).getRightValue(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex);
+            ExpressionExecutor left = parseExpression(((Subtract) expression).getLeftValue(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex, sharedExecutors);
+            ExpressionExecutor right = parseExpression(((Subtract) expression).getRightValue(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex, sharedExecutors);
             Attribute.Type type = parseArithmeticOperationResultType(left, right);
             switch (type) {
                 case INT:
-                    return new SubtractExpressionExecutorInt(left, right);
+                    return foldConstants(new SubtractExpressionExecutorInt(left, right), left, right);
                 case LONG:
-                    return new SubtractExpressionExecutorLong(left, right);
+                    return foldConstants(new SubtractExpressionExecutorLong(left, right), left, right);
                 case FLOAT:
-                    return new SubtractExpressionExecutorFloat(left, right);
+                    return foldConstants(new SubtractExpressionExecutorFloat(left, right), left, right);
                 case DOUBLE:
-                    return new SubtractExpressionExecutorDouble(left, right);
+                    return foldConstants(new SubtractExpressionExecutorDouble(left, right), left, right);
                 default: //Will not happen. Handled in parseArithmeticOperationResultType()
             }
         } else if (expression instanceof Mod) {
-            ExpressionExecutor left = parseExpression(((Mod) expression).getLeftValue(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex);
-            ExpressionExecutor right = parseExpression(((Mod) expression).getRightValue(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex);
+            ExpressionExecutor left = parseExpression(((Mod) expression).getLeftValue(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex, sharedExecutors);
+            ExpressionExecutor right = parseExpression(((Mod) expression).getRightValue(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex, sharedExecutors);
             Attribute.Type type = parseArithmeticOperationResultType(left, right);
             switch (type) {
                 case INT:
-                    return new ModExpressionExecutorInt(left, right);
+                    return foldConstants(new ModExpressionExecutorInt(left, right), left, right);
                 case LONG:
-                    return new ModExpressionExecutorLong(left, right);
+                    return foldConstants(new ModExpressionExecutorLong(left, right), left, right);
                 case FLOAT:
-                    return new ModExpressionExecutorFloat(left, right);
+                    return foldConstants(new ModExpressionExecutorFloat(left, right), left, right);
                 case DOUBLE:
-                    return new ModExpressionExecutorDouble(left, right);
+                    return foldConstants(new ModExpressionExecutorDouble(left, right), left, right);
                 default: //Will not happen. Handled in parseArithmeticOperationResultType()
             }
         } else if (expression instanceof Divide) {
-            ExpressionExecutor left = parseExpression(((Divide) expression).getLeftValue(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex);
-            ExpressionExecutor right = parseExpression(((Divide) expression).getRightValue(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex);
+            ExpressionExecutor left = parseExpression(((Divide) expression).getLeftValue(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex, sharedExecutors);
+            ExpressionExecutor right = parseExpression(((Divide) expression).getRightValue(), metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex, sharedExecutors);
             Attribute.Type type = parseArithmeticOperationResultType(left, right);
             switch (type) {
                 case INT:
-                    return new DivideExpressionExecutorInt(left, right);
+                    return foldConstants(new DivideExpressionExecutorInt(left, right), left, right);
                 case LONG:
-                    return new DivideExpressionExecutorLong(left, right);
+                    return foldConstants(new DivideExpressionExecutorLong(left, right), left, right);
                 case FLOAT:
-                    return new DivideExpressionExecutorFloat(left, right);
+                    return foldConstants(new DivideExpressionExecutorFloat(left, right), left, right);
                 case DOUBLE:
-                    return new DivideExpressionExecutorDouble(left, right);
+                    return foldConstants(new DivideExpressionExecutorDouble(left, right), left, right);
                 default: //Will not happen. Handled in parseArithmeticOperationResultType()
             }
 
@@ -252,16 +285,16 @@ public class ExpressionParser {
                 Expression[] innerExpressions = ((AttributeFunctionExtension) expression).getParameters();
                 ExpressionExecutor[] innerExpressionExecutors = new ExpressionExecutor[innerExpressions.length];
                 for (int i = 0, innerExpressionsLength = innerExpressions.length; i < innerExpressionsLength; i++) {
-                    innerExpressionExecutors[i] = parseExpression(innerExpressions[i], metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex);
+                    innerExpressionExecutors[i] = parseExpression(innerExpressions[i], metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex, sharedExecutors);
                 }
                 expressionExecutor.initExecutor(innerExpressionExecutors, executionPlanContext);
-                return expressionExecutor;
+                return foldFunction(expressionExecutor, innerExpressionExecutors);
             } else {
                 AttributeAggregator attributeAggregator = (AttributeAggregator) executor;
                 Expression[] innerExpressions = ((AttributeFunctionExtension) expression).getParameters();
                 ExpressionExecutor[] innerExpressionExecutors = new ExpressionExecutor[innerExpressions.length];
                 for (int i = 0, innerExpressionsLength = innerExpressions.length; i < innerExpressionsLength; i++) {
-                    innerExpressionExecutors[i] = parseExpression(innerExpressions[i], metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex);
+                    innerExpressionExecutors[i] = parseExpression(innerExpressions[i], metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex, sharedExecutors);
                 }
                 attributeAggregator.initAggregator(innerExpressionExecutors, executionPlanContext);
                 AbstractAggregationAttributeExecutor aggregationAttributeProcessor;
@@ -293,13 +326,10 @@ public class ExpressionParser {
             }
 
             if (executor instanceof AttributeAggregator) {
-                if (((AttributeFunction) expression).getParameters().length > 1) {
-                    throw new ExecutionPlanCreationException(((AttributeFunction) expression).getFunction() + " can only have one parameter");
-                }
                 Expression[] innerExpressions = ((AttributeFunction) expression).getParameters();
                 ExpressionExecutor[] innerExpressionExecutors = new ExpressionExecutor[innerExpressions.length];
                 for (int i = 0, innerExpressionsLength = innerExpressions.length; i < innerExpressionsLength; i++) {
-                    innerExpressionExecutors[i] = parseExpression(innerExpressions[i], metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex);
+                    innerExpressionExecutors[i] = parseExpression(innerExpressions[i], metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex, sharedExecutors);
                 }
                 ((AttributeAggregator) executor).initAggregator(innerExpressionExecutors, executionPlanContext);
                 AbstractAggregationAttributeExecutor aggregationAttributeProcessor;
@@ -314,10 +344,10 @@ public class ExpressionParser {
                 Expression[] innerExpressions = ((AttributeFunction) expression).getParameters();
                 ExpressionExecutor[] innerExpressionExecutors = new ExpressionExecutor[innerExpressions.length];
                 for (int i = 0, innerExpressionsLength = innerExpressions.length; i < innerExpressionsLength; i++) {
-                    innerExpressionExecutors[i] = parseExpression(innerExpressions[i], metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex);
+                    innerExpressionExecutors[i] = parseExpression(innerExpressions[i], metaEvent, currentState, eventTableMap, executorList, executionPlanContext, groupBy, defaultStreamEventIndex, sharedExecutors);
                 }
                 functionExecutor.initExecutor(innerExpressionExecutors, executionPlanContext);
-                return functionExecutor;
+                return foldFunction(functionExecutor, innerExpressionExecutors);
 
             }
         } else if (expression instanceof In) {
@@ -337,6 +367,176 @@ public class ExpressionParser {
 
     }
 
+    /**
+     * Evaluate the executor when the execution plan is created if all its operands are constants
+     *
+     * @param executor         executor to be folded
+     * @param operandExecutors executors of the operands
+     * @return constant executor holding the value, or the given executor if it cannot be evaluated up front
+     */
+    private static ExpressionExecutor foldConstants(ExpressionExecutor executor, ExpressionExecutor... operandExecutors) {
+        for (ExpressionExecutor operandExecutor : operandExecutors) {
+            if (!(operandExecutor instanceof ConstantExpressionExecutor)) {
+                return executor;
+            }
+        }
+        try {
+            return new ConstantExpressionExecutor(executor.execute(null), executor.getReturnType());
+        } catch (RuntimeException e) {
+            // e.g. a division by zero, left to be reported when the events are processed
+            return executor;
+        }
+    }
+
+    private static ExpressionExecutor foldFunction(FunctionExecutor functionExecutor,
+                                                   ExpressionExecutor[] parameterExecutors) {
+        if (!functionExecutor.isDeterministic() || parameterExecutors.length == 0) {
+            return functionExecutor;
+        }
+        return foldConstants(functionExecutor, parameterExecutors);
+    }
+
+    private static ExpressionExecutor simplifyAnd(AndConditionExpressionExecutor andExecutor) {
+        ExpressionExecutor left = andExecutor.getLeftConditionExecutor();
+        ExpressionExecutor right = andExecutor.getRightConditionExecutor();
+        if (left instanceof ConstantExpressionExecutor && ((ConstantExpressionExecutor) left).getValue() != null) {
+            return (Boolean) ((ConstantExpressionExecutor) left).getValue() ? right : left;
+        } else if (right instanceof ConstantExpressionExecutor && ((ConstantExpressionExecutor) right).getValue() != null) {
+            return (Boolean) ((ConstantExpressionExecutor) right).getValue() ? left : right;
+        }
+        return andExecutor;
+    }
+
+    private static ExpressionExecutor simplifyOr(OrConditionExpressionExecutor orExecutor) {
+        ExpressionExecutor left = orExecutor.getLeftConditionExecutor();
+        ExpressionExecutor right = orExecutor.getRightConditionExecutor();
+        if (left instanceof ConstantExpressionExecutor && ((ConstantExpressionExecutor) left).getValue() != null) {
+            return (Boolean) ((ConstantExpressionExecutor) left).getValue() ? left : right;
+        } else if (right instanceof ConstantExpressionExecutor && ((ConstantExpressionExecutor) right).getValue() != null) {
+            return (Boolean) ((ConstantExpressionExecutor) right).getValue() ? right : left;
+        }
+        return orExecutor;
+    }
+
+    private static ExpressionExecutor simplifyNot(NotConditionExpressionExecutor notExecutor) {
+        ExpressionExecutor conditionExecutor = notExecutor.getConditionExecutor();
+        if (conditionExecutor instanceof NotConditionExpressionExecutor) {
+            return ((NotConditionExpressionExecutor) conditionExecutor).getConditionExecutor();
+        }
+        return foldConstants(notExecutor, conditionExecutor);
+    }
+
+    /**
+     * Find the sub expressions used more than once within expressions evaluated on the same event, e.g. the
+     * attributes of a selector. Only logical, compare and arithmetic expressions on attributes are shared, as
+     * functions can keep state or return a different value on each call.
+     *
+     * @param expressions expressions evaluated on the same event
+     * @return map having the shared expressions as its keys, to be passed in when parsing the expressions
+     */
+    public static Map<Expression, SharedExpressionExecutor> findSharedExpressions(List<Expression> expressions) {
+        Map<Expression, Integer> expressionCounts = new HashMap<Expression, Integer>();
+        for (Expression expression : expressions) {
+            countExpressions(expression, expressionCounts);
+        }
+        Map<Expression, SharedExpressionExecutor> sharedExecutors = new HashMap<Expression, SharedExpressionExecutor>();
+        for (Map.Entry<Expression, Integer> entry : expressionCounts.entrySet()) {
+            if (entry.getValue() > 1 && isShareable(entry.getKey())) {
+                sharedExecutors.put(entry.getKey(), null);
+            }
+        }
+        return sharedExecutors;
+    }
+
+    /**
+     * @param sharedExecutors map returned by {@link #findSharedExpressions(List)}, after parsing the expressions
+     * @return the executors created for the shared expressions
+     */
+    public static List<SharedExpressionExecutor> getSharedExecutors(Map<Expression, SharedExpressionExecutor> sharedExecutors) {
+        List<SharedExpressionExecutor> sharedExecutorList = new ArrayList<SharedExpressionExecutor>();
+        for (SharedExpressionExecutor sharedExecutor : sharedExecutors.values()) {
+            if (sharedExecutor != null) {
+                sharedExecutorList.add(sharedExecutor);
+            }
+        }
+        return sharedExecutorList;
+    }
+
+    private static void countExpressions(Expression expression, Map<Expression, Integer> expressionCounts) {
+        Integer count = expressionCounts.get(expression);
+        count = (count == null) ? 1 : count + 1;
+        expressionCounts.put(expression, count);
+        if (count > 1 && isShareable(expression)) {
+            // the sub expressions of a shared expression are only evaluated by its first occurrence
+            return;
+        }
+        for (Expression subExpression : getSubExpressions(expression)) {
+            countExpressions(subExpression, expressionCounts);
+        }
+    }
+
+    private static boolean isShareable(Expression expression) {
+        return isOperation(expression) && isOperationOnAttributes(expression) && containsVariable(expression);
+    }
+
+    private static boolean isOperation(Expression expression) {
+        return expression instanceof And || expression instanceof Or || expression instanceof Not ||
+                expression instanceof Compare || expression instanceof Add || expression instanceof Subtract ||
+                expression instanceof Multiply || expression instanceof Divide || expression instanceof Mod;
+    }
+
+    private static boolean isOperationOnAttributes(Expression expression) {
+        if (expression instanceof Variable || expression instanceof Constant) {
+            return true;
+        } else if (!isOperation(expression)) {
+            return false;
+        }
+        for (Expression subExpression : getSubExpressions(expression)) {
+            if (!isOperationOnAttributes(subExpression)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean containsVariable(Expression expression) {
+        if (expression instanceof Variable) {
+            return true;
+        }
+        for (Expression subExpression : getSubExpressions(expression)) {
+            if (containsVariable(subExpression)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Expression[] getSubExpressions(Expression expression) {
+        if (expression instanceof And) {
+            return new Expression[]{((And) expression).getLeftExpression(), ((And) expression).getRightExpression()};
+        } else if (expression instanceof Or) {
+            return new Expression[]{((Or) expression).getLeftExpression(), ((Or) expression).getRightExpression()};
+        } else if (expression instanceof Not) {
+            return new Expression[]{((Not) expression).getExpression()};
+        } else if (expression instanceof Compare) {
+            return new Expression[]{((Compare) expression).getLeftExpression(),
+                    ((Compare) expression).getRightExpression()};
+        } else if (expression instanceof Add) {
+            return new Expression[]{((Add) expression).getLeftValue(), ((Add) expression).getRightValue()};
+        } else if (expression instanceof Subtract) {
+            return new Expression[]{((Subtract) expression).getLeftValue(), ((Subtract) expression).getRightValue()};
+        } else if (expression instanceof Multiply) {
+            return new Expression[]{((Multiply) expression).getLeftValue(), ((Multiply) expression).getRightValue()};
+        } else if (expression instanceof Divide) {
+            return new Expression[]{((Divide) expression).getLeftValue(), ((Divide) expression).getRightValue()};
+        } else if (expression instanceof Mod) {
+            return new Expression[]{((Mod) expression).getLeftValue(), ((Mod) expression).getRightValue()};
+        } else if (expression instanceof AttributeFunction) {
+            return ((AttributeFunction) expression).getParameters();
+        }
+        return new Expression[0];
+    }
+
     /**
      * Create greater than Compare Condition Expression Executor which evaluates whether value of leftExpressionExecutor
      * is greater than value of rightExpressionExecutor.
@@ -20,11 +20,14 @@ import org.wso2.siddhi.core.exception.ExecutionPlanCreationException;
 import org.wso2.siddhi.core.executor.VariableExpressionExecutor;
 import org.wso2.siddhi.core.query.QueryRuntime;
 import org.wso2.siddhi.core.query.input.stream.StreamRuntime;
+import org.wso2.siddhi.core.query.input.stream.join.JoinStreamRuntime;
+import org.wso2.siddhi.core.query.input.stream.single.SingleStreamRuntime;
 import org.wso2.siddhi.core.query.output.callback.OutputCallback;
 import org.wso2.siddhi.core.query.output.ratelimit.OutputRateLimiter;
 import org.wso2.siddhi.core.query.output.ratelimit.snapshot.WrappedSnapshotOutputRateLimiter;
 import org.wso2.siddhi.core.query.selector.QuerySelector;
 import org.wso2.siddhi.core.table.EventTable;
+import org.wso2.siddhi.core.util.SiddhiConstants;
 import org.wso2.siddhi.core.util.parser.helper.QueryParserHelper;
 import org.wso2.siddhi.query.api.annotation.Element;
 import org.wso2.siddhi.query.api.definition.AbstractDefinition;
@@ -65,6 +68,7 @@ public class QueryParser {
 
             QuerySelector selector = SelectorParser.parse(query.getSelector(), query.getOutputStream(),
                     executionPlanContext, streamRuntime.getMetaComplexEvent(), eventTableMap, executors);
+            QueryParserHelper.validateDistinctCount(streamRuntime, selector);
 
             boolean isWindow = query.getInputStream() instanceof JoinInputStream;
 
@@ -78,7 +82,7 @@ public class QueryParser {
             }
 
             OutputRateLimiter outputRateLimiter = OutputParser.constructOutputRateLimiter(query.getOutputStream().getId(),
-                    query.getOutputRate(), query.getSelector().getGroupByList().size() != 0, isWindow, executionPlanContext.getScheduledExecutorService());
+                    query.getOutputRate(), query.getSelector().getGroupByList().size() != 0, isWindow, executionPlanContext.getTimerWheel());
             outputRateLimiter.init(executionPlanContext);
             executionPlanContext.addEternalReferencedHolder(outputRateLimiter);
 
@@ -87,7 +91,26 @@ public class QueryParser {
 
             QueryParserHelper.reduceMetaComplexEvent(streamRuntime.getMetaComplexEvent());
             QueryParserHelper.updateVariablePosition(streamRuntime.getMetaComplexEvent(), executors);
-            QueryParserHelper.initStreamRuntime(streamRuntime, streamRuntime.getMetaComplexEvent());
+            if (AnnotationHelper.getAnnotation(SiddhiConstants.ANNOTATION_PIPELINE, query.getAnnotations()) != null) {
+                if (!(streamRuntime instanceof SingleStreamRuntime)) {
+                    throw new ExecutionPlanCreationException("@" + SiddhiConstants.ANNOTATION_PIPELINE +
+                            " is only supported for single stream queries");
+                }
+                QueryParserHelper.addPipelineStage((SingleStreamRuntime) streamRuntime,
+                        DisruptorConfigParser.parse(query.getAnnotations(), executionPlanContext.getDisruptorConfig()),
+                        executionPlanContext);
+            }
+            QueryParserHelper.addSlidingAggregation(streamRuntime, selector, outputRateLimiter);
+            if (executionPlanContext.isCompileExpressions() ||
+                    AnnotationHelper.getAnnotation(SiddhiConstants.ANNOTATION_COMPILE, query.getAnnotations()) != null) {
+                QueryParserHelper.compileExpressions(streamRuntime, selector,
+                        executionPlanContext.getExpressionCompiler());
+            }
+            if (streamRuntime instanceof JoinStreamRuntime) {
+                QueryParserHelper.releaseJoinedEvents((JoinStreamRuntime) streamRuntime, outputRateLimiter,
+                        outputCallback);
+            }
+            QueryParserHelper.initStreamRuntime(streamRuntime, streamRuntime.getMetaComplexEvent(), true);
 
             selector.setEventPopulator(StateEventPopulatorFactory.constructEventPopulator(streamRuntime.getMetaComplexEvent()));
 
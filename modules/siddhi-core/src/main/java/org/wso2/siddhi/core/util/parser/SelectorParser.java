@@ -20,7 +20,9 @@ import org.wso2.siddhi.core.event.state.MetaStateEvent;
 import org.wso2.siddhi.core.event.state.MetaStateEventAttribute;
 import org.wso2.siddhi.core.event.stream.MetaStreamEvent;
 import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.core.executor.SharedExpressionExecutor;
 import org.wso2.siddhi.core.executor.VariableExpressionExecutor;
+import org.wso2.siddhi.core.executor.condition.BoolConditionExpressionExecutor;
 import org.wso2.siddhi.core.executor.condition.ConditionExpressionExecutor;
 import org.wso2.siddhi.core.query.selector.GroupByKeyGenerator;
 import org.wso2.siddhi.core.query.selector.QuerySelector;
@@ -38,6 +40,7 @@ import org.wso2.siddhi.query.api.expression.Expression;
 import org.wso2.siddhi.query.api.expression.Variable;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -67,11 +70,13 @@ public class SelectorParser {
 
         id = outputStream.getId();
         QuerySelector querySelector = new QuerySelector(id, selector, currentOn, expiredOn, executionPlanContext);
-        querySelector.setAttributeProcessorList(getAttributeProcessors(selector, id, executionPlanContext, metaComplexEvent, null, variableExpressionExecutors));
+        List<SharedExpressionExecutor> sharedExecutors = new ArrayList<SharedExpressionExecutor>();
+        querySelector.setAttributeProcessorList(getAttributeProcessors(selector, id, executionPlanContext, metaComplexEvent, null, variableExpressionExecutors, sharedExecutors));
 
         ConditionExpressionExecutor havingCondition = generateHavingExecutor(selector.getHavingExpression(),
-                metaComplexEvent, executionPlanContext, eventTableMap, variableExpressionExecutors);
+                metaComplexEvent, executionPlanContext, eventTableMap, variableExpressionExecutors, sharedExecutors);
         querySelector.setHavingConditionExecutor(havingCondition);
+        querySelector.setSharedExpressionExecutors(sharedExecutors);
         if (!selector.getGroupByList().isEmpty()) {
             querySelector.setGroupByKeyGenerator(new GroupByKeyGenerator(selector.getGroupByList(), metaComplexEvent, null, variableExpressionExecutors, executionPlanContext));
         }
@@ -88,12 +93,15 @@ public class SelectorParser {
      * @param executionPlanContext
      * @param metaComplexEvent
      * @param eventTableMap
-     *@param variableExpressionExecutors  @return
+     * @param variableExpressionExecutors
+     * @param sharedExecutors      list to hold the executors shared among the attributes
+     * @return
      */
     private static List<AttributeProcessor> getAttributeProcessors(Selector selector, String id,
                                                                    ExecutionPlanContext executionPlanContext,
                                                                    MetaComplexEvent metaComplexEvent,
-                                                                   Map<String, EventTable> eventTableMap, List<VariableExpressionExecutor> variableExpressionExecutors) {
+                                                                   Map<String, EventTable> eventTableMap, List<VariableExpressionExecutor> variableExpressionExecutors,
+                                                                   List<SharedExpressionExecutor> sharedExecutors) {
 
         List<AttributeProcessor> attributeProcessorList = new ArrayList<AttributeProcessor>();
         StreamDefinition outputDefinition = StreamDefinition.id(id);
@@ -126,12 +134,18 @@ public class SelectorParser {
             }
         }
 
+        List<Expression> expressions = new ArrayList<Expression>();
+        for (OutputAttribute outputAttribute : outputAttributes) {
+            expressions.add(outputAttribute.getExpression());
+        }
+        Map<Expression, SharedExpressionExecutor> sharedExecutorMap = ExpressionParser.findSharedExpressions(expressions);
+
         int i = 0;
         for (OutputAttribute outputAttribute : outputAttributes) {
 
             ExpressionExecutor expressionExecutor = ExpressionParser.parseExpression(outputAttribute.getExpression(),
                     metaComplexEvent, SiddhiConstants.UNKNOWN_STATE, eventTableMap, variableExpressionExecutors, executionPlanContext,
-                    !(selector.getGroupByList().isEmpty()), 0);
+                    !(selector.getGroupByList().isEmpty()), 0, sharedExecutorMap);
             if (expressionExecutor instanceof VariableExpressionExecutor) {   //for variables we will directly put value at conversion stage
                 VariableExpressionExecutor executor = ((VariableExpressionExecutor) expressionExecutor);
                 if (metaComplexEvent instanceof MetaStateEvent) {
@@ -155,18 +169,24 @@ public class SelectorParser {
             i++;
         }
         metaComplexEvent.setOutputDefinition(outputDefinition);
+        sharedExecutors.addAll(ExpressionParser.getSharedExecutors(sharedExecutorMap));
         return attributeProcessorList;
     }
 
     private static ConditionExpressionExecutor generateHavingExecutor(Expression expression,
                                                                       MetaComplexEvent metaComplexEvent,
                                                                       ExecutionPlanContext executionPlanContext,
-                                                                      Map<String, EventTable> eventTableMap, List<VariableExpressionExecutor> variableExpressionExecutors) {
+                                                                      Map<String, EventTable> eventTableMap, List<VariableExpressionExecutor> variableExpressionExecutors,
+                                                                      List<SharedExpressionExecutor> sharedExecutors) {
         ConditionExpressionExecutor havingConditionExecutor = null;
         if (expression != null) {
-            havingConditionExecutor = (ConditionExpressionExecutor) ExpressionParser.parseExpression(expression,
-                    metaComplexEvent, SiddhiConstants.HAVING_STATE, eventTableMap, variableExpressionExecutors, executionPlanContext, false, 0);
-
+            // variables of the having condition refer to the output attributes, hence nothing is shared with the selection
+            Map<Expression, SharedExpressionExecutor> sharedExecutorMap = ExpressionParser.findSharedExpressions(
+                    Collections.singletonList(expression));
+            havingConditionExecutor = BoolConditionExpressionExecutor.asCondition(ExpressionParser.parseExpression(expression,
+                    metaComplexEvent, SiddhiConstants.HAVING_STATE, eventTableMap, variableExpressionExecutors, executionPlanContext, false, 0,
+                    sharedExecutorMap));
+            sharedExecutors.addAll(ExpressionParser.getSharedExecutors(sharedExecutorMap));
         }
         return havingConditionExecutor;
     }
@@ -20,6 +20,7 @@ import org.wso2.siddhi.core.event.state.MetaStateEvent;
 import org.wso2.siddhi.core.event.stream.MetaStreamEvent;
 import org.wso2.siddhi.core.exception.ExecutionPlanCreationException;
 import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.core.executor.SharedExpressionExecutor;
 import org.wso2.siddhi.core.executor.VariableExpressionExecutor;
 import org.wso2.siddhi.core.query.input.ProcessStreamReceiver;
 import org.wso2.siddhi.core.query.input.stream.single.SingleStreamRuntime;
@@ -47,6 +48,7 @@ import org.wso2.siddhi.query.api.execution.query.input.stream.SingleInputStream;
 import org.wso2.siddhi.query.api.expression.Expression;
 import org.wso2.siddhi.query.api.extension.Extension;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -94,7 +96,7 @@ public class SingleInputStreamParser {
                             processor.setToLast(singleThreadValve);
                         }
                     }
-                    Scheduler scheduler = new Scheduler(executionPlanContext.getScheduledExecutorService(), singleThreadValve);
+                    Scheduler scheduler = new Scheduler(executionPlanContext.getTimerWheel(), singleThreadValve);
                     scheduler.init(executionPlanContext);
                     ((SchedulingProcessor) currentProcessor).setScheduler(scheduler);
                 }
@@ -124,12 +126,16 @@ public class SingleInputStreamParser {
         } else {
             metaStreamEvent = (MetaStreamEvent) metaEvent;
         }
+        Map<Expression, SharedExpressionExecutor> sharedExecutors = null;
+        if (streamHandler instanceof Filter) {
+            sharedExecutors = ExpressionParser.findSharedExpressions(Arrays.asList(parameters));
+        }
         for (int i = 0, parametersLength = parameters.length; i < parametersLength; i++) {
             attributeExpressionExecutors[i] = ExpressionParser.parseExpression(parameters[i], metaEvent, stateIndex, eventTableMap, variableExpressionExecutors,
-                    executionPlanContext, false, SiddhiConstants.LAST);
+                    executionPlanContext, false, SiddhiConstants.LAST, sharedExecutors);
         }
         if (streamHandler instanceof Filter) {
-            return new FilterProcessor(attributeExpressionExecutors[0]);
+            return new FilterProcessor(attributeExpressionExecutors[0], ExpressionParser.getSharedExecutors(sharedExecutors));
 
         } else if (streamHandler instanceof Window) {
             WindowProcessor windowProcessor;
@@ -17,7 +17,6 @@ package org.wso2.siddhi.core.util.parser.helper;
 
 import org.apache.log4j.Logger;
 import org.wso2.siddhi.core.config.ExecutionPlanContext;
-import org.wso2.siddhi.core.config.SiddhiContext;
 import org.wso2.siddhi.core.exception.CannotLoadConfigurationException;
 import org.wso2.siddhi.core.exception.EventTableConfigurationException;
 import org.wso2.siddhi.core.exception.EventTableConnectionException;
@@ -62,10 +61,9 @@ public class DefinitionParserHelper {
 
     public static void addStreamJunction(StreamDefinition streamDefinition, ConcurrentMap<String, StreamJunction> streamJunctionMap, ExecutionPlanContext executionPlanContext) {
         if (!streamJunctionMap.containsKey(streamDefinition.getId())) {
-            SiddhiContext siddhiContext = executionPlanContext.getSiddhiContext();
             StreamJunction streamJunction = new StreamJunction(streamDefinition,
                     executionPlanContext.getExecutorService(),
-                    siddhiContext.getEventBufferSize(), executionPlanContext);
+                    executionPlanContext.getDisruptorConfig().getBufferSize(), executionPlanContext);
             streamJunctionMap.putIfAbsent(streamDefinition.getId(), streamJunction);
 
         }
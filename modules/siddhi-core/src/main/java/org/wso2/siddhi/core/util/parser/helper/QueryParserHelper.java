@@ -15,6 +15,9 @@
 
 package org.wso2.siddhi.core.util.parser.helper;
 
+import com.lmax.disruptor.dsl.ProducerType;
+import org.wso2.siddhi.core.config.DisruptorConfig;
+import org.wso2.siddhi.core.config.ExecutionPlanContext;
 import org.wso2.siddhi.core.event.MetaComplexEvent;
 import org.wso2.siddhi.core.event.state.MetaStateEvent;
 import org.wso2.siddhi.core.event.state.MetaStateEventAttribute;
@@ -23,18 +26,45 @@ import org.wso2.siddhi.core.event.state.StateEventPool;
 import org.wso2.siddhi.core.event.stream.MetaStreamEvent;
 import org.wso2.siddhi.core.event.stream.StreamEventCloner;
 import org.wso2.siddhi.core.event.stream.StreamEventPool;
+import org.wso2.siddhi.core.exception.ExecutionPlanCreationException;
+import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.core.executor.ExpressionExecutorHelper;
 import org.wso2.siddhi.core.executor.VariableExpressionExecutor;
+import org.wso2.siddhi.core.executor.compiler.ExpressionCompiler;
 import org.wso2.siddhi.core.query.input.ProcessStreamReceiver;
 import org.wso2.siddhi.core.query.input.stream.StreamRuntime;
 import org.wso2.siddhi.core.query.input.stream.join.JoinProcessor;
+import org.wso2.siddhi.core.query.input.stream.join.JoinStreamRuntime;
 import org.wso2.siddhi.core.query.input.stream.single.SingleStreamRuntime;
+import org.wso2.siddhi.core.query.input.stream.single.SingleThreadEntryValveProcessor;
 import org.wso2.siddhi.core.query.input.stream.state.StreamPreStateProcessor;
+import org.wso2.siddhi.core.query.output.callback.InsertIntoStreamCallback;
+import org.wso2.siddhi.core.query.output.callback.OutputCallback;
+import org.wso2.siddhi.core.query.output.ratelimit.OutputRateLimiter;
+import org.wso2.siddhi.core.query.output.ratelimit.PassThroughOutputRateLimiter;
+import org.wso2.siddhi.core.query.processor.PipelineStageProcessor;
 import org.wso2.siddhi.core.query.processor.Processor;
+import org.wso2.siddhi.core.query.processor.filter.FilterProcessor;
 import org.wso2.siddhi.core.query.processor.SchedulingProcessor;
 import org.wso2.siddhi.core.query.processor.stream.AbstractStreamProcessor;
+import org.wso2.siddhi.core.query.processor.stream.window.CronWindowProcessor;
+import org.wso2.siddhi.core.query.processor.stream.window.LengthBatchWindowProcessor;
+import org.wso2.siddhi.core.query.processor.stream.window.ReleasableFinder;
+import org.wso2.siddhi.core.query.processor.stream.window.TimeBatchWindowProcessor;
+import org.wso2.siddhi.core.query.processor.stream.window.TimeWindowProcessor;
+import org.wso2.siddhi.core.query.processor.stream.window.WindowProcessor;
+import org.wso2.siddhi.core.query.selector.QuerySelector;
+import org.wso2.siddhi.core.query.selector.attribute.aggergator.DistinctCountAttributeAggregator;
+import org.wso2.siddhi.core.query.selector.attribute.aggergator.SlidingTimeWindowAttributeAggregator;
+import org.wso2.siddhi.core.query.selector.attribute.processor.AttributeProcessor;
+import org.wso2.siddhi.core.query.selector.attribute.processor.executor.AbstractAggregationAttributeExecutor;
 import org.wso2.siddhi.query.api.definition.Attribute;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 
 import static org.wso2.siddhi.core.util.SiddhiConstants.*;
 
@@ -128,23 +158,238 @@ public class QueryParserHelper {
         }
     }
 
+    /**
+     * Reject the distinctCount aggregators of a query whose windows expire a part of their events, as the sketch
+     * of the aggregator cannot forget single values. Only the batch windows, which expire all the events of a
+     * batch before adding the next one, or no window at all are supported.
+     *
+     * @param streamRuntime stream runtime of the query
+     * @param querySelector selector of the query
+     */
+    public static void validateDistinctCount(StreamRuntime streamRuntime, QuerySelector querySelector) {
+        final boolean[] distinctCount = new boolean[1];
+        ExpressionExecutorHelper.StatefulExecutorHandler distinctCountFinder =
+                new ExpressionExecutorHelper.StatefulExecutorHandler() {
+                    @Override
+                    public boolean accept(ExpressionExecutor executor) {
+                        if (executor instanceof AbstractAggregationAttributeExecutor &&
+                                ((AbstractAggregationAttributeExecutor) executor).getAttributeAggregator()
+                                        instanceof DistinctCountAttributeAggregator) {
+                            distinctCount[0] = true;
+                        }
+                        return true;
+                    }
+                };
+        for (AttributeProcessor attributeProcessor : querySelector.getAttributeProcessorList()) {
+            ExpressionExecutorHelper.isStateless(attributeProcessor.getExpressionExecutor(), distinctCountFinder);
+        }
+        if (querySelector.getHavingConditionExecutor() != null) {
+            ExpressionExecutorHelper.isStateless(querySelector.getHavingConditionExecutor(), distinctCountFinder);
+        }
+        if (!distinctCount[0]) {
+            return;
+        }
+        Set<Processor> visitedProcessors = Collections.newSetFromMap(new IdentityHashMap<Processor, Boolean>());
+        for (SingleStreamRuntime singleStreamRuntime : streamRuntime.getSingleStreamRuntimes()) {
+            Processor processor = singleStreamRuntime.getProcessorChain();
+            while (processor != null && visitedProcessors.add(processor)) {
+                if (processor instanceof WindowProcessor && !(processor instanceof LengthBatchWindowProcessor ||
+                        processor instanceof TimeBatchWindowProcessor || processor instanceof CronWindowProcessor)) {
+                    throw new ExecutionPlanCreationException("distinctCount can only aggregate over lengthBatch, " +
+                            "timeBatch and cron windows, or without a window");
+                }
+                processor = processor.getNextProcessor();
+            }
+        }
+    }
+
+    /**
+     * Split the processor chain of a single stream query into two pipeline stages. The boundary is placed
+     * right after the entry valve of the windows when there is one, else before the first window, else at the
+     * end of the chain, so the windows, the selector and the output run on the stage thread.
+     *
+     * @param singleStreamRuntime  stream runtime of the query
+     * @param disruptorConfig      tuning of the ring between the stages
+     * @param executionPlanContext associated execution plan context
+     */
+    public static void addPipelineStage(SingleStreamRuntime singleStreamRuntime, DisruptorConfig disruptorConfig,
+                                        ExecutionPlanContext executionPlanContext) {
+        Processor previous = null;
+        Processor processor = singleStreamRuntime.getProcessorChain();
+        while (processor != null && !(processor instanceof WindowProcessor)) {
+            previous = processor;
+            processor = processor.getNextProcessor();
+            if (previous instanceof SingleThreadEntryValveProcessor) {
+                break;
+            }
+        }
+        ProducerType producerType = previous instanceof SingleThreadEntryValveProcessor ? ProducerType.MULTI :
+                ProducerType.SINGLE;
+        PipelineStageProcessor pipelineStageProcessor = new PipelineStageProcessor(executionPlanContext,
+                disruptorConfig, producerType);
+        pipelineStageProcessor.setNextProcessor(processor);
+        if (previous == null) {
+            singleStreamRuntime.setProcessorChain(pipelineStageProcessor);
+        } else {
+            previous.setNextProcessor(pipelineStageProcessor);
+        }
+    }
+
+    /**
+     * Let the join processors return the joined events and the copies found in the windows to their pools
+     * once the selector has processed them. This is only enabled when the output does not keep references to
+     * the events: the pass through rate limiter sends them right away and the stream junctions, stream callbacks
+     * and query callbacks only copy their data, where as the other rate limiters and the event tables hold on
+     * to the events. The copies found in the other side are only returned when it is a {@link ReleasableFinder},
+     * the join processors check that as their findable processor is replaced when a partition clones the join.
+     *
+     * @param joinStreamRuntime  stream runtime of the join query
+     * @param outputRateLimiter  rate limiter of the query
+     * @param outputCallback     output callback of the query, null when the query has no insert into
+     */
+    public static void releaseJoinedEvents(JoinStreamRuntime joinStreamRuntime, OutputRateLimiter outputRateLimiter,
+                                           OutputCallback outputCallback) {
+        if (!(outputRateLimiter instanceof PassThroughOutputRateLimiter) ||
+                (outputCallback != null && !(outputCallback instanceof InsertIntoStreamCallback))) {
+            return;
+        }
+        for (SingleStreamRuntime singleStreamRuntime : joinStreamRuntime.getSingleStreamRuntimes()) {
+            Processor processor = singleStreamRuntime.getProcessorChain();
+            while (processor != null) {
+                if (processor instanceof JoinProcessor) {
+                    ((JoinProcessor) processor).setReleaseJoinedEvents(true);
+                }
+                processor = processor.getNextProcessor();
+            }
+        }
+    }
+
+    /**
+     * Compile the filter conditions of the input streams, the projection and the having condition of the query.
+     * Executor trees that cannot be compiled are left to be interpreted.
+     *
+     * @param streamRuntime      stream runtime of the query
+     * @param querySelector      selector of the query
+     * @param expressionCompiler compiler of the expressions
+     */
+    public static void compileExpressions(StreamRuntime streamRuntime, QuerySelector querySelector,
+                                          ExpressionCompiler expressionCompiler) {
+        if (!expressionCompiler.isEnabled()) {
+            return;
+        }
+        Set<Processor> visitedProcessors = Collections.newSetFromMap(new IdentityHashMap<Processor, Boolean>());
+        for (SingleStreamRuntime singleStreamRuntime : streamRuntime.getSingleStreamRuntimes()) {
+            Processor processor = singleStreamRuntime.getProcessorChain();
+            while (processor != null && visitedProcessors.add(processor)) {
+                if (processor instanceof FilterProcessor) {
+                    ((FilterProcessor) processor).compile(expressionCompiler);
+                }
+                processor = processor.getNextProcessor();
+            }
+        }
+        querySelector.compile(expressionCompiler);
+    }
+
+    /**
+     * Let the aggregators of the query expire the values of its time window by themselves, pre-aggregated in
+     * panes, instead of the window cloning each event and replaying it as an expired event once it leaves the
+     * window. Only done when the time window is the last processor of a single stream query whose expired
+     * events are not output, and all the aggregators of the projection and the having condition are sum, count,
+     * avg, min or max.
+     *
+     * @param streamRuntime     stream runtime of the query
+     * @param querySelector     selector of the query
+     * @param outputRateLimiter rate limiter of the query
+     */
+    public static void addSlidingAggregation(StreamRuntime streamRuntime, QuerySelector querySelector,
+                                             OutputRateLimiter outputRateLimiter) {
+        if (!(streamRuntime instanceof SingleStreamRuntime) || querySelector.isExpiredOn() ||
+                !(outputRateLimiter instanceof PassThroughOutputRateLimiter)) {
+            return;
+        }
+        Processor processor = ((SingleStreamRuntime) streamRuntime).getProcessorChain();
+        while (processor != null && processor.getNextProcessor() != null &&
+                !(processor.getNextProcessor() instanceof QuerySelector)) {
+            processor = processor.getNextProcessor();
+        }
+        if (!(processor instanceof TimeWindowProcessor)) {
+            return;
+        }
+        List<AbstractAggregationAttributeExecutor> aggregationExecutors =
+                new ArrayList<AbstractAggregationAttributeExecutor>();
+        for (AttributeProcessor attributeProcessor : querySelector.getAttributeProcessorList()) {
+            if (!collectAggregationExecutors(attributeProcessor.getExpressionExecutor(), aggregationExecutors)) {
+                return;
+            }
+        }
+        if (querySelector.getHavingConditionExecutor() != null &&
+                !collectAggregationExecutors(querySelector.getHavingConditionExecutor(), aggregationExecutors)) {
+            return;
+        }
+        if (aggregationExecutors.isEmpty()) {
+            return;
+        }
+        TimeWindowProcessor timeWindowProcessor = (TimeWindowProcessor) processor;
+        Set<AbstractAggregationAttributeExecutor> replacedExecutors =
+                Collections.newSetFromMap(new IdentityHashMap<AbstractAggregationAttributeExecutor, Boolean>());
+        for (AbstractAggregationAttributeExecutor aggregationExecutor : aggregationExecutors) {
+            if (replacedExecutors.add(aggregationExecutor)) {
+                aggregationExecutor.setAttributeAggregator(new SlidingTimeWindowAttributeAggregator(
+                        SlidingTimeWindowAttributeAggregator.getFunction(aggregationExecutor.getAttributeAggregator()),
+                        timeWindowProcessor.getTimeInMilliSeconds()));
+            }
+        }
+        timeWindowProcessor.setExpiryDelegated(true);
+    }
+
+    /**
+     * @param executor             executor to be searched
+     * @param aggregationExecutors the aggregation executors found are added to
+     * @return false when the executor contains an aggregator that cannot be computed over panes, or an executor
+     * that is not known to be free of other state
+     */
+    private static boolean collectAggregationExecutors(ExpressionExecutor executor,
+                                                       final List<AbstractAggregationAttributeExecutor> aggregationExecutors) {
+        return ExpressionExecutorHelper.isStateless(executor, new ExpressionExecutorHelper.StatefulExecutorHandler() {
+            @Override
+            public boolean accept(ExpressionExecutor executor) {
+                if (!(executor instanceof AbstractAggregationAttributeExecutor)) {
+                    return false;
+                }
+                aggregationExecutors.add((AbstractAggregationAttributeExecutor) executor);
+                return SlidingTimeWindowAttributeAggregator.getFunction(
+                        ((AbstractAggregationAttributeExecutor) executor).getAttributeAggregator()) != null;
+            }
+        });
+    }
+
     public static void initStreamRuntime(StreamRuntime runtime, MetaComplexEvent metaComplexEvent) {
+        initStreamRuntime(runtime, metaComplexEvent, false);
+    }
+
+    /**
+     * @param threadMagazine whether the event pools of the runtime give each thread its own magazine of events,
+     *                       not to be used for the runtimes cloned for each partition key
+     */
+    public static void initStreamRuntime(StreamRuntime runtime, MetaComplexEvent metaComplexEvent,
+                                         boolean threadMagazine) {
 
         if (runtime instanceof SingleStreamRuntime) {
-            initSingleStreamRuntime((SingleStreamRuntime) runtime, 0, metaComplexEvent, null);
+            initSingleStreamRuntime((SingleStreamRuntime) runtime, 0, metaComplexEvent, null, threadMagazine);
         } else {
             MetaStateEvent metaStateEvent = (MetaStateEvent) metaComplexEvent;
-            StateEventPool stateEventPool = new StateEventPool(metaStateEvent, 5);
+            StateEventPool stateEventPool = new StateEventPool(metaStateEvent, 5, threadMagazine);
             MetaStreamEvent[] metaStreamEvents = metaStateEvent.getMetaStreamEvents();
             for (int i = 0, metaStreamEventsLength = metaStreamEvents.length; i < metaStreamEventsLength; i++) {
                 initSingleStreamRuntime(runtime.getSingleStreamRuntimes().get(i),
-                        i, metaStateEvent, stateEventPool);
+                        i, metaStateEvent, stateEventPool, threadMagazine);
             }
         }
     }
 
     private static void initSingleStreamRuntime(SingleStreamRuntime singleStreamRuntime, int streamEventChainIndex,
-                                                MetaComplexEvent metaComplexEvent, StateEventPool stateEventPool) {
+                                                MetaComplexEvent metaComplexEvent, StateEventPool stateEventPool,
+                                                boolean threadMagazine) {
         MetaStreamEvent metaStreamEvent;
 
         if (metaComplexEvent instanceof MetaStateEvent) {
@@ -152,21 +397,29 @@ public class QueryParserHelper {
         } else {
             metaStreamEvent = (MetaStreamEvent) metaComplexEvent;
         }
-        StreamEventPool streamEventPool = new StreamEventPool(metaStreamEvent, 5);
+        StreamEventPool streamEventPool = new StreamEventPool(metaStreamEvent, 5, threadMagazine);
         ProcessStreamReceiver processStreamReceiver = singleStreamRuntime.getProcessStreamReceiver();
         processStreamReceiver.setMetaStreamEvent(metaStreamEvent);
         processStreamReceiver.setStreamEventPool(streamEventPool);
         processStreamReceiver.init();
+        StreamEventPool stageStreamEventPool = streamEventPool;
         Processor processor = singleStreamRuntime.getProcessorChain();
         while (processor != null) {
+            if (processor instanceof PipelineStageProcessor) {
+                // processors of the next stage run on a different thread than the receiver and the schedulers
+                stageStreamEventPool = new StreamEventPool(metaStreamEvent, 5, threadMagazine);
+            }
             if (processor instanceof SchedulingProcessor) {
                 ((SchedulingProcessor) processor).getScheduler().setStreamEventPool(streamEventPool);
             }
             if (processor instanceof AbstractStreamProcessor) {
                 ((AbstractStreamProcessor) processor).setStreamEventCloner(new StreamEventCloner(metaStreamEvent,
-                        streamEventPool));
+                        stageStreamEventPool));
                 ((AbstractStreamProcessor) processor).constructStreamEventPopulater(metaStreamEvent, streamEventChainIndex);
             }
+            if (processor instanceof WindowProcessor) {
+                ((WindowProcessor) processor).setMetaStreamEvent(metaStreamEvent);
+            }
             if (stateEventPool != null && processor instanceof JoinProcessor) {
                 ((JoinProcessor) processor).setStateEventPool(stateEventPool);
             }
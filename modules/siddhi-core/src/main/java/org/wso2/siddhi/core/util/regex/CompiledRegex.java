@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.util.regex;
+
+import java.util.regex.Pattern;
+
+/**
+ * Compiled form of a regular expression. Regexes that are plain literals, optionally preceded and/or followed by
+ * <code>.*</code>, are matched with string comparisons instead of the regex engine, e.g. <code>IBM</code>,
+ * <code>IBM.*</code>, <code>.*IBM</code> and <code>.*IBM.*</code>. Instances are immutable and thread safe.
+ */
+public class CompiledRegex {
+
+    public enum MatchType {
+        LITERAL, PREFIX, SUFFIX, CONTAINS, REGEX
+    }
+
+    private static final String META_CHARACTERS = "[](){}.*+?^$|";
+
+    private final String regex;
+    private final MatchType matchType;
+    private final String literal;
+    private volatile Pattern pattern;
+
+    private CompiledRegex(String regex, MatchType matchType, String literal, Pattern pattern) {
+        this.regex = regex;
+        this.matchType = matchType;
+        this.literal = literal;
+        this.pattern = pattern;
+    }
+
+    /**
+     * @param regex the regular expression
+     * @return the compiled regex
+     * @throws java.util.regex.PatternSyntaxException if the regex is invalid
+     */
+    public static CompiledRegex compile(String regex) {
+        int length = regex.length();
+        int start = 0;
+        boolean leadingWildcard = false;
+        boolean trailingWildcard = false;
+        if (regex.startsWith(".*")) {
+            leadingWildcard = true;
+            start = 2;
+        }
+        StringBuilder literal = new StringBuilder(length);
+        for (int i = start; i < length; i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                // A backslash before a non alphanumeric character always quotes it
+                if (i + 1 == length || Character.isLetterOrDigit(regex.charAt(i + 1))) {
+                    return new CompiledRegex(regex, MatchType.REGEX, null, Pattern.compile(regex));
+                }
+                literal.append(regex.charAt(++i));
+            } else if (c == '.' && i + 2 == length && regex.charAt(i + 1) == '*') {
+                trailingWildcard = true;
+                break;
+            } else if (META_CHARACTERS.indexOf(c) >= 0) {
+                return new CompiledRegex(regex, MatchType.REGEX, null, Pattern.compile(regex));
+            } else {
+                literal.append(c);
+            }
+        }
+        MatchType matchType;
+        if (leadingWildcard) {
+            matchType = trailingWildcard ? MatchType.CONTAINS : MatchType.SUFFIX;
+        } else {
+            matchType = trailingWildcard ? MatchType.PREFIX : MatchType.LITERAL;
+        }
+        return new CompiledRegex(regex, matchType, literal.toString(), null);
+    }
+
+    /**
+     * @param input the character sequence to be matched
+     * @return true if the entire input matches the regex, as {@link java.util.regex.Matcher#matches()}
+     */
+    public boolean matches(String input) {
+        switch (matchType) {
+            case LITERAL:
+                return literal.equals(input);
+            case REGEX:
+                return pattern.matcher(input).matches();
+            default:
+                // '.' does not match line terminators, leave such inputs to the regex engine
+                if (hasLineTerminator(input)) {
+                    return getPattern().matcher(input).matches();
+                }
+                if (matchType == MatchType.PREFIX) {
+                    return input.startsWith(literal);
+                } else if (matchType == MatchType.SUFFIX) {
+                    return input.endsWith(literal);
+                } else {
+                    return input.contains(literal);
+                }
+        }
+    }
+
+    /**
+     * @param input       the input string
+     * @param replacement the replacement string, as for {@link String#replaceAll(String, String)}
+     * @return the input with every match of the regex replaced
+     */
+    public String replaceAll(String input, String replacement) {
+        if (!isLiteralReplace(replacement)) {
+            return getPattern().matcher(input).replaceAll(replacement);
+        }
+        int index = input.indexOf(literal);
+        if (index < 0) {
+            return input;
+        }
+        int literalLength = literal.length();
+        StringBuilder result = new StringBuilder(input.length());
+        int from = 0;
+        do {
+            result.append(input, from, index).append(replacement);
+            from = index + literalLength;
+            index = input.indexOf(literal, from);
+        } while (index >= 0);
+        return result.append(input, from, input.length()).toString();
+    }
+
+    /**
+     * @param input       the input string
+     * @param replacement the replacement string, as for {@link String#replaceFirst(String, String)}
+     * @return the input with the first match of the regex replaced
+     */
+    public String replaceFirst(String input, String replacement) {
+        if (!isLiteralReplace(replacement)) {
+            return getPattern().matcher(input).replaceFirst(replacement);
+        }
+        int index = input.indexOf(literal);
+        if (index < 0) {
+            return input;
+        }
+        return new StringBuilder(input.length() - literal.length() + replacement.length())
+                .append(input, 0, index).append(replacement)
+                .append(input, index + literal.length(), input.length()).toString();
+    }
+
+    /**
+     * Replacements can skip the regex engine only for non empty literals, and replacements that have no group
+     * references or escapes.
+     */
+    private boolean isLiteralReplace(String replacement) {
+        return matchType == MatchType.LITERAL && literal.length() > 0 &&
+                replacement.indexOf('$') < 0 && replacement.indexOf('\\') < 0;
+    }
+
+    private static boolean hasLineTerminator(String input) {
+        for (int i = 0, length = input.length(); i < length; i++) {
+            char c = input.charAt(i);
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the compiled pattern, compiled on first use for the regexes that are matched without the regex engine
+     */
+    public Pattern getPattern() {
+        Pattern pattern = this.pattern;
+        if (pattern == null) {
+            pattern = Pattern.compile(regex);
+            this.pattern = pattern;
+        }
+        return pattern;
+    }
+
+    public String getRegex() {
+        return regex;
+    }
+
+    public MatchType getMatchType() {
+        return matchType;
+    }
+
+    @Override
+    public String toString() {
+        return regex;
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.util.regex;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of compiled regular expressions shared by the executors and extensions that receive their regex
+ * as an event attribute, so that the same regex is not compiled again for every event. Lookups do not lock;
+ * when the cache grows over its capacity the least recently used entries are evicted approximately, in batches,
+ * by the thread that happens to insert the entry over the capacity.
+ */
+public class PatternCache {
+
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private static final PatternCache sharedCache = new PatternCache(DEFAULT_CAPACITY);
+
+    private final int capacity;
+    private final int evictionBatchSize;
+    private final ConcurrentHashMap<String, Entry> cache;
+    private final AtomicBoolean evicting = new AtomicBoolean(false);
+    // Advanced on each miss, entries hit between two misses are considered equally recent
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    public PatternCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Pattern cache capacity should be positive, but found " + capacity);
+        }
+        this.capacity = capacity;
+        this.evictionBatchSize = Math.max(1, capacity / 8);
+        this.cache = new ConcurrentHashMap<String, Entry>(Math.min(capacity, DEFAULT_CAPACITY));
+    }
+
+    /**
+     * @return the cache shared by all execution plans of the JVM
+     */
+    public static PatternCache getSharedCache() {
+        return sharedCache;
+    }
+
+    /**
+     * Returns the compiled form of the regex, compiling and caching it if it is not already cached.
+     *
+     * @param regex the regular expression
+     * @return the compiled regex
+     * @throws java.util.regex.PatternSyntaxException if the regex is invalid
+     */
+    public CompiledRegex get(String regex) {
+        Entry entry = cache.get(regex);
+        if (entry != null) {
+            hitCount.incrementAndGet();
+            long now = clock.get();
+            if (entry.lastAccess != now) {
+                entry.lastAccess = now;
+            }
+            return entry.compiledRegex;
+        }
+        missCount.incrementAndGet();
+        // Two threads racing on the same regex only compile it twice
+        CompiledRegex compiledRegex = CompiledRegex.compile(regex);
+        cache.put(regex, new Entry(compiledRegex, clock.incrementAndGet()));
+        if (cache.size() > capacity) {
+            evict();
+        }
+        return compiledRegex;
+    }
+
+    /**
+     * Remove the least recently used entries so that the cache falls a batch below its capacity. Only one thread
+     * evicts at a time, the others carry on while the cache is briefly over its capacity.
+     */
+    private void evict() {
+        while (cache.size() > capacity && evicting.compareAndSet(false, true)) {
+            try {
+                int excess = cache.size() - capacity;
+                if (excess <= 0) {
+                    return;
+                }
+                long[] accesses = new long[cache.size()];
+                int count = 0;
+                for (Entry entry : cache.values()) {
+                    if (count == accesses.length) {
+                        break;
+                    }
+                    accesses[count++] = entry.lastAccess;
+                }
+                Arrays.sort(accesses, 0, count);
+                long threshold = accesses[Math.min(count, excess + evictionBatchSize) - 1];
+                for (Iterator<Map.Entry<String, Entry>> iterator = cache.entrySet().iterator(); iterator.hasNext(); ) {
+                    if (iterator.next().getValue().lastAccess <= threshold) {
+                        iterator.remove();
+                    }
+                }
+            } finally {
+                evicting.set(false);
+            }
+            // Entries added by the threads that skipped eviction meanwhile are checked again
+        }
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public void clear() {
+        cache.clear();
+        hitCount.set(0);
+        missCount.set(0);
+    }
+
+    private static class Entry {
+
+        private final CompiledRegex compiledRegex;
+        private volatile long lastAccess;
+
+        private Entry(CompiledRegex compiledRegex, long lastAccess) {
+            this.compiledRegex = compiledRegex;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.util.snapshot;
+
+/**
+ * Element holding events in flight between snapshotable elements, e.g. a ring between two pipeline stages.
+ * The snapshot service drains it before taking the shared lock of the execution plan.
+ */
+public interface Drainable {
+
+    /**
+     * Wait till the events in flight are processed. Called without holding the shared lock, as processing the
+     * events may need it.
+     */
+    public void drain();
+
+    /**
+     * @return true if there are no events in flight
+     */
+    public boolean isDrained();
+}
@@ -20,12 +20,15 @@ import org.wso2.siddhi.core.config.ExecutionPlanContext;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.locks.Lock;
 
 public class SnapshotService {
 
 
     private static final Logger log = Logger.getLogger(SnapshotService.class);
+    private static final int DRAIN_ATTEMPTS = 10;
     private List<Snapshotable> snapshotableList = new ArrayList<Snapshotable>();
+    private List<Drainable> drainableList = new ArrayList<Drainable>();
     private ExecutionPlanContext executionPlanContext;
 
     public SnapshotService(ExecutionPlanContext executionPlanContext) {
@@ -36,6 +39,15 @@ public class SnapshotService {
         snapshotableList.add(snapshotable);
     }
 
+    /**
+     * Register an element holding events in flight, it is drained before a snapshot is taken or restored
+     *
+     * @param drainable element to be drained
+     */
+    public void addDrainable(Drainable drainable) {
+        drainableList.add(drainable);
+    }
+
     public byte[] snapshot() {
         HashMap<String, Object[]> snapshots = new HashMap<String, Object[]>(snapshotableList.size());
 
@@ -43,7 +55,7 @@ public class SnapshotService {
             log.debug("Taking snapshot ...");
         }
         try {
-            executionPlanContext.getSharedLock().lock();
+            lockDrained();
             for (Snapshotable snapshotable : snapshotableList) {
                 snapshots.put(snapshotable.getElementId(), snapshotable.currentState());
             }
@@ -61,7 +73,7 @@ public class SnapshotService {
     public void restore(byte[] snapshot) {
         HashMap<String, Object[]> snapshots = (HashMap<String, Object[]>) ByteSerializer.BToO(snapshot);
         try {
-            this.executionPlanContext.getSharedLock().lock();
+            lockDrained();
             for (Snapshotable snapshotable : snapshotableList) {
                 snapshotable.restoreState(snapshots.get(snapshotable.getElementId()));
             }
@@ -70,4 +82,37 @@ public class SnapshotService {
         }
     }
 
+    /**
+     * Take the shared lock once the drainable elements are drained. The elements are drained without holding
+     * the lock, as processing the events in flight may need it, and drained again if events were handed to
+     * them before the lock was taken.
+     */
+    private void lockDrained() {
+        Lock sharedLock = executionPlanContext.getSharedLock();
+        for (int attempt = 1; ; attempt++) {
+            for (Drainable drainable : drainableList) {
+                drainable.drain();
+            }
+            sharedLock.lock();
+            if (isDrained()) {
+                return;
+            }
+            if (attempt == DRAIN_ATTEMPTS) {
+                log.warn("Events are still in flight after draining " + DRAIN_ATTEMPTS + " times, they are not " +
+                        "reflected in the snapshot of execution plan '" + executionPlanContext.getName() + "'");
+                return;
+            }
+            sharedLock.unlock();
+        }
+    }
+
+    private boolean isDrained() {
+        for (Drainable drainable : drainableList) {
+            if (!drainable.isDrained()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
 }
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.managment;
+
+import org.apache.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.wso2.siddhi.core.ExecutionPlanRuntime;
+import org.wso2.siddhi.core.SiddhiManager;
+import org.wso2.siddhi.core.config.ThreadAffinity;
+import org.wso2.siddhi.core.config.ThreadingConfig;
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.stream.input.InputHandler;
+import org.wso2.siddhi.core.stream.output.StreamCallback;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class ThreadingTestCase {
+    static final Logger log = Logger.getLogger(ThreadingTestCase.class);
+    private List<String> threadNames;
+    private List<Integer> boundCpuIds;
+
+    @Before
+    public void init() {
+        threadNames = new CopyOnWriteArrayList<String>();
+        boundCpuIds = new CopyOnWriteArrayList<Integer>();
+    }
+
+    @Test
+    public void sharedExecutorsTest() throws InterruptedException {
+        log.info("shared executors test");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        ThreadingConfig threadingConfig = siddhiManager.getSiddhiContext().getThreadingConfig();
+        threadingConfig.setThreadGroupName("TestGroup");
+        threadingConfig.setSharedExecutors(true);
+        threadingConfig.setAffinityCpuIds(new int[]{0});
+        threadingConfig.setThreadAffinity(new ThreadAffinity() {
+            @Override
+            public void bindCurrentThread(int cpuId) {
+                boundCpuIds.add(cpuId);
+            }
+        });
+
+        ExecutionPlanRuntime executionPlanRuntime1 = createExecutionPlanRuntime(siddhiManager, "Plan1");
+        ExecutionPlanRuntime executionPlanRuntime2 = createExecutionPlanRuntime(siddhiManager, "Plan2");
+
+        executionPlanRuntime1.getInputHandler("StockStream").send(new Object[]{"IBM", 700f, 100l});
+        executionPlanRuntime2.getInputHandler("StockStream").send(new Object[]{"WSO2", 60.5f, 200l});
+        Thread.sleep(100);
+
+        Assert.assertEquals(2, threadNames.size());
+        for (String threadName : threadNames) {
+            Assert.assertTrue(threadName, threadName.startsWith("TestGroup-consumer-"));
+        }
+        Assert.assertEquals(2, boundCpuIds.size());
+        for (Integer cpuId : boundCpuIds) {
+            Assert.assertEquals(0, cpuId.intValue());
+        }
+
+        executionPlanRuntime1.shutdown();
+        executionPlanRuntime2.shutdown();
+        siddhiManager.shutdown();
+    }
+
+    @Test
+    public void boundedConsumerThreadsTest() throws InterruptedException {
+        log.info("bounded consumer threads test");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        ThreadingConfig threadingConfig = siddhiManager.getSiddhiContext().getThreadingConfig();
+        threadingConfig.setSharedExecutors(true);
+        threadingConfig.setMaxConsumerThreads(1);
+
+        ExecutionPlanRuntime executionPlanRuntime1 = createExecutionPlanRuntime(siddhiManager, "Plan1");
+        executionPlanRuntime1.getInputHandler("StockStream").send(new Object[]{"IBM", 700f, 100l});
+        Thread.sleep(100);
+        Assert.assertEquals(1, threadNames.size());
+
+        try {
+            createExecutionPlanRuntime(siddhiManager, "Plan2");
+            Assert.fail("second execution plan started beyond the consumer thread limit");
+        } catch (RejectedExecutionException e) {
+            log.info("second execution plan rejected: " + e.getMessage());
+        }
+
+        executionPlanRuntime1.shutdown();
+        siddhiManager.shutdown();
+    }
+
+    @Test
+    public void timeWindowExpiryWithBoundedConsumerThreadsTest() throws InterruptedException {
+        log.info("time window expiry with bounded consumer threads test");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        ThreadingConfig threadingConfig = siddhiManager.getSiddhiContext().getThreadingConfig();
+        threadingConfig.setMaxConsumerThreads(1);
+
+        String executionPlan = "" +
+                "@plan:name('Plan1') " +
+                "define stream StockStream (symbol string, price float, volume long);" +
+                "" +
+                "@info(name = 'query1') " +
+                "from StockStream#window.time(200) " +
+                "select symbol, volume " +
+                "insert expired events into OutStream ;";
+
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(executionPlan);
+        final CountDownLatch expiredLatch = new CountDownLatch(2);
+        executionPlanRuntime.addCallback("OutStream", new StreamCallback() {
+            @Override
+            public void receive(Event[] events) {
+                for (int i = 0; i < events.length; i++) {
+                    expiredLatch.countDown();
+                }
+            }
+        });
+        // the async callback holds the only consumer thread
+        executionPlanRuntime.start();
+
+        InputHandler inputHandler = executionPlanRuntime.getInputHandler("StockStream");
+        inputHandler.send(new Object[]{"IBM", 700f, 100l});
+        inputHandler.send(new Object[]{"WSO2", 60.5f, 200l});
+
+        Assert.assertTrue("time window events did not expire", expiredLatch.await(5, TimeUnit.SECONDS));
+
+        executionPlanRuntime.shutdown();
+        siddhiManager.shutdown();
+    }
+
+    private ExecutionPlanRuntime createExecutionPlanRuntime(SiddhiManager siddhiManager, String name) {
+        String executionPlan = "" +
+                "@plan:name('" + name + "') " +
+                "define stream StockStream (symbol string, price float, volume long);" +
+                "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "select symbol, volume " +
+                "insert into OutStream ;";
+
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(executionPlan);
+        executionPlanRuntime.addCallback("OutStream", new StreamCallback() {
+            @Override
+            public void receive(Event[] events) {
+                threadNames.add(Thread.currentThread().getName());
+            }
+        });
+        executionPlanRuntime.start();
+        return executionPlanRuntime;
+    }
+}
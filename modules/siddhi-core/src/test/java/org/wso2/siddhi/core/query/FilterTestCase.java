@@ -21,6 +21,7 @@ import org.junit.Test;
 import org.wso2.siddhi.core.ExecutionPlanRuntime;
 import org.wso2.siddhi.core.SiddhiManager;
 import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.executor.condition.OperandOrder;
 import org.wso2.siddhi.core.query.output.callback.QueryCallback;
 import org.wso2.siddhi.core.stream.input.InputHandler;
 import org.wso2.siddhi.core.util.EventPrinter;
@@ -35,6 +36,8 @@ import org.wso2.siddhi.query.api.execution.query.selection.Selector;
 import org.wso2.siddhi.query.api.expression.Expression;
 import org.wso2.siddhi.query.api.expression.condition.Compare;
 
+import java.util.List;
+
 public class FilterTestCase {
     static final Logger log = Logger.getLogger(FilterTestCase.class);
     private volatile int count;
@@ -4282,4 +4285,295 @@ public class FilterTestCase {
         Assert.assertTrue(eventArrived);
         executionPlanRuntime.shutdown();
     }
+
+    @Test
+    public void FilterTest121() throws InterruptedException {
+        log.info("filter test121");
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String cseEventStream = "define stream cseEventStream (symbol string, price float, volume long, quantity int, rate double);";
+        String query = "@info(name = 'query1') from cseEventStream[volume + quantity > 150 and price * 2 <= rate and quantity != 10] " +
+                "select symbol, volume + quantity as total insert into outputStream ;";
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(cseEventStream + query);
+
+        executionPlanRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                count = count + inEvents.length;
+                Assert.assertEquals("IBM", inEvents[0].getData(0));
+                Assert.assertEquals(160l, inEvents[0].getData(1));
+                eventArrived = true;
+            }
+
+        });
+
+        InputHandler inputHandler = executionPlanRuntime.getInputHandler("cseEventStream");
+        executionPlanRuntime.start();
+
+        inputHandler.send(new Object[]{"IBM", 50f, 100l, 60, 100.0});
+        inputHandler.send(new Object[]{"WSO2", 60.5f, 100l, 40, 200.0});
+        inputHandler.send(new Object[]{"ORACLE", 50f, 200l, null, 200.0});
+        inputHandler.send(new Object[]{"GOOG", 50f, 200l, 10, 200.0});
+        inputHandler.send(new Object[]{"MSFT", 101f, 200l, 20, 200.0});
+        Thread.sleep(100);
+        Assert.assertEquals(1, count);
+        Assert.assertTrue(eventArrived);
+        executionPlanRuntime.shutdown();
+    }
+
+    @Test
+    public void FilterTest122() throws InterruptedException {
+        log.info("filter test122");
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String cseEventStream = "define stream cseEventStream (symbol string, price float, volume long, quantity int, rate double);";
+        String query = "@info(name = 'query1') @Compile " +
+                "from cseEventStream[(volume + quantity > 150 and price * 2 <= rate and quantity != 10) or symbol == 'MSFT'] " +
+                "select symbol, volume + quantity as total, price * 2 as doublePrice insert into outputStream ;";
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(cseEventStream + query);
+
+        executionPlanRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                for (Event event : inEvents) {
+                    count++;
+                    if (count == 1) {
+                        Assert.assertEquals("IBM", event.getData(0));
+                        Assert.assertEquals(160l, event.getData(1));
+                        Assert.assertEquals(100f, event.getData(2));
+                    } else {
+                        Assert.assertEquals("MSFT", event.getData(0));
+                        Assert.assertEquals(220l, event.getData(1));
+                        Assert.assertEquals(202f, event.getData(2));
+                    }
+                }
+                eventArrived = true;
+            }
+
+        });
+
+        InputHandler inputHandler = executionPlanRuntime.getInputHandler("cseEventStream");
+        executionPlanRuntime.start();
+
+        inputHandler.send(new Object[]{"IBM", 50f, 100l, 60, 100.0});
+        inputHandler.send(new Object[]{"WSO2", 60.5f, 100l, 40, 200.0});
+        inputHandler.send(new Object[]{"ORACLE", 50f, 200l, null, 200.0});
+        inputHandler.send(new Object[]{"GOOG", 50f, 200l, 10, 200.0});
+        inputHandler.send(new Object[]{"MSFT", 101f, 200l, 20, 200.0});
+        Thread.sleep(100);
+        Assert.assertEquals(2, count);
+        Assert.assertTrue(eventArrived);
+        Assert.assertEquals(2, executionPlanRuntime.getCompiledExpressionCount("query1"));
+        executionPlanRuntime.shutdown();
+    }
+
+    @Test
+    public void FilterTest123() throws InterruptedException {
+        log.info("filter test123");
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String cseEventStream = "@plan:Compile define stream cseEventStream (symbol string, price float, volume long);";
+        String query = "@info(name = 'query1') from cseEventStream[not(volume < 50)] select symbol, sum(price) as sumprice " +
+                "group by symbol having sumprice > 880 and sumprice < 2000 insert into outputStream ;";
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(cseEventStream + query);
+
+        executionPlanRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                count = count + inEvents.length;
+                Assert.assertEquals(1400.0, inEvents[0].getData(1));
+                eventArrived = true;
+            }
+
+        });
+
+        InputHandler inputHandler = executionPlanRuntime.getInputHandler("cseEventStream");
+        executionPlanRuntime.start();
+
+        inputHandler.send(new Object[]{"IBM", 700f, 100l});
+        inputHandler.send(new Object[]{"WSO2", 60.5f, 200l});
+        inputHandler.send(new Object[]{"IBM", 700f, 10l});
+        inputHandler.send(new Object[]{"IBM", 700f, 100l});
+        inputHandler.send(new Object[]{"IBM", 700f, 100l});
+        Thread.sleep(100);
+        Assert.assertEquals(1, count);
+        Assert.assertTrue(eventArrived);
+        Assert.assertEquals(2, executionPlanRuntime.getCompiledExpressionCount("query1"));
+        executionPlanRuntime.shutdown();
+    }
+
+    @Test
+    public void FilterTest124() throws InterruptedException {
+        log.info("filter test124");
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String cseEventStream = "define stream cseEventStream (symbol string, price float, volume long);";
+        String query = "@info(name = 'query1') from cseEventStream[price > 10 * 6 and (true or volume > 10) and not(1 > 2)] " +
+                "select symbol, price, 60 * 2 as maxPrice insert into outputStream ;";
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(cseEventStream + query);
+
+        executionPlanRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                for (Event event : inEvents) {
+                    count++;
+                    Assert.assertEquals(120, event.getData(2));
+                }
+                eventArrived = true;
+            }
+
+        });
+
+        InputHandler inputHandler = executionPlanRuntime.getInputHandler("cseEventStream");
+        executionPlanRuntime.start();
+
+        inputHandler.send(new Object[]{"IBM", 700f, 100l});
+        inputHandler.send(new Object[]{"WSO2", 60f, 200l});
+        inputHandler.send(new Object[]{"GOOG", 50f, 30l});
+        inputHandler.send(new Object[]{"ORACLE", 61f, 1l});
+        Thread.sleep(100);
+        Assert.assertEquals(2, count);
+        Assert.assertTrue(eventArrived);
+        executionPlanRuntime.shutdown();
+    }
+
+    @Test
+    public void FilterTest125() throws InterruptedException {
+        log.info("filter test125");
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String cseEventStream = "define stream cseEventStream (symbol string, price float, volume long);";
+        String query = "@info(name = 'query1') from cseEventStream[price * 2 > 100 and price * 2 < 1000] " +
+                "select symbol, volume * 2 as doubleVolume, volume * 2 + 1 as nextVolume, (volume * 2) * (volume * 2) as squareVolume " +
+                "insert into outputStream ;";
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(cseEventStream + query);
+
+        executionPlanRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                for (Event event : inEvents) {
+                    count++;
+                    if (count == 1) {
+                        Assert.assertEquals("WSO2", event.getData(0));
+                        Assert.assertEquals(400l, event.getData(1));
+                        Assert.assertEquals(401l, event.getData(2));
+                        Assert.assertEquals(160000l, event.getData(3));
+                    } else {
+                        Assert.assertEquals("GOOG", event.getData(0));
+                        Assert.assertEquals(60l, event.getData(1));
+                        Assert.assertEquals(61l, event.getData(2));
+                        Assert.assertEquals(3600l, event.getData(3));
+                    }
+                }
+                eventArrived = true;
+            }
+
+        });
+
+        InputHandler inputHandler = executionPlanRuntime.getInputHandler("cseEventStream");
+        executionPlanRuntime.start();
+
+        inputHandler.send(new Object[]{"IBM", 700f, 100l});
+        inputHandler.send(new Object[]{"WSO2", 60.5f, 200l});
+        inputHandler.send(new Object[]{"ORACLE", 40f, 10l});
+        inputHandler.send(new Object[]{"GOOG", 450f, 30l});
+        Thread.sleep(100);
+        Assert.assertEquals(2, count);
+        Assert.assertTrue(eventArrived);
+        executionPlanRuntime.shutdown();
+    }
+
+    @Test
+    public void FilterTest126() throws InterruptedException {
+        log.info("filter test126");
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String cseEventStream = "define stream cseEventStream (symbol string, price float, volume long, quantity int);";
+        String query = "@info(name = 'query1') from cseEventStream[(price * 2 > 100 and volume + quantity < 500) or not(symbol != 'MSFT')] " +
+                "select symbol, price insert into outputStream ;";
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(cseEventStream + query);
+
+        executionPlanRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                for (Event event : inEvents) {
+                    count++;
+                    if (count == 1) {
+                        Assert.assertEquals("IBM", event.getData(0));
+                    } else if (count == 2) {
+                        Assert.assertEquals("MSFT", event.getData(0));
+                    } else {
+                        Assert.assertEquals("GOOG", event.getData(0));
+                    }
+                }
+                eventArrived = true;
+            }
+
+        });
+
+        InputHandler inputHandler = executionPlanRuntime.getInputHandler("cseEventStream");
+        executionPlanRuntime.start();
+
+        inputHandler.send(new Event[]{
+                new Event(System.currentTimeMillis(), new Object[]{"IBM", 700f, 100l, 10}),
+                new Event(System.currentTimeMillis(), new Object[]{"WSO2", 40f, 200l, 20}),
+                new Event(System.currentTimeMillis(), new Object[]{"ORACLE", null, 100l, 10}),
+                new Event(System.currentTimeMillis(), new Object[]{"MSFT", 10f, null, 10}),
+                new Event(System.currentTimeMillis(), new Object[]{"WSO2", 70f, 400l, 200}),
+                new Event(System.currentTimeMillis(), new Object[]{"GOOG", 51f, 100l, 300})});
+        Thread.sleep(100);
+        Assert.assertEquals(3, count);
+        Assert.assertTrue(eventArrived);
+        executionPlanRuntime.shutdown();
+    }
+
+    @Test
+    public void FilterTest127() throws InterruptedException {
+        log.info("filter test127");
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String cseEventStream = "define stream cseEventStream (symbol string, price float, volume long);";
+        String query = "@info(name = 'query1') from cseEventStream[symbol == 'WSO2' and price > 50 or volume < 10] " +
+                "select symbol, price insert into outputStream ;";
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(cseEventStream + query);
+
+        executionPlanRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                count = count + inEvents.length;
+                eventArrived = true;
+            }
+
+        });
+
+        InputHandler inputHandler = executionPlanRuntime.getInputHandler("cseEventStream");
+        executionPlanRuntime.start();
+
+        for (int i = 0; i < 1000; i++) {
+            inputHandler.send(new Object[]{"IBM", 700f, 100l});
+            inputHandler.send(new Object[]{"WSO2", 60.5f, 200l});
+            inputHandler.send(new Object[]{"WSO2", 40f, 200l});
+            inputHandler.send(new Object[]{"ORACLE", 40f, 5l});
+        }
+        Thread.sleep(100);
+        Assert.assertEquals(2000, count);
+        Assert.assertTrue(eventArrived);
+
+        List<OperandOrder> operandOrders = executionPlanRuntime.getOperandOrders("query1");
+        Assert.assertEquals(2, operandOrders.size());
+        Assert.assertFalse(operandOrders.get(0).isAnd());
+        Assert.assertTrue(operandOrders.get(1).isAnd());
+        for (OperandOrder operandOrder : operandOrders) {
+            log.info(operandOrder);
+            Assert.assertTrue(operandOrder.isAdaptive());
+        }
+        executionPlanRuntime.shutdown();
+    }
 }
@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.query;
+
+import junit.framework.Assert;
+import org.apache.log4j.Logger;
+import org.junit.Before;
+import org.junit.Test;
+import org.wso2.siddhi.core.ExecutionPlanRuntime;
+import org.wso2.siddhi.core.SiddhiManager;
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.exception.ExecutionPlanCreationException;
+import org.wso2.siddhi.core.query.output.callback.QueryCallback;
+import org.wso2.siddhi.core.stream.input.InputHandler;
+import org.wso2.siddhi.core.stream.output.StreamCallback;
+import org.wso2.siddhi.core.util.EventPrinter;
+
+public class PipelineTestCase {
+    private static final Logger log = Logger.getLogger(PipelineTestCase.class);
+    private volatile int inEventCount;
+    private volatile int removeEventCount;
+    private volatile long lastVolume;
+
+    @Before
+    public void init() {
+        inEventCount = 0;
+        removeEventCount = 0;
+        lastVolume = 0;
+    }
+
+    @Test
+    public void pipelineLengthWindowTest() throws InterruptedException {
+        log.info("pipeline with length window test");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String cseEventStream = "define stream cseEventStream (symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1') @Pipeline(buffer.size = '64') " +
+                "from cseEventStream[volume > 10]#window.length(5) " +
+                "select symbol, sum(volume) as totalVolume " +
+                "insert all events into outputStream ;";
+
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(cseEventStream + query);
+
+        executionPlanRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                if (inEvents != null) {
+                    inEventCount = inEventCount + inEvents.length;
+                    lastVolume = (Long) inEvents[inEvents.length - 1].getData(1);
+                }
+                if (removeEvents != null) {
+                    removeEventCount = removeEventCount + removeEvents.length;
+                }
+            }
+        });
+
+        InputHandler inputHandler = executionPlanRuntime.getInputHandler("cseEventStream");
+        executionPlanRuntime.start();
+        for (int i = 0; i < 1000; i++) {
+            inputHandler.send(new Object[]{"IBM", 700f, 100l});
+            inputHandler.send(new Object[]{"WSO2", 60.5f, 1l});
+        }
+        Thread.sleep(500);
+        Assert.assertEquals(1000, inEventCount);
+        Assert.assertEquals(995, removeEventCount);
+        Assert.assertEquals(500l, lastVolume);
+        executionPlanRuntime.shutdown();
+    }
+
+    @Test
+    public void pipelineTimeWindowTest() throws InterruptedException {
+        log.info("pipeline with time window test");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String cseEventStream = "define stream cseEventStream (symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1') @Pipeline(wait.strategy = 'blocking') " +
+                "from cseEventStream[volume > 10]#window.time(500 milliseconds) " +
+                "select symbol, price, volume " +
+                "insert all events into outputStream ;";
+
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(cseEventStream + query);
+
+        executionPlanRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                if (inEvents != null) {
+                    inEventCount = inEventCount + inEvents.length;
+                }
+                if (removeEvents != null) {
+                    Assert.assertTrue("InEvents arrived before RemoveEvents", inEventCount > removeEventCount);
+                    removeEventCount = removeEventCount + removeEvents.length;
+                }
+            }
+        });
+
+        InputHandler inputHandler = executionPlanRuntime.getInputHandler("cseEventStream");
+        executionPlanRuntime.start();
+        inputHandler.send(new Object[]{"IBM", 700f, 100l});
+        inputHandler.send(new Object[]{"WSO2", 60.5f, 1l});
+        inputHandler.send(new Object[]{"ORACLE", 50.5f, 200l});
+        Thread.sleep(1500);
+        Assert.assertEquals(2, inEventCount);
+        Assert.assertEquals(2, removeEventCount);
+        executionPlanRuntime.shutdown();
+    }
+
+    @Test
+    public void pipelinePartitionTest() throws InterruptedException {
+        log.info("pipeline within partition test");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String cseEventStream = "define stream cseEventStream (symbol string, price float, volume long);";
+        String query = "" +
+                "partition with (symbol of cseEventStream) begin " +
+                "@info(name = 'query1') @Pipeline(buffer.size = '64') " +
+                "from cseEventStream#window.length(2) " +
+                "select symbol, sum(volume) as totalVolume " +
+                "insert into outputStream ;" +
+                "end ";
+
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(cseEventStream + query);
+
+        executionPlanRuntime.addCallback("outputStream", new StreamCallback() {
+            @Override
+            public void receive(Event[] events) {
+                EventPrinter.print(events);
+                for (Event event : events) {
+                    inEventCount++;
+                    if ("IBM".equals(event.getData(0))) {
+                        lastVolume = (Long) event.getData(1);
+                    } else {
+                        Assert.assertTrue((Long) event.getData(1) <= 2l);
+                    }
+                }
+            }
+        });
+
+        InputHandler inputHandler = executionPlanRuntime.getInputHandler("cseEventStream");
+        executionPlanRuntime.start();
+        for (int i = 0; i < 100; i++) {
+            inputHandler.send(new Object[]{"IBM", 700f, 100l});
+            inputHandler.send(new Object[]{"WSO2", 60.5f, 1l});
+        }
+        Thread.sleep(500);
+        Assert.assertEquals(200, inEventCount);
+        Assert.assertEquals(200l, lastVolume);
+        executionPlanRuntime.shutdown();
+    }
+
+    @Test(expected = ExecutionPlanCreationException.class)
+    public void pipelineJoinTest() throws InterruptedException {
+        log.info("pipeline with join test");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String streams = "" +
+                "define stream cseEventStream (symbol string, price float, volume long); " +
+                "define stream twitterStream (user string, tweet string, company string); ";
+        String query = "" +
+                "@info(name = 'query1') @Pipeline(buffer.size = '64') " +
+                "from cseEventStream#window.time(1 sec) join twitterStream#window.time(1 sec) " +
+                "on cseEventStream.symbol == twitterStream.company " +
+                "select cseEventStream.symbol as symbol, twitterStream.tweet " +
+                "insert all events into outputStream ;";
+
+        siddhiManager.createExecutionPlanRuntime(streams + query);
+    }
+}
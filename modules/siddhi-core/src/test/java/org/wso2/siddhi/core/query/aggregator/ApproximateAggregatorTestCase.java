@@ -0,0 +1,314 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.query.aggregator;
+
+import junit.framework.Assert;
+import org.apache.log4j.Logger;
+import org.junit.Before;
+import org.junit.Test;
+import org.wso2.siddhi.core.ExecutionPlanRuntime;
+import org.wso2.siddhi.core.SiddhiManager;
+import org.wso2.siddhi.core.config.ExecutionPlanContext;
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.exception.ExecutionPlanCreationException;
+import org.wso2.siddhi.core.executor.ConstantExpressionExecutor;
+import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.core.query.output.callback.QueryCallback;
+import org.wso2.siddhi.core.query.selector.attribute.aggergator.DistinctCountAttributeAggregator;
+import org.wso2.siddhi.core.query.selector.attribute.aggergator.QuantileAttributeAggregator;
+import org.wso2.siddhi.core.stream.input.InputHandler;
+import org.wso2.siddhi.core.util.ElementIdGenerator;
+import org.wso2.siddhi.core.util.EventPrinter;
+import org.wso2.siddhi.core.util.persistence.InMemoryPersistenceStore;
+import org.wso2.siddhi.core.util.snapshot.SnapshotService;
+import org.wso2.siddhi.query.api.definition.Attribute;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class ApproximateAggregatorTestCase {
+    static final Logger log = Logger.getLogger(ApproximateAggregatorTestCase.class);
+    private int count;
+    private Object lastValue;
+    private Map<Object, Object> lastValues;
+
+    @Before
+    public void init() {
+        count = 0;
+        lastValue = null;
+        lastValues = new HashMap<Object, Object>();
+    }
+
+    @Test
+    public void distinctCountTest1() throws InterruptedException {
+        log.info("distinctCount over a batch window test");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String cseEventStream = "define stream cseEventStream (symbol string, price float, volume long);";
+        String query = "@info(name = 'query1') from cseEventStream#window.lengthBatch(4) " +
+                "select distinctCount(symbol) as symbols " +
+                "insert into outputStream ;";
+
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(cseEventStream + query);
+
+        executionPlanRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                for (Event inEvent : inEvents) {
+                    count++;
+                    lastValue = inEvent.getData(0);
+                    if (count == 4) {
+                        Assert.assertEquals(3l, lastValue);
+                    }
+                }
+            }
+        });
+
+        InputHandler inputHandler = executionPlanRuntime.getInputHandler("cseEventStream");
+        executionPlanRuntime.start();
+        inputHandler.send(new Object[]{"WSO2", 55.6f, 100l});
+        inputHandler.send(new Object[]{"IBM", 75.6f, 100l});
+        inputHandler.send(new Object[]{"WSO2", 57.6f, 200l});
+        inputHandler.send(new Object[]{"ORACLE", 25.6f, 300l});
+        // the first batch expires before the second one is counted
+        inputHandler.send(new Object[]{"IBM", 76.6f, 100l});
+        inputHandler.send(new Object[]{"IBM", 77.6f, 100l});
+        inputHandler.send(new Object[]{"IBM", 78.6f, 200l});
+        inputHandler.send(new Object[]{"GOOG", 525.6f, 300l});
+        Thread.sleep(100);
+        Assert.assertEquals(8, count);
+        Assert.assertEquals(2l, lastValue);
+        executionPlanRuntime.shutdown();
+    }
+
+    @Test
+    public void distinctCountTest2() throws InterruptedException {
+        log.info("distinctCount with group by test");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String cseEventStream = "define stream cseEventStream (symbol string, price float, volume long);";
+        String query = "@info(name = 'query1') from cseEventStream " +
+                "select symbol, distinctCount(volume, 10) as volumes " +
+                "group by symbol " +
+                "insert into outputStream ;";
+
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(cseEventStream + query);
+
+        executionPlanRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                for (Event inEvent : inEvents) {
+                    count++;
+                    lastValues.put(inEvent.getData(0), inEvent.getData(1));
+                }
+            }
+        });
+
+        InputHandler inputHandler = executionPlanRuntime.getInputHandler("cseEventStream");
+        executionPlanRuntime.start();
+        inputHandler.send(new Object[]{"WSO2", 55.6f, 100l});
+        inputHandler.send(new Object[]{"IBM", 75.6f, 100l});
+        inputHandler.send(new Object[]{"WSO2", 57.6f, 200l});
+        inputHandler.send(new Object[]{"WSO2", 58.6f, 100l});
+        inputHandler.send(new Object[]{"IBM", 76.6f, 100l});
+        inputHandler.send(new Object[]{"WSO2", 59.6f, 300l});
+        Thread.sleep(100);
+        Assert.assertEquals(6, count);
+        Assert.assertEquals(3l, lastValues.get("WSO2"));
+        Assert.assertEquals(1l, lastValues.get("IBM"));
+        executionPlanRuntime.shutdown();
+    }
+
+    @Test
+    public void quantileTest1() throws InterruptedException {
+        log.info("quantile over a sliding window test");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String cseEventStream = "define stream cseEventStream (symbol string, price float, volume long);";
+        String query = "@info(name = 'query1') from cseEventStream#window.length(100) " +
+                "select quantile(price, 0.5) as median, quantile(volume, 0.9) as volumeP90 " +
+                "insert into outputStream ;";
+
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(cseEventStream + query);
+
+        executionPlanRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                for (Event inEvent : inEvents) {
+                    count++;
+                    if (count == 5) {
+                        Assert.assertEquals(3.0, inEvent.getData(0));
+                    }
+                    lastValue = inEvent.getData(0);
+                    lastValues.put("volumeP90", inEvent.getData(1));
+                }
+            }
+        });
+
+        InputHandler inputHandler = executionPlanRuntime.getInputHandler("cseEventStream");
+        executionPlanRuntime.start();
+        for (int i = 1; i <= 300; i++) {
+            inputHandler.send(new Object[]{"WSO2", (float) i, (long) (1000 + i)});
+        }
+        Thread.sleep(100);
+        Assert.assertEquals(300, count);
+        // the window keeps the prices 201 to 300
+        Assert.assertTrue("median " + lastValue, Math.abs((Double) lastValue - 250.5) <= 2);
+        Assert.assertTrue("p90 " + lastValues.get("volumeP90"), Math.abs((Double) lastValues.get("volumeP90") - 1290.5) <= 2);
+        executionPlanRuntime.shutdown();
+    }
+
+    @Test
+    public void approximateAggregatorPersistenceTest() throws InterruptedException {
+        log.info("distinctCount and quantile persistence test");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        siddhiManager.setPersistenceStore(new InMemoryPersistenceStore());
+
+        String executionPlan = "@plan:name('Test') " +
+                "define stream cseEventStream (symbol string, price float, volume long);" +
+                "@info(name = 'query1') from cseEventStream " +
+                "select distinctCount(symbol) as symbols, quantile(price, 1.0) as maxPrice " +
+                "insert into outputStream ;";
+
+        QueryCallback queryCallback = new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                for (Event inEvent : inEvents) {
+                    count++;
+                    lastValue = inEvent.getData(0);
+                    lastValues.put("maxPrice", inEvent.getData(1));
+                }
+            }
+        };
+
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(executionPlan);
+        executionPlanRuntime.addCallback("query1", queryCallback);
+        InputHandler inputHandler = executionPlanRuntime.getInputHandler("cseEventStream");
+        executionPlanRuntime.start();
+        inputHandler.send(new Object[]{"WSO2", 55.6f, 100l});
+        inputHandler.send(new Object[]{"IBM", 75.6f, 100l});
+        Thread.sleep(100);
+        executionPlanRuntime.persist();
+        inputHandler.send(new Object[]{"ORACLE", 95.6f, 100l});
+        executionPlanRuntime.shutdown();
+
+        executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(executionPlan);
+        executionPlanRuntime.addCallback("query1", queryCallback);
+        inputHandler = executionPlanRuntime.getInputHandler("cseEventStream");
+        executionPlanRuntime.start();
+        executionPlanRuntime.restoreLastRevision();
+        inputHandler.send(new Object[]{"WSO2", 65.6f, 100l});
+        Thread.sleep(100);
+        executionPlanRuntime.shutdown();
+
+        Assert.assertEquals(4, count);
+        Assert.assertEquals(2l, lastValue);
+        Assert.assertEquals((double) 75.6f, lastValues.get("maxPrice"));
+    }
+
+    @Test(expected = ExecutionPlanCreationException.class)
+    public void distinctCountTest3() throws InterruptedException {
+        log.info("distinctCount over a sliding window test");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String cseEventStream = "define stream cseEventStream (symbol string, price float, volume long);";
+        String query = "@info(name = 'query1') from cseEventStream#window.length(4) " +
+                "select distinctCount(symbol) as symbols " +
+                "insert into outputStream ;";
+
+        siddhiManager.createExecutionPlanRuntime(cseEventStream + query);
+    }
+
+    @Test(expected = ExecutionPlanCreationException.class)
+    public void countTest1() throws InterruptedException {
+        log.info("count with two parameters test");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String cseEventStream = "define stream cseEventStream (symbol string, price float, volume long);";
+        String query = "@info(name = 'query1') from cseEventStream " +
+                "select count(symbol, price) as events " +
+                "insert into outputStream ;";
+
+        siddhiManager.createExecutionPlanRuntime(cseEventStream + query);
+    }
+
+    @Test
+    public void distinctCountMergeTest() {
+        log.info("distinctCount merge test");
+
+        ExecutionPlanContext executionPlanContext = createExecutionPlanContext();
+        DistinctCountAttributeAggregator distinctCount1 = new DistinctCountAttributeAggregator();
+        distinctCount1.initAggregator(new ExpressionExecutor[]{new ConstantExpressionExecutor(null,
+                Attribute.Type.STRING)}, executionPlanContext);
+        DistinctCountAttributeAggregator distinctCount2 = new DistinctCountAttributeAggregator();
+        distinctCount2.initAggregator(new ExpressionExecutor[]{new ConstantExpressionExecutor(null,
+                Attribute.Type.STRING)}, executionPlanContext);
+
+        distinctCount1.processAdd("WSO2");
+        distinctCount1.processAdd("IBM");
+        distinctCount2.processAdd("IBM");
+        distinctCount2.processAdd("ORACLE");
+        Assert.assertEquals(2l, distinctCount2.processAdd("IBM"));
+
+        distinctCount1.merge(distinctCount2);
+        Assert.assertEquals(3l, distinctCount1.processAdd("WSO2"));
+        Assert.assertEquals(4l, distinctCount1.processAdd("GOOG"));
+        // the merged aggregator is left as it is
+        Assert.assertEquals(2l, distinctCount2.processAdd("ORACLE"));
+    }
+
+    @Test
+    public void quantileMergeTest() {
+        log.info("quantile merge test");
+
+        ExecutionPlanContext executionPlanContext = createExecutionPlanContext();
+        QuantileAttributeAggregator quantile1 = new QuantileAttributeAggregator();
+        quantile1.initAggregator(new ExpressionExecutor[]{new ConstantExpressionExecutor(null, Attribute.Type.DOUBLE),
+                new ConstantExpressionExecutor(0.5, Attribute.Type.DOUBLE)}, executionPlanContext);
+        QuantileAttributeAggregator quantile2 = new QuantileAttributeAggregator();
+        quantile2.initAggregator(new ExpressionExecutor[]{new ConstantExpressionExecutor(null, Attribute.Type.DOUBLE),
+                new ConstantExpressionExecutor(0.5, Attribute.Type.DOUBLE)}, executionPlanContext);
+
+        for (int i = 1; i <= 100; i++) {
+            quantile1.processAdd((double) i);
+        }
+        Object median = null;
+        for (int i = 101; i <= 300; i++) {
+            median = quantile2.processAdd((double) i);
+        }
+        Assert.assertTrue("median " + median, Math.abs((Double) median - 200.5) <= 2);
+
+        quantile1.merge(quantile2);
+        median = quantile1.processAdd((Object) null);
+        Assert.assertTrue("merged median " + median, Math.abs((Double) median - 150.5) <= 2);
+    }
+
+    private ExecutionPlanContext createExecutionPlanContext() {
+        ExecutionPlanContext executionPlanContext = new ExecutionPlanContext();
+        executionPlanContext.setElementIdGenerator(new ElementIdGenerator("Test"));
+        executionPlanContext.setSnapshotService(new SnapshotService(executionPlanContext));
+        return executionPlanContext;
+    }
+}
@@ -684,4 +684,46 @@ public class FunctionTestCase {
 
     }
 
+    @Test
+    public void functionTest18() throws InterruptedException {
+        log.info("function test 18");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String cseEventStream = "define stream cseEventStream (symbol string, regex string, price float);";
+        String query = "@info(name = 'query1') from cseEventStream[isMatch(regex,symbol)] select symbol, price insert into outputStream;";
+
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(cseEventStream + query);
+
+        executionPlanRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                for (Event inEvent : inEvents) {
+                    count++;
+                    if (count == 1) {
+                        Assert.assertEquals(50.0f, inEvent.getData()[1]);
+                    } else if (count == 2) {
+                        Assert.assertEquals(70.0f, inEvent.getData()[1]);
+                    } else if (count == 3) {
+                        Assert.assertEquals(44.0f, inEvent.getData()[1]);
+                    }
+                }
+            }
+        });
+
+        InputHandler inputHandler = executionPlanRuntime.getInputHandler("cseEventStream");
+        executionPlanRuntime.start();
+        inputHandler.send(new Object[]{"WSO2", "WSO2", 50f});
+        inputHandler.send(new Object[]{"WSO2", "WS.*", 70f});
+        inputHandler.send(new Object[]{"WSO2", "IBM", 60f});
+        inputHandler.send(new Object[]{"WSO2", "[A-Z]+[0-9]", 44f});
+        inputHandler.send(new Object[]{"WSO2", "[a-z]+", 20f});
+        inputHandler.send(new Object[]{"WSO2", null, 10f});
+        Thread.sleep(100);
+        Assert.assertEquals(3, count);
+        executionPlanRuntime.shutdown();
+
+    }
+
 }
@@ -351,4 +351,165 @@ public class JoinTestCase {
 
     }
 
+    @Test
+    public void joinTest9() throws InterruptedException {
+        log.info("Join test9");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String streams = "" +
+                "define stream cseEventStream (symbol string, price float, volume int); " +
+                "define stream twitterStream (user string, tweet string, company string); ";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from cseEventStream#window.length(1) join twitterStream#window.length(1) " +
+                "on cseEventStream.symbol == twitterStream.company " +
+                "select cseEventStream.symbol as symbol, twitterStream.tweet, cseEventStream.price " +
+                "insert all events into outputStream ;";
+
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(streams + query);
+
+        executionPlanRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                if (inEvents != null) {
+                    for (Event event : inEvents) {
+                        assertJoinedEvent(event);
+                    }
+                    inEventCount += inEvents.length;
+                }
+                if (removeEvents != null) {
+                    for (Event event : removeEvents) {
+                        assertJoinedEvent(event);
+                    }
+                    removeEventCount += removeEvents.length;
+                }
+            }
+
+        });
+
+        InputHandler cseEventStreamHandler = executionPlanRuntime.getInputHandler("cseEventStream");
+        InputHandler twitterStreamHandler = executionPlanRuntime.getInputHandler("twitterStream");
+        executionPlanRuntime.start();
+        for (int i = 0; i < 100; i++) {
+            twitterStreamHandler.send(new Object[]{"User" + i, "Tweet" + i, "S" + i});
+            cseEventStreamHandler.send(new Object[]{"S" + i, (float) i, 100});
+        }
+        Thread.sleep(500);
+        Assert.assertEquals("Number of success events", 100, inEventCount);
+        Assert.assertEquals("Number of remove events", 99, removeEventCount);
+        executionPlanRuntime.shutdown();
+
+    }
+
+    @Test
+    public void joinTest10() throws InterruptedException {
+        log.info("Join test10 - windows kept off heap");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String streams = "" +
+                "define stream cseEventStream (symbol string, price float, volume int); " +
+                "define stream twitterStream (user string, tweet string, company string); ";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from cseEventStream#window.time(1 sec, 'off.heap') join twitterStream#window.time(1 sec, 'off.heap') " +
+                "on cseEventStream.symbol== twitterStream.company " +
+                "select cseEventStream.symbol as symbol, twitterStream.tweet, cseEventStream.price " +
+                "insert all events into outputStream ;";
+
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(streams + query);
+
+        executionPlanRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                if (inEvents != null) {
+                    for (Event event : inEvents) {
+                        inEventCount++;
+                        Assert.assertEquals("WSO2", event.getData(0));
+                        Assert.assertEquals("Hello World", event.getData(1));
+                    }
+                }
+                if (removeEvents != null) {
+                    removeEventCount = removeEventCount + removeEvents.length;
+                }
+                eventArrived = true;
+            }
+
+        });
+
+        InputHandler cseEventStreamHandler = executionPlanRuntime.getInputHandler("cseEventStream");
+        InputHandler twitterStreamHandler = executionPlanRuntime.getInputHandler("twitterStream");
+        executionPlanRuntime.start();
+        cseEventStreamHandler.send(new Object[]{"WSO2", 55.6f, 100});
+        twitterStreamHandler.send(new Object[]{"User1", "Hello World", "WSO2"});
+        cseEventStreamHandler.send(new Object[]{"IBM", 75.6f, 100});
+        Thread.sleep(500);
+        cseEventStreamHandler.send(new Object[]{"WSO2", 57.6f, 100});
+        Thread.sleep(2000);
+        Assert.assertEquals(2, inEventCount);
+        Assert.assertEquals(2, removeEventCount);
+        Assert.assertTrue(eventArrived);
+        executionPlanRuntime.shutdown();
+
+    }
+
+    @Test
+    public void joinTest11() throws InterruptedException {
+        log.info("Join test11 - off heap windows searched on several attributes");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String streams = "" +
+                "define stream cseEventStream (symbol string, price float, volume int); " +
+                "define stream twitterStream (user string, tweet string, company string); ";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from cseEventStream#window.length(10, 'off.heap') join twitterStream#window.length(10, 'off.heap') " +
+                "on cseEventStream.symbol == twitterStream.company and cseEventStream.price > 50 " +
+                "select cseEventStream.symbol as symbol, twitterStream.tweet, cseEventStream.price, twitterStream.user " +
+                "insert into outputStream ;";
+
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(streams + query);
+
+        executionPlanRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                if (inEvents != null) {
+                    for (Event event : inEvents) {
+                        inEventCount++;
+                        Assert.assertEquals("WSO2", event.getData(0));
+                        Assert.assertEquals("Hello World", event.getData(1));
+                        Assert.assertEquals(55.6f, event.getData(2));
+                        Assert.assertNull(event.getData(3));
+                    }
+                }
+                eventArrived = true;
+            }
+
+        });
+
+        InputHandler cseEventStreamHandler = executionPlanRuntime.getInputHandler("cseEventStream");
+        InputHandler twitterStreamHandler = executionPlanRuntime.getInputHandler("twitterStream");
+        executionPlanRuntime.start();
+        cseEventStreamHandler.send(new Object[]{"WSO2", 55.6f, 100});
+        cseEventStreamHandler.send(new Object[]{"WSO2", 45.6f, 100});
+        cseEventStreamHandler.send(new Object[]{"IBM", 75.6f, 100});
+        twitterStreamHandler.send(new Object[]{null, "Hello World", "WSO2"});
+        twitterStreamHandler.send(new Object[]{"User2", "Hello", "ORACLE"});
+        Thread.sleep(500);
+        Assert.assertEquals(1, inEventCount);
+        Assert.assertTrue(eventArrived);
+        executionPlanRuntime.shutdown();
+
+    }
+
+    private static void assertJoinedEvent(Event event) {
+        String index = ((String) event.getData(0)).substring(1);
+        Assert.assertEquals("Tweet" + index, event.getData(1));
+        Assert.assertEquals(Float.parseFloat(index), event.getData(2));
+    }
+
 }
@@ -76,6 +76,58 @@ public class ExternalTimeWindowTestCase {
 
 
 
+        InputHandler inputHandler = executionPlanRuntime.getInputHandler("LoginEvents");
+        executionPlanRuntime.start();
+
+        inputHandler.send(new Object[]{1366335804341l, "192.10.1.3"});
+        inputHandler.send(new Object[]{1366335804342l, "192.10.1.4"});
+        inputHandler.send(new Object[]{1366335814341l, "192.10.1.5"});
+        inputHandler.send(new Object[]{1366335814345l, "192.10.1.6"});
+        inputHandler.send(new Object[]{1366335824341l, "192.10.1.7"});
+
+        Thread.sleep(1000);
+
+        Assert.assertEquals("Event arrived", true, eventArrived);
+        Assert.assertEquals("In Events ", 5, inEventCount);
+        Assert.assertEquals("Remove Events ", 4, removeEventCount);
+        executionPlanRuntime.shutdown();
+
+
+    }
+
+    @Test
+    public void externalTimeWindowTest2() throws InterruptedException {
+        log.info("externalTimeWindow test2 - events kept off heap");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String cseEventStream = "" +
+                "define stream LoginEvents (timeStamp long, ip string) ;";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from LoginEvents#window.externalTime(timeStamp,5 sec, 'off.heap') " +
+                "select timeStamp, ip  " +
+                "insert all events into uniqueIps ;";
+
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(cseEventStream + query);
+
+        executionPlanRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                if (inEvents != null) {
+                    inEventCount = inEventCount + inEvents.length;
+                }
+                if (removeEvents != null) {
+                    removeEventCount = removeEventCount + removeEvents.length;
+                }
+                eventArrived = true;
+            }
+
+        });
+
+
+
         InputHandler inputHandler = executionPlanRuntime.getInputHandler("LoginEvents");
         executionPlanRuntime.start();
 
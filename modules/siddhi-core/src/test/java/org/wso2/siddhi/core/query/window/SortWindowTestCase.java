@@ -141,4 +141,52 @@ public class SortWindowTestCase {
         executionPlanRuntime.shutdown();
 
     }
+
+    @Test
+    public void sortWindowTest3() throws InterruptedException {
+        log.info("sortWindow test3");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String streams = "" +
+                "define stream cseEventStream (symbol string, price float, volume long); " +
+                "define stream orderStream (symbol string, minVolume long); ";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from orderStream#window.length(1) join cseEventStream#window.sort(3, volume, 'desc') " +
+                "on cseEventStream.volume >= orderStream.minVolume " +
+                "select cseEventStream.symbol as symbol, cseEventStream.volume as volume " +
+                "insert into outputStream ;";
+
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(streams + query);
+
+        executionPlanRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                if (inEvents != null) {
+                    for (Event event : inEvents) {
+                        Assert.assertTrue((Long) event.getData(1) >= 150l);
+                    }
+                    inEventCount = inEventCount + inEvents.length;
+                }
+                eventArrived = true;
+            }
+
+        });
+
+        InputHandler cseEventStreamHandler = executionPlanRuntime.getInputHandler("cseEventStream");
+        InputHandler orderStreamHandler = executionPlanRuntime.getInputHandler("orderStream");
+        executionPlanRuntime.start();
+        cseEventStreamHandler.send(new Object[]{"WSO2", 55.6f, 100l});
+        cseEventStreamHandler.send(new Object[]{"IBM", 75.6f, 300l});
+        cseEventStreamHandler.send(new Object[]{"ORACLE", 57.6f, 200l});
+        cseEventStreamHandler.send(new Object[]{"GOOG", 55.6f, 20l});
+        orderStreamHandler.send(new Object[]{"WSO2", 150l});
+        Thread.sleep(500);
+        Assert.assertEquals(2, inEventCount);
+        Assert.assertTrue(eventArrived);
+        executionPlanRuntime.shutdown();
+
+    }
 }
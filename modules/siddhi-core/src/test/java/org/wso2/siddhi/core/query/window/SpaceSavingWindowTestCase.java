@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2015, WSO2 Inc. (http://www.wso2.org)
+ * All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.siddhi.core.query.window;
+
+import junit.framework.Assert;
+import org.apache.log4j.Logger;
+import org.junit.Before;
+import org.junit.Test;
+import org.wso2.siddhi.core.ExecutionPlanRuntime;
+import org.wso2.siddhi.core.SiddhiManager;
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.query.output.callback.QueryCallback;
+import org.wso2.siddhi.core.stream.input.InputHandler;
+import org.wso2.siddhi.core.util.EventPrinter;
+
+public class SpaceSavingWindowTestCase {
+    static final Logger log = Logger.getLogger(SpaceSavingWindowTestCase.class);
+
+    private int inEventCount;
+    private int removeEventCount;
+    private Event lastRemoveEvent;
+
+    @Before
+    public void initialize() {
+        inEventCount = 0;
+        removeEventCount = 0;
+        lastRemoveEvent = null;
+    }
+
+    @Test
+    public void spaceSavingWindowTest1() throws InterruptedException {
+        log.info("spaceSavingWindow test1");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String cseEventStream = "" +
+                "define stream purchase (cardNo string, price float);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from purchase#window.spaceSaving(2, cardNo) " +
+                "select cardNo, price " +
+                "insert all events into PotentialFraud ;";
+
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(cseEventStream + query);
+
+        executionPlanRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                if (inEvents != null) {
+                    inEventCount += inEvents.length;
+                }
+                if (removeEvents != null) {
+                    removeEventCount += removeEvents.length;
+                    lastRemoveEvent = removeEvents[removeEvents.length - 1];
+                }
+            }
+
+        });
+
+        InputHandler inputHandler = executionPlanRuntime.getInputHandler("purchase");
+        executionPlanRuntime.start();
+
+        inputHandler.send(new Object[]{"3234-3244-2432-4124", 73.36f});
+        inputHandler.send(new Object[]{"3234-3244-2432-4124", 78.36f});
+        inputHandler.send(new Object[]{"1234-3244-2432-123", 46.36f});
+        inputHandler.send(new Object[]{"5768-3244-2432-5646", 48.36f});  // takes the place of the least frequent card
+        inputHandler.send(new Object[]{"3234-3244-2432-4124", 73.36f});
+        inputHandler.send(new Object[]{"9853-3244-2432-4125", 78.36f});
+
+        Thread.sleep(500);
+        Assert.assertEquals("In Event count", 6, inEventCount);
+        Assert.assertEquals("Out Event count", 2, removeEventCount);
+        Assert.assertEquals("5768-3244-2432-5646", lastRemoveEvent.getData(0));
+
+        executionPlanRuntime.shutdown();
+    }
+
+    @Test
+    public void spaceSavingWindowTest2() throws InterruptedException {
+        log.info("spaceSavingWindow test2");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String cseEventStream = "" +
+                "define stream purchase (cardNo string, price float);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from purchase#window.spaceSaving(3) " +
+                "select cardNo, price " +
+                "insert all events into PotentialFraud ;";
+
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(cseEventStream + query);
+
+        executionPlanRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                if (inEvents != null) {
+                    inEventCount += inEvents.length;
+                }
+                if (removeEvents != null) {
+                    removeEventCount += removeEvents.length;
+                    lastRemoveEvent = removeEvents[removeEvents.length - 1];
+                }
+            }
+
+        });
+
+        InputHandler inputHandler = executionPlanRuntime.getInputHandler("purchase");
+        executionPlanRuntime.start();
+
+        for (int i = 0; i < 3; i++) {
+            inputHandler.send(new Object[]{"3234-3244-2432-4124", 73.36f});
+        }
+        inputHandler.send(new Object[]{"3234-3244-2432-4124", 78.36f});
+        inputHandler.send(new Object[]{"1234-3244-2432-123", 46.36f});
+        inputHandler.send(new Object[]{"5768-3244-2432-5646", 48.36f});  // all the attributes form the key
+
+        Thread.sleep(500);
+        Assert.assertEquals("In Event count", 6, inEventCount);
+        Assert.assertEquals("Out Event count", 1, removeEventCount);
+        Assert.assertEquals("3234-3244-2432-4124", lastRemoveEvent.getData(0));
+        Assert.assertEquals(78.36f, lastRemoveEvent.getData(1));
+
+        executionPlanRuntime.shutdown();
+    }
+}
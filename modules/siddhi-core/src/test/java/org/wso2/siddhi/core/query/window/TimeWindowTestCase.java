@@ -25,6 +25,8 @@ import org.wso2.siddhi.core.query.output.callback.QueryCallback;
 import org.wso2.siddhi.core.stream.input.InputHandler;
 import org.wso2.siddhi.core.util.EventPrinter;
 
+import java.util.Arrays;
+
 public class TimeWindowTestCase {
     private static final Logger log = Logger.getLogger(TimeWindowTestCase.class);
     private int inEventCount;
@@ -131,4 +133,261 @@ public class TimeWindowTestCase {
 
     }
 
+    @Test
+    public void timeWindowTest3() throws InterruptedException {
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String cseEventStream = "define stream cseEventStream (symbol string, price float, volume int);";
+        String query = "@info(name = 'query1') from cseEventStream#window.time(1 sec, 'off.heap') select symbol,price," +
+                "volume insert all events into outputStream ;";
+
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(cseEventStream + query);
+
+        executionPlanRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                if (inEvents != null) {
+                    inEventCount = inEventCount + inEvents.length;
+                }
+                if (removeEvents != null) {
+                    Assert.assertTrue("InEvents arrived before RemoveEvents", inEventCount > removeEventCount);
+                    for (Event event : removeEvents) {
+                        removeEventCount++;
+                        Assert.assertEquals(removeEventCount, event.getData(2));
+                    }
+                }
+                eventArrived = true;
+            }
+
+        });
+
+        InputHandler inputHandler = executionPlanRuntime.getInputHandler("cseEventStream");
+        executionPlanRuntime.start();
+        inputHandler.send(new Object[]{"IBM", 700f, 1});
+        inputHandler.send(new Object[]{"WSO2", 60.5f, 2});
+        Thread.sleep(1100);
+        inputHandler.send(new Object[]{"IBM", 700f, 3});
+        inputHandler.send(new Object[]{"WSO2", null, 4});
+        Thread.sleep(2500);
+        Assert.assertEquals(4, inEventCount);
+        Assert.assertEquals(4, removeEventCount);
+        Assert.assertTrue(eventArrived);
+        executionPlanRuntime.shutdown();
+
+    }
+
+    @Test
+    public void timeWindowTest4() throws InterruptedException {
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String cseEventStream = "@plan:config(timer.tick = '50') " +
+                "define stream cseEventStream (symbol string, price float, volume int);";
+        String query = "@info(name = 'query1') from cseEventStream#window.time(1 sec) select symbol,price," +
+                "volume insert all events into outputStream ;";
+
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(cseEventStream + query);
+
+        executionPlanRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                if (inEvents != null) {
+                    inEventCount = inEventCount + inEvents.length;
+                }
+                if (removeEvents != null) {
+                    Assert.assertTrue("InEvents arrived before RemoveEvents", inEventCount > removeEventCount);
+                    removeEventCount = removeEventCount + removeEvents.length;
+                }
+                eventArrived = true;
+            }
+
+        });
+
+        InputHandler inputHandler = executionPlanRuntime.getInputHandler("cseEventStream");
+        executionPlanRuntime.start();
+        inputHandler.send(new Object[]{"IBM", 700f, 1});
+        inputHandler.send(new Object[]{"WSO2", 60.5f, 2});
+        inputHandler.send(new Object[]{"IBM", 700f, 3});
+        Thread.sleep(500);
+        Assert.assertEquals(0, removeEventCount);
+        Thread.sleep(1000);
+        Assert.assertEquals(3, inEventCount);
+        Assert.assertEquals(3, removeEventCount);
+        Assert.assertTrue(eventArrived);
+        executionPlanRuntime.shutdown();
+
+    }
+
+    @Test
+    public void timeWindowTest5() throws InterruptedException {
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String cseEventStream = "define stream cseEventStream (symbol string, price float, volume int);";
+        String query = "@info(name = 'query1') from cseEventStream#window.time(1 sec) select sum(volume) as " +
+                "totalVolume, max(price) as maxPrice, avg(price) as avgPrice, count(symbol) as events " +
+                "insert into outputStream ;";
+
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(cseEventStream + query);
+
+        executionPlanRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                Assert.assertNull(removeEvents);
+                for (Event event : inEvents) {
+                    inEventCount++;
+                    switch (inEventCount) {
+                        case 1:
+                            Assert.assertEquals(Arrays.asList(1l, 700f, 700.0, 1l), Arrays.asList(event.getData()));
+                            break;
+                        case 2:
+                            Assert.assertEquals(Arrays.asList(3l, 700f, 380.25, 2l), Arrays.asList(event.getData()));
+                            break;
+                        case 3:
+                            Assert.assertEquals(Arrays.asList(3l, 100f, 100.0, 1l), Arrays.asList(event.getData()));
+                            break;
+                    }
+                }
+                eventArrived = true;
+            }
+
+        });
+
+        Assert.assertEquals(4, executionPlanRuntime.getSlidingAggregatorCount("query1"));
+
+        InputHandler inputHandler = executionPlanRuntime.getInputHandler("cseEventStream");
+        executionPlanRuntime.start();
+        inputHandler.send(new Object[]{"IBM", 700f, 1});
+        inputHandler.send(new Object[]{"WSO2", 60.5f, 2});
+        Thread.sleep(1100);
+        inputHandler.send(new Object[]{"IBM", 100f, 3});
+        Thread.sleep(100);
+        Assert.assertEquals(3, inEventCount);
+        Assert.assertTrue(eventArrived);
+        executionPlanRuntime.shutdown();
+
+    }
+
+    @Test
+    public void timeWindowTest6() throws InterruptedException {
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String cseEventStream = "define stream cseEventStream (symbol string, price float, volume int);";
+        String query = "@info(name = 'query1') from cseEventStream#window.time(1 sec) select symbol, sum(volume) as " +
+                "totalVolume, count() as events group by symbol insert into outputStream ;";
+
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(cseEventStream + query);
+
+        executionPlanRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                Assert.assertNull(removeEvents);
+                for (Event event : inEvents) {
+                    inEventCount++;
+                    switch (inEventCount) {
+                        case 1:
+                            Assert.assertEquals(Arrays.asList("IBM", 1l, 1l), Arrays.asList(event.getData()));
+                            break;
+                        case 2:
+                            Assert.assertEquals(Arrays.asList("WSO2", 2l, 1l), Arrays.asList(event.getData()));
+                            break;
+                        case 3:
+                            Assert.assertEquals(Arrays.asList("IBM", 4l, 2l), Arrays.asList(event.getData()));
+                            break;
+                        case 4:
+                            Assert.assertEquals(Arrays.asList("IBM", 4l, 1l), Arrays.asList(event.getData()));
+                            break;
+                        case 5:
+                            Assert.assertEquals(Arrays.asList("WSO2", 5l, 1l), Arrays.asList(event.getData()));
+                            break;
+                    }
+                }
+                eventArrived = true;
+            }
+
+        });
+
+        Assert.assertEquals(2, executionPlanRuntime.getSlidingAggregatorCount("query1"));
+
+        InputHandler inputHandler = executionPlanRuntime.getInputHandler("cseEventStream");
+        executionPlanRuntime.start();
+        inputHandler.send(new Object[]{"IBM", 700f, 1});
+        inputHandler.send(new Object[]{"WSO2", 60.5f, 2});
+        inputHandler.send(new Object[]{"IBM", 100f, 3});
+        Thread.sleep(1100);
+        inputHandler.send(new Object[]{"IBM", 100f, 4});
+        inputHandler.send(new Object[]{"WSO2", 60.5f, 5});
+        Thread.sleep(100);
+        Assert.assertEquals(5, inEventCount);
+        Assert.assertTrue(eventArrived);
+        executionPlanRuntime.shutdown();
+
+    }
+
+    @Test
+    public void timeWindowTest7() throws InterruptedException {
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String cseEventStream = "define stream cseEventStream (symbol string, price float, volume int);";
+        String query = "@info(name = 'query1') from cseEventStream#window.time(1 sec) select min(price) as " +
+                "minPrice, max(price) as maxPrice insert into outputStream ;";
+
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(cseEventStream + query);
+
+        executionPlanRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                Assert.assertNull(removeEvents);
+                for (Event event : inEvents) {
+                    inEventCount++;
+                    switch (inEventCount) {
+                        case 1:
+                            Assert.assertEquals(Arrays.asList(10f, 10f), Arrays.asList(event.getData()));
+                            break;
+                        case 2:
+                            Assert.assertEquals(Arrays.asList(5f, 10f), Arrays.asList(event.getData()));
+                            break;
+                        case 3:
+                            Assert.assertEquals(Arrays.asList(5f, 20f), Arrays.asList(event.getData()));
+                            break;
+                        case 4:
+                            Assert.assertEquals(Arrays.asList(15f, 20f), Arrays.asList(event.getData()));
+                            break;
+                        case 5:
+                            Assert.assertEquals(Arrays.asList(1f, 15f), Arrays.asList(event.getData()));
+                            break;
+                    }
+                }
+                eventArrived = true;
+            }
+
+        });
+
+        Assert.assertEquals(2, executionPlanRuntime.getSlidingAggregatorCount("query1"));
+
+        InputHandler inputHandler = executionPlanRuntime.getInputHandler("cseEventStream");
+        executionPlanRuntime.start();
+        inputHandler.send(new Object[]{"IBM", 10f, 1});
+        inputHandler.send(new Object[]{"WSO2", 5f, 2});
+        Thread.sleep(600);
+        inputHandler.send(new Object[]{"IBM", 20f, 3});
+        Thread.sleep(600);
+        inputHandler.send(new Object[]{"WSO2", 15f, 4});
+        Thread.sleep(600);
+        inputHandler.send(new Object[]{"IBM", 1f, 5});
+        Thread.sleep(100);
+        Assert.assertEquals(5, inEventCount);
+        Assert.assertTrue(eventArrived);
+        executionPlanRuntime.shutdown();
+
+    }
+
 }
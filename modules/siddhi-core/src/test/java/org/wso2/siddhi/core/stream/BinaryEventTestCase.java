@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.stream;
+
+import junit.framework.Assert;
+import org.apache.log4j.Logger;
+import org.junit.Before;
+import org.junit.Test;
+import org.wso2.siddhi.core.ExecutionPlanRuntime;
+import org.wso2.siddhi.core.SiddhiManager;
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.stream.binary.BinaryEventReader;
+import org.wso2.siddhi.core.stream.binary.BinaryStreamCallback;
+import org.wso2.siddhi.core.stream.input.InputHandler;
+import org.wso2.siddhi.core.stream.output.StreamCallback;
+import org.wso2.siddhi.core.util.EventPrinter;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.net.InetSocketAddress;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class BinaryEventTestCase {
+
+    static final Logger log = Logger.getLogger(BinaryEventTestCase.class);
+    private static final String STOCK_STREAM = "define stream StockStream (symbol string, price float, " +
+            "volume long, active bool);";
+    private List<Event> receivedEvents;
+
+    @Before
+    public void init() {
+        receivedEvents = new CopyOnWriteArrayList<Event>();
+    }
+
+    @Test
+    public void binaryFileTest() throws Exception {
+        log.info("binary file test");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        File file = File.createTempFile("siddhi-binary-", ".bin");
+        file.deleteOnExit();
+
+        ExecutionPlanRuntime producerRuntime = siddhiManager.createExecutionPlanRuntime(
+                "@Plan:name('producer') " + STOCK_STREAM);
+        FileChannel fileChannel = new FileOutputStream(file).getChannel();
+        producerRuntime.addCallback("StockStream", new BinaryStreamCallback(fileChannel, 64));
+        producerRuntime.start();
+        sendEvents(producerRuntime.getInputHandler("StockStream"));
+        Thread.sleep(100);
+        producerRuntime.shutdown();
+        fileChannel.close();
+
+        ExecutionPlanRuntime consumerRuntime = createConsumerRuntime(siddhiManager);
+        BinaryEventReader binaryEventReader = new BinaryEventReader(consumerRuntime.getInputHandler("StockStream"),
+                consumerRuntime.getStreamDefinitionMap().get("StockStream"));
+        Assert.assertEquals(3, binaryEventReader.read(file));
+        Thread.sleep(100);
+        assertEvents();
+        consumerRuntime.shutdown();
+    }
+
+    @Test
+    public void binarySocketTest() throws Exception {
+        log.info("binary socket test");
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        ServerSocketChannel serverSocketChannel = ServerSocketChannel.open();
+        serverSocketChannel.socket().bind(new InetSocketAddress("localhost", 0));
+        ExecutionPlanRuntime consumerRuntime = createConsumerRuntime(siddhiManager);
+        final BinaryEventReader binaryEventReader = new BinaryEventReader(
+                consumerRuntime.getInputHandler("StockStream"),
+                consumerRuntime.getStreamDefinitionMap().get("StockStream"));
+        final ServerSocketChannel acceptingChannel = serverSocketChannel;
+        final AtomicLong readCount = new AtomicLong(-1);
+        Thread readerThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    SocketChannel socketChannel = acceptingChannel.accept();
+                    readCount.set(binaryEventReader.read(socketChannel, 64));
+                    socketChannel.close();
+                } catch (Exception e) {
+                    log.error("Error when reading events", e);
+                }
+            }
+        });
+        readerThread.start();
+
+        SocketChannel socketChannel = SocketChannel.open(serverSocketChannel.socket().getLocalSocketAddress());
+        ExecutionPlanRuntime producerRuntime = siddhiManager.createExecutionPlanRuntime(
+                "@Plan:name('producer') " + STOCK_STREAM);
+        producerRuntime.addCallback("StockStream", new BinaryStreamCallback(socketChannel, 64));
+        producerRuntime.start();
+        sendEvents(producerRuntime.getInputHandler("StockStream"));
+        Thread.sleep(100);
+        producerRuntime.shutdown();
+        socketChannel.close();
+
+        readerThread.join(1000);
+        serverSocketChannel.close();
+        Thread.sleep(100);
+        Assert.assertEquals(3, readCount.get());
+        assertEvents();
+        consumerRuntime.shutdown();
+    }
+
+    private ExecutionPlanRuntime createConsumerRuntime(SiddhiManager siddhiManager) {
+        ExecutionPlanRuntime consumerRuntime = siddhiManager.createExecutionPlanRuntime(
+                "@Plan:name('consumer') " + STOCK_STREAM);
+        consumerRuntime.addCallback("StockStream", new StreamCallback() {
+            @Override
+            public void receive(Event[] events) {
+                EventPrinter.print(events);
+                for (Event event : events) {
+                    receivedEvents.add(event);
+                }
+            }
+        });
+        consumerRuntime.start();
+        return consumerRuntime;
+    }
+
+    private void sendEvents(InputHandler inputHandler) throws InterruptedException {
+        inputHandler.send(1000l, new Object[]{"IBM", 700f, 100l, true});
+        inputHandler.send(2000l, new Object[]{null, 60.5f, 200l, false});
+        inputHandler.send(3000l, new Object[]{"WSO2 \u00e9", null, 300l, true});
+    }
+
+    private void assertEvents() {
+        Assert.assertEquals(3, receivedEvents.size());
+        Assert.assertEquals(1000l, receivedEvents.get(0).getTimestamp());
+        Assert.assertEquals("IBM", receivedEvents.get(0).getData(0));
+        Assert.assertEquals(700f, receivedEvents.get(0).getData(1));
+        Assert.assertEquals(100l, receivedEvents.get(0).getData(2));
+        Assert.assertEquals(true, receivedEvents.get(0).getData(3));
+        Assert.assertNull(receivedEvents.get(1).getData(0));
+        Assert.assertEquals(false, receivedEvents.get(1).getData(3));
+        Assert.assertEquals("WSO2 \u00e9", receivedEvents.get(2).getData(0));
+        Assert.assertNull(receivedEvents.get(2).getData(1));
+        Assert.assertEquals(3000l, receivedEvents.get(2).getTimestamp());
+    }
+}
@@ -0,0 +1,446 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.core.stream;
+
+import junit.framework.Assert;
+import org.apache.log4j.Logger;
+import org.junit.Before;
+import org.junit.Test;
+import org.wso2.siddhi.core.ExecutionPlanRuntime;
+import org.wso2.siddhi.core.SiddhiManager;
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.exception.ExecutionPlanRuntimeException;
+import org.wso2.siddhi.core.query.output.callback.QueryCallback;
+import org.wso2.siddhi.core.stream.input.EventLoopLock;
+import org.wso2.siddhi.core.stream.input.EventSlot;
+import org.wso2.siddhi.core.stream.input.InputHandler;
+import org.wso2.siddhi.core.util.EventPrinter;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+
+public class InputHandlerTestCase {
+
+    static final Logger log = Logger.getLogger(InputHandlerTestCase.class);
+    private volatile int count;
+    private volatile boolean eventArrived;
+
+    @Before
+    public void init() {
+        count = 0;
+        eventArrived = false;
+    }
+
+    @Test
+    public void claimAndCommitTest1() throws InterruptedException {
+        log.info("claim and commit test1");
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String executionPlan = "" +
+                "define stream StockStream (symbol string, price float, volume long);" +
+                "" +
+                "@info(name = 'query1') " +
+                "from StockStream[70 > price] " +
+                "select symbol, price, volume " +
+                "insert into outputStream;";
+
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(executionPlan);
+
+        executionPlanRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                for (Event event : inEvents) {
+                    count++;
+                    Assert.assertEquals("WSO2", event.getData(0));
+                    Assert.assertEquals(60.5f, event.getData(1));
+                    Assert.assertEquals(200l, event.getData(2));
+                }
+                eventArrived = true;
+            }
+
+        });
+
+        InputHandler inputHandler = executionPlanRuntime.getInputHandler("StockStream");
+        executionPlanRuntime.start();
+
+        EventSlot eventSlot = inputHandler.claim();
+        eventSlot.setString(0, "IBM");
+        eventSlot.setFloat(1, 700f);
+        eventSlot.setLong(2, 100l);
+        inputHandler.commit(eventSlot);
+
+        for (int i = 0; i < 3; i++) {
+            eventSlot = inputHandler.claim();
+            eventSlot.setTimestamp(System.currentTimeMillis());
+            eventSlot.setString(0, "WSO2");
+            eventSlot.setFloat(1, 60.5f);
+            eventSlot.setLong(2, 200l);
+            inputHandler.commit(eventSlot);
+        }
+        Thread.sleep(100);
+        Assert.assertEquals(3, count);
+        Assert.assertTrue(eventArrived);
+
+        executionPlanRuntime.shutdown();
+    }
+
+    @Test
+    public void claimAndCommitTest2() throws InterruptedException {
+        log.info("claim and commit test2");
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String executionPlan = "" +
+                "define stream StockStream (symbol string, price float, volume long);" +
+                "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "select symbol, price, volume " +
+                "insert into outputStream;";
+
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(executionPlan);
+        InputHandler inputHandler = executionPlanRuntime.getInputHandler("StockStream");
+        executionPlanRuntime.start();
+
+        EventSlot eventSlot = inputHandler.claim();
+        try {
+            eventSlot.setInt(1, 700);
+            Assert.fail("setting an int to a float attribute should fail");
+        } catch (ExecutionPlanRuntimeException e) {
+            eventSlot.setFloat(1, 700f);
+        } finally {
+            inputHandler.commit(eventSlot);
+        }
+
+        executionPlanRuntime.shutdown();
+    }
+
+    @Test
+    public void claimAndCommitTest3() throws InterruptedException {
+        log.info("claim and commit test3");
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String executionPlan = "" +
+                "define stream StockStream (symbol string, price float, volume long);" +
+                "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "select symbol, price, volume " +
+                "insert into outputStream;";
+
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(executionPlan);
+
+        executionPlanRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                for (Event event : inEvents) {
+                    count++;
+                    Assert.assertEquals("WSO2", event.getData(0));
+                    Assert.assertEquals(null, event.getData(1));
+                    Assert.assertEquals(200l, event.getData(2));
+                }
+                eventArrived = true;
+            }
+
+        });
+
+        InputHandler inputHandler = executionPlanRuntime.getInputHandler("StockStream");
+        executionPlanRuntime.start();
+
+        EventSlot eventSlot = inputHandler.claim();
+        eventSlot.setString(0, "IBM");
+        try {
+            eventSlot.setInt(1, 700);
+            Assert.fail("setting an int to a float attribute should fail");
+        } catch (ExecutionPlanRuntimeException e) {
+            log.info("abandoning the claimed slot");
+        }
+
+        eventSlot = inputHandler.claim();
+        eventSlot.setString(0, "WSO2");
+        eventSlot.setLong(2, 200l);
+        inputHandler.commit(eventSlot);
+        inputHandler.send(new Object[]{"WSO2", null, 200l});
+
+        Thread.sleep(100);
+        Assert.assertEquals(2, count);
+        Assert.assertTrue(eventArrived);
+
+        executionPlanRuntime.shutdown();
+    }
+
+    @Test
+    public void claimAndCommitAfterShutdownTest() throws InterruptedException {
+        log.info("claim and commit after shutdown test");
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String executionPlan = "" +
+                "define stream StockStream (symbol string, price float, volume long);" +
+                "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "select symbol, price, volume " +
+                "insert into outputStream;";
+
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(executionPlan);
+
+        executionPlanRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                eventArrived = true;
+            }
+
+        });
+
+        InputHandler inputHandler = executionPlanRuntime.getInputHandler("StockStream");
+        executionPlanRuntime.start();
+
+        EventSlot eventSlot = inputHandler.claim();
+        eventSlot.setString(0, "WSO2");
+        eventSlot.setFloat(1, 60.5f);
+        eventSlot.setLong(2, 200l);
+        executionPlanRuntime.shutdown();
+        inputHandler.commit(eventSlot);
+
+        try {
+            inputHandler.claim();
+            Assert.fail("claiming a slot of a disconnected input handler should fail");
+        } catch (ExecutionPlanRuntimeException e) {
+            Assert.assertTrue(e.getMessage().contains("disconnected"));
+        }
+        Thread.sleep(100);
+        Assert.assertFalse(eventArrived);
+    }
+
+    @Test
+    public void trySendTest() throws InterruptedException {
+        log.info("try send test");
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String executionPlan = "" +
+                "@plan:config(buffer.size = '8') " +
+                "define stream StockStream (symbol string, price float, volume long);" +
+                "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "select symbol, price, volume " +
+                "insert into outputStream;";
+
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(executionPlan);
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        executionPlanRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                count += inEvents.length;
+                eventArrived = true;
+            }
+
+        });
+
+        InputHandler inputHandler = executionPlanRuntime.getInputHandler("StockStream");
+        executionPlanRuntime.start();
+
+        int accepted = 0;
+        boolean rejected = false;
+        for (int i = 0; i < 100; i++) {
+            if (inputHandler.trySend(new Object[]{"WSO2", 60.5f, 200l})) {
+                accepted++;
+            } else {
+                rejected = true;
+            }
+        }
+        latch.countDown();
+        Thread.sleep(100);
+        Assert.assertTrue(rejected);
+        Assert.assertTrue(eventArrived);
+        Assert.assertEquals(accepted, count);
+
+        executionPlanRuntime.shutdown();
+    }
+
+    @Test
+    public void spillOnEntryValveTest() throws InterruptedException {
+        log.info("spill on entry valve test");
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String executionPlan = "" +
+                "@plan:config(buffer.size = '8', overload.policy = 'spill') " +
+                "define stream StockStream (symbol string, price float, volume long);" +
+                "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "select symbol, price, volume " +
+                "insert into outputStream;";
+
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(executionPlan);
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicInteger inCount = new AtomicInteger(0);
+
+        executionPlanRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                inCount.addAndGet(inEvents.length);
+            }
+
+        });
+
+        final InputHandler inputHandler = executionPlanRuntime.getInputHandler("StockStream");
+        executionPlanRuntime.start();
+
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    for (int i = 0; i < 100; i++) {
+                        inputHandler.send(new Object[]{"WSO2", 60.5f, (long) i});
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        producer.start();
+        Thread.sleep(100);
+        // the entry valve ring has no spill queue, hence the producer waits on the full ring
+        Assert.assertTrue(producer.isAlive());
+        latch.countDown();
+        producer.join();
+        Thread.sleep(100);
+        Assert.assertEquals(100, inCount.get());
+
+        executionPlanRuntime.shutdown();
+    }
+
+    @Test
+    public void eventLoopTest() throws InterruptedException {
+        log.info("event loop test");
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String executionPlan = "" +
+                "@plan:EventLoop " +
+                "define stream StockStream (symbol string, price float, volume long);" +
+                "" +
+                "@info(name = 'query1') " +
+                "from StockStream#window.time(200 milliseconds) " +
+                "select symbol, price, volume " +
+                "insert all events into outputStream;";
+
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(executionPlan);
+        final AtomicInteger inCount = new AtomicInteger(0);
+        final AtomicInteger removeCount = new AtomicInteger(0);
+
+        executionPlanRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                if (inEvents != null) {
+                    inCount.addAndGet(inEvents.length);
+                }
+                if (removeEvents != null) {
+                    removeCount.addAndGet(removeEvents.length);
+                }
+            }
+
+        });
+
+        final InputHandler inputHandler = executionPlanRuntime.getInputHandler("StockStream");
+        executionPlanRuntime.start();
+
+        Thread[] producers = new Thread[4];
+        for (int i = 0; i < producers.length; i++) {
+            producers[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int j = 0; j < 1000; j++) {
+                            inputHandler.send(new Object[]{"WSO2", 60.5f, 200l});
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+            producers[i].start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        Thread.sleep(500);
+        Assert.assertEquals(4000, inCount.get());
+        Assert.assertEquals(4000, removeCount.get());
+
+        executionPlanRuntime.shutdown();
+    }
+
+    @Test
+    public void eventLoopLockConditionTest() throws InterruptedException {
+        log.info("event loop lock condition test");
+        final EventLoopLock lock = new EventLoopLock();
+        final Condition condition = lock.newCondition();
+        final AtomicBoolean signalled = new AtomicBoolean(false);
+        final CountDownLatch waiting = new CountDownLatch(1);
+
+        Thread waiter = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                lock.lock();
+                try {
+                    waiting.countDown();
+                    while (!signalled.get()) {
+                        condition.await(1, TimeUnit.SECONDS);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        });
+        waiter.start();
+        waiting.await();
+
+        try {
+            condition.signal();
+            Assert.fail("Signalling without holding the lock should fail");
+        } catch (IllegalMonitorStateException e) {
+            // expected
+        }
+
+        lock.lock();
+        try {
+            signalled.set(true);
+            condition.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        waiter.join(1000);
+        Assert.assertFalse(waiter.isAlive());
+    }
+}
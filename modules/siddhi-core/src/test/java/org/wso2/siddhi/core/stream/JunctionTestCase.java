@@ -18,18 +18,22 @@ import junit.framework.Assert;
 import org.apache.log4j.Logger;
 import org.junit.Before;
 import org.junit.Test;
+import org.wso2.siddhi.core.config.DisruptorConfig;
 import org.wso2.siddhi.core.config.ExecutionPlanContext;
 import org.wso2.siddhi.core.config.SiddhiContext;
 import org.wso2.siddhi.core.event.Event;
 import org.wso2.siddhi.core.event.stream.StreamEvent;
 import org.wso2.siddhi.core.event.stream.StreamEventPool;
+import org.wso2.siddhi.core.exception.ExecutionPlanCreationException;
 import org.wso2.siddhi.core.stream.output.StreamCallback;
 import org.wso2.siddhi.query.api.annotation.Annotation;
 import org.wso2.siddhi.query.api.definition.Attribute;
 import org.wso2.siddhi.query.api.definition.StreamDefinition;
 
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class JunctionTestCase {
     static final Logger log = Logger.getLogger(JunctionTestCase.class);
@@ -577,4 +581,255 @@ public class JunctionTestCase {
         streamJunctionB.stopProcessing();
         streamJunctionC.stopProcessing();
     }
+
+    @Test
+    public void BatchPublishTest() throws InterruptedException {
+        log.info("batch publish");
+
+        StreamDefinition streamA = StreamDefinition.id("streamA").attribute("symbol", Attribute.Type.STRING).attribute("price", Attribute.Type.INT).
+                annotation(Annotation.annotation("parallel"));
+        StreamJunction streamJunctionA = new StreamJunction(streamA, executorService, 16, executionPlanContext);
+        StreamJunction.Publisher streamPublisherA = streamJunctionA.constructPublisher();
+
+        StreamCallback streamCallback = new StreamCallback() {
+            @Override
+            public void receive(Event[] streamEvents) {
+                for (Event streamEvent : streamEvents) {
+                    Assert.assertEquals(count, streamEvent.getData()[1]);
+                    count++;
+                }
+                eventArrived = true;
+            }
+        };
+
+        streamJunctionA.subscribe(streamCallback);
+        streamJunctionA.startProcessing();
+
+        Event[] events = new Event[100];
+        for (int i = 0; i < events.length; i++) {
+            events[i] = new Event(System.currentTimeMillis(), new Object[]{"IBM", i});
+        }
+        streamPublisherA.send(events, 0);
+        Thread.sleep(100);
+        Assert.assertTrue(eventArrived);
+        Assert.assertEquals(100, count);
+        streamJunctionA.stopProcessing();
+    }
+
+    @Test
+    public void WaitStrategyConfigTest() throws InterruptedException {
+        log.info("wait strategy config");
+
+        StreamDefinition streamA = StreamDefinition.id("streamA").attribute("symbol", Attribute.Type.STRING).attribute("price", Attribute.Type.INT).
+                annotation(Annotation.annotation("parallel").element("wait.strategy", "yielding").element("buffer.size", "8"));
+        StreamJunction streamJunctionA = new StreamJunction(streamA, executorService, 1024, executionPlanContext);
+        StreamJunction.Publisher streamPublisherA = streamJunctionA.constructPublisher();
+
+        Assert.assertEquals(8, streamJunctionA.getDisruptorConfig().getBufferSize());
+        Assert.assertEquals(DisruptorConfig.WaitStrategyType.YIELDING, streamJunctionA.getDisruptorConfig().getWaitStrategyType());
+
+        StreamCallback streamCallback = new StreamCallback() {
+            @Override
+            public void receive(Event[] streamEvents) {
+                count += streamEvents.length;
+                eventArrived = true;
+            }
+        };
+
+        streamJunctionA.subscribe(streamCallback);
+        streamJunctionA.startProcessing();
+        for (int i = 0; i < 20; i++) {
+            streamPublisherA.send(new Event(System.currentTimeMillis(), new Object[]{"IBM", i}), 0);
+        }
+        Thread.sleep(100);
+        Assert.assertTrue(eventArrived);
+        Assert.assertEquals(20, count);
+        streamJunctionA.stopProcessing();
+    }
+
+    @Test(expected = ExecutionPlanCreationException.class)
+    public void InvalidWaitStrategyConfigTest() throws InterruptedException {
+        log.info("invalid wait strategy config");
+
+        StreamDefinition streamA = StreamDefinition.id("streamA").attribute("symbol", Attribute.Type.STRING).attribute("price", Attribute.Type.INT).
+                annotation(Annotation.annotation("config").element("wait.strategy", "spinning"));
+        new StreamJunction(streamA, executorService, 1024, executionPlanContext);
+    }
+
+    @Test
+    public void DropNewestOverloadTest() throws InterruptedException {
+        log.info("drop newest overload policy");
+
+        StreamDefinition streamA = StreamDefinition.id("streamA").attribute("symbol", Attribute.Type.STRING).attribute("price", Attribute.Type.INT).
+                annotation(Annotation.annotation("parallel").element("buffer.size", "8").element("overload.policy", "drop.newest"));
+        StreamJunction streamJunctionA = new StreamJunction(streamA, executorService, 1024, executionPlanContext);
+        StreamJunction.Publisher streamPublisherA = streamJunctionA.constructPublisher();
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        StreamCallback streamCallback = new StreamCallback() {
+            @Override
+            public void receive(Event[] streamEvents) {
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                count += streamEvents.length;
+                eventArrived = true;
+            }
+        };
+
+        streamJunctionA.subscribe(streamCallback);
+        streamJunctionA.startProcessing();
+        for (int i = 0; i < 100; i++) {
+            streamPublisherA.send(new Event(System.currentTimeMillis(), new Object[]{"IBM", i}), 0);
+        }
+        latch.countDown();
+        Thread.sleep(100);
+        Assert.assertTrue(eventArrived);
+        Assert.assertTrue(streamJunctionA.getDroppedEventCount() > 0);
+        Assert.assertEquals(100, count + streamJunctionA.getDroppedEventCount());
+        streamJunctionA.stopProcessing();
+    }
+
+    @Test
+    public void DropOldestOverloadTest() throws InterruptedException {
+        log.info("drop oldest overload policy");
+
+        StreamDefinition streamA = StreamDefinition.id("streamA").attribute("symbol", Attribute.Type.STRING).attribute("price", Attribute.Type.INT).
+                annotation(Annotation.annotation("parallel").element("buffer.size", "8").element("overload.policy", "drop.oldest"));
+        StreamJunction streamJunctionA = new StreamJunction(streamA, executorService, 1024, executionPlanContext);
+        StreamJunction.Publisher streamPublisherA = streamJunctionA.constructPublisher();
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        StreamCallback streamCallback = new StreamCallback() {
+            @Override
+            public void receive(Event[] streamEvents) {
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                count += streamEvents.length;
+                eventArrived = true;
+            }
+        };
+
+        streamJunctionA.subscribe(streamCallback);
+        streamJunctionA.startProcessing();
+        for (int i = 0; i < 100; i++) {
+            streamPublisherA.send(new Event(System.currentTimeMillis(), new Object[]{"IBM", i}), 0);
+        }
+        latch.countDown();
+        Thread.sleep(100);
+        Assert.assertTrue(eventArrived);
+        Assert.assertTrue(count < 100);
+        Assert.assertTrue(count + streamJunctionA.getDroppedEventCount() >= 100);
+        streamJunctionA.stopProcessing();
+    }
+
+    @Test
+    public void SpillOverloadTest() throws InterruptedException {
+        log.info("spill overload policy");
+
+        executionPlanContext.setName("spillTest");
+        executionPlanContext.setScheduledExecutorService(Executors.newScheduledThreadPool(1));
+        StreamDefinition streamA = StreamDefinition.id("streamA").attribute("symbol", Attribute.Type.STRING).attribute("price", Attribute.Type.INT).
+                annotation(Annotation.annotation("parallel").element("buffer.size", "8").element("overload.policy", "spill"));
+        StreamJunction streamJunctionA = new StreamJunction(streamA, executorService, 1024, executionPlanContext);
+        StreamJunction.Publisher streamPublisherA = streamJunctionA.constructPublisher();
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        StreamCallback streamCallback = new StreamCallback() {
+            @Override
+            public void receive(Event[] streamEvents) {
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                for (Event streamEvent : streamEvents) {
+                    Assert.assertEquals(count, streamEvent.getData()[1]);
+                    count++;
+                }
+                eventArrived = true;
+            }
+        };
+
+        streamJunctionA.subscribe(streamCallback);
+        streamJunctionA.startProcessing();
+        for (int i = 0; i < 100; i++) {
+            streamPublisherA.send(new Event(System.currentTimeMillis(), new Object[]{"IBM", i}), 0);
+        }
+        latch.countDown();
+        Thread.sleep(500);
+        Assert.assertTrue(eventArrived);
+        Assert.assertEquals(100, count);
+        Assert.assertTrue(streamJunctionA.getSpilledEventCount() > 0);
+        Assert.assertEquals(0, streamJunctionA.getDroppedEventCount());
+        streamJunctionA.stopProcessing();
+        executionPlanContext.getScheduledExecutorService().shutdownNow();
+    }
+
+    @Test(expected = ExecutionPlanCreationException.class)
+    public void InvalidOverloadPolicyConfigTest() throws InterruptedException {
+        log.info("invalid overload policy config");
+
+        StreamDefinition streamA = StreamDefinition.id("streamA").attribute("symbol", Attribute.Type.STRING).attribute("price", Attribute.Type.INT).
+                annotation(Annotation.annotation("parallel").element("overload.policy", "drop.all"));
+        new StreamJunction(streamA, executorService, 1024, executionPlanContext);
+    }
+
+    @Test
+    public void ReceiverGroupTest() throws InterruptedException {
+        log.info("receiver group");
+
+        executionPlanContext.setName("receiverGroupTest");
+        executionPlanContext.setScheduledExecutorService(Executors.newScheduledThreadPool(1));
+        StreamDefinition streamA = StreamDefinition.id("streamA").attribute("symbol", Attribute.Type.STRING).attribute("price", Attribute.Type.INT).
+                annotation(Annotation.annotation("parallel").element("buffer.size", "8").element("overload.policy", "spill"));
+        StreamJunction streamJunctionA = new StreamJunction(streamA, executorService, 1024, executionPlanContext);
+        StreamJunction.Publisher streamPublisherA = streamJunctionA.constructPublisher();
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicInteger slowCount = new AtomicInteger(0);
+
+        StreamCallback fastCallback = new StreamCallback() {
+            @Override
+            public void receive(Event[] streamEvents) {
+                count += streamEvents.length;
+                eventArrived = true;
+            }
+        };
+        StreamCallback slowCallback = new StreamCallback() {
+            @Override
+            public void receive(Event[] streamEvents) {
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                slowCount.addAndGet(streamEvents.length);
+            }
+        };
+
+        streamJunctionA.subscribe(fastCallback);
+        streamJunctionA.subscribe(slowCallback, "slow");
+        streamJunctionA.startProcessing();
+        for (int i = 0; i < 100; i++) {
+            streamPublisherA.send(new Event(System.currentTimeMillis(), new Object[]{"IBM", i}), 0);
+        }
+        Thread.sleep(100);
+        Assert.assertTrue(eventArrived);
+        Assert.assertEquals(100, count);
+        Assert.assertEquals(0, slowCount.get());
+        Assert.assertEquals(0, streamJunctionA.getConsumerLag(fastCallback));
+        Assert.assertTrue(streamJunctionA.getConsumerLag(slowCallback) > 0);
+
+        latch.countDown();
+        Thread.sleep(500);
+        Assert.assertEquals(100, slowCount.get());
+        Assert.assertEquals(0, streamJunctionA.getConsumerLag(slowCallback));
+        streamJunctionA.stopProcessing();
+        executionPlanContext.getScheduledExecutorService().shutdownNow();
+    }
 }
@@ -18,6 +18,7 @@ package org.wso2.siddhi.core.stream.event;
 import junit.framework.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.wso2.siddhi.core.event.ArrayComplexEventChunk;
 import org.wso2.siddhi.core.event.stream.StreamEvent;
 import org.wso2.siddhi.core.event.stream.StreamEventPool;
 import org.wso2.siddhi.core.event.stream.converter.ConversionStreamEventChunk;
@@ -207,5 +208,68 @@ public class ComplexEventChunkTestCase {
         streamEventChunk.remove();
     }
 
+    @Test
+    public void ArrayEventChunkRemoveTest() {
+        StreamEvent[] streamEvents = new StreamEvent[5];
+        for (int i = 0; i < streamEvents.length; i++) {
+            streamEvents[i] = new StreamEvent(0, 0, 3);
+            streamEvents[i].setOutputData(new Object[]{"WSO2", 700l, (long) i});
+        }
+
+        ArrayComplexEventChunk<StreamEvent> streamEventChunk = new ArrayComplexEventChunk<StreamEvent>(2);
+        streamEventChunk.addAll(streamEvents, 0, 3);
+        streamEvents[3].setNext(streamEvents[4]);
+        streamEventChunk.add(streamEvents[3]);
+        Assert.assertEquals(5, streamEventChunk.size());
 
+        while (streamEventChunk.hasNext()) {
+            StreamEvent event = streamEventChunk.next();
+            if (count == 0 || count == 2 || count == 4) {
+                streamEventChunk.remove();
+            }
+            Assert.assertEquals(count * 1l, event.getOutputData()[2]);
+            count++;
+        }
+        Assert.assertEquals(5, count);
+        Assert.assertEquals(2, streamEventChunk.size());
+        Assert.assertEquals(streamEvents[1], streamEventChunk.get(0));
+        Assert.assertEquals(streamEvents[3], streamEventChunk.get(1));
+        Assert.assertEquals(streamEvents[1], streamEventChunk.getFirst());
+        Assert.assertEquals(streamEvents[3], streamEventChunk.getFirst().getNext());
+        Assert.assertNull(streamEvents[3].getNext());
+        Assert.assertEquals(streamEvents[3], streamEventChunk.getLast());
+    }
+
+    @Test
+    public void ArrayEventChunkInsertTest() {
+        StreamEvent[] streamEvents = new StreamEvent[4];
+        for (int i = 0; i < streamEvents.length; i++) {
+            streamEvents[i] = new StreamEvent(0, 0, 3);
+            streamEvents[i].setOutputData(new Object[]{"WSO2", 700l, (long) i});
+        }
+
+        ArrayComplexEventChunk<StreamEvent> streamEventChunk = new ArrayComplexEventChunk<StreamEvent>();
+        streamEventChunk.add(streamEvents[0]);
+        streamEventChunk.add(streamEvents[2]);
+
+        streamEventChunk.next();
+        streamEventChunk.insertAfterCurrent(streamEvents[1]);
+        Assert.assertEquals(streamEvents[1], streamEventChunk.next());
+        Assert.assertEquals(streamEvents[2], streamEventChunk.next());
+        streamEventChunk.insertAfterCurrent(streamEvents[3]);
+        Assert.assertEquals(streamEvents[3], streamEventChunk.next());
+        Assert.assertFalse(streamEventChunk.hasNext());
+
+        Assert.assertEquals(4, streamEventChunk.size());
+        for (int i = 0; i < streamEvents.length; i++) {
+            Assert.assertEquals(streamEvents[i], streamEventChunk.get(i));
+        }
+        Assert.assertEquals(streamEvents[0], streamEventChunk.poll());
+        Assert.assertEquals(streamEvents[1], streamEventChunk.get(0));
+
+        streamEventChunk.clear();
+        Assert.assertEquals(0, streamEventChunk.size());
+        Assert.assertNull(streamEventChunk.getFirst());
+        Assert.assertFalse(streamEventChunk.hasNext());
+    }
 }
@@ -20,9 +20,11 @@ import org.wso2.siddhi.core.config.ExecutionPlanContext;
 import org.wso2.siddhi.core.config.SiddhiContext;
 import org.wso2.siddhi.core.event.Event;
 import org.wso2.siddhi.core.event.EventFactory;
+import org.wso2.siddhi.core.event.UnboxedData;
 import org.wso2.siddhi.core.event.state.MetaStateEvent;
 import org.wso2.siddhi.core.event.stream.MetaStreamEvent;
 import org.wso2.siddhi.core.event.stream.StreamEvent;
+import org.wso2.siddhi.core.event.stream.StreamEventCloner;
 import org.wso2.siddhi.core.event.stream.StreamEventFactory;
 import org.wso2.siddhi.core.event.stream.StreamEventPool;
 import org.wso2.siddhi.core.event.stream.converter.*;
@@ -55,6 +57,8 @@ import org.wso2.siddhi.query.api.expression.condition.Compare;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 public class EventTestCase {
 
@@ -90,6 +94,69 @@ public class EventTestCase {
 
     }
 
+    @Test
+    public void testEventPoolAcrossThreads() throws InterruptedException {
+        final StreamEventPool streamEventPool = new StreamEventPool(0, 0, 3, 5);
+        final BlockingQueue<StreamEvent> queue = new ArrayBlockingQueue<StreamEvent>(1024);
+        final int eventCount = 100000;
+
+        Thread returningThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    for (int i = 0; i < eventCount; i++) {
+                        streamEventPool.returnEvents(queue.take());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        returningThread.start();
+        for (int i = 0; i < eventCount; i++) {
+            StreamEvent streamEvent = streamEventPool.borrowEvent();
+            Assert.assertNull(streamEvent.getNext());
+            queue.put(streamEvent);
+        }
+        returningThread.join();
+
+        Assert.assertEquals(eventCount, streamEventPool.getBorrowCount());
+        Assert.assertTrue(streamEventPool.getSize() > 5);
+        Assert.assertTrue(streamEventPool.getHitRate() > 0);
+    }
+
+    @Test
+    public void testThreadMagazineEventPool() throws InterruptedException {
+        MetaStreamEvent metaStreamEvent = new MetaStreamEvent();
+        metaStreamEvent.addOutputData(new Attribute("symbol", Attribute.Type.STRING));
+        final StreamEventPool streamEventPool = new StreamEventPool(metaStreamEvent, 5, true);
+        Assert.assertTrue(streamEventPool.isThreadMagazine());
+        Assert.assertFalse(new StreamEventPool(metaStreamEvent, 5).isThreadMagazine());
+
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                StreamEvent first = streamEventPool.borrowEvent();
+                StreamEvent second = streamEventPool.borrowEvent();
+                StreamEvent third = streamEventPool.borrowEvent();
+                first.setNext(second);
+                second.setNext(third);
+                streamEventPool.returnEvents(first);
+            }
+        });
+        thread.start();
+        thread.join();
+
+        // events kept in the magazine of the other thread are counted too
+        Assert.assertEquals(3, streamEventPool.getBufferedEventsSize());
+        Assert.assertEquals(3, streamEventPool.getBorrowCount());
+        Assert.assertEquals(3, streamEventPool.getReturnCount());
+
+        streamEventPool.borrowEvent();
+        Assert.assertEquals(3, streamEventPool.getBufferedEventsSize());
+        Assert.assertEquals(4, streamEventPool.getMissCount());
+    }
+
     @Test
     public void testPassThroughStreamEventConverter() {
         Attribute symbol = new Attribute("symbol", Attribute.Type.STRING);
@@ -181,6 +248,43 @@ public class EventTestCase {
         Assert.assertEquals("WSO2", borrowedEvent.getOutputData()[0]);
     }
 
+    @Test
+    public void testUnboxedStreamEventConverter() {
+        Attribute price = new Attribute("price", Attribute.Type.DOUBLE);
+        Attribute volume = new Attribute("volume", Attribute.Type.INT);
+        Attribute symbol = new Attribute("symbol", Attribute.Type.STRING);
+
+        MetaStreamEvent metaStreamEvent = new MetaStreamEvent();
+        metaStreamEvent.addData(volume);
+        metaStreamEvent.addData(price);
+        metaStreamEvent.initializeAfterWindowData();
+        metaStreamEvent.addOutputData(symbol);
+
+        StreamDefinition streamDefinition = StreamDefinition.id("cseEventStream").attribute("symbol", Attribute.Type.STRING).attribute("price", Attribute.Type.DOUBLE).attribute("volume", Attribute.Type.INT);
+        Event event = new UnboxedEvent(new Object[]{"WSO2", null, null}, new Attribute.Type[]{null, Attribute.Type.DOUBLE, Attribute.Type.INT},
+                new long[]{0, 0, 50}, new double[]{0, 200.5, 0});
+
+        metaStreamEvent.addInputDefinition(streamDefinition);
+        StreamEventConverter converter = StreamEventConverterFactory.constructEventConverter(metaStreamEvent);
+        StreamEventPool eventPool = new StreamEventPool(metaStreamEvent, 5);
+
+        StreamEvent borrowedEvent = eventPool.borrowEvent();
+        converter.convertEvent(event, borrowedEvent);
+
+        Assert.assertEquals(50, borrowedEvent.getBeforeWindowLong(0));
+        Assert.assertEquals(200.5, borrowedEvent.getBeforeWindowDouble(1), 0);
+        Assert.assertFalse(borrowedEvent.isBeforeWindowDataNull(0));
+
+        StreamEventCloner cloner = new StreamEventCloner(metaStreamEvent, eventPool);
+        StreamEvent clonedEvent = cloner.copyStreamEvent(borrowedEvent);
+        Assert.assertEquals(50, clonedEvent.getBeforeWindowLong(0));
+
+        Assert.assertEquals(50, borrowedEvent.getBeforeWindowData(0));
+        Assert.assertEquals(200.5, borrowedEvent.getBeforeWindowData()[1]);
+        Assert.assertEquals(50, clonedEvent.getBeforeWindowData()[0]);
+        Assert.assertEquals("WSO2", borrowedEvent.getOutputData()[0]);
+    }
+
     @Test
     public void testExpressionExecutors() {
 //        StreamDefinition streamDefinition = StreamDefinition.id("cseEventStream").attribute("symbol", Attribute.Type.STRING).attribute("price", Attribute.Type.FLOAT).attribute("volume", Attribute.Type.INT);
@@ -293,4 +397,33 @@ public class EventTestCase {
         Assert.assertArrayEquals(new int[]{0, 0, 0, 0}, volumeVariableExpressionExecutor.getPosition());
         Assert.assertArrayEquals(new int[]{0, 0, 2, 0}, symbolVariableExpressionExecutor.getPosition());
     }
+
+    private static class UnboxedEvent extends Event implements UnboxedData {
+
+        private final Attribute.Type[] types;
+        private final long[] longValues;
+        private final double[] doubleValues;
+
+        private UnboxedEvent(Object[] data, Attribute.Type[] types, long[] longValues, double[] doubleValues) {
+            super(System.currentTimeMillis(), data);
+            this.types = types;
+            this.longValues = longValues;
+            this.doubleValues = doubleValues;
+        }
+
+        @Override
+        public Attribute.Type getUnboxedType(int index) {
+            return types[index];
+        }
+
+        @Override
+        public long getLong(int index) {
+            return longValues[index];
+        }
+
+        @Override
+        public double getDouble(int index) {
+            return doubleValues[index];
+        }
+    }
 }
@@ -158,6 +158,11 @@ public class RDBMSEventTable implements EventTable {
         return finder.find(matchingEvent, null, null);
     }
 
+    @Override
+    public void releaseFoundEvents(StreamEvent foundEvents) {
+        //Events found in the database are not pooled
+    }
+
     @Override
     public Finder constructFinder(Expression expression, MetaComplexEvent metaComplexEvent, ExecutionPlanContext executionPlanContext, List<VariableExpressionExecutor> variableExpressionExecutors, Map<String, EventTable> eventTableMap, int matchingStreamIndex, long withinTime) {
         return RDBMSOperatorParser.parse(dbConfiguration, expression, metaComplexEvent, executionPlanContext, variableExpressionExecutors, eventTableMap, matchingStreamIndex, tableDefinition, withinTime, cachedTable);
@@ -23,10 +23,11 @@ import org.wso2.siddhi.core.exception.ExecutionPlanRuntimeException;
 import org.wso2.siddhi.core.executor.ConstantExpressionExecutor;
 import org.wso2.siddhi.core.executor.ExpressionExecutor;
 import org.wso2.siddhi.core.executor.function.FunctionExecutor;
+import org.wso2.siddhi.core.util.regex.CompiledRegex;
+import org.wso2.siddhi.core.util.regex.PatternCache;
 import org.wso2.siddhi.query.api.definition.Attribute;
 import org.wso2.siddhi.query.api.exception.ExecutionPlanValidationException;
 
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
@@ -43,6 +44,7 @@ public class RegexpFunctionExtension extends FunctionExecutor {
     boolean isRegexConstant = false;
     String regexConstant;
     Pattern patternConstant;
+    CompiledRegex compiledRegexConstant;
 
     @Override
     protected void init(ExpressionExecutor[] attributeExpressionExecutors, ExecutionPlanContext executionPlanContext) {
@@ -61,16 +63,13 @@ public class RegexpFunctionExtension extends FunctionExecutor {
         if(attributeExpressionExecutors[1] instanceof ConstantExpressionExecutor){
             isRegexConstant = true;
             regexConstant = (String) ((ConstantExpressionExecutor) attributeExpressionExecutors[1]).getValue();
-            patternConstant = Pattern.compile(regexConstant);
+            compiledRegexConstant = CompiledRegex.compile(regexConstant);
+            patternConstant = compiledRegexConstant.getPattern();
         }
     }
 
     @Override
     protected Object execute(Object[] data) {
-        String regex;
-        Pattern pattern;
-        Matcher matcher;
-
         if (data[0] == null) {
             throw new ExecutionPlanRuntimeException("Invalid input given to str:regexp() function. First argument cannot be null");
         }
@@ -80,14 +79,9 @@ public class RegexpFunctionExtension extends FunctionExecutor {
         String source = (String) data[0];
 
         if(!isRegexConstant){
-            regex = (String) data[1];
-            pattern = Pattern.compile(regex);
-            matcher = pattern.matcher(source);
-            return matcher.matches();
-
+            return PatternCache.getSharedCache().get((String) data[1]).matches(source);
         } else {
-            matcher = patternConstant.matcher(source);
-            return matcher.matches();
+            return compiledRegexConstant.matches(source);
         }
     }
 
@@ -121,5 +115,6 @@ public class RegexpFunctionExtension extends FunctionExecutor {
         isRegexConstant = (Boolean) state[0];
         regexConstant = (String) state[1];
         patternConstant = (Pattern) state[2];
+        compiledRegexConstant = regexConstant == null ? null : CompiledRegex.compile(regexConstant);
     }
 }
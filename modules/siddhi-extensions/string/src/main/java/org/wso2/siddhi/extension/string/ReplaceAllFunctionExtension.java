@@ -20,8 +20,11 @@ package org.wso2.siddhi.extension.string;
 
 import org.wso2.siddhi.core.config.ExecutionPlanContext;
 import org.wso2.siddhi.core.exception.ExecutionPlanRuntimeException;
+import org.wso2.siddhi.core.executor.ConstantExpressionExecutor;
 import org.wso2.siddhi.core.executor.ExpressionExecutor;
 import org.wso2.siddhi.core.executor.function.FunctionExecutor;
+import org.wso2.siddhi.core.util.regex.CompiledRegex;
+import org.wso2.siddhi.core.util.regex.PatternCache;
 import org.wso2.siddhi.query.api.definition.Attribute;
 import org.wso2.siddhi.query.api.exception.ExecutionPlanValidationException;
 
@@ -34,6 +37,7 @@ import org.wso2.siddhi.query.api.exception.ExecutionPlanValidationException;
 public class ReplaceAllFunctionExtension extends FunctionExecutor {
 
     Attribute.Type returnType = Attribute.Type.STRING;
+    CompiledRegex compiledRegexConstant;
 
     @Override
     protected void init(ExpressionExecutor[] attributeExpressionExecutors, ExecutionPlanContext executionPlanContext) {
@@ -53,6 +57,10 @@ public class ReplaceAllFunctionExtension extends FunctionExecutor {
             throw new ExecutionPlanValidationException("Invalid parameter type found for the third argument of str:replace_all() function, " +
                     "required "+Attribute.Type.STRING+", but found "+attributeExpressionExecutors[2].getReturnType().toString());
         }
+        if (attributeExpressionExecutors[1] instanceof ConstantExpressionExecutor) {
+            compiledRegexConstant = CompiledRegex.compile((String) ((ConstantExpressionExecutor)
+                    attributeExpressionExecutors[1]).getValue());
+        }
     }
 
     @Override
@@ -67,9 +75,12 @@ public class ReplaceAllFunctionExtension extends FunctionExecutor {
             throw new ExecutionPlanRuntimeException("Invalid input given to str:replace_all() function. Third argument cannot be null");
         }
         String source = (String) data[0];
-        String target = (String) data[1];
         String replacement = (String) data[2];
-        return source.replaceAll(target, replacement);
+        CompiledRegex compiledRegex = compiledRegexConstant;
+        if (compiledRegex == null) {
+            compiledRegex = PatternCache.getSharedCache().get((String) data[1]);
+        }
+        return compiledRegex.replaceAll(source, replacement);
     }
 
     @Override
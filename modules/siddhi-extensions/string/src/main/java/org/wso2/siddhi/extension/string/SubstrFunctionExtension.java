@@ -23,6 +23,7 @@ import org.wso2.siddhi.core.exception.ExecutionPlanRuntimeException;
 import org.wso2.siddhi.core.executor.ConstantExpressionExecutor;
 import org.wso2.siddhi.core.executor.ExpressionExecutor;
 import org.wso2.siddhi.core.executor.function.FunctionExecutor;
+import org.wso2.siddhi.core.util.regex.PatternCache;
 import org.wso2.siddhi.query.api.definition.Attribute;
 import org.wso2.siddhi.query.api.exception.ExecutionPlanValidationException;
 
@@ -134,7 +135,7 @@ public class SubstrFunctionExtension extends FunctionExecutor {
             case THREE:
                 if(!isRegexConstant){
                     regex = (String) data[1];
-                    pattern = Pattern.compile(regex);
+                    pattern = PatternCache.getSharedCache().get(regex).getPattern();
                     matcher = pattern.matcher(source);
                     if (matcher.find()) {
                         output = matcher.group(0);
@@ -153,7 +154,7 @@ public class SubstrFunctionExtension extends FunctionExecutor {
                 groupNo = (Integer) data[2];
                 if(!isRegexConstant){
                     regex = (String) data[1];
-                    pattern = Pattern.compile(regex);
+                    pattern = PatternCache.getSharedCache().get(regex).getPattern();
                     matcher = pattern.matcher(source);
                     if (matcher.find()) {
                         output = matcher.group(groupNo);
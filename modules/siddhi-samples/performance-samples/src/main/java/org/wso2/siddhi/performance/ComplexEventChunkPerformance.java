@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.performance;
+
+import org.wso2.siddhi.core.event.ArrayComplexEventChunk;
+import org.wso2.siddhi.core.event.ComplexEventChunk;
+import org.wso2.siddhi.core.event.stream.StreamEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares the linked ComplexEventChunk with the ArrayComplexEventChunk for chunk sizes from 1 to 4096.
+ * The filter pass appends the events, iterates them removing every other event and iterates the remaining
+ * events again. The callback pass appends the events and copies them into an array of the chunk's size,
+ * as the pass through rate limiter and the query callbacks do.
+ */
+public class ComplexEventChunkPerformance {
+    private static final int[] CHUNK_SIZES = {1, 4, 16, 64, 256, 1024, 4096};
+    private static final int EVENTS_PER_ROUND = 1 << 22;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+    private static long blackhole;
+
+    public static void main(String[] args) {
+        System.out.println("chunk size, filter pass linked/array (ns/event), callback pass linked/array (ns/event)");
+        for (int chunkSize : CHUNK_SIZES) {
+            StreamEvent[] events = new StreamEvent[chunkSize];
+            for (int i = 0; i < chunkSize; i++) {
+                events[i] = new StreamEvent(0, 0, 1);
+                events[i].setOutputData(new Object[]{(long) i});
+            }
+            ComplexEventChunk<StreamEvent> linkedChunk = new ComplexEventChunk<StreamEvent>();
+            ArrayComplexEventChunk<StreamEvent> arrayChunk = new ArrayComplexEventChunk<StreamEvent>();
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                run(linkedChunk, events);
+                run(arrayChunk, events);
+            }
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                runCallback(linkedChunk, events);
+                runCallback(arrayChunk, events);
+            }
+            double linked = 0;
+            double array = 0;
+            double linkedCallback = 0;
+            double arrayCallback = 0;
+            for (int i = 0; i < MEASURED_ROUNDS; i++) {
+                linked += run(linkedChunk, events);
+                array += run(arrayChunk, events);
+                linkedCallback += runCallback(linkedChunk, events);
+                arrayCallback += runCallback(arrayChunk, events);
+            }
+            System.out.println(chunkSize + ", " + linked / MEASURED_ROUNDS + " / " + array / MEASURED_ROUNDS + ", "
+                    + linkedCallback / MEASURED_ROUNDS + " / " + arrayCallback / MEASURED_ROUNDS);
+        }
+        System.out.println("checksum " + blackhole);
+    }
+
+    /**
+     * @return average nanoseconds spent per event
+     */
+    private static double run(ComplexEventChunk<StreamEvent> chunk, StreamEvent[] events) {
+        int iterations = Math.max(1, EVENTS_PER_ROUND / events.length);
+        long sum = 0;
+        long start = System.nanoTime();
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            for (StreamEvent event : events) {
+                event.setNext(null);
+                chunk.add(event);
+            }
+            boolean remove = false;
+            while (chunk.hasNext()) {
+                StreamEvent event = chunk.next();
+                if (remove) {
+                    chunk.remove();
+                }
+                remove = !remove;
+            }
+            chunk.reset();
+            while (chunk.hasNext()) {
+                sum += (Long) chunk.next().getOutputData()[0];
+            }
+            chunk.clear();
+        }
+        long time = System.nanoTime() - start;
+        blackhole += sum;
+        return (double) time / ((long) iterations * events.length);
+    }
+
+    /**
+     * @return average nanoseconds spent per event
+     */
+    private static double runCallback(ComplexEventChunk<StreamEvent> chunk, StreamEvent[] events) {
+        int iterations = Math.max(1, EVENTS_PER_ROUND / events.length);
+        long sum = 0;
+        long start = System.nanoTime();
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            for (StreamEvent event : events) {
+                event.setNext(null);
+                chunk.add(event);
+            }
+            StreamEvent[] copy;
+            if (chunk instanceof ArrayComplexEventChunk) {
+                ArrayComplexEventChunk<StreamEvent> arrayChunk = (ArrayComplexEventChunk<StreamEvent>) chunk;
+                copy = new StreamEvent[arrayChunk.size()];
+                for (int i = 0; i < copy.length; i++) {
+                    copy[i] = arrayChunk.get(i);
+                }
+            } else {
+                List<StreamEvent> buffer = new ArrayList<StreamEvent>();
+                while (chunk.hasNext()) {
+                    buffer.add(chunk.next());
+                }
+                copy = buffer.toArray(new StreamEvent[buffer.size()]);
+            }
+            sum += copy.length;
+            chunk.clear();
+        }
+        long time = System.nanoTime() - start;
+        blackhole += sum;
+        return (double) time / ((long) iterations * events.length);
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.performance;
+
+import org.wso2.siddhi.core.ExecutionPlanRuntime;
+import org.wso2.siddhi.core.SiddhiManager;
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.stream.input.InputHandler;
+import org.wso2.siddhi.core.stream.output.StreamCallback;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares the throughput of the default shared lock mode with the @EventLoop mode
+ * for 1, 4 and 16 producer threads, while a time window keeps the scheduler busy.
+ */
+public class EventLoopPerformance {
+    private static final int EVENTS_PER_RUN = 4000000;
+    private static final int WARM_UP_EVENTS = 1000000;
+    private static final int[] PRODUCER_COUNTS = {1, 4, 16};
+
+    public static void main(String[] args) throws InterruptedException {
+        System.out.println("mode, producers, throughput (events/sec)");
+        for (int producers : PRODUCER_COUNTS) {
+            run("shared.lock", "", producers);
+            run("event.loop", "@plan:EventLoop ", producers);
+        }
+    }
+
+    private static void run(String mode, String annotation, int producers) throws InterruptedException {
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String executionPlan = annotation +
+                "define stream cseEventStream (symbol string, price float, volume long);" +
+                "@info(name = 'query1') from cseEventStream[price > 10]#window.time(10 milliseconds) " +
+                "select symbol, price, volume " +
+                "insert into outputStream ;";
+
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(executionPlan);
+
+        final AtomicLong count = new AtomicLong(0);
+        executionPlanRuntime.addCallback("outputStream", new StreamCallback() {
+            @Override
+            public void receive(Event[] inEvents) {
+                count.addAndGet(inEvents.length);
+            }
+        });
+
+        InputHandler inputHandler = executionPlanRuntime.getInputHandler("cseEventStream");
+        executionPlanRuntime.start();
+
+        send(inputHandler, producers, WARM_UP_EVENTS);
+        while (count.get() < WARM_UP_EVENTS) {
+            Thread.sleep(1);
+        }
+
+        long start = System.nanoTime();
+        send(inputHandler, producers, EVENTS_PER_RUN);
+        while (count.get() < WARM_UP_EVENTS + EVENTS_PER_RUN) {
+            Thread.sleep(1);
+        }
+        double throughput = EVENTS_PER_RUN * 1000000000.0 / (System.nanoTime() - start);
+        executionPlanRuntime.shutdown();
+
+        System.out.println(mode + ", " + producers + ", " + throughput);
+    }
+
+    private static void send(final InputHandler inputHandler, int producers, int events)
+            throws InterruptedException {
+        final int eventsPerProducer = events / producers;
+        Thread[] threads = new Thread[producers];
+        for (int i = 0; i < producers; i++) {
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int j = 0; j < eventsPerProducer; j++) {
+                            inputHandler.send(new Object[]{"WSO2", 55.6f, 100L});
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+}
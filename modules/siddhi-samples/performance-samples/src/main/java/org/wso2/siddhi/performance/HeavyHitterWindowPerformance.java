@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.performance;
+
+import org.wso2.siddhi.core.ExecutionPlanRuntime;
+import org.wso2.siddhi.core.SiddhiManager;
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.query.output.callback.QueryCallback;
+import org.wso2.siddhi.core.stream.input.InputHandler;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Compares the throughput and the accuracy of the heavy hitter windows on a Zipf distributed stream of symbols.
+ * The accuracy is measured against the symbols really occurring in at least the support fraction of the events:
+ * recall is the fraction of them having an event in the window at the end, and precision is the fraction of the
+ * symbols having an event in the window that are among them.
+ * Arguments: [event count] [symbol count] [zipf exponent]
+ */
+public class HeavyHitterWindowPerformance {
+    private static final double SUPPORT = 0.01;
+    private static final double ERROR = 0.001;
+
+    public static void main(String[] args) throws InterruptedException {
+        int eventCount = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+        int symbolCount = args.length > 1 ? Integer.parseInt(args[1]) : 100000;
+        double exponent = args.length > 2 ? Double.parseDouble(args[2]) : 1.1;
+
+        String[] symbols = generateStream(eventCount, symbolCount, exponent);
+        Set<String> heavyHitters = findHeavyHitters(symbols);
+        System.out.println(eventCount + " events of " + symbolCount + " symbols, " + heavyHitters.size() +
+                " symbols occur in at least " + SUPPORT + " of the events");
+
+        int capacity = (int) Math.ceil(1 / SUPPORT);
+        String[] windows = {
+                "frequent(" + capacity + ", symbol)",
+                "lossyFrequent(" + SUPPORT + ", " + ERROR + ", symbol)",
+                "spaceSaving(" + capacity + ", symbol)",
+                "countMinFrequent(" + SUPPORT + ", " + ERROR + ", symbol)"};
+        for (int round = 0; round < 2; round++) {
+            for (String window : windows) {
+                run(window, symbols, heavyHitters);
+            }
+        }
+    }
+
+    private static void run(String window, String[] symbols, Set<String> heavyHitters) throws InterruptedException {
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String cseEventStream = "define stream cseEventStream (symbol string, price float, volume long);";
+        String query = "@info(name = 'query1') from cseEventStream#window." + window +
+                " select symbol insert all events into outputStream ;";
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(cseEventStream + query);
+
+        final Map<String, Integer> windowSymbols = new HashMap<String, Integer>();
+        executionPlanRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                if (removeEvents != null) {
+                    for (Event event : removeEvents) {
+                        windowSymbols.remove((String) event.getData(0));
+                    }
+                }
+                if (inEvents != null) {
+                    for (Event event : inEvents) {
+                        windowSymbols.put((String) event.getData(0), 1);
+                    }
+                }
+            }
+        });
+
+        InputHandler inputHandler = executionPlanRuntime.getInputHandler("cseEventStream");
+        executionPlanRuntime.start();
+        long start = System.currentTimeMillis();
+        for (String symbol : symbols) {
+            inputHandler.send(new Object[]{symbol, 55.6f, 100l});
+        }
+        long end = System.currentTimeMillis();
+        executionPlanRuntime.shutdown();
+
+        int found = 0;
+        for (String symbol : windowSymbols.keySet()) {
+            if (heavyHitters.contains(symbol)) {
+                found++;
+            }
+        }
+        double throughput = symbols.length * 1000.0 / Math.max(1, end - start);
+        System.out.println(window + ": Throughput = " + throughput + " Event/sec, Recall = " +
+                (heavyHitters.isEmpty() ? 1 : (double) found / heavyHitters.size()) + ", Precision = " +
+                (windowSymbols.isEmpty() ? 1 : (double) found / windowSymbols.size()) + ", Symbols in window = " +
+                windowSymbols.size());
+    }
+
+    private static String[] generateStream(int eventCount, int symbolCount, double exponent) {
+        double[] cumulative = new double[symbolCount];
+        double total = 0;
+        for (int i = 0; i < symbolCount; i++) {
+            total += 1 / Math.pow(i + 1, exponent);
+            cumulative[i] = total;
+        }
+        Random random = new Random(7);
+        String[] symbols = new String[eventCount];
+        for (int i = 0; i < eventCount; i++) {
+            double value = random.nextDouble() * total;
+            int low = 0;
+            int high = symbolCount - 1;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (cumulative[middle] < value) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            symbols[i] = "S" + low;
+        }
+        return symbols;
+    }
+
+    private static Set<String> findHeavyHitters(String[] symbols) {
+        Map<String, Integer> counts = new HashMap<String, Integer>();
+        for (String symbol : symbols) {
+            Integer count = counts.get(symbol);
+            counts.put(symbol, count == null ? 1 : count + 1);
+        }
+        Set<String> heavyHitters = new HashSet<String>();
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            if (entry.getValue() >= SUPPORT * symbols.length) {
+                heavyHitters.add(entry.getKey());
+            }
+        }
+        return heavyHitters;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2005 - 2015, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package org.wso2.siddhi.performance;
+
+import org.wso2.siddhi.core.ExecutionPlanRuntime;
+import org.wso2.siddhi.core.SiddhiManager;
+import org.wso2.siddhi.core.event.Event;
+import org.wso2.siddhi.core.stream.input.InputHandler;
+import org.wso2.siddhi.core.stream.output.StreamCallback;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares the throughput and the p99 latency of the disruptor wait strategies,
+ * run with the strategy names as arguments to only run a subset of them.
+ */
+public class WaitStrategyPerformance {
+    private static final int THROUGHPUT_EVENTS = 5000000;
+    private static final int LATENCY_EVENTS = 200000;
+    private static final long LATENCY_SEND_INTERVAL_NANOS = 20000;
+    private static volatile boolean measureLatency = false;
+
+    public static void main(String[] args) throws InterruptedException {
+        String[] waitStrategies = args.length > 0 ? args :
+                new String[]{"busy.spin", "yielding", "sleeping", "blocking", "timeout.blocking"};
+        System.out.println("strategy, throughput (events/sec), p50 latency (us), p99 latency (us)");
+        for (String waitStrategy : waitStrategies) {
+            run(waitStrategy);
+        }
+    }
+
+    private static void run(String waitStrategy) throws InterruptedException {
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String executionPlan = "@plan:config(wait.strategy = '" + waitStrategy + "') " +
+                "@Parallel(wait.strategy = '" + waitStrategy + "') " +
+                "define stream cseEventStream (symbol string, price float, sendTime long);" +
+                "@info(name = 'query1') from cseEventStream[price > 10] select symbol, price, sendTime " +
+                "insert into outputStream ;";
+
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(executionPlan);
+
+        final AtomicInteger count = new AtomicInteger(0);
+        final long[] latencies = new long[LATENCY_EVENTS];
+        executionPlanRuntime.addCallback("outputStream", new StreamCallback() {
+            @Override
+            public void receive(Event[] inEvents) {
+                long now = System.nanoTime();
+                for (Event event : inEvents) {
+                    int index = count.getAndIncrement();
+                    if (measureLatency && index < latencies.length) {
+                        latencies[index] = now - (Long) event.getData(2);
+                    }
+                }
+            }
+        });
+
+        InputHandler inputHandler = executionPlanRuntime.getInputHandler("cseEventStream");
+        executionPlanRuntime.start();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < THROUGHPUT_EVENTS; i++) {
+            inputHandler.send(new Object[]{"WSO2", 55.6f, System.nanoTime()});
+        }
+        while (count.get() < THROUGHPUT_EVENTS) {
+            Thread.sleep(1);
+        }
+        double throughput = THROUGHPUT_EVENTS * 1000000000.0 / (System.nanoTime() - start);
+
+        count.set(0);
+        measureLatency = true;
+        for (int i = 0; i < LATENCY_EVENTS; i++) {
+            long sendTime = System.nanoTime();
+            inputHandler.send(new Object[]{"WSO2", 55.6f, sendTime});
+            while (System.nanoTime() - sendTime < LATENCY_SEND_INTERVAL_NANOS) {
+                // pace the events so that latency is not dominated by queueing
+            }
+        }
+        while (count.get() < LATENCY_EVENTS) {
+            Thread.sleep(1);
+        }
+        executionPlanRuntime.shutdown();
+        measureLatency = false;
+
+        Arrays.sort(latencies);
+        System.out.println(waitStrategy + ", " + throughput + ", " +
+                latencies[(int) (LATENCY_EVENTS * 0.50)] / 1000.0 + ", " +
+                latencies[(int) (LATENCY_EVENTS * 0.99)] / 1000.0);
+    }
+}